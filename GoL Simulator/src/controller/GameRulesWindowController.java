@@ -7,9 +7,14 @@ import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
+import model.BoardType;
+import model.GenerationsRule;
+import model.IsotropicRule;
+import model.LargerThanLifeRule;
 import model.Rules;
 import view.DialogBoxes;
 
@@ -23,9 +28,17 @@ public class GameRulesWindowController implements Initializable {
     @FXML
     private CheckBox b0, b1, b2, b3, b4, b5, b6, b7, b8;
     @FXML
-    private RadioButton rbtnStatic, rbtnDynamic;
+    private RadioButton rbtnStatic, rbtnDynamic, rbtnToroidal;
     @FXML
     private TextField txtMaxCells;
+    @FXML
+    private TextField txtLargerThanLife;
+    @FXML
+    private TextField txtIsotropic;
+    @FXML
+    private TextField txtGenerations;
+    @FXML
+    private ChoiceBox<BoardType> boardTypeChoice;
 
     private Rules rules = Rules.getInstance();
     private Stage stage;
@@ -35,6 +48,8 @@ public class GameRulesWindowController implements Initializable {
      */
     @Override
     public void initialize(URL url, ResourceBundle rb) {
+        boardTypeChoice.getItems().addAll(BoardType.values());
+        boardTypeChoice.valueProperty().addListener((observable, oldType, newType) -> updateToroidalOption());
         Platform.runLater(this::defineStage); // makes the stage available.
         Platform.runLater(this::loadRules); // set checkbox values based on current rules.
     }
@@ -54,6 +69,7 @@ public class GameRulesWindowController implements Initializable {
     private void rbtnStaticClicked() {
         rbtnStatic.setSelected(true);
         rbtnDynamic.setSelected(false);
+        rbtnToroidal.setSelected(false);
         txtMaxCells.setDisable(true);
     }
 
@@ -64,9 +80,34 @@ public class GameRulesWindowController implements Initializable {
     private void rbtnDynamicClicked() {
         rbtnDynamic.setSelected(true);
         rbtnStatic.setSelected(false);
+        rbtnToroidal.setSelected(false);
         txtMaxCells.setDisable(false);
     }
 
+    /**
+     * Sets "Toroidal" as selected option for radio buttons.
+     */
+    @FXML
+    private void rbtnToroidalClicked() {
+        rbtnToroidal.setSelected(true);
+        rbtnStatic.setSelected(false);
+        rbtnDynamic.setSelected(false);
+        txtMaxCells.setDisable(true);
+    }
+
+    /**
+     * Disables the "Toroidal" option when the chosen board engine does not
+     * support toroidal rules, selecting "Static" instead if it was selected.
+     */
+    private void updateToroidalOption() {
+        BoardType boardType = boardTypeChoice.getValue();
+        boolean supported = boardType == null || boardType.supportsToroidal();
+        rbtnToroidal.setDisable(!supported);
+        if (!supported && rbtnToroidal.isSelected()) {
+            rbtnStaticClicked();
+        }
+    }
+
     /**
      * Runs through the settings on the screen, and applies them to the games
      * rules.
@@ -96,13 +137,19 @@ public class GameRulesWindowController implements Initializable {
         rules.setSurviveRules(survivalRules);
         rules.setBirthRules(birthRules);
 
+        // set the new board engine first, as it decides if the rules can be
+        // toroidal.
+        rules.setBoardType(boardTypeChoice.getValue());
+
         // set the new rules, and close the window.
         if (rbtnStatic.isSelected()) {
             rules.setDynamic(false);
+        } else if (rbtnToroidal.isSelected()) {
+            rules.setToroidal(true);
         } else {
             rules.setDynamic(true);
         }
-        
+
         // set the new max number of cells
         try {
             rules.setMaxNumberOfCells(Integer.parseInt(txtMaxCells.getText()));
@@ -111,6 +158,27 @@ public class GameRulesWindowController implements Initializable {
                     + "number.");
         }
 
+        // set the new Larger than Life rule
+        try {
+            rules.setLargerThanLifeRule(LargerThanLifeRule.parse(txtLargerThanLife.getText()));
+        } catch (IllegalArgumentException e) {
+            DialogBoxes.inputError(e.getMessage());
+        }
+
+        // set the new isotropic rule
+        try {
+            rules.setIsotropicRule(IsotropicRule.parse(txtIsotropic.getText()));
+        } catch (IllegalArgumentException e) {
+            DialogBoxes.inputError(e.getMessage());
+        }
+
+        // set the new Generations rule
+        try {
+            rules.setGenerationsRule(GenerationsRule.parse(txtGenerations.getText()));
+        } catch (IllegalArgumentException e) {
+            DialogBoxes.inputError(e.getMessage());
+        }
+
         stage.close();
     }
 
@@ -152,17 +220,27 @@ public class GameRulesWindowController implements Initializable {
 
         // load and display dynamic rules
         if (rules.isDynamic()) {
-            rbtnStatic.setSelected(false);
-            txtMaxCells.setDisable(false);
-            rbtnDynamic.setSelected(true);
+            rbtnDynamicClicked();
+        } else if (rules.isToroidal()) {
+            rbtnToroidalClicked();
         } else {
-            rbtnStatic.setSelected(true);
-            txtMaxCells.setDisable(true);
-            rbtnDynamic.setSelected(false);
+            rbtnStaticClicked();
         }
 
         // load and display max number of cells
         txtMaxCells.setText("" + rules.getMaxNumberOfCells());
+
+        // load and display the board engine
+        boardTypeChoice.setValue(rules.getBoardType());
+
+        // load and display the Larger than Life rule
+        txtLargerThanLife.setText(rules.getLargerThanLifeRule().toString());
+
+        // load and display the isotropic rule
+        txtIsotropic.setText(rules.getIsotropicRule().toString());
+
+        // load and display the Generations rule
+        txtGenerations.setText(rules.getGenerationsRule().toString());
     }
 
 }
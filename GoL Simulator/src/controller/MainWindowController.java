@@ -9,7 +9,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.event.ActionEvent;
+import javafx.event.Event;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -17,11 +23,13 @@ import javafx.fxml.Initializable;
 import javafx.scene.Cursor;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ColorPicker;
 import javafx.scene.control.Dialog;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Slider;
 import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
@@ -65,6 +73,8 @@ public class MainWindowController implements Initializable {
     @FXML
     private Text txtShowCellCount;
     @FXML
+    private Text txtShowSpeed;
+    @FXML
     private AnchorPane canvasAnchor;
     @FXML
     private ColorPicker livingCellColorPicker;
@@ -75,8 +85,26 @@ public class MainWindowController implements Initializable {
     @FXML
     private ImageView imgPlayPause;
     @FXML
-    private BoardDynamic board;
+    private AbstractBoard board;
+    /**
+     * Replaced on the JavaFX thread, and read by the simulation thread after
+     * every generation.
+     */
+    private volatile CycleDetector cycleDetector;
+    private volatile boolean cycleReported;
+    /**
+     * Set by edits made through queueEdit, and read by the thread which next
+     * computes a generation, which then starts cycle detection over.
+     */
+    private volatile boolean cycleDetectionStale;
+    private Checkpoint checkpoint;
     private Timer time;
+    private Simulation simulation;
+    /**
+     * The copy of the board last drawn while the simulation is playing. The
+     * board itself is only read by the simulation thread while playing.
+     */
+    private AbstractBoard frameBoard;
     private boolean isPaused = true;
     private Stage stage;
     private double previousXOffset;
@@ -91,7 +119,10 @@ public class MainWindowController implements Initializable {
         Platform.runLater(this::resizeCanvas); // ensures the parent node is ready before resizing the canvas.
         Platform.runLater(this::setArrowKeyEventListener); // Eventhandler for arrowkeys after stage is loaded
         board = new BoardDynamic(50, 50);
-        time = new Timer(this); // used for animation timing.
+        simulation = new Simulation(board); // computes generations on its own thread.
+        simulation.setGenerationListener(this::generationComputed);
+        time = new Timer(this); // draws the generations, once per frame.
+        time.start();
 
         // set the default value of the color pickers.
         livingCellColorPicker.setValue(canvas.getLivingCellColor());
@@ -110,10 +141,11 @@ public class MainWindowController implements Initializable {
             int oldValue = canvas.getCellSize() + canvas.getSpaceBetweenCells();
             canvas.setCellSize((int) cellSizeSlider.getValue());
             int newValue = canvas.getCellSize() + canvas.getSpaceBetweenCells();
-            int yOffsetAdjust = ((oldValue - newValue) * board.getRows()) / 2;
-            int xOffsetAdjust = ((oldValue - newValue) * board.getCols()) / 2;
+            AbstractBoard shown = shownBoard();
+            int yOffsetAdjust = ((oldValue - newValue) * (shown.getMinRow() * 2 + shown.getRows())) / 2;
+            int xOffsetAdjust = ((oldValue - newValue) * (shown.getMinCol() * 2 + shown.getCols())) / 2;
             canvas.adjustOffset(xOffsetAdjust, yOffsetAdjust);
-            canvas.drawBoard(board.getBoard());
+            canvas.drawBoard(shown);
         });
 
         canvas.setCellSize((int) cellSizeSlider.getValue());
@@ -142,7 +174,18 @@ public class MainWindowController implements Initializable {
      */
     private void resizeCanvas() {
         canvas.setCanvasSize(canvasAnchor.getHeight(), canvasAnchor.getWidth());
-        canvas.drawBoard(board.getBoard());
+        canvas.drawBoard(shownBoard());
+    }
+
+    /**
+     * Gets the board to draw. While the simulation is playing, this is the
+     * copy of the board last drawn, as the board itself is being changed by
+     * the simulation thread.
+     *
+     * @return the <code>AbstractBoard</code> to draw.
+     */
+    private AbstractBoard shownBoard() {
+        return isPaused ? board : frameBoard;
     }
 
     /**
@@ -207,7 +250,10 @@ public class MainWindowController implements Initializable {
                 // check that the user defined size is within reasonable limits.
                 // Warn them if it is not, and give them the chance to change
                 // their mind.
-                if ((row * col) > 2000000) {
+                // the off-heap engine is meant for large boards, and does not
+                // put the heap under pressure.
+                if ((long) row * col > 2000000
+                        && Rules.getInstance().getBoardType() != BoardType.OFF_HEAP) {
                     isOk = DialogBoxes.confirm("High cell counts can lead"
                             + " to slow performance. Are you sure you wish to"
                             + " continue?");
@@ -215,10 +261,10 @@ public class MainWindowController implements Initializable {
 
                 // if all is ok, create and display the new board.
                 if (isOk) {
-                    BoardDynamic newBoard = new BoardDynamic(row, col);
-                    board = newBoard;
+                    replaceBoard(Rules.getInstance().getBoardType().createBoard(row, col));
+                    checkpoint = null;
                     centerAndDrawBoard();
-                    canvas.drawBoard(board.getBoard());
+                    canvas.drawBoard(board);
                 }
 
             } catch (IllegalArgumentException e) {
@@ -228,6 +274,21 @@ public class MainWindowController implements Initializable {
         });
     }
 
+    /**
+     * Pauses the simulation, replaces the current board, and releases any
+     * memory the old board holds outside the Java heap.
+     *
+     * @param newBoard the <code>AbstractBoard</code> to use from now on.
+     */
+    private void replaceBoard(AbstractBoard newBoard) {
+        pause();
+        if (newBoard != board) {
+            board.dispose();
+        }
+        board = newBoard;
+        simulation.setBoard(board);
+    }
+
     /**
      * Instructs the node calling this method that the user is to be allowed to
      * drag (and thereby drop) files over it.
@@ -266,9 +327,10 @@ public class MainWindowController implements Initializable {
         if (patternFile != null && patternFile.exists()) {
             FileImporter fileImporter = new FileImporter();
             try {
-                board = fileImporter.readGameBoardFromDisk(patternFile);
+                replaceBoard(Rules.getInstance().getBoardType().convert(fileImporter.readGameBoardFromDisk(patternFile)));
+                checkpoint = null;
                 centerAndDrawBoard();
-                canvas.drawBoard(board.getBoard());
+                canvas.drawBoard(board);
                 updateLivingCellCountLabel();
             } catch (FileNotFoundException e) {
                 DialogBoxes.ioException("No file found at: " + e.getMessage());
@@ -287,7 +349,9 @@ public class MainWindowController implements Initializable {
     private void reset() {
         pause();
         board.resetBoard();
-        canvas.drawBoard(board.getBoard());
+        simulation.boardEdited();
+        resetCycleDetection();
+        canvas.drawBoard(board);
         updateLivingCellCountLabel();
         updateGenerationCountLabel();
         centerAndDrawBoard();
@@ -298,10 +362,10 @@ public class MainWindowController implements Initializable {
      */
     @FXML
     private void togglePlayPause() {
-        if (board.getGenerationCount() == 0) {
-            board.preserveBoard();
-        }
         if (isPaused) {
+            if (board.getGenerationCount() == 0) {
+                board.preserveBoard();
+            }
             play();
         } else {
             pause();
@@ -312,7 +376,9 @@ public class MainWindowController implements Initializable {
     private void delete() {
         pause();
         board.clearBoard();
-        canvas.drawBoard(board.getBoard());
+        simulation.boardEdited();
+        resetCycleDetection();
+        canvas.drawBoard(board);
         centerAndDrawBoard();
         updateLivingCellCountLabel();
         updateGenerationCountLabel();
@@ -324,60 +390,118 @@ public class MainWindowController implements Initializable {
                 KeyCode k = ke.getCode();
                 if (k == KeyCode.LEFT || k == KeyCode.RIGHT || k == KeyCode.DOWN || k == KeyCode.UP) {
                     ke.consume(); // <-- stops passing the event to next node
+                } else {
+                    return;
                 }
-                switch (k) {
-                    case LEFT:
-                        board.moveBoardWithArrowKeys(-1, 0);
-                        break;
-                    case RIGHT:
-                        board.moveBoardWithArrowKeys(1, 0);
-                        break;
-                    case UP:
-                        board.moveBoardWithArrowKeys(0, -1);
-                        break;
-                    case DOWN:
-                        board.moveBoardWithArrowKeys(0, 1);
-                        break;
-                    default:
-                        break;
+                queueEdit(b -> {
+                    switch (k) {
+                        case LEFT:
+                            b.moveBoardWithArrowKeys(-1, 0);
+                            break;
+                        case RIGHT:
+                            b.moveBoardWithArrowKeys(1, 0);
+                            break;
+                        case UP:
+                            b.moveBoardWithArrowKeys(0, -1);
+                            break;
+                        case DOWN:
+                            b.moveBoardWithArrowKeys(0, 1);
+                            break;
+                        default:
+                            break;
+                    }
+                });
+                if (isPaused) {
+                    canvas.drawBoard(board);
                 }
-                canvas.drawBoard(board.getBoard());
             }
         });
     }
 
     /**
      * Starts the animation. The play buttons text gets changed to "Pause" and
-     * the icon gets switched to a pause icon.
+     * the icon gets switched to a pause icon. A snapshot of the visible part
+     * of the board is drawn until the simulation thread publishes its first
+     * generation.
      */
     private void play() {
         Image imgPause = new Image("/img/pause.png");
+        prepareCycleDetection();
+        int[] area = updateVisibleArea();
+        frameBoard = BoardSnapshot.of(board, area[0], area[1], area[2], area[3]);
         isPaused = false;
         imgPlayPause.setImage(imgPause);
         //btnPlay.setText("Pause");
-        time.start();
+        simulation.play();
     }
 
     /**
      * Pauses the animation. THe pause button text gets changed to "Play" and
-     * the icon gets switched to a play icon.
+     * the icon gets switched to a play icon. Waits for the simulation thread
+     * to finish its generation, and draws the last generation computed.
      */
     private void pause() {
         Image imgPlay = new Image("/img/play.png");
+        simulation.pause();
         isPaused = true;
         imgPlayPause.setImage(imgPlay);
         //btnPlay.setText("Play");
-        time.stop();
+        showLatestFrame();
+        updateSpeedLabel();
+        if (frameBoard != null) {
+            frameBoard.dispose();
+            frameBoard = null;
+        }
+    }
+
+    /**
+     * Pauses the simulation while the board is edited, and plays it again
+     * afterwards if it was playing. Any generation computed in advance is
+     * discarded.
+     *
+     * @param edit a <code>Runnable</code> which edits the board.
+     */
+    private void editBoard(Runnable edit) {
+        boolean wasPlaying = !isPaused;
+        pause();
+        edit.run();
+        simulation.boardEdited();
+        if (wasPlaying) {
+            play();
+        }
+    }
+
+    /**
+     * Edits the board without pausing the simulation. While playing, the edit
+     * is applied by the simulation thread between two generations, and shows
+     * up in the next frame drawn. While paused, the edit is applied before
+     * this method returns, and the caller draws the changes.
+     *
+     * @param edit a <code>Consumer</code> given the board to edit, which must
+     * only change cells within the board.
+     */
+    private void queueEdit(Consumer<AbstractBoard> edit) {
+        simulation.edit(b -> {
+            edit.accept(b);
+            cycleDetectionStale = true;
+        });
     }
 
     /**
-     * Calculates and sets the offset needed for the current board to be centered
-     * on the user visible part of the canvas, and then draws the board.
+     * Calculates and sets the offset needed for the living cells of the current
+     * board to be centered on the user visible part of the canvas, and then
+     * draws the board. An empty board is centered as a whole.
      */
     @FXML
     private void centerAndDrawBoard() {
-        double boardWidthCenter = (board.getBoard().get(0).size() * (canvas.getCellSize() + canvas.getSpaceBetweenCells()) / 2);
-        double boardHeightCenter = (board.getBoard().size() * (canvas.getCellSize() + canvas.getSpaceBetweenCells()) / 2);
+        AbstractBoard shown = shownBoard();
+        // twice the center row and column, to avoid rounding. A frame only
+        // holds the visible cells, so the board itself is measured.
+        int[] box = isPaused ? board.getBoundingBox() : simulation.readBoard(AbstractBoard::getBoundingBox);
+        int cols = box == null ? shown.getMinCol() * 2 + shown.getCols() : box[1] + box[3] + 1;
+        int rows = box == null ? shown.getMinRow() * 2 + shown.getRows() : box[0] + box[2] + 1;
+        double boardWidthCenter = (cols * (canvas.getCellSize() + canvas.getSpaceBetweenCells()) / 2);
+        double boardHeightCenter = (rows * (canvas.getCellSize() + canvas.getSpaceBetweenCells()) / 2);
         double canvasWidthCenter = (canvas.getWidth() / 2);
         double canvasHeightCenter = (canvas.getHeight() / 2);
 
@@ -385,7 +509,225 @@ public class MainWindowController implements Initializable {
         double yOffset = canvasHeightCenter - boardHeightCenter;
 
         canvas.setOffset(xOffset, yOffset);
-        canvas.drawBoard(board.getBoard());
+        canvas.drawBoard(shown);
+    }
+
+    /**
+     * Displays a dialogue box requesting a number of generations, given as a
+     * power of two, and advances the current board that many generations using
+     * the {@link model.HashLife} engine. The universe used by HashLife has no
+     * edges, so fast forward is only available with dynamic rules, and
+     * HashLife only plays by the birth and survival rules, so it is not
+     * available with engines playing by other families of rules. The board
+     * keeps its cells where they were, and grows to hold every living cell.
+     * The board is advanced on a background thread while a progress dialog is
+     * shown. Cancelling the dialog leaves the board as it was.
+     */
+    @FXML
+    private void fastForward() {
+        pause();
+        if (!Rules.getInstance().isDynamic()) {
+            DialogBoxes.genericErrorMessage("Fast forward is not available",
+                    "Fast forward lets the board grow without limit, and is"
+                    + " only available when the board is dynamic. Choose"
+                    + " dynamic board behaviour in the game rules window.");
+            return;
+        }
+        if (!Rules.getInstance().getBoardType().playsByRuleSet()) {
+            DialogBoxes.genericErrorMessage("Fast forward is not available",
+                    "Fast forward only plays by the birth and survival rules,"
+                    + " and is not available with the "
+                    + Rules.getInstance().getBoardType() + " board engine.");
+            return;
+        }
+        TextInputDialog inputDialog = new TextInputDialog("10");
+        inputDialog.setTitle("Fast forward");
+        inputDialog.setHeaderText("Advance the board 2^k generations");
+        inputDialog.setContentText("k (0 - 30):");
+
+        Optional<String> input = inputDialog.showAndWait();
+        if (!input.isPresent()) {
+            return;
+        }
+        int exponent;
+        try {
+            exponent = Integer.parseInt(input.get().trim());
+            if (exponent < 0 || exponent > 30
+                    || board.getGenerationCount() + (1L << exponent) > Integer.MAX_VALUE) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            DialogBoxes.inputError("Invalid input. k must be a number"
+                    + " between 0 and 30.");
+            return;
+        }
+
+        // the universe is imported from a copy, so that the current board is
+        // left untouched while the background thread works.
+        AbstractBoard copy = board.deepCopy();
+        long top = board.getMinRow();
+        long left = board.getMinCol();
+        long bottom = top + board.getRows() - 1;
+        long right = left + board.getCols() - 1;
+        // the first row and column of the new board, in the coordinates of
+        // the current board.
+        int[] origin = new int[2];
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Task<AbstractBoard> task = new Task<AbstractBoard>() {
+            @Override
+            protected AbstractBoard call() {
+                HashLife hashLife;
+                try {
+                    hashLife = new HashLife(copy);
+                } finally {
+                    copy.dispose();
+                }
+                if (!hashLife.step(exponent, cancelled::get)) {
+                    return null;
+                }
+                // grow the board to hold every living cell, without moving
+                // the cells of the current board.
+                long[] box = hashLife.getBoundingBox();
+                long[] region = box == null ? new long[]{top, left, bottom, right}
+                        : new long[]{Math.min(top, box[0]), Math.min(left, box[1]),
+                            Math.max(bottom, box[2]), Math.max(right, box[3])};
+                long rows = region[2] - region[0] + 1;
+                long cols = region[3] - region[1] + 1;
+                if (rows * cols > Rules.getInstance().getMaxNumberOfCells()) {
+                    throw new IllegalStateException("The pattern grows beyond"
+                            + " the max number of cells for a board.");
+                }
+                origin[0] = (int) region[0];
+                origin[1] = (int) region[1];
+                BoardDynamic result = hashLife.exportBoard(origin[0], origin[1], (int) rows, (int) cols);
+                return Rules.getInstance().getBoardType().convert(result);
+            }
+        };
+        runWithProgress("Fast forward", "Advancing 2^" + exponent + " generations",
+                task, cancelled, result -> {
+                    if (result == null) {
+                        return;
+                    }
+                    result.setMetadata(board.getAuthor(), board.getName(), board.getComment());
+                    replaceBoard(result);
+                    // keep the cells which were on the board in place on the
+                    // canvas.
+                    int cellSize = canvas.getCellSize() + canvas.getSpaceBetweenCells();
+                    canvas.adjustOffset((origin[1] - result.getMinCol()) * cellSize,
+                            (origin[0] - result.getMinRow()) * cellSize);
+                    canvas.drawBoard(result);
+                    updateLivingCellCountLabel();
+                    updateGenerationCountLabel();
+                });
+    }
+
+    /**
+     * Runs a task on a background thread while a progress dialog is shown.
+     * Cancelling the dialog sets the cancelled flag, but keeps the dialog open
+     * until the task has stopped, so the board can not be edited while the
+     * task may still replace it. The dialog is closed before the result is
+     * handed over.
+     *
+     * @param title a <code>String</code> specifying the title of the dialog.
+     * @param header a <code>String</code> specifying the header of the dialog.
+     * @param task the <code>Task</code> to run.
+     * @param cancelled the <code>AtomicBoolean</code> checked by the task.
+     * @param onSucceeded given the value of the task once it has succeeded,
+     * also after being cancelled.
+     */
+    private <T> void runWithProgress(String title, String header, Task<T> task,
+            AtomicBoolean cancelled, Consumer<T> onSucceeded) {
+        Alert progressDialog = new Alert(Alert.AlertType.NONE);
+        progressDialog.setTitle(title);
+        progressDialog.setHeaderText(header);
+        // the board must not be edited while the task may still replace it.
+        progressDialog.initModality(Modality.APPLICATION_MODAL);
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setPrefWidth(300);
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressDialog.getDialogPane().setContent(progressBar);
+        progressDialog.getButtonTypes().setAll(ButtonType.CANCEL);
+
+        Button cancelButton = (Button) progressDialog.getDialogPane().lookupButton(ButtonType.CANCEL);
+        EventHandler<Event> stopTask = event -> {
+            if (task.getState() != Worker.State.SUCCEEDED && task.getState() != Worker.State.FAILED) {
+                event.consume();
+                cancelled.set(true);
+                progressDialog.setHeaderText("Stopping...");
+                cancelButton.setDisable(true);
+            }
+        };
+        cancelButton.addEventFilter(ActionEvent.ACTION, stopTask);
+        progressDialog.setOnCloseRequest(stopTask::handle);
+
+        task.setOnSucceeded(event -> {
+            progressDialog.close();
+            onSucceeded.accept(task.getValue());
+        });
+        task.setOnFailed(event -> {
+            progressDialog.close();
+            DialogBoxes.genericErrorMessage(title + " failed",
+                    String.valueOf(task.getException().getMessage()));
+        });
+
+        Thread thread = new Thread(task, title);
+        thread.setDaemon(true);
+        thread.start();
+        progressDialog.show();
+    }
+
+    /**
+     * Lets the user enter a later generation, and advances the board to it
+     * without drawing the generations in between. The board is advanced on a
+     * background thread while a progress dialog is shown. Cancelling the
+     * dialog keeps the board at the last generation computed. The dialog stays
+     * open until the background thread has stopped, so the board can not be
+     * edited in the meantime.
+     */
+    @FXML
+    private void jumpToGeneration() {
+        pause();
+        TextInputDialog inputDialog = new TextInputDialog(Integer.toString(board.getGenerationCount() + 1000));
+        inputDialog.setTitle("Jump to generation");
+        inputDialog.setHeaderText("Advance the board to a later generation");
+        inputDialog.setContentText("Generation:");
+
+        Optional<String> input = inputDialog.showAndWait();
+        if (!input.isPresent()) {
+            return;
+        }
+        int target;
+        try {
+            target = Integer.parseInt(input.get().trim());
+            if (target <= board.getGenerationCount()) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException e) {
+            DialogBoxes.inputError("Invalid input. The generation must be a"
+                    + " number higher than the current generation.");
+            return;
+        }
+
+        // the board is advanced on a copy, so that the current board is left
+        // untouched while the background thread works.
+        AbstractBoard copy = board.deepCopy();
+        long generations = target - board.getGenerationCount();
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Task<Long> task = new Task<Long>() {
+            @Override
+            protected Long call() {
+                return copy.advance(generations, cancelled::get,
+                        advanced -> updateProgress(advanced, generations));
+            }
+        };
+
+        runWithProgress("Jump to generation", "Advancing to generation " + target,
+                task, cancelled, advanced -> {
+                    replaceBoard(copy);
+                    centerAndDrawBoard();
+                    updateLivingCellCountLabel();
+                    updateGenerationCountLabel();
+                });
     }
 
     /**
@@ -419,7 +761,8 @@ public class MainWindowController implements Initializable {
         File file = fileChooser.showOpenDialog(stage);
         if (file != null && file.exists()) {
             try {
-                board = fileImporter.readGameBoardFromDisk(file);
+                replaceBoard(Rules.getInstance().getBoardType().convert(fileImporter.readGameBoardFromDisk(file)));
+                checkpoint = null;
                 centerAndDrawBoard();
                 updateLivingCellCountLabel();
             } catch (FileNotFoundException e) {
@@ -447,7 +790,8 @@ public class MainWindowController implements Initializable {
         Optional<String> url = inputDialog.showAndWait();
         if (url.isPresent()) {
             try {
-                board = fileImporter.readGameBoardFromUrl(url.get());
+                replaceBoard(Rules.getInstance().getBoardType().convert(fileImporter.readGameBoardFromUrl(url.get())));
+                checkpoint = null;
                 centerAndDrawBoard();
                 updateLivingCellCountLabel();
             } catch (MalformedURLException e) {
@@ -462,6 +806,71 @@ public class MainWindowController implements Initializable {
         }
     }
 
+    /**
+     * Saves the board to a checkpoint file, letting the user select the file
+     * the first time. Later saves only write the parts of the board which
+     * changed since the last save.
+     */
+    @FXML
+    private void saveCheckpoint() {
+        if (checkpoint == null) {
+            File file = createCheckpointFileChooser().showSaveDialog(stage);
+            if (file == null) {
+                return;
+            }
+            checkpoint = new Checkpoint(file);
+        }
+        editBoard(() -> {
+            try {
+                checkpoint.save(board);
+            } catch (IOException e) {
+                DialogBoxes.ioException("There was a problem saving the checkpoint: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Displays a FileChooser, and lets the user select a checkpoint file which
+     * is restored, replacing any existing board and rules. Later checkpoints
+     * are saved to the same file.
+     */
+    @FXML
+    private void restoreCheckpoint() {
+        pause();
+        File file = createCheckpointFileChooser().showOpenDialog(stage);
+        if (file != null && file.exists()) {
+            try {
+                Checkpoint restoredFrom = new Checkpoint(file);
+                AbstractBoard restored = restoredFrom.restore();
+                AbstractBoard converted = Rules.getInstance().getBoardType().convert(restored);
+                if (converted != restored) {
+                    restored.dispose();
+                }
+                replaceBoard(converted);
+                checkpoint = restoredFrom;
+                resetCycleDetection();
+                centerAndDrawBoard();
+                updateLivingCellCountLabel();
+                updateGenerationCountLabel();
+            } catch (IOException e) {
+                DialogBoxes.ioException("There was a problem reading the checkpoint: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates a file chooser window for checkpoint files.
+     *
+     * @return a <code>FileChooser</code> object.
+     */
+    private FileChooser createCheckpointFileChooser() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Choose checkpoint");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Checkpoint", "*.gol"));
+        return fileChooser;
+    }
+
     /**
      * Changes the colour of living cells based on the current value of the
      * livingCellColorPicker.
@@ -469,7 +878,7 @@ public class MainWindowController implements Initializable {
     @FXML
     private void changeLivingCellColor() {
         canvas.setLivingCellColor(livingCellColorPicker.getValue());
-        canvas.drawBoard(board.getBoard());
+        canvas.drawBoard(shownBoard());
     }
 
     /**
@@ -479,7 +888,7 @@ public class MainWindowController implements Initializable {
     @FXML
     private void changeBackgroundColor() {
         canvas.setBackgroundColor(backgroundColorPicker.getValue());
-        canvas.drawBoard(board.getBoard());
+        canvas.drawBoard(shownBoard());
     }
 
     /**
@@ -489,14 +898,33 @@ public class MainWindowController implements Initializable {
     @FXML
     private void changeDeadCellColor() {
         canvas.setDeadCellColor(deadCellColorPicker.getValue());
-        canvas.drawBoard(board.getBoard());
+        canvas.drawBoard(shownBoard());
     }
 
     /**
+     * Sets the number of generations the simulation computes per second, and
+     * how often they are drawn. The highest value of the slider computes
+     * generations as fast as possible, and draws them on every frame.
      * TODO: change method to accept value, rather than collect value.
      */
     private void setFps() {
         time.setFps(fpsSlider.getValue());
+        if (fpsSlider.getValue() >= fpsSlider.getMax()) {
+            simulation.setGenerationsPerSecond(Double.POSITIVE_INFINITY);
+        } else {
+            simulation.setGenerationsPerSecond(fpsSlider.getValue());
+        }
+        updateSpeedLabel();
+    }
+
+    /**
+     * Updates the label which displays the number of generations per second
+     * actually computed, alongside the number requested by the slider.
+     */
+    private void updateSpeedLabel() {
+        String target = fpsSlider.getValue() >= fpsSlider.getMax() ? "max"
+                : Long.toString(Math.round(fpsSlider.getValue()));
+        txtShowSpeed.setText(Math.round(simulation.getAchievedGenerationsPerSecond()) + " / " + target);
     }
 
     /**
@@ -504,45 +932,206 @@ public class MainWindowController implements Initializable {
      * current board.
      */
     private void updateLivingCellCountLabel() {
-        txtShowCellCount.setText(Integer.toString(board.getLivingCellCount()) + "");
+        txtShowCellCount.setText(Integer.toString(shownBoard().getLivingCellCount()) + "");
     }
 
     /**
      * Updates the label which displays the current generation count.
      */
     private void updateGenerationCountLabel() {
-        txtShowGen.setText(Integer.toString(board.getGenerationCount()) + " ");
+        txtShowGen.setText(Integer.toString(shownBoard().getGenerationCount()) + " ");
     }
 
     /**
-     * Iterates the board to the next generation, draws the new board on canvas,
-     * and updates the GUIs labels for living cell count, and generation count.
+     * Pauses the animation, and iterates the board to the next generation on
+     * the simulation thread. The new board is drawn, and the GUIs labels for
+     * living cell count and generation count are updated.
      */
     @FXML
     public void createNextGeneration() {
-        // ensure board is large enough that threads make a difference as 
-        // creation of threads will also consume performance.
-        if (board.getCellCount() > 80000) {
-            board.nextGenerationConcurrent();   
+        pause();
+        prepareCycleDetection();
+        simulation.step();
+        showLatestFrame();
+    }
+
+    /**
+     * Draws the latest generation published by the simulation thread, if a
+     * new one has been published since the last call, and updates the GUIs
+     * labels for living cell count, generation count and speed. Called on
+     * every animation frame. A frame may hold many generations when the
+     * requested speed exceeds the frame rate.
+     */
+    public void showLatestFrame() {
+        updateVisibleArea();
+        Simulation.Frame frame = simulation.takeFrame();
+        if (frame == null) {
+            return;
+        }
+        AbstractBoard frameCopy = frame.getBoard();
+
+        // adjust offset if the cells of the board shifted as it grew. Boards
+        // which grow without shifting their cells report the new cells as
+        // changed instead.
+        if (frame.getColShift() != 0 || frame.getRowShift() != 0) {
+            int cellSize = canvas.getCellSize() + canvas.getSpaceBetweenCells();
+            canvas.adjustOffset(-frame.getColShift() * cellSize, -frame.getRowShift() * cellSize);
+            canvas.drawBoard(frameCopy);
+        } else if (frame.getGenerations() == 1 && !frame.isEdited()) {
+            // only draw cells that changed during last generational shift.
+            canvas.drawSpecificCells(frameCopy);
         } else {
-            board.nextGeneration();
+            // the changes of the generations in between, and edits, are not
+            // in the change log.
+            canvas.drawBoard(frameCopy);
         }
 
-        // adjust offset if board grew
-        if (board.didExpand()) {
-            if (board.expandedWest()) {
-                int xOffset = 0 - (canvas.getCellSize() + canvas.getSpaceBetweenCells());
-                canvas.adjustOffset(xOffset, 0);
-            }
-            if (board.expandedNorth()) {
-                int yOffset = 0 - (canvas.getCellSize() + canvas.getSpaceBetweenCells());
-                canvas.adjustOffset(0, yOffset);
-            }
-            canvas.drawBoard(board.getBoard());
+        if (frameBoard != null) {
+            frameBoard.dispose();
+        }
+        frameBoard = frameCopy;
+        updateLivingCellCountLabel();
+        updateGenerationCountLabel();
+        updateSpeedLabel();
+        if (isPaused) {
+            // the board itself is drawn while paused.
+            frameBoard.dispose();
+            frameBoard = null;
+        }
+    }
+
+    /**
+     * Tells the simulation which part of the board is visible, so frames only
+     * hold the cells which can be drawn.
+     *
+     * @return an <code>int[]</code> holding the first row, first column, last
+     * row and last column which are visible.
+     */
+    private int[] updateVisibleArea() {
+        int[] area = canvas.getVisibleArea();
+        simulation.setVisibleArea(area[0], area[1], area[2], area[3]);
+        return area;
+    }
+
+    /**
+     * Called by the simulation thread after every generation. Starts cycle
+     * detection over if the board was edited, and pauses the simulation the
+     * first time the board is found to repeat itself.
+     *
+     * @param computed the <code>AbstractBoard</code> which was advanced.
+     * @return a <code>boolean</code> specifying if the simulation should
+     * pause.
+     */
+    private boolean generationComputed(AbstractBoard computed) {
+        CycleDetector detector = cycleDetector;
+        if (detector == null || detector.getBoard() != computed) {
+            return false;
+        }
+        if (cycleDetectionStale) {
+            // edits are not recorded in the change log the cycle detector is
+            // updated from.
+            cycleDetectionStale = false;
+            detector.reset();
+            cycleReported = false;
+            return false;
+        }
+        if (detector.update() && !cycleReported) {
+            cycleReported = true;
+            // dialogs can not be shown while an animation frame is processed.
+            Platform.runLater(() -> {
+                pause();
+                showCycleDialog();
+            });
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Makes sure the cycle detector follows the current board, before the
+     * simulation thread computes generations.
+     */
+    private void prepareCycleDetection() {
+        if (cycleDetector == null || cycleDetector.getBoard() != board) {
+            cycleDetector = new CycleDetector(board);
+            cycleReported = false;
+        }
+    }
+
+    /**
+     * Starts cycle detection over, as the board has been edited. Edits are not
+     * recorded in the change log the cycle detector is updated from.
+     */
+    private void resetCycleDetection() {
+        cycleDetector = null;
+    }
+
+    /**
+     * Tells the user that the board has started repeating itself, and lets the
+     * user continue, stay paused, or, if the pattern repeats in the same
+     * position, skip ahead to a later generation without computing the
+     * generations in between.
+     */
+    private void showCycleDialog() {
+        int period = cycleDetector.getPeriod();
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Cycle detected");
+        if (period == 1 && cycleDetector.isExactCycle()) {
+            alert.setHeaderText("The board has stopped changing");
+        } else if (cycleDetector.isExactCycle()) {
+            alert.setHeaderText("The board repeats itself every " + period + " generations");
         } else {
-            // only draw cells that changed during last generational shift.
-            canvas.drawSpecificCells(board.getChangedCells(), board.getBoard());
+            alert.setHeaderText("The pattern repeats itself every " + period
+                    + " generations, moving " + cycleDetector.getRowDisplacement()
+                    + " rows and " + cycleDetector.getColDisplacement() + " columns");
+        }
+        alert.setContentText("Generation " + board.getGenerationCount()
+                + " is a repeat of generation " + cycleDetector.getCycleStart() + ".");
+
+        ButtonType continueButton = new ButtonType("Continue");
+        ButtonType pauseButton = new ButtonType("Pause");
+        ButtonType skipButton = new ButtonType("Skip Ahead");
+        alert.getButtonTypes().setAll(continueButton, pauseButton);
+        if (cycleDetector.isExactCycle()) {
+            alert.getButtonTypes().add(0, skipButton);
+        }
+
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == continueButton) {
+            play();
+        } else if (result.isPresent() && result.get() == skipButton) {
+            skipAheadInCycle();
         }
+    }
+
+    /**
+     * Lets the user enter a later generation, and moves the board to it using
+     * the period of the detected cycle. Only the generations left over after
+     * the last whole period are computed.
+     */
+    private void skipAheadInCycle() {
+        TextInputDialog inputDialog = new TextInputDialog(Integer.toString(board.getGenerationCount() + 1000000));
+        inputDialog.setTitle("Skip ahead");
+        inputDialog.setHeaderText("Skip ahead to a later generation");
+        inputDialog.setContentText("Generation:");
+
+        Optional<String> input = inputDialog.showAndWait();
+        if (!input.isPresent()) {
+            return;
+        }
+        try {
+            int target = Integer.parseInt(input.get().trim());
+            if (target <= board.getGenerationCount()) {
+                throw new NumberFormatException();
+            }
+            cycleDetector.skipAhead(target - board.getGenerationCount());
+            simulation.boardEdited();
+        } catch (NumberFormatException e) {
+            DialogBoxes.inputError("Invalid input. The generation must be a"
+                    + " number higher than the current generation.");
+            return;
+        }
+        canvas.drawBoard(board);
         updateLivingCellCountLabel();
         updateGenerationCountLabel();
     }
@@ -552,10 +1141,14 @@ public class MainWindowController implements Initializable {
      * the game plays by.
      *
      * Game rules window has Modality.APPLICATION_MODAL to prevent changes to
-     * the Board object while game rules window is open.
+     * the Board object while game rules window is open. The simulation is
+     * paused while the window is open, as the rules are changed as soon as
+     * they are saved, and resumes once the board follows the new rules.
      */
     @FXML
     private void showGameRulesWindow() throws Exception {
+        boolean wasPlaying = !isPaused;
+        pause();
         try {
             FXMLLoader loader = new FXMLLoader();
             loader.setLocation(getClass().getResource("/view/GameRulesWindow.fxml"));
@@ -567,9 +1160,20 @@ public class MainWindowController implements Initializable {
             stage.setResizable(false);
             stage.initModality(Modality.APPLICATION_MODAL);
             stage.showAndWait();
+
+            editBoard(() -> {
+                // the user may have selected a different board engine.
+                replaceBoard(Rules.getInstance().getBoardType().convert(board));
+                // earlier generations say nothing about the new rules.
+                resetCycleDetection();
+                canvas.drawBoard(board);
+            });
         } catch (IOException e) {
             DialogBoxes.ioException("There was an error displaying the game rules window!");
         }
+        if (wasPlaying) {
+            play();
+        }
     }
 
     /**
@@ -585,7 +1189,8 @@ public class MainWindowController implements Initializable {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/StatisticsWindow.fxml"));
             FlowPane root = loader.load();
             StatisticsWindowController controller = loader.getController();
-            controller.setBoard(board.deepCopy());
+            // frames only hold the visible cells.
+            controller.setBoard(isPaused ? new BoardDynamic(board) : simulation.readBoard(BoardDynamic::new));
             Scene scene = new Scene(root);
             statistics.setScene(scene);
             statistics.setTitle("Game of Life Simulator - Statistics");
@@ -627,14 +1232,19 @@ public class MainWindowController implements Initializable {
     @FXML
     private void canvasClickEvent(MouseEvent event) {
         if (event.getButton() == MouseButton.PRIMARY && !event.isDragDetect()) { // single click registered
-            int row = (int) ((event.getY() - canvas.getYOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
-            int col = (int) ((event.getX() - canvas.getXOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
+            int row = (int) Math.floor((event.getY() - canvas.getYOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
+            int col = (int) Math.floor((event.getX() - canvas.getXOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
 
             if (isWithinBoard(row, col)) {
-                board.toggleCellState(row, col);
-                canvas.drawCell(board.getBoard(), row, col);
-                board.getLivingCellCount();
-                updateLivingCellCountLabel();
+                queueEdit(b -> {
+                    if (b.isWithinBoard(row, col)) {
+                        b.toggleCellState(row, col);
+                    }
+                });
+                if (isPaused) {
+                    canvas.drawCell(board, row, col);
+                    updateLivingCellCountLabel();
+                }
             }
         } else {
             prepareForCanvasMovement(event); // sets initial values needed to calculate offset while draging.
@@ -680,7 +1290,10 @@ public class MainWindowController implements Initializable {
         double newXOffset = canvas.getXOffset() + (event.getX() - previousXOffset);
         double newYOffset = canvas.getYOffset() + (event.getY() - previousYOffset);
         canvas.setOffset(newXOffset, newYOffset);
-        canvas.drawBoard(board.getBoard());
+        if (!isPaused) {
+            updateVisibleArea();
+        }
+        canvas.drawBoard(shownBoard());
         previousXOffset = event.getX();
         previousYOffset = event.getY();
     }
@@ -691,19 +1304,22 @@ public class MainWindowController implements Initializable {
      * @param event the mouse event which triggered the event.
      */
     private void dragDraw(MouseEvent event) {
-        if (!isPaused) {
-            togglePlayPause();
-        }
         // calculate which cell is being clicked
-        int row = (int) ((event.getY() - canvas.getYOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
-        int col = (int) ((event.getX() - canvas.getXOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
+        int row = (int) Math.floor((event.getY() - canvas.getYOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
+        int col = (int) Math.floor((event.getX() - canvas.getXOffset()) / (canvas.getCellSize() + canvas.getSpaceBetweenCells()));
 
-        // ensure that the drag event was within the actual board.
+        // ensure that the drag event was within the actual board. The board
+        // may have grown by the time the simulation applies the edit.
         if (isWithinBoard(row, col)) {
-            board.setCellStateAlive(row, col);
-            canvas.drawCell(board.getBoard(), row, col);
-            board.getLivingCellCount();
-            updateLivingCellCountLabel();
+            queueEdit(b -> {
+                if (b.isWithinBoard(row, col)) {
+                    b.setCellStateAlive(row, col);
+                }
+            });
+            if (isPaused) {
+                canvas.drawCell(board, row, col);
+                updateLivingCellCountLabel();
+            }
         }
     }
 
@@ -717,11 +1333,7 @@ public class MainWindowController implements Initializable {
      * current board.
      */
     private boolean isWithinBoard(int row, int col) {
-        if (row < board.getBoard().size() && row >= 0 && col < board.getBoard().get(0).size() && col >= 0) {
-            return true;
-        } else {
-            return false;
-        }
+        return shownBoard().isWithinBoard(row, col);
     }
 
     /**
@@ -733,11 +1345,18 @@ public class MainWindowController implements Initializable {
     }
 
     /**
-     * Shuts down the application.
+     * Shuts down the application. If the board has been saved to or restored
+     * from a checkpoint, the checkpoint is updated first.
      */
     @FXML
     private void quit() {
+        if (checkpoint != null) {
+            pause();
+            saveCheckpoint();
+        }
         MusicPlayer.getSingelton().closeLines();
+        simulation.shutdown();
+        WorkerPool.getInstance().shutdown();
         Platform.exit();
     }
 
@@ -115,7 +115,7 @@ public class StatisticsWindowController {
     private void showSelection(ComboBox selection, GameCanvas c) {
         Object o = selection.getValue();
         int i = Integer.parseInt(o.toString());
-        c.drawBoard(s.getSelectedGeneration(i).getBoard());
+        c.drawBoard(s.getSelectedGeneration(i));
     }
 
     /*
@@ -125,10 +125,10 @@ public class StatisticsWindowController {
     private void setInitialCanvasGeneration() {
         Object o = leftCanvasComboBox.getValue();
         int i = Integer.parseInt(o.toString());
-        leftCanvas.drawBoard(s.getSelectedGeneration(i).getBoard());
+        leftCanvas.drawBoard(s.getSelectedGeneration(i));
         o = rightCanvasComboBox.getValue();
         i = Integer.parseInt(o.toString());
-        rightCanvas.drawBoard(s.getSelectedGeneration(i).getBoard());
+        rightCanvas.drawBoard(s.getSelectedGeneration(i));
     }
 
     /*
@@ -4,27 +4,29 @@ import javafx.animation.AnimationTimer;
 
 /**
  * This class is responsible for triggering the call to
- * <code>createNextGeneration</code> that iterates the game to the next
- * generation.
+ * <code>showLatestFrame</code> that draws the latest generation published by
+ * the simulation thread. The generations themselves are computed by
+ * {@link model.Simulation}, so the time spent on the JavaFX application
+ * thread does not depend on the size of the board.
  *
- * @see controller.MainWindowController#createNextGeneration()
- * @see model.BoardDynamic#nextGeneration()
+ * @see controller.MainWindowController#showLatestFrame()
+ * @see model.Simulation
  */
 public class Timer extends AnimationTimer {
 
     private MainWindowController controller;
     /**
-     * Determines when the createNextGeneration is called
+     * Determines when the showLatestFrame is called
      */
     private long nextGeneration = 0;
     /**
-     * Determines how often createNextGeneration is called.
+     * Determines how often showLatestFrame is called.
      */
     private long timeBetweenGeneration;
 
     /**
      * Timer constructor. Takes a reference to the main controller so it can
-     * call <code>createNextGeneration</code>
+     * call <code>showLatestFrame</code>
      *
      * @param controller <code>MainWindowController</code>
      */
@@ -34,7 +36,7 @@ public class Timer extends AnimationTimer {
 
     /**
      * This method is called every frame and checks whether or not it is time to
-     * call <code>createNextGeneration</code>
+     * call <code>showLatestFrame</code>
      *
      * @param currentTime a <code>long</code> specifying the current system time
      * in nanoseconds.
@@ -43,12 +45,13 @@ public class Timer extends AnimationTimer {
     public void handle(long currentTime) {
         if (nextGeneration < currentTime) {
             nextGeneration = currentTime + timeBetweenGeneration;
-            controller.createNextGeneration();
+            controller.showLatestFrame();
         }
     }
 
     /**
-     * Set the desired FPS for the animation.
+     * Set the desired FPS for the animation. Generations computed between two
+     * frames are not drawn.
      *
      * @param desiredFramesPerSecond a <code>double</code> specifying the desired
      * frames rate.
@@ -0,0 +1,534 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Common base for the game board implementations. Holds the state that every
+ * board shares, such as metadata, generation count and living cell count, and
+ * defines the methods the controllers and the {@link view.GameCanvas} use to
+ * operate on a board. This allows the board engine to be changed through
+ * {@link model.Rules#setBoardType(model.BoardType)} without changes to the
+ * rest of the application.
+ *
+ * @see model.BoardDynamic
+ * @see model.BoardPacked
+ * @see model.BoardChunked
+ */
+public abstract class AbstractBoard {
+
+    protected int generationCount = 0;
+    protected int livingCells = 0;
+    protected Rules rules = Rules.getInstance();
+
+    /**
+     * Specifies if board has expanded.
+     */
+    protected boolean expandedNorth, expandedWest, boardExpanded;
+
+    /**
+     * The cells which changed during the last generation shift. Filled by
+     * the board engine every generation.
+     */
+    protected ChangeLog changeLog = new ChangeLog();
+
+    /**
+     * Board metadata
+     */
+    protected String boardAuthor = "";
+    protected String boardName = "";
+    protected String boardComment = "";
+
+    /**
+     * Set the metadata for the board. Three Strings expected. Pass an empty
+     * string if no value is to be set for one of the three pieces of metadata.
+     *
+     * @param author a <code>String</code> specifying the author of the board.
+     * @param name a <code>String</code> specifying the name of the board.
+     * @param comment a <code>String</code> specifying the comments for the
+     * board.
+     */
+    public void setMetadata(String author, String name, String comment) {
+        boardAuthor = author;
+        boardName = name;
+        boardComment = comment;
+    }
+
+    /**
+     * Gets the name of the boards author.
+     *
+     * @return a <code>String</code> specifying the boards author.
+     */
+    public String getAuthor() {
+        return boardAuthor;
+    }
+
+    /**
+     * Gets the name of the board.
+     *
+     * @return a <code>String</code> specifying the boards name.
+     */
+    public String getName() {
+        return boardName;
+    }
+
+    /**
+     * Gets the boards comments.
+     *
+     * @return a <code>String</code> specifying the boards comments.
+     */
+    public String getComment() {
+        return boardComment;
+    }
+
+    /**
+     * Copies the metadata and generation count of another board to this
+     * board. Used when converting a board from one board engine to another.
+     *
+     * @param other the <code>AbstractBoard</code> to copy from.
+     */
+    protected void copyMetadata(AbstractBoard other) {
+        setMetadata(other.getAuthor(), other.getName(), other.getComment());
+        generationCount = other.getGenerationCount();
+    }
+
+    /**
+     * Gets the the number of rows on the current board.
+     *
+     * @return an <code>int</code> specifying the number of rows on the current
+     * board.
+     */
+    public abstract int getRows();
+
+    /**
+     * Gets the number of columns on the current board.
+     *
+     * @return an <code>int</code> specifying the number of columns on the
+     * current board.
+     */
+    public abstract int getCols();
+
+    /**
+     * Gets the row coordinate of the first row on the current board. Board
+     * engines which shift their cells when the board grows always start at
+     * row 0, while {@link model.BoardChunked} may use negative coordinates.
+     *
+     * @return an <code>int</code> specifying the row coordinate of the first
+     * row.
+     */
+    public int getMinRow() {
+        return 0;
+    }
+
+    /**
+     * Gets the column coordinate of the first column on the current board.
+     *
+     * @return an <code>int</code> specifying the column coordinate of the
+     * first column.
+     * @see #getMinRow()
+     */
+    public int getMinCol() {
+        return 0;
+    }
+
+    /**
+     * Gets the number of cells on the current board, both living and dead.
+     *
+     * @return an <code>int</code> specifying the number of cells, both living
+     * and dead, on the current board.
+     */
+    public int getCellCount() {
+        return getRows() * getCols();
+    }
+
+    /**
+     * Gets the number of living cells on the current board.
+     *
+     * @return an <code>int</code> specifying the number of living cells on the
+     * current board.
+     */
+    public int getLivingCellCount() {
+        return livingCells;
+    }
+
+    /**
+     * Gets the current generation count for the game.
+     *
+     * @return an <code>int</code> specifying the current generation count.
+     */
+    public int getGenerationCount() {
+        return generationCount;
+    }
+
+    /**
+     * Determine if a cell exists on the current board. Use this method to avoid
+     * IndexOutOfBounds exceptions.
+     *
+     * @param row y-axis location of desired cell.
+     * @param col x-axis location of desired cell.
+     * @return true or false depending on if the given values are within the
+     * current board.
+     */
+    public boolean isWithinBoard(int row, int col) {
+        return row >= getMinRow() && row < getMinRow() + getRows()
+                && col >= getMinCol() && col < getMinCol() + getCols();
+    }
+
+    /**
+     * Gets the state of a single cell on the current board.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell.
+     * @param col an <code>int</code> specifying the column position of the
+     * cell.
+     * @return a <code>byte</code> where 1 is a living cell and 0 is a dead
+     * cell.
+     */
+    public abstract byte getCellState(int row, int col);
+
+    /**
+     * Checks if a single cell changed its state during the last generation
+     * shift.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell.
+     * @param col an <code>int</code> specifying the column position of the
+     * cell.
+     * @return a <code>boolean</code> specifying if the cell changed.
+     */
+    public abstract boolean hasCellChanged(int row, int col);
+
+    /**
+     * Reads the state of a number of neighbouring cells on a row. Used to draw
+     * the visible part of a board without a method call per cell. Engines
+     * which store several cells per word override this to read a word at a
+     * time.
+     *
+     * @param row an <code>int</code> specifying the row to read.
+     * @param col an <code>int</code> specifying the first column to read.
+     * @param count an <code>int</code> specifying the number of cells to read.
+     * @param cells a <code>byte[]</code> receiving the state of the cells,
+     * where 1 is a living cell and 0 is a dead cell.
+     */
+    public void readRow(int row, int col, int count, byte[] cells) {
+        for (int i = 0; i < count; i++) {
+            cells[i] = getCellState(row, col + i);
+        }
+    }
+
+    /**
+     * Gets the cells which changed their state during the last generation
+     * shift, as reported by {@link #hasCellChanged(int, int)}. The log is
+     * reused by the next generation shift, so it should be read before the
+     * board is iterated again.
+     *
+     * @return a <code>ChangeLog</code> holding the changed cells.
+     */
+    public ChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Gets the max number of cells the change log should hold. If more cells
+     * change, it is cheaper to consider every cell changed.
+     *
+     * @return an <code>int</code> specifying the max number of cells.
+     */
+    protected int getChangeLogLimit() {
+        return Math.max(getCellCount() / 8, 64);
+    }
+
+    /**
+     * Gets a copy of the current board. Board engines which do not store their
+     * cells as an <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code> build
+     * the list on request, so prefer {@link #getCellState(int, int)} where
+     * possible. The first row and column of the list are the first row and
+     * column of the board.
+     *
+     * @return a <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>
+     * representing the current game board.
+     */
+    public ArrayList<ArrayList<Byte>> getBoard() {
+        ArrayList<ArrayList<Byte>> board = new ArrayList<>();
+        for (int row = 0; row < getRows(); row++) {
+            board.add(new ArrayList<Byte>());
+            for (int col = 0; col < getCols(); col++) {
+                board.get(row).add(getCellState(getMinRow() + row, getMinCol() + col));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Gets a list of all the cells which changed their state during the last
+     * generation shift. Board engines which do not store their cells as an
+     * <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code> build the list on
+     * request, so prefer {@link #hasCellChanged(int, int)} where possible.
+     *
+     * @return a <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>
+     * representing the cells which have changed where 1 means changed and 0
+     * means no change.
+     */
+    public ArrayList<ArrayList<Byte>> getChangedCells() {
+        byte changed = 1;
+        byte unchanged = 0;
+        ArrayList<ArrayList<Byte>> changedCells = new ArrayList<>();
+        for (int row = 0; row < getRows(); row++) {
+            changedCells.add(new ArrayList<Byte>());
+            for (int col = 0; col < getCols(); col++) {
+                changedCells.get(row).add(hasCellChanged(getMinRow() + row, getMinCol() + col) ? changed : unchanged);
+            }
+        }
+        return changedCells;
+    }
+
+    /**
+     * Sets a new game board.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    public abstract void setBoard(byte[][] newBoard);
+
+    /**
+     * Iterates the current board to its next generation, playing by the rules
+     * defined in the Rules class object.
+     *
+     * @see model.Rules
+     */
+    public abstract void nextGeneration();
+
+    /**
+     * Iterates the current board to its next generation using multiple
+     * threads. Board engines without a threaded implementation fall back to
+     * {@link #nextGeneration()}.
+     *
+     * @see model.Rules
+     */
+    public void nextGenerationConcurrent() {
+        nextGeneration();
+    }
+
+    /**
+     * Iterates the current board a number of generations, without keeping
+     * the bookkeeping only needed to draw each generation. Once done, the
+     * result can be read using {@link #getLivingCellCount()},
+     * {@link #getBoundingBox()} and {@link #getGenerationCount()}.
+     *
+     * @param generations a <code>long</code> specifying the number of
+     * generations to advance.
+     * @return a <code>long</code> specifying the number of generations
+     * advanced.
+     * @throws IllegalArgumentException if the number of generations is
+     * negative, or the generation count would exceed
+     * <code>Integer.MAX_VALUE</code>.
+     */
+    public long advance(long generations) {
+        return advance(generations, null, null);
+    }
+
+    /**
+     * Iterates the current board a number of generations, without keeping
+     * the bookkeeping only needed to draw each generation. The operation can
+     * be cancelled, and reports its progress as it goes. Cancelling leaves the
+     * board at the last generation computed. As generations may be computed
+     * several at a time, the cells reported by
+     * {@link #hasCellChanged(int, int)} afterwards depend on the board engine,
+     * and the whole board should be redrawn.
+     *
+     * @param generations a <code>long</code> specifying the number of
+     * generations to advance.
+     * @param cancelled checked between generations, stops the operation when
+     * it returns true. May be <code>null</code>.
+     * @param progress given the number of generations advanced so far,
+     * between generations. May be <code>null</code>.
+     * @return a <code>long</code> specifying the number of generations
+     * advanced, which is less than requested if the operation was cancelled.
+     * @throws IllegalArgumentException if the number of generations is
+     * negative, or the generation count would exceed
+     * <code>Integer.MAX_VALUE</code>.
+     */
+    public long advance(long generations, BooleanSupplier cancelled, LongConsumer progress) {
+        if (generations < 0 || generationCount + generations > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Number of generations must be"
+                    + " between 0 and " + (Integer.MAX_VALUE - generationCount) + "!");
+        }
+        long advanced = 0;
+        while (advanced < generations && (cancelled == null || !cancelled.getAsBoolean())) {
+            advanced += advanceStep(generations - advanced);
+            if (progress != null) {
+                progress.accept(advanced);
+            }
+        }
+        return advanced;
+    }
+
+    /**
+     * Advances the board at least one generation, as part of
+     * {@link #advance(long, java.util.function.BooleanSupplier, java.util.function.LongConsumer)}.
+     * Board engines which can skip bookkeeping, or compute several
+     * generations at once, override this method.
+     *
+     * @param remaining a <code>long</code> specifying the number of
+     * generations left to advance, at least 1.
+     * @return an <code>int</code> specifying the number of generations
+     * advanced, at most <code>remaining</code>.
+     */
+    protected int advanceStep(long remaining) {
+        nextGenerationConcurrent();
+        return 1;
+    }
+
+    /**
+     * Gets the smallest rectangle containing every living cell on the board.
+     *
+     * @return an <code>int[]</code> holding the top row, left column, bottom
+     * row and right column of the rectangle, or <code>null</code> if there are
+     * no living cells.
+     */
+    public int[] getBoundingBox() {
+        if (livingCells == 0) {
+            return null;
+        }
+        int top = Integer.MAX_VALUE;
+        int left = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        int right = Integer.MIN_VALUE;
+        for (int row = getMinRow(); row < getMinRow() + getRows(); row++) {
+            for (int col = getMinCol(); col < getMinCol() + getCols(); col++) {
+                if (getCellState(row, col) == 1) {
+                    top = Math.min(top, row);
+                    bottom = Math.max(bottom, row);
+                    left = Math.min(left, col);
+                    right = Math.max(right, col);
+                }
+            }
+        }
+        return top == Integer.MAX_VALUE ? null : new int[]{top, left, bottom, right};
+    }
+
+    /**
+     * Toggles the state of a specified cell in the current board. Live cell
+     * becomes dead, dead cell becomes alive.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell to
+     * toggle.
+     * @param col an <code>int</code> specifying the column position of the cell
+     * to toggle.
+     */
+    public abstract void toggleCellState(int row, int col);
+
+    /**
+     * Sets the state of a specified cell on the current board to alive.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell to
+     * make alive.
+     * @param col an <code>int</code> specifying the column position of the cell
+     * to make alive.
+     */
+    public abstract void setCellStateAlive(int row, int col);
+
+    /**
+     * Shifts all the living cells on the board in a given direction.
+     *
+     * @param xAxis an <code>int</code> specifying the number of rows to shift
+     * the board.
+     * @param yAxis an <code>int</code> specifying the number of cols to shift
+     * the board.
+     */
+    public abstract void moveBoardWithArrowKeys(int xAxis, int yAxis);
+
+    /**
+     * Reverts the current board back to its starting state. Also resets the
+     * generation count and living cell count.
+     */
+    public abstract void resetBoard();
+
+    /**
+     * Replaces the current board with a new, empty board, of the same
+     * dimensions, effectively clearing it.
+     */
+    public abstract void clearBoard();
+
+    /**
+     * Stores the current board as the board's starting state.
+     */
+    public abstract void preserveBoard();
+
+    /**
+     * Gets a deep copy of this board object.
+     *
+     * @return a deep copy of the board.
+     */
+    public abstract AbstractBoard deepCopy();
+
+    /**
+     * Takes the generation count, living cell count, expansion flags and
+     * change log of a copy. Used by the engines implementing
+     * {@link model.SpeculativeBoard}.
+     *
+     * @param copy the <code>AbstractBoard</code> to take the counts from.
+     */
+    protected void takeOverCounts(AbstractBoard copy) {
+        generationCount = copy.generationCount;
+        livingCells = copy.livingCells;
+        expandedNorth = copy.expandedNorth;
+        expandedWest = copy.expandedWest;
+        boardExpanded = copy.boardExpanded;
+        changeLog = copy.changeLog;
+        copy.changeLog = new ChangeLog();
+    }
+
+    /**
+     * Releases memory held by the board outside the Java heap. The board must
+     * not be used after it has been disposed. Does nothing for engines which
+     * only use the Java heap.
+     */
+    public void dispose() {
+    }
+
+    /**
+     * Check if the board expanded on the north side. Can be used to determine
+     * if one should alter the offset used when drawing the board.
+     *
+     * @return a <code>boolean</code> specifying if the board expanded north.
+     */
+    public boolean expandedNorth() {
+        return expandedNorth;
+    }
+
+    /**
+     * Check if the board expanded on the west side. Can be used to determine if
+     * one should alter the offset used when drawing the board.
+     *
+     * @return a <code>boolean</code> specifying if the board expanded west.
+     */
+    public boolean expandedWest() {
+        return expandedWest;
+    }
+
+    /**
+     * Check if the board expanded on any of its sides.
+     *
+     * @return a <code>boolean</code> specifying weather or not the board
+     * expanded.
+     */
+    public boolean didExpand() {
+        return boardExpanded;
+    }
+
+    /**
+     * Each row of the game board is concatenated into a single string.
+     * Primarily meant for testing purposes.
+     *
+     * @return a <code>String</code> representing the current board state.
+     */
+    @Override
+    public String toString() {
+        StringBuilder returnValue = new StringBuilder();
+        for (int row = 0; row < getRows(); row++) {
+            for (int col = 0; col < getCols(); col++) {
+                returnValue.append(getCellState(getMinRow() + row, getMinCol() + col));
+            }
+        }
+        return returnValue.toString();
+    }
+}
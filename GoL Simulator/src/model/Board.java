@@ -188,6 +188,7 @@ public class Board {
         // a copy of the board is used to test the rules, while changes are
         // applied to the actual board.GE
         byte[][] testPattern = duplicateBoard(currentBoard);
+        RuleSet ruleSet = rules.getRuleSet();
 
         // iterate through the board cells, count number of neighbours for each
         // cell, and apply changes based on the ruleset.
@@ -195,13 +196,13 @@ public class Board {
             for (int col = 0; col < testPattern[0].length; col++) {
                 int neighbours = countNeighbours(testPattern, row, col);
 
-                if (testPattern[row][col] == 1 && (!rules.getSurviveRules().contains(neighbours))) {
+                if (testPattern[row][col] == 1 && (!ruleSet.survives(neighbours))) {
                     currentBoard[row][col] = 0;
                     changedCells[row][col] = 1;
                     livingCells--;
                     indexSum += (row + col);
 
-                } else if (testPattern[row][col] == 0 && rules.getBirthRules().contains(neighbours)) {
+                } else if (testPattern[row][col] == 0 && ruleSet.isBorn(neighbours)) {
                     currentBoard[row][col] = 1;
                     changedCells[row][col] = 1;
                     livingCells++;
@@ -0,0 +1,690 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Board engine which stores the board as tiles of 64 x 64 cells in a
+ * <code>HashMap</code>, keyed by the tile coordinates. Only tiles containing
+ * living cells are stored. Each tile is a <code>long[64]</code>, where bit
+ * <i>n</i> of word <i>r</i> is the cell in row <i>r</i> and column <i>n</i> of
+ * the tile.
+ *
+ * <p>
+ * Cells are addressed by signed world coordinates. The board covers the rows
+ * {@link #getMinRow()} to <code>getMinRow() + getRows() - 1</code>, and the
+ * columns {@link #getMinCol()} to <code>getMinCol() + getCols() - 1</code>.
+ * When the board grows, only these bounds change, so no cells are moved and
+ * {@link #expandedNorth()} and {@link #expandedWest()} always return false.
+ * Cells on the new edges are reported by {@link #hasCellChanged(int, int)},
+ * so that they are drawn without redrawing the whole board. The board is not
+ * limited by {@link model.Rules#getMaxNumberOfCells()}.</p>
+ *
+ * <p>
+ * The next generation is computed a word at a time in the same way as
+ * {@link model.BoardPacked}, and only for tiles which contain living cells or
+ * border such a tile.</p>
+ */
+public class BoardChunked extends AbstractBoard {
+
+    private static final int TILE_SIZE = 64;
+
+    /**
+     * The bounds of the board.
+     */
+    private int minRow;
+    private int minCol;
+    private int rows;
+    private int cols;
+
+    /**
+     * The bounds of the board before the last generation shift. Cells outside
+     * these bounds are reported as changed.
+     */
+    private int previousMinRow;
+    private int previousMinCol;
+    private int previousRows;
+    private int previousCols;
+
+    /**
+     * The tiles containing living cells.
+     */
+    private HashMap<Long, long[]> tiles = new HashMap<>();
+
+    /**
+     * The next generation is written to this map, before it is swapped with
+     * tiles.
+     */
+    private HashMap<Long, long[]> nextTiles = new HashMap<>();
+
+    /**
+     * A set bit represents a cell which changed during the last generation
+     * shift. Only tiles containing changed cells are stored.
+     */
+    private HashMap<Long, long[]> changedTiles = new HashMap<>();
+
+    /**
+     * Tiles no longer in use, which are reused to avoid allocating new tiles
+     * every generation.
+     */
+    private ArrayDeque<long[]> unusedTiles = new ArrayDeque<>();
+
+    /**
+     * Used to store the game board as it was before the game started. Allows
+     * for resetting the game board.
+     */
+    private HashMap<Long, long[]> originalTiles = new HashMap<>();
+    private int originalMinRow;
+    private int originalMinCol;
+    private int originalRows;
+    private int originalCols;
+
+    /**
+     * Board no-argument constructor initializes a game board consisting of 200
+     * x 200 dead cells.
+     */
+    public BoardChunked() {
+        this(200, 200);
+    }
+
+    /**
+     * Board constructor. Allows one to define the starting size of the game
+     * board.
+     *
+     * @param row an <code>int</code> specifying the number of rows for the
+     * starting board.
+     * @param col an <code>int</code> specifying the number of columns for the
+     * starting board.
+     * @throws IllegalArgumentException in the case that either the number of
+     * rows of columns are defined to be bellow 1.
+     */
+    public BoardChunked(int row, int col) {
+        if (row < 1 || col < 1) {
+            throw new IllegalArgumentException("Number of rows and columns must"
+                    + "be higher than 0!");
+        }
+        setBounds(0, 0, row, col);
+        preserveBoard();
+    }
+
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardChunked(AbstractBoard board) {
+        this(board.getRows(), board.getCols());
+        setBounds(board.getMinRow(), board.getMinCol(), board.getRows(), board.getCols());
+        for (int row = minRow; row < minRow + rows; row++) {
+            for (int col = minCol; col < minCol + cols; col++) {
+                if (board.getCellState(row, col) == 1) {
+                    setCell(row, col, true);
+                }
+            }
+        }
+        preserveBoard();
+        copyMetadata(board);
+        countLivingCells();
+    }
+
+    /**
+     * Sets the bounds of the board, and the bounds before the last generation
+     * shift.
+     */
+    private void setBounds(int newMinRow, int newMinCol, int newRows, int newCols) {
+        minRow = previousMinRow = newMinRow;
+        minCol = previousMinCol = newMinCol;
+        rows = previousRows = newRows;
+        cols = previousCols = newCols;
+    }
+
+    /**
+     * Gets the key of the tile with the given tile coordinates.
+     */
+    private static long tileKey(int tileRow, int tileCol) {
+        return ((long) tileRow << 32) | (tileCol & 0xFFFFFFFFL);
+    }
+
+    private static int tileRow(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int tileCol(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Gets a tile filled with dead cells.
+     */
+    private long[] emptyTile() {
+        long[] tile = unusedTiles.poll();
+        if (tile == null) {
+            return new long[TILE_SIZE];
+        }
+        for (int i = 0; i < TILE_SIZE; i++) {
+            tile[i] = 0;
+        }
+        return tile;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public int getMinRow() {
+        return minRow;
+    }
+
+    @Override
+    public int getMinCol() {
+        return minCol;
+    }
+
+    /**
+     * Gets the number of cells on the current board, both living and dead.
+     * Returns <code>Integer.MAX_VALUE</code> if the board has more cells than
+     * that.
+     *
+     * @return an <code>int</code> specifying the number of cells, both living
+     * and dead, on the current board.
+     */
+    @Override
+    public int getCellCount() {
+        return (int) Math.min((long) rows * cols, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        long[] tile = tiles.get(tileKey(row >> 6, col >> 6));
+        if (tile == null) {
+            return 0;
+        }
+        return (byte) ((tile[row & (TILE_SIZE - 1)] >>> (col & (TILE_SIZE - 1))) & 1);
+    }
+
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        if (!isWithinPreviousBounds(row, col)) {
+            return true;
+        }
+        long[] tile = changedTiles.get(tileKey(row >> 6, col >> 6));
+        if (tile == null) {
+            return false;
+        }
+        return ((tile[row & (TILE_SIZE - 1)] >>> (col & (TILE_SIZE - 1))) & 1) == 1;
+    }
+
+    /**
+     * Sets the state of a single cell, creating or removing its tile as
+     * needed. Does not update the living cell count.
+     */
+    private void setCell(int row, int col, boolean alive) {
+        long key = tileKey(row >> 6, col >> 6);
+        long[] tile = tiles.get(key);
+        long bit = 1L << (col & (TILE_SIZE - 1));
+        if (alive) {
+            if (tile == null) {
+                tile = emptyTile();
+                tiles.put(key, tile);
+            }
+            tile[row & (TILE_SIZE - 1)] |= bit;
+        } else if (tile != null) {
+            tile[row & (TILE_SIZE - 1)] &= ~bit;
+            if (isEmpty(tile)) {
+                tiles.remove(key);
+                unusedTiles.add(tile);
+            }
+        }
+    }
+
+    private static boolean isEmpty(long[] tile) {
+        for (long word : tile) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets a new game board. The top left cell of the new board is placed in
+     * row 0 and column 0.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        clearTiles();
+        setBounds(0, 0, newBoard.length, newBoard[0].length);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (newBoard[row][col] == 1) {
+                    setCell(row, col, true);
+                }
+            }
+        }
+        preserveBoard();
+        countLivingCells();
+    }
+
+    /**
+     * Removes all tiles, including the list of changed cells.
+     */
+    private void clearTiles() {
+        unusedTiles.addAll(tiles.values());
+        tiles.clear();
+        unusedTiles.addAll(changedTiles.values());
+        changedTiles.clear();
+        changeLog.clear(getChangeLogLimit());
+    }
+
+    /**
+     * Updates the livingCells variable to reflect the number of living cells on
+     * the current board.
+     */
+    private void countLivingCells() {
+        livingCells = 0;
+        for (long[] tile : tiles.values()) {
+            for (long word : tile) {
+                livingCells += Long.bitCount(word);
+            }
+        }
+    }
+
+    /**
+     * Iterates the current board to its next generation, playing by the rules
+     * defined in the Rules class object.
+     *
+     * @see model.Rules
+     */
+    @Override
+    public void nextGeneration() {
+        expandedNorth = false;
+        expandedWest = false;
+        boardExpanded = false;
+        previousMinRow = minRow;
+        previousMinCol = minCol;
+        previousRows = rows;
+        previousCols = cols;
+
+        if (rules.isDynamic()) {
+            expandBoardIfNeeded();
+        }
+
+        RuleSet ruleSet = rules.getRuleSet();
+        int birthRules = ruleSet.getBirthMask();
+        int surviveRules = ruleSet.getSurviveMask();
+
+        unusedTiles.addAll(changedTiles.values());
+        changedTiles.clear();
+        livingCells = 0;
+
+        if ((birthRules & 1) != 0) {
+            // dead cells without neighbours come alive, so every tile on the
+            // board has to be computed.
+            for (int tileRow = minRow >> 6; tileRow <= (minRow + rows - 1) >> 6; tileRow++) {
+                for (int tileCol = minCol >> 6; tileCol <= (minCol + cols - 1) >> 6; tileCol++) {
+                    nextTile(tileRow, tileCol, birthRules, surviveRules);
+                }
+            }
+        } else {
+            // a tile can only contain living cells next generation if it, or
+            // one of its neighbours, contains living cells now.
+            HashSet<Long> visited = new HashSet<>();
+            for (long key : tiles.keySet()) {
+                for (int tileRow = tileRow(key) - 1; tileRow <= tileRow(key) + 1; tileRow++) {
+                    for (int tileCol = tileCol(key) - 1; tileCol <= tileCol(key) + 1; tileCol++) {
+                        if (visited.add(tileKey(tileRow, tileCol))) {
+                            nextTile(tileRow, tileCol, birthRules, surviveRules);
+                        }
+                    }
+                }
+            }
+        }
+
+        unusedTiles.addAll(tiles.values());
+        tiles.clear();
+        HashMap<Long, long[]> previousGeneration = tiles;
+        tiles = nextTiles;
+        nextTiles = previousGeneration;
+        fillChangeLog();
+        generationCount++;
+    }
+
+    /**
+     * Gets the smallest rectangle containing every living cell on the board.
+     * Only the stored tiles are searched.
+     *
+     * @return an <code>int[]</code> holding the top row, left column, bottom
+     * row and right column of the rectangle, or <code>null</code> if there are
+     * no living cells.
+     */
+    @Override
+    public int[] getBoundingBox() {
+        int top = Integer.MAX_VALUE;
+        int left = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        int right = Integer.MIN_VALUE;
+        for (Map.Entry<Long, long[]> entry : tiles.entrySet()) {
+            int firstRow = tileRow(entry.getKey()) * TILE_SIZE;
+            int firstCol = tileCol(entry.getKey()) * TILE_SIZE;
+            long[] tile = entry.getValue();
+            long columns = 0;
+            for (int row = 0; row < TILE_SIZE; row++) {
+                if (tile[row] != 0) {
+                    top = Math.min(top, firstRow + row);
+                    bottom = Math.max(bottom, firstRow + row);
+                    columns |= tile[row];
+                }
+            }
+            if (columns != 0) {
+                left = Math.min(left, firstCol + Long.numberOfTrailingZeros(columns));
+                right = Math.max(right, firstCol + TILE_SIZE - 1 - Long.numberOfLeadingZeros(columns));
+            }
+        }
+        return top == Integer.MAX_VALUE ? null : new int[]{top, left, bottom, right};
+    }
+
+    /**
+     * Fills the change log from the changed tiles, and the cells outside the
+     * bounds of the board before the last generation shift.
+     */
+    private void fillChangeLog() {
+        changeLog.clear(getChangeLogLimit());
+        for (Map.Entry<Long, long[]> entry : changedTiles.entrySet()) {
+            int firstRow = tileRow(entry.getKey()) * TILE_SIZE;
+            int firstCol = tileCol(entry.getKey()) * TILE_SIZE;
+            long[] tile = entry.getValue();
+            for (int row = 0; row < TILE_SIZE; row++) {
+                long changed = tile[row];
+                while (changed != 0) {
+                    int col = firstCol + Long.numberOfTrailingZeros(changed);
+                    changed &= changed - 1;
+                    // cells on new edges are added bellow.
+                    if (isWithinPreviousBounds(firstRow + row, col)) {
+                        changeLog.add(firstRow + row, col);
+                    }
+                }
+            }
+        }
+
+        for (int row = minRow; row < minRow + rows && !changeLog.isAllChanged(); row++) {
+            if (row < previousMinRow || row >= previousMinRow + previousRows) {
+                for (int col = minCol; col < minCol + cols; col++) {
+                    changeLog.add(row, col);
+                }
+            } else {
+                for (int col = minCol; col < previousMinCol; col++) {
+                    changeLog.add(row, col);
+                }
+                for (int col = previousMinCol + previousCols; col < minCol + cols; col++) {
+                    changeLog.add(row, col);
+                }
+            }
+        }
+    }
+
+    private boolean isWithinPreviousBounds(int row, int col) {
+        return row >= previousMinRow && row < previousMinRow + previousRows
+                && col >= previousMinCol && col < previousMinCol + previousCols;
+    }
+
+    /**
+     * Computes the next generation of a single tile, and stores it in
+     * nextTiles. Cells outside the bounds of the board are left dead.
+     */
+    private void nextTile(int tileRow, int tileCol, int birthRules, int surviveRules) {
+        int firstRow = tileRow * TILE_SIZE;
+        int firstCol = tileCol * TILE_SIZE;
+
+        // the columns of this tile which are within the board.
+        int fromCol = Math.max(minCol - firstCol, 0);
+        int toCol = (int) Math.max(Math.min((long) minCol + cols - firstCol, TILE_SIZE), 0);
+        int fromRow = Math.max(minRow - firstRow, 0);
+        int toRow = (int) Math.max(Math.min((long) minRow + rows - firstRow, TILE_SIZE), 0);
+        if (fromCol >= toCol || fromRow >= toRow) {
+            return;
+        }
+        long colMask = (toCol == TILE_SIZE ? -1L : (1L << toCol) - 1) & ~((1L << fromCol) - 1);
+
+        long[] c = tiles.get(tileKey(tileRow, tileCol));
+        long[] n = tiles.get(tileKey(tileRow - 1, tileCol));
+        long[] s = tiles.get(tileKey(tileRow + 1, tileCol));
+        long[] w = tiles.get(tileKey(tileRow, tileCol - 1));
+        long[] e = tiles.get(tileKey(tileRow, tileCol + 1));
+        long[] nw = tiles.get(tileKey(tileRow - 1, tileCol - 1));
+        long[] ne = tiles.get(tileKey(tileRow - 1, tileCol + 1));
+        long[] sw = tiles.get(tileKey(tileRow + 1, tileCol - 1));
+        long[] se = tiles.get(tileKey(tileRow + 1, tileCol + 1));
+
+        long[] next = emptyTile();
+        long[] changed = null;
+        int population = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            // the words holding the cells west, at and east of this word, for
+            // the row above, this row and the row bellow.
+            long aw, a, ae, bw, b, be;
+            if (row == 0) {
+                aw = word(nw, TILE_SIZE - 1);
+                a = word(n, TILE_SIZE - 1);
+                ae = word(ne, TILE_SIZE - 1);
+            } else {
+                aw = word(w, row - 1);
+                a = word(c, row - 1);
+                ae = word(e, row - 1);
+            }
+            if (row == TILE_SIZE - 1) {
+                bw = word(sw, 0);
+                b = word(s, 0);
+                be = word(se, 0);
+            } else {
+                bw = word(w, row + 1);
+                b = word(c, row + 1);
+                be = word(e, row + 1);
+            }
+            long cw = word(w, row);
+            long cc = word(c, row);
+            long ce = word(e, row);
+
+            long cells = BoardPacked.nextWord(
+                    (a << 1) | (aw >>> 63), a, (a >>> 1) | (ae << 63),
+                    (cc << 1) | (cw >>> 63), (cc >>> 1) | (ce << 63),
+                    (b << 1) | (bw >>> 63), b, (b >>> 1) | (be << 63),
+                    cc, birthRules, surviveRules) & colMask;
+            next[row] = cells;
+            population += Long.bitCount(cells);
+            if (cells != cc) {
+                if (changed == null) {
+                    changed = emptyTile();
+                }
+                changed[row] = cells ^ cc;
+            }
+        }
+
+        long key = tileKey(tileRow, tileCol);
+        if (changed != null) {
+            changedTiles.put(key, changed);
+        }
+        if (population > 0) {
+            nextTiles.put(key, next);
+            livingCells += population;
+        } else {
+            unusedTiles.add(next);
+        }
+    }
+
+    private static long word(long[] tile, int row) {
+        return tile == null ? 0 : tile[row];
+    }
+
+    /**
+     * Checks the current board to see if it should be expanded. Requirement for
+     * expansion is if a living cell is touching one of the current boards
+     * borders. Expanding only changes the bounds of the board.
+     */
+    private void expandBoardIfNeeded() {
+        boolean north = rowHasLivingCells(minRow);
+        boolean south = rowHasLivingCells(minRow + rows - 1);
+        boolean west = colHasLivingCells(minCol);
+        boolean east = colHasLivingCells(minCol + cols - 1);
+        if (north) {
+            minRow--;
+            rows++;
+        }
+        if (south) {
+            rows++;
+        }
+        if (west) {
+            minCol--;
+            cols++;
+        }
+        if (east) {
+            cols++;
+        }
+        boardExpanded = north || south || west || east;
+    }
+
+    private boolean rowHasLivingCells(int row) {
+        for (int tileCol = minCol >> 6; tileCol <= (minCol + cols - 1) >> 6; tileCol++) {
+            long[] tile = tiles.get(tileKey(row >> 6, tileCol));
+            if (tile != null && tile[row & (TILE_SIZE - 1)] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean colHasLivingCells(int col) {
+        long bit = 1L << (col & (TILE_SIZE - 1));
+        for (int tileRow = minRow >> 6; tileRow <= (minRow + rows - 1) >> 6; tileRow++) {
+            long[] tile = tiles.get(tileKey(tileRow, col >> 6));
+            if (tile != null) {
+                for (long word : tile) {
+                    if ((word & bit) != 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        if (getCellState(row, col) == 1) {
+            setCell(row, col, false);
+            livingCells--;
+        } else {
+            setCell(row, col, true);
+            livingCells++;
+        }
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        if (getCellState(row, col) != 1) {
+            setCell(row, col, true);
+            livingCells++;
+        }
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        ArrayList<long[]> movedCells = new ArrayList<>();
+        for (Map.Entry<Long, long[]> entry : tiles.entrySet()) {
+            int firstRow = tileRow(entry.getKey()) * TILE_SIZE;
+            int firstCol = tileCol(entry.getKey()) * TILE_SIZE;
+            long[] tile = entry.getValue();
+            for (int row = 0; row < TILE_SIZE; row++) {
+                long cells = tile[row];
+                while (cells != 0) {
+                    int newRow = firstRow + row + yAxis;
+                    int newCol = firstCol + Long.numberOfTrailingZeros(cells) + xAxis;
+                    cells &= cells - 1;
+                    // check if new coordinates is within the bounds of the board
+                    if (!isWithinBoard(newRow, newCol)) {
+                        return;
+                    }
+                    movedCells.add(new long[]{newRow, newCol});
+                }
+            }
+        }
+        unusedTiles.addAll(tiles.values());
+        tiles.clear();
+        for (long[] cell : movedCells) {
+            setCell((int) cell[0], (int) cell[1], true);
+        }
+    }
+
+    @Override
+    public void resetBoard() {
+        clearTiles();
+        tiles = copyTiles(originalTiles);
+        setBounds(originalMinRow, originalMinCol, originalRows, originalCols);
+        generationCount = 0;
+        countLivingCells();
+    }
+
+    @Override
+    public void clearBoard() {
+        generationCount = 0;
+        livingCells = 0;
+        clearTiles();
+        setBounds(originalMinRow, originalMinCol, originalRows, originalCols);
+        preserveBoard();
+    }
+
+    @Override
+    public void preserveBoard() {
+        originalTiles = copyTiles(tiles);
+        originalMinRow = minRow;
+        originalMinCol = minCol;
+        originalRows = rows;
+        originalCols = cols;
+    }
+
+    private static HashMap<Long, long[]> copyTiles(HashMap<Long, long[]> original) {
+        HashMap<Long, long[]> copy = new HashMap<>();
+        for (Map.Entry<Long, long[]> entry : original.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().clone());
+        }
+        return copy;
+    }
+
+    @Override
+    public BoardChunked deepCopy() {
+        BoardChunked b = new BoardChunked(1, 1);
+        b.tiles = copyTiles(tiles);
+        b.changedTiles = copyTiles(changedTiles);
+        b.changeLog.copy(changeLog);
+        b.originalTiles = copyTiles(originalTiles);
+        b.minRow = minRow;
+        b.minCol = minCol;
+        b.rows = rows;
+        b.cols = cols;
+        b.previousMinRow = previousMinRow;
+        b.previousMinCol = previousMinCol;
+        b.previousRows = previousRows;
+        b.previousCols = previousCols;
+        b.originalMinRow = originalMinRow;
+        b.originalMinCol = originalMinCol;
+        b.originalRows = originalRows;
+        b.originalCols = originalCols;
+        b.generationCount = generationCount;
+        b.livingCells = livingCells;
+        b.setMetadata(boardAuthor, boardName, boardComment);
+        return b;
+    }
+}
@@ -0,0 +1,908 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Board engine which stores one cell per <code>byte</code> in a single flat
+ * <code>byte[]</code>. The board is surrounded by a ring of cells which are
+ * always dead, so every cell on the board has eight neighbours in the array,
+ * and counting them needs no bounds checks.
+ *
+ * <p>
+ * Two buffers of (rows + 2) x (cols + 2) cells are allocated. Each generation
+ * is written to the back buffer, and the buffers are then swapped, so no
+ * memory is allocated while the board keeps its size. The next state of a
+ * cell is found by adding its eight neighbours and looking up the result in
+ * the 18 entry table of the current {@link model.RuleSet}, which leaves the
+ * inner loop without branches.</p>
+ *
+ * <p>
+ * By default, the board is computed 8 cells at a time by the word kernel,
+ * which reads 8 neighbouring cells as one <code>long</code>. As every cell is
+ * 0 or 1, adding the eight neighbouring words gives the neighbour count of
+ * each cell in its own byte, without carries between the bytes. The rules are
+ * then applied to all 8 counts at once by comparing each byte with the
+ * neighbour counts in the rule masks. The cell by cell kernel is used for the
+ * last cells of each row, and for the whole board if the word kernel is
+ * disabled using {@link #setWordKernel(boolean)}. Both kernels give exactly
+ * the same result.</p>
+ *
+ * <p>
+ * Large boards using static rules can be advanced several generations at a
+ * time using {@link #nextGenerations(int)}. The board is then processed in
+ * blocks of BLOCK_SIZE x BLOCK_SIZE cells. Each block is copied along with a
+ * margin of one cell per generation into a small buffer, which is advanced
+ * all the generations of the pass before moving on to the next block. The
+ * buffer stays in the processor cache, so the board is only read from and
+ * written to memory once per pass instead of once per generation.</p>
+ *
+ * <p>
+ * When the rules are toroidal, the dead border is used as a halo. Before a
+ * band of rows is computed, the cells along the opposite edges of the board
+ * are copied into the border next to the band, so the neighbours of every
+ * cell are read exactly as with static rules, and the kernels are unchanged.
+ * Each band only copies the border of its own rows and the two rows bordering
+ * it. The border is cleared again after the generation.</p>
+ */
+public class BoardDense extends AbstractBoard implements SpeculativeBoard {
+
+    private int rows;
+    private int cols;
+
+    /**
+     * The number of array elements per row, including the dead border.
+     */
+    private int stride;
+
+    /**
+     * Represents the game board in its current game state, including the dead
+     * border. 1 represents a live cell. The border only holds living cells
+     * while a toroidal generation is computed.
+     */
+    private byte[] currentBoard;
+
+    /**
+     * The next generation is written to this board, before it is swapped with
+     * currentBoard. Its border is never written to, and stays dead.
+     */
+    private byte[] nextGeneration;
+
+    /**
+     * 1 represents a cell which changed during the last generation shift.
+     */
+    private byte[] changedCells;
+
+    /**
+     * Used to store the game board as it was before the game started. Allows
+     * for resetting the game board.
+     */
+    private byte[] originalBoard;
+    private int originalRows;
+    private int originalCols;
+
+    /**
+     * The next state table of the rule set used during the last generation.
+     * Only copied when the rules change.
+     */
+    private RuleSet compiledRuleSet;
+    private final byte[] nextState = new byte[18];
+
+    /**
+     * Specifies if the generation being computed wraps around the edges of
+     * the board. Read from the rules once per generation, so every band
+     * agrees.
+     */
+    private boolean toroidal;
+
+    /**
+     * The number of rows per band when using the worker pool, and the number
+     * of living cells counted in each band.
+     */
+    private static final int BAND_SIZE = 16384;
+    private final WorkerPool workerPool = WorkerPool.getInstance();
+    private int[] bandLivingCells = new int[0];
+    private ChangeLog[] bandLogs = new ChangeLog[0];
+
+    /**
+     * Used by the word kernel. Views of the buffers which read and write 8
+     * cells as one <code>long</code>, updated whenever the buffers change.
+     */
+    private static final long LANES_01 = 0x0101010101010101L;
+    private static final long LANES_7F = 0x7F7F7F7F7F7F7F7FL;
+    private boolean wordKernel = true;
+    private ByteBuffer currentWords;
+    private ByteBuffer nextWords;
+    private ByteBuffer changedWords;
+
+    /**
+     * Used by {@link #nextGenerations(int)}. The blocks, including their
+     * margin and dead border, are advanced in these buffers.
+     */
+    private static final int BLOCK_SIZE = 256;
+    private int generationsPerPass = 8;
+    private byte[] blockBuffer = new byte[0];
+    private byte[] blockNextBuffer = new byte[0];
+    private ByteBuffer blockWords;
+    private ByteBuffer blockNextWords;
+
+    /**
+     * Board no-argument constructor initializes a game board consisting of 200
+     * x 200 dead cells.
+     */
+    public BoardDense() {
+        this(200, 200);
+    }
+
+    /**
+     * Board constructor. Allows one to define the starting size of the game
+     * board.
+     *
+     * @param row an <code>int</code> specifying the number of rows for the
+     * starting board.
+     * @param col an <code>int</code> specifying the number of columns for the
+     * starting board.
+     * @throws IllegalArgumentException in the case that either the number of
+     * rows of columns are defined to be bellow 1.
+     */
+    public BoardDense(int row, int col) {
+        if (row < 1 || col < 1) {
+            throw new IllegalArgumentException("Number of rows and columns must"
+                    + "be higher than 0!");
+        }
+        resize(row, col);
+        currentBoard = new byte[nextGeneration.length];
+        preserveBoard();
+    }
+
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardDense(AbstractBoard board) {
+        this(board.getRows(), board.getCols());
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                currentBoard[index(row, col)] = board.getCellState(board.getMinRow() + row, board.getMinCol() + col);
+            }
+        }
+        preserveBoard();
+        copyMetadata(board);
+        countLivingCells();
+    }
+
+    /**
+     * Sets the board dimensions, and allocates the buffers which depend on
+     * them. Does not allocate currentBoard.
+     */
+    private void resize(int newRows, int newCols) {
+        rows = newRows;
+        cols = newCols;
+        stride = cols + 2;
+        nextGeneration = new byte[(rows + 2) * stride];
+        changedCells = new byte[(rows + 2) * stride];
+    }
+
+    /**
+     * Enables or disables the word kernel, which computes 8 cells at a time.
+     * When disabled, every cell is computed on its own.
+     *
+     * @param wordKernel a <code>boolean</code> specifying if the word kernel
+     * should be used.
+     */
+    public void setWordKernel(boolean wordKernel) {
+        this.wordKernel = wordKernel;
+    }
+
+    /**
+     * Checks if the word kernel is used.
+     *
+     * @return a <code>boolean</code> specifying if the word kernel is used.
+     */
+    public boolean isWordKernel() {
+        return wordKernel;
+    }
+
+    /**
+     * Sets the number of generations each block is advanced per pass over
+     * the board by {@link #nextGenerations(int)}. Higher values read the board
+     * from memory less often, but compute a wider margin around each block.
+     *
+     * @param generationsPerPass an <code>int</code> specifying the number of
+     * generations per pass.
+     * @throws IllegalArgumentException if the number of generations is bellow
+     * 1.
+     */
+    public void setGenerationsPerPass(int generationsPerPass) {
+        if (generationsPerPass < 1) {
+            throw new IllegalArgumentException("Number of generations per pass"
+                    + " must be higher than 0!");
+        }
+        this.generationsPerPass = generationsPerPass;
+    }
+
+    /**
+     * Gets the number of generations each block is advanced per pass over the
+     * board by {@link #nextGenerations(int)}.
+     *
+     * @return an <code>int</code> specifying the number of generations per
+     * pass.
+     */
+    public int getGenerationsPerPass() {
+        return generationsPerPass;
+    }
+
+    /**
+     * Gets the array index of the given cell.
+     */
+    private int index(int row, int col) {
+        return (row + 1) * stride + col + 1;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        return currentBoard[index(row, col)];
+    }
+
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        return changedCells[index(row, col)] != 0;
+    }
+
+    /**
+     * Sets a new game board.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        resize(newBoard.length, newBoard[0].length);
+        currentBoard = new byte[nextGeneration.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                currentBoard[index(row, col)] = newBoard[row][col] == 1 ? (byte) 1 : 0;
+            }
+        }
+        preserveBoard();
+        countLivingCells();
+    }
+
+    /**
+     * Updates the livingCells variable to reflect the number of living cells on
+     * the current board.
+     */
+    private void countLivingCells() {
+        livingCells = 0;
+        for (int i = 0; i < currentBoard.length; i++) {
+            livingCells += currentBoard[i];
+        }
+    }
+
+    /**
+     * Iterates the current board to its next generation, playing by the rules
+     * defined in the Rules class object.
+     *
+     * @see model.Rules
+     */
+    @Override
+    public void nextGeneration() {
+        prepareNextGeneration();
+        livingCells = computeRows(0, rows, changeLog);
+        finishNextGeneration();
+    }
+
+    /**
+     * Iterates the current board to its next generation, splitting the board
+     * into bands of rows which are computed by the shared
+     * {@link model.WorkerPool}.
+     */
+    @Override
+    public void nextGenerationConcurrent() {
+        prepareNextGeneration();
+
+        int rowsPerBand = Math.max(1, Math.min(BAND_SIZE / cols, rows / workerPool.getParallelism()));
+        int bands = (rows + rowsPerBand - 1) / rowsPerBand;
+        if (bandLivingCells.length < bands) {
+            bandLivingCells = new int[bands];
+            bandLogs = Arrays.copyOf(bandLogs, bands);
+            for (int band = 0; band < bands; band++) {
+                if (bandLogs[band] == null) {
+                    bandLogs[band] = new ChangeLog();
+                }
+            }
+        }
+        int logLimit = getChangeLogLimit();
+        for (int band = 0; band < bands; band++) {
+            bandLogs[band].clear(logLimit);
+        }
+        int[] living = bandLivingCells;
+        ChangeLog[] logs = bandLogs;
+        workerPool.runTasks(bands, band -> {
+            living[band] = computeRows(band * rowsPerBand, Math.min((band + 1) * rowsPerBand, rows), logs[band]);
+        });
+
+        livingCells = 0;
+        for (int band = 0; band < bands; band++) {
+            livingCells += living[band];
+            changeLog.addAll(logs[band]);
+        }
+        finishNextGeneration();
+    }
+
+    /**
+     * Iterates the current board a number of generations. When using static
+     * rules, the generations are computed in passes of
+     * {@link #getGenerationsPerPass()} generations, processing the board one
+     * block at a time, and the changed cells are those which differ from the
+     * board before the call. When using dynamic or toroidal rules, or when
+     * {@link #getGenerationsPerPass()} is 1, the generations are computed one
+     * at a time using {@link #nextGeneration()}, and the changed cells are
+     * those of the last generation.
+     *
+     * @param generations an <code>int</code> specifying the number of
+     * generations.
+     */
+    public void nextGenerations(int generations) {
+        if (rules.isDynamic() || rules.isToroidal() || generationsPerPass == 1) {
+            for (int i = 0; i < generations; i++) {
+                nextGeneration();
+            }
+            return;
+        }
+
+        boolean firstPass = true;
+        while (generations > 0) {
+            int steps = Math.min(generationsPerPass, generations);
+            prepareNextGeneration();
+            livingCells = 0;
+            for (int top = 0; top < rows; top += BLOCK_SIZE) {
+                for (int left = 0; left < cols; left += BLOCK_SIZE) {
+                    livingCells += computeBlock(top, left, Math.min(top + BLOCK_SIZE, rows),
+                            Math.min(left + BLOCK_SIZE, cols), steps, firstPass);
+                }
+            }
+            swapBuffers();
+            generationCount += steps;
+            generations -= steps;
+            firstPass = false;
+        }
+        fillChangeLog();
+    }
+
+    /**
+     * Fills the change log by scanning the changed cells of the whole board.
+     */
+    private void fillChangeLog() {
+        changeLog.clear(getChangeLogLimit());
+        for (int row = 0; row < rows && !changeLog.isAllChanged(); row++) {
+            int start = index(row, 0);
+            for (int col = 0; col < cols; col++) {
+                if (changedCells[start + col] != 0) {
+                    changeLog.add(row, col);
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the board using passes of {@link #getGenerationsPerPass()}
+     * generations when using static rules, or a single generation using the
+     * worker pool otherwise.
+     *
+     * @param remaining a <code>long</code> specifying the number of
+     * generations left to advance.
+     * @return an <code>int</code> specifying the number of generations
+     * advanced.
+     */
+    @Override
+    protected int advanceStep(long remaining) {
+        if (rules.isDynamic() || rules.isToroidal() || generationsPerPass == 1) {
+            nextGenerationConcurrent();
+            return 1;
+        }
+        int steps = (int) Math.min(remaining, generationsPerPass);
+        nextGenerations(steps);
+        return steps;
+    }
+
+    /**
+     * Advances a block of cells a number of generations, and writes the
+     * result to the next generation buffer. Cells outside the board are dead,
+     * as with single generations.
+     *
+     * @param top an <code>int</code> specifying the first row of the block.
+     * @param left an <code>int</code> specifying the first column of the
+     * block.
+     * @param bottom an <code>int</code> specifying the row after the last row
+     * of the block.
+     * @param right an <code>int</code> specifying the column after the last
+     * column of the block.
+     * @param steps an <code>int</code> specifying the number of generations.
+     * @param firstPass a <code>boolean</code> specifying if this is the first
+     * pass of the call, where the changed cells are reset.
+     * @return an <code>int</code> specifying the number of living cells in
+     * the block after the generations.
+     */
+    private int computeBlock(int top, int left, int bottom, int right, int steps, boolean firstPass) {
+        // the block grows by one cell per generation, so that every cell
+        // within the block itself is correct after the last generation.
+        int blockTop = Math.max(top - steps, 0);
+        int blockLeft = Math.max(left - steps, 0);
+        int blockRows = Math.min(bottom + steps, rows) - blockTop;
+        int blockCols = Math.min(right + steps, cols) - blockLeft;
+        int s = blockCols + 2;
+        int size = (blockRows + 2) * s;
+        if (blockBuffer.length < size) {
+            blockBuffer = new byte[size];
+            blockNextBuffer = new byte[size];
+            blockWords = wordView(blockBuffer, null);
+            blockNextWords = wordView(blockNextBuffer, null);
+        }
+        byte[] cells = blockBuffer;
+        byte[] next = blockNextBuffer;
+        ByteBuffer cellWords = blockWords;
+        ByteBuffer nextWords = blockNextWords;
+
+        // copy the block, and clear the dead border of both buffers, which
+        // may hold cells from the previous block.
+        Arrays.fill(cells, 0, s, (byte) 0);
+        Arrays.fill(next, 0, s, (byte) 0);
+        Arrays.fill(cells, (blockRows + 1) * s, size, (byte) 0);
+        Arrays.fill(next, (blockRows + 1) * s, size, (byte) 0);
+        for (int row = 0; row < blockRows; row++) {
+            int start = (row + 1) * s;
+            cells[start] = 0;
+            next[start] = 0;
+            cells[start + blockCols + 1] = 0;
+            next[start + blockCols + 1] = 0;
+            System.arraycopy(currentBoard, index(blockTop + row, blockLeft), cells, start + 1, blockCols);
+        }
+
+        for (int step = 1; step <= steps; step++) {
+            // only the cells needed by the remaining generations are
+            // computed, so the computed area shrinks by one cell per
+            // generation, except along the edges of the board.
+            int margin = steps - step;
+            int fromRow = Math.max(top - margin, 0) - blockTop;
+            int toRow = Math.min(bottom + margin, rows) - blockTop;
+            int fromCol = Math.max(left - margin, 0) - blockLeft;
+            int toCol = Math.min(right + margin, cols) - blockLeft;
+            for (int row = fromRow; row < toRow; row++) {
+                int start = (row + 1) * s + fromCol + 1;
+                int end = start + toCol - fromCol;
+                if (wordKernel) {
+                    computeWords(cellWords, nextWords, null, null, s, start, end);
+                    start += (end - start) & ~7;
+                }
+                computeCells(cells, next, null, null, s, start, end);
+            }
+            byte[] swap = cells;
+            cells = next;
+            next = swap;
+            ByteBuffer swapWords = cellWords;
+            cellWords = nextWords;
+            nextWords = swapWords;
+        }
+
+        int living = 0;
+        for (int row = top; row < bottom; row++) {
+            int from = (row - blockTop + 1) * s + left - blockLeft + 1;
+            int to = index(row, left);
+            for (int col = 0; col < right - left; col++) {
+                byte cell = cells[from + col];
+                byte change = (byte) (cell ^ currentBoard[to + col]);
+                nextGeneration[to + col] = cell;
+                changedCells[to + col] = firstPass ? change : (byte) (changedCells[to + col] ^ change);
+                living += cell;
+            }
+        }
+        return living;
+    }
+
+    /**
+     * Expands the board if needed, and makes sure the next state table
+     * matches the current rules.
+     */
+    private void prepareNextGeneration() {
+        expandedNorth = false;
+        expandedWest = false;
+        boardExpanded = false;
+
+        if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
+            expandBoardIfNeeded();
+        }
+        toroidal = rules.isToroidal();
+
+        RuleSet ruleSet = rules.getRuleSet();
+        if (ruleSet != compiledRuleSet) {
+            for (int n = 0; n <= 8; n++) {
+                nextState[n] = ruleSet.nextState(0, n);
+                nextState[9 + n] = ruleSet.nextState(1, n);
+            }
+            compiledRuleSet = ruleSet;
+        }
+        changeLog.clear(getChangeLogLimit());
+
+        currentWords = wordView(currentBoard, currentWords);
+        nextWords = wordView(nextGeneration, nextWords);
+        changedWords = wordView(changedCells, changedWords);
+    }
+
+    /**
+     * Gets a view reading and writing 8 cells as one <code>long</code>. The
+     * existing view is reused if it belongs to the same buffer.
+     */
+    private static ByteBuffer wordView(byte[] buffer, ByteBuffer view) {
+        if (view != null && view.array() == buffer) {
+            return view;
+        }
+        return ByteBuffer.wrap(buffer).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Marks every cell as changed if the board expanded, swaps the buffers,
+     * and clears the halo used by a toroidal generation.
+     */
+    private void finishNextGeneration() {
+        if (boardExpanded) {
+            // if board expanded, all cells will have shifted, and thereby
+            // changed.
+            for (int row = 0; row < rows; row++) {
+                int start = index(row, 0);
+                for (int i = start; i < start + cols; i++) {
+                    changedCells[i] = 1;
+                }
+            }
+            changeLog.setAllChanged();
+        }
+
+        swapBuffers();
+        if (toroidal) {
+            clearHalo(nextGeneration);
+        }
+        generationCount++;
+    }
+
+    /**
+     * Copies the cells along the opposite edges of the board into the dead
+     * border next to a band of rows, and next to the rows bordering the band.
+     * Neighbouring bands copy the same cells into the border of the rows they
+     * share, so the bands never wait for each other.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     */
+    private void fillHalo(int startRow, int endRow) {
+        for (int row = startRow - 1; row <= endRow; row++) {
+            int source = row < 0 ? rows - 1 : row == rows ? 0 : row;
+            int start = (row + 1) * stride;
+            if (source != row) {
+                System.arraycopy(currentBoard, index(source, 0), currentBoard, start + 1, cols);
+            }
+            currentBoard[start] = currentBoard[index(source, cols - 1)];
+            currentBoard[start + cols + 1] = currentBoard[index(source, 0)];
+        }
+    }
+
+    /**
+     * Makes the border of a buffer dead again after a toroidal generation.
+     */
+    private void clearHalo(byte[] board) {
+        Arrays.fill(board, 0, stride, (byte) 0);
+        Arrays.fill(board, (rows + 1) * stride, (rows + 2) * stride, (byte) 0);
+        for (int row = 0; row < rows; row++) {
+            board[(row + 1) * stride] = 0;
+            board[(row + 1) * stride + cols + 1] = 0;
+        }
+    }
+
+    /**
+     * Makes the next generation buffer the current board.
+     */
+    private void swapBuffers() {
+        byte[] previousGeneration = currentBoard;
+        currentBoard = nextGeneration;
+        nextGeneration = previousGeneration;
+        ByteBuffer previousWords = currentWords;
+        currentWords = nextWords;
+        nextWords = previousWords;
+    }
+
+    /**
+     * Computes the next state of a band of rows. Only the rows within the
+     * band are written to, apart from the halo of a toroidal generation, so
+     * bands can safely be computed in parallel.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     * @param log the change log the changed cells of the band are added to.
+     * @return an <code>int</code> specifying the number of living cells in
+     * the band after the generation shift.
+     */
+    private int computeRows(int startRow, int endRow, ChangeLog log) {
+        if (toroidal) {
+            fillHalo(startRow, endRow);
+        }
+        int living = 0;
+        for (int row = startRow; row < endRow; row++) {
+            int start = index(row, 0);
+            int end = start + cols;
+            if (wordKernel) {
+                living += computeWords(currentWords, nextWords, changedWords, log, stride, start, end);
+                start += cols & ~7;
+            }
+            living += computeCells(currentBoard, nextGeneration, changedCells, log, stride, start, end);
+        }
+        return living;
+    }
+
+    /**
+     * Computes the next state of a span of cells within one row, one cell at
+     * a time.
+     *
+     * @param cells the buffer holding the current state.
+     * @param next the buffer the next state is written to.
+     * @param changed the buffer changes are written to, or <code>null</code>
+     * if changes are not needed.
+     * @param log the change log changed cells are added to, or
+     * <code>null</code> if changes are not needed.
+     * @param s an <code>int</code> specifying the number of array elements per
+     * row of the buffers.
+     * @param start an <code>int</code> specifying the index of the first cell.
+     * @param end an <code>int</code> specifying the index after the last cell.
+     * @return an <code>int</code> specifying the number of living cells
+     * computed.
+     */
+    private int computeCells(byte[] cells, byte[] next, byte[] changed, ChangeLog log, int s, int start, int end) {
+        byte[] table = nextState;
+        int living = 0;
+        for (int i = start; i < end; i++) {
+            int neighbours = cells[i - s - 1] + cells[i - s] + cells[i - s + 1]
+                    + cells[i - 1] + cells[i + 1]
+                    + cells[i + s - 1] + cells[i + s] + cells[i + s + 1];
+            byte cell = cells[i];
+            byte nextCell = table[cell * 9 + neighbours];
+            next[i] = nextCell;
+            if (changed != null) {
+                changed[i] = (byte) (nextCell ^ cell);
+                if (nextCell != cell) {
+                    log.add(i / s - 1, i % s - 1);
+                }
+            }
+            living += nextCell;
+        }
+        return living;
+    }
+
+    /**
+     * Computes the next state of a span of cells within one row 8 cells at a
+     * time, up to the last whole word of the span.
+     *
+     * @param cells a view of the buffer holding the current state.
+     * @param next a view of the buffer the next state is written to.
+     * @param changed a view of the buffer changes are written to, or
+     * <code>null</code> if changes are not needed.
+     * @param log the change log changed cells are added to, or
+     * <code>null</code> if changes are not needed.
+     * @param s an <code>int</code> specifying the number of array elements per
+     * row of the buffers.
+     * @param start an <code>int</code> specifying the index of the first cell.
+     * @param end an <code>int</code> specifying the index after the last cell.
+     * @return an <code>int</code> specifying the number of living cells
+     * computed.
+     */
+    private int computeWords(ByteBuffer cells, ByteBuffer next, ByteBuffer changed, ChangeLog log, int s, int start, int end) {
+        int birthMask = compiledRuleSet.getBirthMask();
+        int surviveMask = compiledRuleSet.getSurviveMask();
+        int living = 0;
+
+        for (int i = start; i + 8 <= end; i += 8) {
+            long neighbours = cells.getLong(i - s - 1) + cells.getLong(i - s) + cells.getLong(i - s + 1)
+                    + cells.getLong(i - 1) + cells.getLong(i + 1)
+                    + cells.getLong(i + s - 1) + cells.getLong(i + s) + cells.getLong(i + s + 1);
+            long cell = cells.getLong(i);
+
+            long born = 0;
+            long survive = 0;
+            for (int count = 0; count <= 8; count++) {
+                int countBit = 1 << count;
+                if (((birthMask | surviveMask) & countBit) == 0) {
+                    continue;
+                }
+                long equal = equalLanes(neighbours, count);
+                if ((birthMask & countBit) != 0) {
+                    born |= equal;
+                }
+                if ((surviveMask & countBit) != 0) {
+                    survive |= equal;
+                }
+            }
+
+            // cell * 0xFF sets all bits of the bytes holding a live cell.
+            long alive = cell * 0xFF;
+            long nextCell = (born & ~alive) | (survive & alive);
+            next.putLong(i, nextCell);
+            if (changed != null) {
+                long change = nextCell ^ cell;
+                changed.putLong(i, change);
+                if (change != 0) {
+                    byte[] changedArray = changed.array();
+                    for (int k = i; k < i + 8; k++) {
+                        if (changedArray[k] != 0) {
+                            log.add(k / s - 1, k % s - 1);
+                        }
+                    }
+                }
+            }
+            living += Long.bitCount(nextCell);
+        }
+        return living;
+    }
+
+    /**
+     * Compares each byte of a word with a value.
+     *
+     * @return a <code>long</code> where a byte is 1 if the byte of the word
+     * equals the value, and 0 otherwise.
+     */
+    private static long equalLanes(long word, int value) {
+        long difference = word ^ (LANES_01 * value);
+        // the high bit of each byte is set if any bit of the byte is set.
+        long nonZero = ((difference & LANES_7F) + LANES_7F) | difference;
+        return (~nonZero >>> 7) & LANES_01;
+    }
+
+    /**
+     * Checks the current board to see if it should be expanded. Requirement for
+     * expansion is if a living cell is touching one of the current boards
+     * borders. All required expansions are done with a single copy of the
+     * board.
+     */
+    private void expandBoardIfNeeded() {
+        boolean north = false;
+        boolean south = false;
+        boolean west = false;
+        boolean east = false;
+        for (int col = 0; col < cols; col++) {
+            north |= currentBoard[index(0, col)] != 0;
+            south |= currentBoard[index(rows - 1, col)] != 0;
+        }
+        for (int row = 0; row < rows; row++) {
+            west |= currentBoard[index(row, 0)] != 0;
+            east |= currentBoard[index(row, cols - 1)] != 0;
+        }
+
+        if (north || east || south || west) {
+            int rowShift = north ? 1 : 0;
+            int colShift = west ? 1 : 0;
+            byte[] oldBoard = currentBoard;
+            int oldRows = rows;
+            int oldCols = cols;
+            int oldStride = stride;
+            resize(rows + rowShift + (south ? 1 : 0), cols + colShift + (east ? 1 : 0));
+            currentBoard = new byte[nextGeneration.length];
+
+            for (int row = 0; row < oldRows; row++) {
+                System.arraycopy(oldBoard, (row + 1) * oldStride + 1,
+                        currentBoard, index(row + rowShift, colShift), oldCols);
+            }
+
+            expandedNorth = north;
+            expandedWest = west;
+            boardExpanded = true;
+        }
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        int i = index(row, col);
+        currentBoard[i] ^= 1;
+        livingCells += currentBoard[i] == 1 ? 1 : -1;
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        int i = index(row, col);
+        if (currentBoard[i] != 1) {
+            currentBoard[i] = 1;
+            livingCells++;
+        }
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        byte[] newBoard = new byte[currentBoard.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (currentBoard[index(row, col)] == 1) {
+                    int newRow = row + yAxis;
+                    int newCol = col + xAxis;
+                    // check if new coordinates is within the bounds of the board
+                    if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                        return;
+                    }
+                    newBoard[index(newRow, newCol)] = 1;
+                }
+            }
+        }
+        currentBoard = newBoard;
+    }
+
+    @Override
+    public void resetBoard() {
+        resize(originalRows, originalCols);
+        currentBoard = originalBoard.clone();
+        generationCount = 0;
+        countLivingCells();
+    }
+
+    @Override
+    public void clearBoard() {
+        generationCount = 0;
+        livingCells = 0;
+        resize(originalRows, originalCols);
+        currentBoard = new byte[nextGeneration.length];
+        preserveBoard();
+    }
+
+    @Override
+    public void preserveBoard() {
+        originalBoard = currentBoard.clone();
+        originalRows = rows;
+        originalCols = cols;
+    }
+
+    /**
+     * {@inheritDoc} The buffers of the copy are used as they are.
+     */
+    @Override
+    public void takeOver(AbstractBoard copy) {
+        BoardDense b = (BoardDense) copy;
+        rows = b.rows;
+        cols = b.cols;
+        stride = b.stride;
+        currentBoard = b.currentBoard;
+        nextGeneration = b.nextGeneration;
+        changedCells = b.changedCells;
+        currentWords = b.currentWords;
+        nextWords = b.nextWords;
+        changedWords = b.changedWords;
+        takeOverCounts(b);
+    }
+
+    @Override
+    public BoardDense deepCopy() {
+        BoardDense b = new BoardDense(1, 1);
+        b.resize(rows, cols);
+        b.currentBoard = currentBoard.clone();
+        b.changedCells = changedCells.clone();
+        b.changeLog.copy(changeLog);
+        b.originalBoard = originalBoard.clone();
+        b.originalRows = originalRows;
+        b.originalCols = originalCols;
+        b.generationCount = generationCount;
+        b.livingCells = livingCells;
+        b.wordKernel = wordKernel;
+        b.generationsPerPass = generationsPerPass;
+        b.setMetadata(boardAuthor, boardName, boardComment);
+        return b;
+    }
+}
@@ -1,14 +1,29 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * This class contains the game board and its mechanics, such as moving a game
  * board to its next generation. This class replaces the now deprecated
  * {@link model.Board} class.
  *
+ * <p>
+ * Rows are shared between the current board, the original board and copies
+ * of the board, so preserving, resetting or copying the board only copies
+ * the list of rows. A shared row is copied the first time it is changed, so
+ * the memory used by copies grows with the number of rows which change,
+ * rather than with the size of the board.</p>
+ *
+ * <p>
+ * When the rules are toroidal, the cells along the edges of the board count
+ * the cells along the opposite edges as neighbours. Only the cells on the
+ * edges are counted this way, every other cell is counted as with static
+ * rules. The active region mode is not used while the rules are
+ * toroidal.</p>
  */
-public class BoardDynamic {
+public class BoardDynamic extends AbstractBoard implements SpeculativeBoard {
 
     /**
      * Represents the game board in its current game state. 1 represents live
@@ -29,43 +44,161 @@ public class BoardDynamic {
     private ArrayList<ArrayList<Byte>> originalBoard;
 
     /**
-     * Used when generating the next generation.
+     * Used when generating the next generation. The list is reused between
+     * generations, swapping places with the current board, and only the part
+     * which may hold living cells is copied from the current board before
+     * each generation. Is null when it must be created anew.
      */
     private ArrayList<ArrayList<Byte>> nextGeneration;
 
-    private int generationCount = 0;
+    /**
+     * The area of nextGeneration which may hold living cells, as top row,
+     * left column, bottom row and right column. Empty when top is greater
+     * than bottom.
+     */
+    private int[] scratchRegion = new int[]{0, 0, -1, -1};
+
+    /**
+     * Rows created with this owner may be changed in place, as they are only
+     * referenced by one list of this board. Replaced by a new owner whenever
+     * rows are shared, after which every existing row is copied before it is
+     * changed.
+     */
+    private Object rowOwner = new Object();
+
+    /**
+     * A row of cells, which knows the owner it was created for. The owner is
+     * not serialized, so a deserialized row is always copied before it is
+     * changed.
+     */
+    private static final class Row extends ArrayList<Byte> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Object owner;
+
+        Row(int capacity, Object owner) {
+            super(capacity);
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * The smallest rectangle containing every living cell, kept up to date
+     * as cells are born, so that a generation shift and the expansion checks
+     * only look at the pattern rather than the whole board. When a cell on
+     * the edge of the rectangle dies, the rectangle may be too large, and is
+     * shrunk the next time it is needed. If the rectangle is unknown, the
+     * whole board is searched. An empty board has boxTop greater than
+     * boxBottom.
+     */
+    private int boxTop = Integer.MAX_VALUE;
+    private int boxLeft = Integer.MAX_VALUE;
+    private int boxBottom = Integer.MIN_VALUE;
+    private int boxRight = Integer.MIN_VALUE;
+    private boolean boxStale = false;
+    private boolean boxUnknown = true;
 
-    private int livingCells = 0;
     private final byte DEAD = 0;
     private final byte ALLIVE = 1;
     private final byte CHANGED = 1;
+    private final byte UNCHANGED = 0;
+
+    /**
+     * Used for threading. The board is split into bands of rows, where each
+     * band holds roughly BAND_SIZE cells, so that the rows read by a worker
+     * stay in its cache.
+     */
+    private static final int BAND_SIZE = 16384;
+    private WorkerPool workerPool = WorkerPool.getInstance();
+
+    /**
+     * The change log of each band, merged into the change log of the board
+     * once all bands are done. Reused between generations.
+     */
+    private ChangeLog[] bandLogs = new ChangeLog[0];
 
-    private Rules rules = Rules.getInstance();
+    /**
+     * Turned off by advanceStep(long) for all but the last generation, which
+     * skips recording changed cells and index sums.
+     */
+    private boolean trackChanges = true;
+
+    /**
+     * The sum of the indexes to all living cells, used by getIndexSum(), and
+     * the number of cells added to the sum since it was last read.
+     */
+    private long indexSum = 0;
+    private long indexSumCount = 0;
 
     /**
-     * Specifies if board has expanded.
+     * The number of cells born and killed during the last generation shift.
      */
-    private boolean expandedNorth, expandedWest, boardExpanded;
+    private int births = 0;
+    private int deaths = 0;
 
     /**
-     * Board metadata
+     * Counts gathered by a single band of rows during a generation shift. Each
+     * band has its own accumulator, so that workers never share a counter,
+     * and the accumulators are merged in band order once all bands are done.
+     * As the index sum alternates between weighting a cell by its row and its
+     * column, the band keeps the sum for both cases, and the merge picks the
+     * one matching the number of cells added before the band.
      */
-    private String boardAuthor = "";
-    private String boardName = "";
-    private String boardComment = "";
+    private static final class BandAccumulator {
+
+        private int births;
+        private int deaths;
+        private int indexCount;
+        private long evenIndexSum;
+        private long oddIndexSum;
+        private int birthTop = Integer.MAX_VALUE;
+        private int birthLeft = Integer.MAX_VALUE;
+        private int birthBottom = Integer.MIN_VALUE;
+        private int birthRight = Integer.MIN_VALUE;
+        private boolean edgeDeath;
+
+        private void addBirth(int row, int col) {
+            births++;
+            birthTop = Math.min(birthTop, row);
+            birthBottom = Math.max(birthBottom, row);
+            birthLeft = Math.min(birthLeft, col);
+            birthRight = Math.max(birthRight, col);
+        }
+
+        private void addToIndexSum(long row, long col) {
+            if ((indexCount & 1) == 0) {
+                evenIndexSum += (row + col) * row;
+                oddIndexSum += (row + col) * col;
+            } else {
+                evenIndexSum += (row + col) * col;
+                oddIndexSum += (row + col) * row;
+            }
+            indexCount++;
+        }
+    }
 
     /**
-     * Used for threading
+     * Used by the active region mode. The board is divided into tiles of
+     * TILE_SIZE x TILE_SIZE cells, and only tiles containing or bordering a
+     * cell which changed during the last generation shift are evaluated.
      */
-    private int numWorkers = Runtime.getRuntime().availableProcessors();
-    private ArrayList<Thread> workers = new ArrayList<Thread>();
+    private static final int TILE_SIZE = 16;
+    private boolean activeRegion = false;
+    private boolean allTilesActive = true;
+    private boolean resetChangedCells = true;
+    private boolean[] tileMarked = new boolean[0];
+    private int[] activeTiles = new int[64];
+    private int activeTileCount = 0;
 
     /**
-     * Following ArrayLists are used to calculate the sum of the indexes to all
-     * living cells.
+     * The cells which changed during the last generation shift, or have been
+     * edited since, stored as row and column pairs.
      */
-    private ArrayList<Integer> rows = new ArrayList<Integer>();
-    private ArrayList<Integer> cols = new ArrayList<Integer>();
+    private int[] changes = new int[128];
+    private int changeCount = 0;
+    private int[] nextChanges = new int[128];
+    private int nextChangeCount = 0;
 
     /**
      * Board no-argument constructor initializes a game board consisting of 200
@@ -73,7 +206,7 @@ public class BoardDynamic {
      */
     public BoardDynamic() {
         originalBoard = createEmptyBoard(200, 200);
-        currentBoard = duplicateBoard(originalBoard);
+        currentBoard = shareRows(originalBoard);
         changedCells = createEmptyBoard(200, 200);
     }
 
@@ -87,10 +220,36 @@ public class BoardDynamic {
      */
     public BoardDynamic(ArrayList<ArrayList<Byte>> board) {
         originalBoard = duplicateBoard(board);
-        currentBoard = duplicateBoard(board);
+        currentBoard = shareRows(originalBoard);
         changedCells = createEmptyBoard(board.size(), board.get(0).size());
     }
 
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardDynamic(AbstractBoard board) {
+        if (board instanceof BoardDynamic) {
+            // the rows of another BoardDynamic are shared rather than copied.
+            BoardDynamic other = (BoardDynamic) board;
+            originalBoard = other.shareRows(other.currentBoard);
+        } else {
+            originalBoard = createEmptyBoard(board.getRows(), board.getCols());
+            for (int row = 0; row < board.getRows(); row++) {
+                for (int col = 0; col < board.getCols(); col++) {
+                    originalBoard.get(row).set(col, board.getCellState(board.getMinRow() + row, board.getMinCol() + col));
+                }
+            }
+        }
+        currentBoard = shareRows(originalBoard);
+        changedCells = createEmptyBoard(board.getRows(), board.getCols());
+        copyMetadata(board);
+        countLivingCells();
+    }
+
     /**
      * Board constructor. Allows one to define the starting size of the game
      * board.
@@ -108,58 +267,17 @@ public class BoardDynamic {
                     + "be higher than 0!");
         }
         originalBoard = createEmptyBoard(row, col);
-        currentBoard = duplicateBoard(originalBoard);
+        currentBoard = shareRows(originalBoard);
         changedCells = createEmptyBoard(row, col);
     }
 
-    /**
-     * Set the metadata for the board. Three Strings expected. Pass an empty
-     * string if no value is to be set for one of the three pieces of metadata.
-     *
-     * @param author a <code>String</code> specifying the author of the board.
-     * @param name a <code>String</code> specifying the name of the board.
-     * @param comment a <code>String</code> specifying the comments for the
-     * board.
-     */
-    public void setMetadata(String author, String name, String comment) {
-        boardAuthor = author;
-        boardName = name;
-        boardComment = comment;
-    }
-
-    /**
-     * Gets the name of the boards author.
-     *
-     * @return a <code>String</code> specifying the boards author.
-     */
-    public String getAuthor() {
-        return boardAuthor;
-    }
-
-    /**
-     * Gets the name of the board.
-     *
-     * @return a <code>String</code> specifying the boards name.
-     */
-    public String getName() {
-        return boardName;
-    }
-
-    /**
-     * Gets the boards comments.
-     *
-     * @return a <code>String</code> specifying the boards comments.
-     */
-    public String getComment() {
-        return boardComment;
-    }
-
     /**
      * Gets the the number of rows on the current board.
      *
      * @return an <code>int</code> specifying the number of rows on the current
      * board.
      */
+    @Override
     public int getRows() {
         return currentBoard.size();
     }
@@ -170,6 +288,7 @@ public class BoardDynamic {
      * @return an <code>int</code> specifying the number of columns on the
      * current board.
      */
+    @Override
     public int getCols() {
         return currentBoard.get(0).size();
     }
@@ -182,8 +301,10 @@ public class BoardDynamic {
      */
     public void setBoard(ArrayList<ArrayList<Byte>> newBoard) {
         originalBoard = duplicateBoard(newBoard);
-        currentBoard = duplicateBoard(newBoard);
+        currentBoard = shareRows(originalBoard);
         countLivingCells();
+        activateAllTiles();
+        invalidateBoundingBox();
     }
 
     /**
@@ -191,6 +312,7 @@ public class BoardDynamic {
      *
      * @param newBoard a <code>byte[][]</code> representing the new game board.
      */
+    @Override
     public void setBoard(byte[][] newBoard) {
         originalBoard = createEmptyBoard(newBoard.length, newBoard[0].length);
 
@@ -199,8 +321,10 @@ public class BoardDynamic {
                 originalBoard.get(row).set(col, newBoard[row][col]);
             }
         }
-        currentBoard = duplicateBoard(originalBoard);
+        currentBoard = shareRows(originalBoard);
         countLivingCells();
+        activateAllTiles();
+        invalidateBoundingBox();
     }
 
     /**
@@ -209,6 +333,7 @@ public class BoardDynamic {
      * @return a <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>
      * representing the current game board.
      */
+    @Override
     public ArrayList<ArrayList<Byte>> getBoard() {
         return currentBoard;
     }
@@ -221,10 +346,39 @@ public class BoardDynamic {
      * representing the cells which have changed where 1 means changed and 0
      * means no change.
      */
+    @Override
     public ArrayList<ArrayList<Byte>> getChangedCells() {
         return changedCells;
     }
 
+    /**
+     * Gets the state of a single cell on the current board.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell.
+     * @param col an <code>int</code> specifying the column position of the
+     * cell.
+     * @return a <code>byte</code> where 1 is a living cell and 0 is a dead
+     * cell.
+     */
+    @Override
+    public byte getCellState(int row, int col) {
+        return currentBoard.get(row).get(col);
+    }
+
+    /**
+     * Checks if a single cell changed its state during the last generation
+     * shift.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell.
+     * @param col an <code>int</code> specifying the column position of the
+     * cell.
+     * @return a <code>boolean</code> specifying if the cell changed.
+     */
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        return changedCells.get(row).get(col) == CHANGED;
+    }
+
     /**
      * Updates the livingCells variable to reflect the number of living cells on
      * the current board.
@@ -248,6 +402,7 @@ public class BoardDynamic {
      * @param yAxis an <code>int</code> specifying the number of cols to shift
      * the board.
      */
+    @Override
     public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
         ArrayList<ArrayList<Byte>> newBoard = createEmptyBoard(currentBoard.size(), currentBoard.get(0).size());
         for (int row = 0; row < currentBoard.size(); row++) {
@@ -262,72 +417,100 @@ public class BoardDynamic {
                 }
             }
         }
-        currentBoard = duplicateBoard(newBoard);
+        currentBoard = newBoard;
+        activateAllTiles();
+        invalidateBoundingBox();
     }
 
     /**
-     * Gets the number of cells on the current board, both living and dead.
+     * Gets a deep copy of this board object. The rows are shared by both
+     * boards until either board changes them.
      *
-     * @return an <code>int</code> specifying the number of cells, both living
-     * and dead, on the current board.
+     * @return a deep copy of the <code>BoardDynamic</code> object.
      */
-    public int getCellCount() {
-        return currentBoard.size() * currentBoard.get(0).size();
+    @Override
+    public BoardDynamic deepCopy() {
+        BoardDynamic b = new BoardDynamic(1, 1);
+        b.currentBoard = shareRows(this.currentBoard);
+        b.changedCells = shareRows(this.changedCells);
+        b.changeLog.copy(this.changeLog);
+        b.originalBoard = shareRows(this.originalBoard);
+        b.generationCount = this.generationCount;
+        b.activeRegion = this.activeRegion;
+        b.livingCells = this.livingCells;
+        b.boxTop = this.boxTop;
+        b.boxLeft = this.boxLeft;
+        b.boxBottom = this.boxBottom;
+        b.boxRight = this.boxRight;
+        b.boxStale = this.boxStale;
+        b.boxUnknown = this.boxUnknown;
+        b.copyMetadata(this);
+        return b;
     }
-
+    
     /**
-     * Gets the number of living cells on the current board.
-     *
-     * @return an <code>int</code> specifying the number of living cells on the
-     * current board.
+     * {@inheritDoc} The rows of the copy are used as they are, and stay
+     * writable in place, as the copy is no longer used.
      */
-    public int getLivingCellCount() {
-        return livingCells;
+    @Override
+    public void takeOver(AbstractBoard copy) {
+        BoardDynamic b = (BoardDynamic) copy;
+        currentBoard = b.currentBoard;
+        changedCells = b.changedCells;
+        nextGeneration = b.nextGeneration;
+        scratchRegion = b.scratchRegion;
+        rowOwner = b.rowOwner;
+        boxTop = b.boxTop;
+        boxLeft = b.boxLeft;
+        boxBottom = b.boxBottom;
+        boxRight = b.boxRight;
+        boxStale = b.boxStale;
+        boxUnknown = b.boxUnknown;
+        indexSum = b.indexSum;
+        indexSumCount = b.indexSumCount;
+        births = b.births;
+        deaths = b.deaths;
+        allTilesActive = b.allTilesActive;
+        resetChangedCells = b.resetChangedCells;
+        tileMarked = b.tileMarked;
+        activeTiles = b.activeTiles;
+        activeTileCount = b.activeTileCount;
+        changes = b.changes;
+        changeCount = b.changeCount;
+        nextChanges = b.nextChanges;
+        nextChangeCount = b.nextChangeCount;
+        takeOverCounts(b);
     }
 
     /**
-     * Gets the current generation count for the game.
-     *
-     * @return an <code>int</code> specifying the current generation count.
+     * Used in <code>Statistics</code> to generate a similarity measure. The
+     * sum is not updated while the active region mode is enabled.
+     * @return <code>float</code> the sum of the index to all living cells.
      */
-    public int getGenerationCount() {
-        return generationCount;
+    public float getIndexSum() {
+        float sum = indexSum;
+        indexSum = 0;
+        indexSumCount = 0;
+        return sum;
     }
 
     /**
-     * Gets a deep copy of this board object.
+     * Gets the number of cells which became alive during the last generation
+     * shift.
      *
-     * @return a deep copy of the <code>BoardDynamic</code> object.
+     * @return an <code>int</code> specifying the number of cells born.
      */
-    public BoardDynamic deepCopy() {
-        BoardDynamic b = new BoardDynamic();
-        b.currentBoard = duplicateBoard(this.currentBoard);
-        b.changedCells = duplicateBoard(this.changedCells);
-        b.originalBoard = duplicateBoard(this.originalBoard);
-        b.generationCount = this.generationCount;
-        b.countLivingCells();
-        return b;
+    public int getBirthCount() {
+        return births;
     }
-    
+
     /**
-     * Used in <code>Statistics</code> to generate a similarity measure. 
-     * @return <code>float</code> the sum of the index to all living cells.
+     * Gets the number of cells which died during the last generation shift.
+     *
+     * @return an <code>int</code> specifying the number of cells killed.
      */
-    public float getIndexSum() {
-        float sum = 0;
-        for (int i = 0; i < rows.size(); i++) {
-            float row, col;
-            row = rows.get(i);
-            col = cols.get(i);
-            if (i % 2 == 0) {
-                    sum += (row + col) * row;
-            } else {
-                sum += (row + col)  * col; 
-            }
-        }
-        rows.clear();
-        cols.clear();
-        return sum;
+    public int getDeathCount() {
+        return deaths;
     }
 
     /**
@@ -353,45 +536,262 @@ public class BoardDynamic {
      *
      * @see model.Rules
      */
+    @Override
     public void nextGeneration() {
-        // reset list of changed cells.
-        changedCells = createEmptyBoard(currentBoard.size(), currentBoard.get(0).size());
+        if (useActiveRegion()) {
+            nextGenerationActiveRegion();
+            return;
+        }
 
+        computeNextGeneration(false);
+    }
+
+    /**
+     * Enables or disables the active region mode. While enabled,
+     * {@link #nextGeneration()} only evaluates the parts of the board close to
+     * cells which changed during the last generation shift, which is much
+     * faster on large boards where most cells are dead or part of still lifes.
+     *
+     * @param activeRegion a <code>boolean</code> specifying if the active
+     * region mode should be used.
+     */
+    public void setActiveRegion(boolean activeRegion) {
+        this.activeRegion = activeRegion;
+        activateAllTiles();
+    }
+
+    /**
+     * Checks if the next generation should be computed using the active
+     * region mode. The tiles do not wrap around the edges of the board, so
+     * the mode is not used while the rules are toroidal, and every tile is
+     * evaluated once the rules stop being toroidal.
+     */
+    private boolean useActiveRegion() {
+        if (activeRegion && rules.isToroidal()) {
+            activateAllTiles();
+            return false;
+        }
+        return activeRegion;
+    }
+
+    /**
+     * Checks if the active region mode is enabled.
+     *
+     * @return a <code>boolean</code> specifying if the active region mode is
+     * used.
+     */
+    public boolean isActiveRegion() {
+        return activeRegion;
+    }
+
+    /**
+     * Iterates the current board to its next generation, only evaluating the
+     * tiles containing or bordering a cell which changed during the last
+     * generation shift. Changes are applied directly to the current board, and
+     * only the cells marked as changed during the last generation shift are
+     * cleared from the list of changed cells.
+     */
+    private void nextGenerationActiveRegion() {
+        RuleSet ruleSet = rules.getRuleSet();
         expandedNorth = false;
         expandedWest = false;
         boardExpanded = false;
 
+        clearChangedCells();
+
+        int oldRows = getRows();
+        int oldCols = getCols();
         if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
             expandBoardIfNeeded();
         }
+        if (boardExpanded) {
+            // all cells are marked as changed by expandBoardIfNeeded(), and
+            // the recorded changes have shifted along with the cells.
+            resetChangedCells = true;
+            int rowShift = expandedNorth ? 1 : 0;
+            int colShift = expandedWest ? 1 : 0;
+            for (int i = 0; i < changeCount * 2; i += 2) {
+                changes[i] += rowShift;
+                changes[i + 1] += colShift;
+            }
+        }
 
-        // a copy of the board is used to test the rules, while changes are
-        // applied to the actual board.
-        nextGeneration = duplicateBoard(currentBoard);
+        markActiveTiles(oldRows, oldCols);
+
+        // find the cells which change, without altering the current board.
+        nextChangeCount = 0;
+        int tileCols = (getCols() + TILE_SIZE - 1) / TILE_SIZE;
+        for (int t = 0; t < activeTileCount; t++) {
+            int tile = activeTiles[t];
+            tileMarked[tile] = false;
+            int startRow = (tile / tileCols) * TILE_SIZE;
+            int startCol = (tile % tileCols) * TILE_SIZE;
+            int endRow = Math.min(startRow + TILE_SIZE, getRows());
+            int endCol = Math.min(startCol + TILE_SIZE, getCols());
+            for (int row = startRow; row < endRow; row++) {
+                for (int col = startCol; col < endCol; col++) {
+                    int nrOfNeighbours = countNeighbours(currentBoard, row, col);
+                    if (currentBoard.get(row).get(col) == 1 && !ruleSet.survives(nrOfNeighbours)) {
+                        addNextChange(row, col);
+                    } else if (currentBoard.get(row).get(col) == 0 && ruleSet.isBorn(nrOfNeighbours)) {
+                        addNextChange(row, col);
+                    }
+                }
+            }
+        }
+        activeTileCount = 0;
+        allTilesActive = false;
+
+        // apply the changes.
+        births = 0;
+        deaths = 0;
+        for (int i = 0; i < nextChangeCount * 2; i += 2) {
+            int row = nextChanges[i];
+            int col = nextChanges[i + 1];
+            if (currentBoard.get(row).get(col) == 1) {
+                writableRow(currentBoard, row).set(col, DEAD);
+                cellDied(row, col);
+                deaths++;
+            } else {
+                writableRow(currentBoard, row).set(col, ALLIVE);
+                extendBoundingBox(row, col);
+                births++;
+            }
+            writableRow(changedCells, row).set(col, CHANGED);
+            changeLog.add(row, col);
+        }
+        livingCells += births - deaths;
 
-        // iterate through the board cells, count number of neighbours for each
-        // cell, and apply changes based on the ruleset.
-        for (int row = 0; row < nextGeneration.size(); row++) {
-            for (int col = 0; col < nextGeneration.get(0).size(); col++) {
-                int nrOfNeighbours = countNeighbours(currentBoard, row, col);
+        int[] swap = changes;
+        changes = nextChanges;
+        changeCount = nextChangeCount;
+        nextChanges = swap;
+        generationCount++;
+    }
 
-                if (currentBoard.get(row).get(col) == 1 && !rules.getSurviveRules().contains(nrOfNeighbours)) {
-                    nextGeneration.get(row).set(col, DEAD);
-                    changedCells.get(row).set(col, CHANGED);
-                    livingCells--;
-                } else if (currentBoard.get(row).get(col) == 1 && rules.getSurviveRules().contains(nrOfNeighbours)) {
-                    addToIndexSum2(row + 1, col + 1);
-                } else if (currentBoard.get(row).get(col) == 0 && rules.getBirthRules().contains(nrOfNeighbours)) {
-                    addToIndexSum2(row + 1, col + 1);
-                    nextGeneration.get(row).set(col, ALLIVE);
-                    changedCells.get(row).set(col, CHANGED);
-                    livingCells++;
+    /**
+     * Builds the list of tiles to evaluate during the next generation shift.
+     *
+     * @param oldRows an <code>int</code> specifying the number of rows before
+     * the board expanded.
+     * @param oldCols an <code>int</code> specifying the number of columns
+     * before the board expanded.
+     */
+    private void markActiveTiles(int oldRows, int oldCols) {
+        int tileRows = (getRows() + TILE_SIZE - 1) / TILE_SIZE;
+        int tileCols = (getCols() + TILE_SIZE - 1) / TILE_SIZE;
+        if (tileMarked.length != tileRows * tileCols) {
+            tileMarked = new boolean[tileRows * tileCols];
+        }
+        activeTileCount = 0;
+
+        if (allTilesActive) {
+            for (int tile = 0; tile < tileMarked.length; tile++) {
+                markTile(tile);
+            }
+            return;
+        }
+
+        // a cell can only change if one of its neighbours changed.
+        for (int i = 0; i < changeCount * 2; i += 2) {
+            int row = changes[i];
+            int col = changes[i + 1];
+            for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, getRows() - 1); r++) {
+                for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, getCols() - 1); c++) {
+                    markTile((r / TILE_SIZE) * tileCols + c / TILE_SIZE);
                 }
             }
         }
 
-        currentBoard = nextGeneration;
-        generationCount++;
+        // cells along a new edge have never been evaluated, so the tiles
+        // along each expanded edge are evaluated as well.
+        if (boardExpanded) {
+            boolean expandedSouth = getRows() - oldRows > (expandedNorth ? 1 : 0);
+            boolean expandedEast = getCols() - oldCols > (expandedWest ? 1 : 0);
+            for (int tile = 0; tile < tileMarked.length; tile++) {
+                int tileRow = tile / tileCols;
+                int tileCol = tile % tileCols;
+                if ((expandedNorth && tileRow == 0)
+                        || (expandedSouth && tileRow >= tileRows - 2)
+                        || (expandedWest && tileCol == 0)
+                        || (expandedEast && tileCol >= tileCols - 2)) {
+                    markTile(tile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a tile to the list of tiles to evaluate, unless already added.
+     */
+    private void markTile(int tile) {
+        if (!tileMarked[tile]) {
+            tileMarked[tile] = true;
+            if (activeTileCount == activeTiles.length) {
+                activeTiles = Arrays.copyOf(activeTiles, activeTileCount * 2);
+            }
+            activeTiles[activeTileCount++] = tile;
+        }
+    }
+
+    /**
+     * Adds a cell to the list of cells changing during this generation shift.
+     */
+    private void addNextChange(int row, int col) {
+        if (nextChangeCount * 2 == nextChanges.length) {
+            nextChanges = Arrays.copyOf(nextChanges, nextChanges.length * 2);
+        }
+        nextChanges[nextChangeCount * 2] = row;
+        nextChanges[nextChangeCount * 2 + 1] = col;
+        nextChangeCount++;
+    }
+
+    /**
+     * Records a cell edited by the user, so that the area around it is
+     * evaluated during the next generation shift in the active region mode.
+     */
+    private void recordEdit(int row, int col) {
+        if (!activeRegion || allTilesActive) {
+            return;
+        }
+        if (changeCount * 2 == changes.length) {
+            changes = Arrays.copyOf(changes, changes.length * 2);
+        }
+        changes[changeCount * 2] = row;
+        changes[changeCount * 2 + 1] = col;
+        changeCount++;
+    }
+
+    /**
+     * Makes the active region mode evaluate the whole board during the next
+     * generation shift. Used whenever the board is replaced or altered in a
+     * way which is not recorded as single cell edits.
+     */
+    private void activateAllTiles() {
+        allTilesActive = true;
+        resetChangedCells = true;
+        changeCount = 0;
+    }
+
+
+    /**
+     * Advances the board one generation using the worker pool. Changed cells
+     * and index sums are only recorded for the last generation of the
+     * advance.
+     *
+     * @param remaining a <code>long</code> specifying the number of
+     * generations left to advance.
+     * @return 1, the number of generations advanced.
+     */
+    @Override
+    protected int advanceStep(long remaining) {
+        trackChanges = remaining == 1;
+        try {
+            nextGenerationConcurrent();
+        } finally {
+            trackChanges = true;
+        }
+        return 1;
     }
 
     /**
@@ -418,121 +818,267 @@ public class BoardDynamic {
      *
      * @see model.Rules
      */
+    @Override
     public void nextGenerationConcurrent() {
+        // the active region is usually small enough that threads do not pay
+        // off.
+        if (useActiveRegion()) {
+            nextGenerationActiveRegion();
+            return;
+        }
+
+        computeNextGeneration(true);
+    }
+
+    /**
+     * Iterates the current board to its next generation by splitting it into
+     * bands of rows. The bands are either processed by the worker pool, or
+     * all on the calling thread.
+     *
+     * @param concurrent a <code>boolean</code> specifying if the worker pool
+     * should be used.
+     */
+    private void computeNextGeneration(boolean concurrent) {
+        // every band uses the same rules, even if the rules change meanwhile.
+        RuleSet ruleSet = rules.getRuleSet();
+
+        clearChangedCells();
 
-        // reset values
-        changedCells = createEmptyBoard(currentBoard.size(), currentBoard.get(0).size());
         expandedNorth = false;
         expandedWest = false;
         boardExpanded = false;
 
-        // determin if board should expand
         if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
             expandBoardIfNeeded();
         }
 
-        nextGeneration = duplicateBoard(currentBoard);
-
-        // create threads and assign them their task.
-        createNextGenerationWorkers();
-
-        // if a thread gets interupted during execution, roll back changes made 
-        // during this generational shift.
-        try {
-            runNextGenerationWorkers();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        // only the bounding box and the cells bordering it can change, unless
+        // dead cells with no living neighbours are born. On a toroidal board,
+        // cells touching an edge border the cells along the opposite edge.
+        boolean toroidal = rules.isToroidal();
+        int[] region;
+        if (ruleSet.isBorn(0)) {
+            region = new int[]{0, 0, getRows() - 1, getCols() - 1};
+        } else {
+            updateBoundingBox();
+            region = new int[]{Math.max(boxTop - 1, 0), Math.max(boxLeft - 1, 0),
+                Math.min(boxBottom + 1, getRows() - 1), Math.min(boxRight + 1, getCols() - 1)};
+            if (toroidal && boxTop <= boxBottom && (boxTop == 0 || boxBottom == getRows() - 1)) {
+                region[0] = 0;
+                region[2] = getRows() - 1;
+            }
+            if (toroidal && boxTop <= boxBottom && (boxLeft == 0 || boxRight == getCols() - 1)) {
+                region[1] = 0;
+                region[3] = getCols() - 1;
+            }
         }
-        currentBoard = nextGeneration;
-        workers.clear(); // clear workers
-        generationCount++;
-    }
 
-    /**
-     * Creates a number of workers equal to the number of threads on the current
-     * system.
-     */
-    private void createNextGenerationWorkers() {
-        for (int i = 0; i < numWorkers; i++) {
-            int workerNr = i;
-            workers.add(new Thread(() -> {
-                partialNextGeneration(workerNr);
-            }));
+        // a copy of the board is used to test the rules, while changes are
+        // applied to the actual board.
+        prepareNextGeneration(region);
+
+        // split the region into bands of rows. When using the worker pool,
+        // use at least as many bands as there are threads.
+        int firstRow = region[0];
+        int firstCol = region[1];
+        int lastCol = region[3];
+        int rowCount = Math.max(region[2] - region[0] + 1, 0);
+        int colCount = Math.max(lastCol - firstCol + 1, 1);
+        int rowsPerBand = Math.max(rowCount, 1);
+        if (concurrent) {
+            rowsPerBand = Math.max(1, Math.min(BAND_SIZE / colCount,
+                    rowCount / workerPool.getParallelism()));
         }
-    }
-
-    /**
-     * Starts the threads, and then waits for them to all finish.
-     *
-     * @throws InterruptedException
-     */
-    private void runNextGenerationWorkers() throws InterruptedException {
-        for (Thread t : workers) {
-            t.start();
+        int bands = (rowCount + rowsPerBand - 1) / rowsPerBand;
+        int bandRows = rowsPerBand;
+        BandAccumulator[] accumulators = new BandAccumulator[bands];
+        if (bandLogs.length < bands) {
+            bandLogs = Arrays.copyOf(bandLogs, bands);
+            for (int band = 0; band < bands; band++) {
+                if (bandLogs[band] == null) {
+                    bandLogs[band] = new ChangeLog();
+                }
+            }
+        }
+        int logLimit = getChangeLogLimit();
+        for (int band = 0; band < bands; band++) {
+            bandLogs[band].clear(logLimit);
+        }
+        if (concurrent) {
+            workerPool.runTasks(bands, band -> {
+                accumulators[band] = partialNextGeneration(firstRow + band * bandRows,
+                        firstRow + Math.min((band + 1) * bandRows, rowCount),
+                        firstCol, lastCol + 1, ruleSet, toroidal, bandLogs[band]);
+            });
+        } else {
+            for (int band = 0; band < bands; band++) {
+                accumulators[band] = partialNextGeneration(firstRow + band * bandRows,
+                        firstRow + Math.min((band + 1) * bandRows, rowCount),
+                        firstCol, lastCol + 1, ruleSet, toroidal, bandLogs[band]);
+            }
         }
 
-        for (Thread t : workers) {
-
-            t.join();
+        // merge the counts of each band, in order.
+        births = 0;
+        deaths = 0;
+        for (int band = 0; band < bands; band++) {
+            BandAccumulator accumulator = accumulators[band];
+            changeLog.addAll(bandLogs[band]);
+            births += accumulator.births;
+            deaths += accumulator.deaths;
+            indexSum += (indexSumCount & 1) == 0 ? accumulator.evenIndexSum : accumulator.oddIndexSum;
+            indexSumCount += accumulator.indexCount;
+            boxStale |= accumulator.edgeDeath;
+            if (accumulator.births > 0) {
+                extendBoundingBox(accumulator.birthTop, accumulator.birthLeft);
+                extendBoundingBox(accumulator.birthBottom, accumulator.birthRight);
+            }
         }
+        livingCells += births - deaths;
+
+        // the previous board becomes the copy used by the next generation.
+        // Its living cells are all within the region evaluated now.
+        ArrayList<ArrayList<Byte>> previous = currentBoard;
+        currentBoard = nextGeneration;
+        nextGeneration = previous;
+        scratchRegion = region;
+        generationCount++;
     }
 
     /**
-     * Assigns a worker its section of the game board for processing. its
-     * section is determined by its worker number, and the total number of
-     * workers.
+     * Makes nextGeneration a copy of the current board, for the cells within
+     * a region and the cells which may be alive in nextGeneration. Every
+     * other cell is dead on both boards. If nextGeneration does not match the
+     * size of the current board, it shares the rows of the current board.
+     * Rows which already match are left alone, so they are not copied if
+     * they are shared.
      *
-     * @param workerNr an <code>int</code> specifying a worker id number.
+     * @param region an <code>int[]</code> holding the top row, left column,
+     * bottom row and right column of the region to evaluate.
      */
-    private void partialNextGeneration(int workerNr) {
-        int startCol = (nextGeneration.get(0).size() / numWorkers) * workerNr;
-        int endCol;
-        if (workerNr + 1 == numWorkers) {
-            endCol = nextGeneration.get(0).size() - 1;
-        } else {
-            endCol = ((nextGeneration.get(0).size() / numWorkers) * (workerNr + 1)) - 1;
+    private void prepareNextGeneration(int[] region) {
+        if (nextGeneration == null || nextGeneration.size() != getRows()
+                || nextGeneration.get(0).size() != getCols()) {
+            nextGeneration = shareRows(currentBoard);
+            return;
         }
-
-        for (int row = 0; row < nextGeneration.size(); row++) {
-            for (int col = startCol; col <= endCol; col++) {
-                int nrOfNeighbours = countNeighbours(currentBoard, row, col);
-                if (currentBoard.get(row).get(col) == 1 && !rules.getSurviveRules().contains(nrOfNeighbours)) {
-                    nextGeneration.get(row).set(col, DEAD);
-                    changedCells.get(row).set(col, CHANGED);
-                    addToLivingCells(-1);
-                } else if (currentBoard.get(row).get(col) == 0 && rules.getBirthRules().contains(nrOfNeighbours)) {
-                    nextGeneration.get(row).set(col, ALLIVE);
-                    changedCells.get(row).set(col, CHANGED);
-                    addToLivingCells(+1);
+        int top = region[0];
+        int left = region[1];
+        int bottom = region[2];
+        int right = region[3];
+        if (scratchRegion[0] <= scratchRegion[2]) {
+            if (top > bottom) {
+                top = scratchRegion[0];
+                left = scratchRegion[1];
+                bottom = scratchRegion[2];
+                right = scratchRegion[3];
+            } else {
+                top = Math.min(top, scratchRegion[0]);
+                left = Math.min(left, scratchRegion[1]);
+                bottom = Math.max(bottom, scratchRegion[2]);
+                right = Math.max(right, scratchRegion[3]);
+            }
+        }
+        for (int row = top; row <= bottom; row++) {
+            ArrayList<Byte> source = currentBoard.get(row);
+            ArrayList<Byte> target = nextGeneration.get(row);
+            if (source == target) {
+                continue;
+            }
+            int col = left;
+            while (col <= right && target.get(col).equals(source.get(col))) {
+                col++;
+            }
+            if (col <= right) {
+                target = writableRow(nextGeneration, row);
+                for (; col <= right; col++) {
+                    target.set(col, source.get(col));
                 }
             }
         }
     }
 
     /**
+     * Processes a band of rows of the game board. Only cells within the band
+     * are written to, and all counts are kept in the returned accumulator, so
+     * bands can safely be processed in parallel.
      *
-     * Allows for adjusting the number of living cells. Pass positive values to
-     * increase, negative to decrease.
-     *
-     * @param i an <code>int</code> specifying the amount to increase or deduct
-     * the value by.
-     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     * @param startCol an <code>int</code> specifying the first column to
+     * evaluate.
+     * @param endCol an <code>int</code> specifying the column after the last
+     * column to evaluate.
+     * @param ruleSet the rules used for this generation.
+     * @param toroidal a <code>boolean</code> specifying if the cells along the
+     * edges of the board neighbour the cells along the opposite edges.
+     * @param changes the change log of the band.
+     * @return the counts gathered while processing the band.
      */
-    private synchronized void addToLivingCells(int i) {
-        livingCells += i;
-    }
-
-    private synchronized void addToIndexSum2(int row, int col) {
-        rows.add(row);
-        cols.add(col);
+    private BandAccumulator partialNextGeneration(int startRow, int endRow,
+            int startCol, int endCol, RuleSet ruleSet, boolean toroidal, ChangeLog changes) {
+        BandAccumulator accumulator = new BandAccumulator();
+        boolean track = trackChanges;
+        int lastRow = getRows() - 1;
+        int lastCol = getCols() - 1;
+        for (int row = startRow; row < endRow; row++) {
+            // rows are only made writable once a cell in them changes.
+            ArrayList<Byte> next = null;
+            ArrayList<Byte> changed = null;
+            boolean edgeRow = toroidal && (row == 0 || row == lastRow);
+            for (int col = startCol; col < endCol; col++) {
+                int nrOfNeighbours = edgeRow || (toroidal && (col == 0 || col == lastCol))
+                        ? countNeighboursToroidal(currentBoard, row, col)
+                        : countNeighbours(currentBoard, row, col);
+                if (currentBoard.get(row).get(col) == 1 && !ruleSet.survives(nrOfNeighbours)) {
+                    if (next == null) {
+                        next = writableRow(nextGeneration, row);
+                    }
+                    next.set(col, DEAD);
+                    if (track) {
+                        if (changed == null) {
+                            changed = writableRow(changedCells, row);
+                        }
+                        changed.set(col, CHANGED);
+                        changes.add(row, col);
+                    }
+                    accumulator.deaths++;
+                    accumulator.edgeDeath |= row == boxTop || row == boxBottom
+                            || col == boxLeft || col == boxRight;
+                } else if (currentBoard.get(row).get(col) == 1) {
+                    if (track) {
+                        accumulator.addToIndexSum(row + 1, col + 1);
+                    }
+                } else if (ruleSet.isBorn(nrOfNeighbours)) {
+                    if (next == null) {
+                        next = writableRow(nextGeneration, row);
+                    }
+                    next.set(col, ALLIVE);
+                    if (track) {
+                        accumulator.addToIndexSum(row + 1, col + 1);
+                        if (changed == null) {
+                            changed = writableRow(changedCells, row);
+                        }
+                        changed.set(col, CHANGED);
+                        changes.add(row, col);
+                    }
+                    accumulator.addBirth(row, col);
+                }
+            }
+        }
+        return accumulator;
     }
 
     /**
      * Checks the current board to see if it should be expanded. Requirement for
      * expansion is if a living cell is touching one of the current boards
-     * borders.
+     * borders, which is read from the bounding box rather than by searching
+     * the borders.
      */
     private void expandBoardIfNeeded() {
+        updateBoundingBox();
         if (shouldExpandNorth()) {
             expandNorth();
             expandedNorth = true;
@@ -563,37 +1109,25 @@ public class BoardDynamic {
                     changedCells.get(row).set(col, CHANGED);
                 }
             }
+            changeLog.setAllChanged();
         }
     }
 
     /**
-     * Check if the board expanded on the north side. Can be used to determine
-     * if one should alter the offset used when drawing the board.
-     *
-     * @return a <code>boolean</code> specifying if the board expanded north.
-     */
-    public boolean expandedNorth() {
-        return expandedNorth;
-    }
-
-    /**
-     * Check if the board expanded on the west side. Can be used to determine if
-     * one should alter the offset used when drawing the board.
-     *
-     * @return a <code>boolean</code> specifying if the board expanded west.
+     * Resets the list of changed cells before a generation shift. Only the
+     * cells in the change log are reset, unless the board was replaced or
+     * every cell changed, in which case a new list is created.
      */
-    public boolean expandedWest() {
-        return expandedWest;
-    }
-
-    /**
-     * Check if the board expanded on any of its sides.
-     *
-     * @return a <code>boolean</code> specifying weather or not the board
-     * expanded.
-     */
-    public boolean didExpand() {
-        return boardExpanded;
+    private void clearChangedCells() {
+        if (resetChangedCells || changeLog.isAllChanged()) {
+            changedCells = createEmptyBoard(currentBoard.size(), currentBoard.get(0).size());
+            resetChangedCells = false;
+        } else {
+            for (int i = 0; i < changeLog.size(); i++) {
+                writableRow(changedCells, changeLog.getRow(i)).set(changeLog.getCol(i), UNCHANGED);
+            }
+        }
+        changeLog.clear(getChangeLogLimit());
     }
 
     /**
@@ -605,25 +1139,16 @@ public class BoardDynamic {
      * requirements for expansion.
      */
     private boolean shouldExpandNorth() {
-        int numberOfLiveCells = 0;
-        for (int i = 0; i < currentBoard.get(0).size(); i++) {
-            numberOfLiveCells += currentBoard.get(0).get(i);
-        }
-        if (numberOfLiveCells > 0) {
-            return true;
-        } else {
-            return false;
-        }
+        return livingCells > 0 && boxTop == 0;
     }
 
     /**
      * Expand the board with a row of dead cells at the top of the board.
      */
     private void expandNorth() {
-        currentBoard.add(0, new ArrayList<>());
-        for (int i = 0; i < currentBoard.get(1).size(); i++) {
-            currentBoard.get(0).add(DEAD);
-        }
+        currentBoard.add(0, createEmptyRow(getCols()));
+        boxTop++;
+        boxBottom++;
     }
 
     /**
@@ -635,15 +1160,7 @@ public class BoardDynamic {
      * requirements for expansion.
      */
     private boolean shouldExpandWest() {
-        int numberOfLiveCells = 0;
-        for (int i = 0; i < currentBoard.size(); i++) {
-            numberOfLiveCells += currentBoard.get(i).get(0);
-        }
-        if (numberOfLiveCells > 0) {
-            return true;
-        } else {
-            return false;
-        }
+        return livingCells > 0 && boxLeft == 0;
     }
 
     /**
@@ -652,8 +1169,10 @@ public class BoardDynamic {
      */
     private void expandWest() {
         for (int i = 0; i < currentBoard.size(); i++) {
-            currentBoard.get(i).add(0, DEAD);
+            writableRow(currentBoard, i).add(0, DEAD);
         }
+        boxLeft++;
+        boxRight++;
     }
 
     /**
@@ -665,25 +1184,14 @@ public class BoardDynamic {
      * requirements for expansion.
      */
     private boolean shouldExpandSouth() {
-        int numberOfLiveCells = 0;
-        for (int i = 0; i < currentBoard.get(currentBoard.size() - 1).size(); i++) {
-            numberOfLiveCells += currentBoard.get(currentBoard.size() - 1).get(i);
-        }
-        if (numberOfLiveCells > 0) {
-            return true;
-        } else {
-            return false;
-        }
+        return livingCells > 0 && boxBottom == getRows() - 1;
     }
 
     /**
      * Expand the board with a row of dead cells at the bottom of the board.
      */
     private void expandSouth() {
-        currentBoard.add(new ArrayList<>());
-        for (int i = 0; i < currentBoard.get(0).size(); i++) {
-            currentBoard.get(currentBoard.size() - 1).add(DEAD);
-        }
+        currentBoard.add(createEmptyRow(getCols()));
     }
 
     /**
@@ -695,15 +1203,7 @@ public class BoardDynamic {
      * requirements for expansion.
      */
     private boolean shouldExpandEast() {
-        int numberOfLiveCells = 0;
-        for (int i = 0; i < currentBoard.size(); i++) {
-            numberOfLiveCells += currentBoard.get(i).get(currentBoard.get(i).size() - 1);
-        }
-        if (numberOfLiveCells > 0) {
-            return true;
-        } else {
-            return false;
-        }
+        return livingCells > 0 && boxRight == getCols() - 1;
     }
 
     /**
@@ -712,7 +1212,7 @@ public class BoardDynamic {
      */
     private void expandEast() {
         for (int i = 0; i < currentBoard.size(); i++) {
-            currentBoard.get(i).add(DEAD);
+            writableRow(currentBoard, i).add(DEAD);
         }
     }
 
@@ -766,6 +1266,117 @@ public class BoardDynamic {
         return neighbours;
     }
 
+    /**
+     * Counts the number of living neighbour cells for a specified cell on a
+     * toroidal board, where the neighbours of a cell along an edge include
+     * the cells along the opposite edge.
+     *
+     * @param board the game board containing the cell to have its neighbours
+     * counted.
+     * @param row the row location of the cell to have its neighbours counted.
+     * @param col the column location of the cell to have its neighbours
+     * counted.
+     * @return an <code>int</code> specifying the number of living neighbours.
+     */
+    private int countNeighboursToroidal(ArrayList<ArrayList<Byte>> board, int row, int col) {
+        int rowLastIndex = board.size() - 1;
+        int colLastIndex = board.get(0).size() - 1;
+        ArrayList<Byte> north = board.get(row == 0 ? rowLastIndex : row - 1);
+        ArrayList<Byte> middle = board.get(row);
+        ArrayList<Byte> south = board.get(row == rowLastIndex ? 0 : row + 1);
+        int west = col == 0 ? colLastIndex : col - 1;
+        int east = col == colLastIndex ? 0 : col + 1;
+
+        return north.get(west) + north.get(col) + north.get(east)
+                + middle.get(west) + middle.get(east)
+                + south.get(west) + south.get(col) + south.get(east);
+    }
+
+    /**
+     * Gets the smallest rectangle containing every living cell on the board.
+     * The rectangle is kept up to date as cells are born and die, so this is
+     * usually much faster than searching the board.
+     *
+     * @return an <code>int[]</code> holding the top row, left column, bottom
+     * row and right column of the rectangle, or <code>null</code> if there are
+     * no living cells.
+     */
+    @Override
+    public int[] getBoundingBox() {
+        updateBoundingBox();
+        if (boxTop > boxBottom) {
+            return null;
+        }
+        return new int[]{boxTop, boxLeft, boxBottom, boxRight};
+    }
+
+    /**
+     * Grows the bounding box to include a cell which became alive.
+     */
+    private void extendBoundingBox(int row, int col) {
+        if (boxUnknown) {
+            return;
+        }
+        boxTop = Math.min(boxTop, row);
+        boxBottom = Math.max(boxBottom, row);
+        boxLeft = Math.min(boxLeft, col);
+        boxRight = Math.max(boxRight, col);
+    }
+
+    /**
+     * Marks the bounding box for shrinking if a cell on its edge died.
+     */
+    private void cellDied(int row, int col) {
+        if (row == boxTop || row == boxBottom || col == boxLeft || col == boxRight) {
+            boxStale = true;
+        }
+    }
+
+    /**
+     * Makes the bounding box be found by searching the whole board the next
+     * time it is needed. Used whenever the board is replaced or altered in a
+     * way which is not recorded as single cell edits.
+     */
+    private void invalidateBoundingBox() {
+        boxUnknown = true;
+        nextGeneration = null;
+    }
+
+    /**
+     * Shrinks the bounding box if a cell on its edge died, or finds it if it
+     * is unknown. Only the cells within the old bounding box are searched,
+     * unless it is unknown.
+     */
+    private void updateBoundingBox() {
+        if (!boxStale && !boxUnknown) {
+            return;
+        }
+        int top = 0;
+        int left = 0;
+        int bottom = getRows() - 1;
+        int right = getCols() - 1;
+        if (!boxUnknown) {
+            top = Math.max(boxTop, 0);
+            left = Math.max(boxLeft, 0);
+            bottom = Math.min(boxBottom, bottom);
+            right = Math.min(boxRight, right);
+        }
+        boxTop = Integer.MAX_VALUE;
+        boxLeft = Integer.MAX_VALUE;
+        boxBottom = Integer.MIN_VALUE;
+        boxRight = Integer.MIN_VALUE;
+        boxStale = false;
+        boxUnknown = false;
+        for (int row = top; row <= bottom; row++) {
+            ArrayList<Byte> cells = currentBoard.get(row);
+            for (int col = left; col <= right; col++) {
+                if (cells.get(col) == 1) {
+                    extendBoundingBox(row, col);
+                }
+            }
+        }
+    }
+
     /**
      * Toggles the state of a specified cell in the current board. Live cell
      * becomes dead, dead cell becomes alive.
@@ -775,14 +1386,18 @@ public class BoardDynamic {
      * @param col an <code>int</code> specifying the column position of the cell
      * to toggle.
      */
+    @Override
     public void toggleCellState(int row, int col) {
         if (currentBoard.get(row).get(col) == 1) {
             livingCells--;
-            currentBoard.get(row).set(col, DEAD);
+            writableRow(currentBoard, row).set(col, DEAD);
+            cellDied(row, col);
         } else {
-            currentBoard.get(row).set(col, ALLIVE);
+            writableRow(currentBoard, row).set(col, ALLIVE);
             livingCells++;
+            extendBoundingBox(row, col);
         }
+        recordEdit(row, col);
     }
 
     /**
@@ -793,10 +1408,13 @@ public class BoardDynamic {
      * @param col an <code>int</code> specifying the column position of the cell
      * to make alive.
      */
+    @Override
     public void setCellStateAlive(int row, int col) {
         if (currentBoard.get(row).get(col) != 1) {
-            currentBoard.get(row).set(col, ALLIVE);
+            writableRow(currentBoard, row).set(col, ALLIVE);
             livingCells++;
+            extendBoundingBox(row, col);
+            recordEdit(row, col);
         }
     }
 
@@ -804,28 +1422,92 @@ public class BoardDynamic {
      * Reverts the current board back to its starting state. Also resets the
      * generation count and living cell count.
      */
+    @Override
     public void resetBoard() {
-        currentBoard = duplicateBoard(originalBoard);
+        currentBoard = shareRows(originalBoard);
         generationCount = 0;
         countLivingCells();
+        activateAllTiles();
+        invalidateBoundingBox();
     }
 
     /**
      * Replaces the current board with a new, empty board, of the same
      * dimensions, effectively clearing it.
      */
+    @Override
     public void clearBoard() {
         generationCount = 0;
         livingCells = 0;
         currentBoard = createEmptyBoard(originalBoard.size(), originalBoard.get(0).size());
-        originalBoard = createEmptyBoard(currentBoard.size(), currentBoard.get(0).size());
+        originalBoard = shareRows(currentBoard);
+        activateAllTiles();
+        invalidateBoundingBox();
     }
 
     /**
-     * Stores the current board in the originalBoard variable.
+     * Stores the current board in the originalBoard variable. The rows are
+     * shared with the current board until either board changes them.
      */
+    @Override
     public void preserveBoard() {
-        originalBoard = duplicateBoard(currentBoard);
+        originalBoard = shareRows(currentBoard);
+    }
+
+    /**
+     * Creates a new list holding the same rows as the given board, and marks
+     * every row of this board as shared, so the rows are copied before they
+     * are changed.
+     *
+     * @param board the <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>
+     * holding the rows to share.
+     * @return a <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code> holding
+     * the same rows.
+     */
+    private ArrayList<ArrayList<Byte>> shareRows(ArrayList<ArrayList<Byte>> board) {
+        rowOwner = new Object();
+        return new ArrayList<>(board);
+    }
+
+    /**
+     * Gets a row which may be changed in place. If the row may be shared, it
+     * is replaced by a copy first. Only replaces the given row of the board,
+     * so bands of rows can safely be processed in parallel.
+     *
+     * @param board the <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>
+     * holding the row.
+     * @param row an <code>int</code> specifying the row.
+     * @return an <code>ArrayList&lt;Byte&gt;</code> holding the row.
+     */
+    private ArrayList<Byte> writableRow(ArrayList<ArrayList<Byte>> board, int row) {
+        ArrayList<Byte> cells = board.get(row);
+        if (cells instanceof Row && ((Row) cells).owner == rowOwner) {
+            return cells;
+        }
+        Row copy = copyRow(cells);
+        board.set(row, copy);
+        return copy;
+    }
+
+    /**
+     * Creates a copy of a row, owned by the current owner. Leaves room for one
+     * more cell, as rows are copied before the board expands.
+     */
+    private Row copyRow(List<Byte> cells) {
+        Row copy = new Row(cells.size() + 1, rowOwner);
+        copy.addAll(cells);
+        return copy;
+    }
+
+    /**
+     * Creates a row of dead cells, owned by the current owner.
+     */
+    private Row createEmptyRow(int col) {
+        Row row = new Row(col + 1, rowOwner);
+        for (int i = 0; i < col; i++) {
+            row.add(DEAD);
+        }
+        return row;
     }
 
     /**
@@ -837,12 +1519,9 @@ public class BoardDynamic {
      * @return a <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code> copy.
      */
     private ArrayList<ArrayList<Byte>> duplicateBoard(ArrayList<ArrayList<Byte>> original) {
-        ArrayList<ArrayList<Byte>> boardCopy = new ArrayList<>();
+        ArrayList<ArrayList<Byte>> boardCopy = new ArrayList<>(original.size());
         for (int row = 0; row < original.size(); row++) {
-            boardCopy.add(row, new ArrayList<Byte>());
-            for (int col = 0; col < original.get(0).size(); col++) {
-                boardCopy.get(row).add(original.get(row).get(col));
-            }
+            boardCopy.add(copyRow(original.get(row)));
         }
         return boardCopy;
     }
@@ -856,13 +1535,9 @@ public class BoardDynamic {
      * @return the finished <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>.
      */
     private ArrayList<ArrayList<Byte>> createEmptyBoard(int row, int col) {
-        ArrayList<ArrayList<Byte>> emptyBoard = new ArrayList<>();
-        byte dead = 0;
+        ArrayList<ArrayList<Byte>> emptyBoard = new ArrayList<>(row);
         for (int i = 0; i < row; i++) {
-            emptyBoard.add(new ArrayList<Byte>());
-            for (int j = 0; j < col; j++) {
-                emptyBoard.get(i).add(dead);
-            }
+            emptyBoard.add(createEmptyRow(col));
         }
         return emptyBoard;
     }
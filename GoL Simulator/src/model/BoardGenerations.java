@@ -0,0 +1,555 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Board engine for the Generations rule family, playing by the
+ * {@link model.GenerationsRule} acquired from
+ * {@link model.Rules#getGenerationsRule()}. The birth and survival rules used
+ * by the other engines are ignored. {@link #getCellState(int, int)} returns
+ * the state of the cell, where 0 is dead, 1 is alive and 2 and up are dying,
+ * and {@link #getLivingCellCount()} only counts the living cells.
+ *
+ * <p>
+ * These rules tend to fill large boards densely, so the cells are stored two
+ * per <code>byte</code>, 4 bits each, which allows up to 16 states. Cell
+ * <i>c</i> of a row is held by the low 4 bits of byte <i>c</i> / 2 of the row
+ * if <i>c</i> is even, and the high 4 bits otherwise.</p>
+ *
+ * <p>
+ * Each band of rows is computed by unpacking one row at a time into a small
+ * buffer holding a 1 for every living cell, with a dead cell at each end.
+ * Three such buffers, for the rows above, at and below the current row, are
+ * reused as the band is walked, so every row is only unpacked once. The
+ * neighbour count and current state of each cell then give the next state
+ * from the table of the rule.</p>
+ *
+ * <p>
+ * When the rules are toroidal, these buffers act as the halo of the band.
+ * The rows above the first row and below the last row are unpacked from the
+ * opposite edge of the board, and the dead cell at each end of a buffer is
+ * replaced by the cell at the opposite end of the row.</p>
+ */
+public class BoardGenerations extends AbstractBoard {
+
+    private int rows;
+    private int cols;
+
+    /**
+     * The number of bytes per row.
+     */
+    private int rowBytes;
+
+    /**
+     * Represents the game board in its current game state, two cells per
+     * <code>byte</code>.
+     */
+    private byte[] currentBoard;
+
+    /**
+     * The next generation is written to this board, before it is swapped with
+     * currentBoard.
+     */
+    private byte[] nextGeneration;
+
+    /**
+     * One bit per cell, set for cells which changed state during the last
+     * generation shift.
+     */
+    private long[] changedCells;
+
+    /**
+     * Specifies if the generation being computed wraps around the edges of
+     * the board.
+     */
+    private boolean toroidal;
+
+    /**
+     * The number of states of the rule the last generation was computed
+     * with.
+     */
+    private int states = 2;
+
+    /**
+     * Used to store the game board as it was before the game started. Allows
+     * for resetting the game board.
+     */
+    private byte[] originalBoard;
+    private int originalRows;
+    private int originalCols;
+
+    /**
+     * The number of cells per band when using the worker pool, and the
+     * number of living cells counted in each band.
+     */
+    private static final int BAND_SIZE = 16384;
+    private final WorkerPool workerPool = WorkerPool.getInstance();
+    private int[] bandLivingCells = new int[0];
+    private ChangeLog[] bandLogs = new ChangeLog[0];
+
+    /**
+     * Board no-argument constructor initializes a game board consisting of 200
+     * x 200 dead cells.
+     */
+    public BoardGenerations() {
+        this(200, 200);
+    }
+
+    /**
+     * Board constructor. Allows one to define the starting size of the game
+     * board.
+     *
+     * @param row an <code>int</code> specifying the number of rows for the
+     * starting board.
+     * @param col an <code>int</code> specifying the number of columns for the
+     * starting board.
+     * @throws IllegalArgumentException in the case that either the number of
+     * rows of columns are defined to be bellow 1.
+     */
+    public BoardGenerations(int row, int col) {
+        if (row < 1 || col < 1) {
+            throw new IllegalArgumentException("Number of rows and columns must"
+                    + "be higher than 0!");
+        }
+        resize(row, col);
+        currentBoard = new byte[nextGeneration.length];
+        preserveBoard();
+    }
+
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells, and the states of cells are kept.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardGenerations(AbstractBoard board) {
+        this(board.getRows(), board.getCols());
+        byte[] cells = new byte[cols];
+        for (int row = 0; row < rows; row++) {
+            board.readRow(board.getMinRow() + row, board.getMinCol(), cols, cells);
+            for (int col = 0; col < cols; col++) {
+                setState(currentBoard, row, col, cells[col]);
+            }
+        }
+        preserveBoard();
+        copyMetadata(board);
+        countLivingCells();
+    }
+
+    /**
+     * Sets the board dimensions, and allocates the buffers which depend on
+     * them. Does not allocate currentBoard.
+     */
+    private void resize(int newRows, int newCols) {
+        rows = newRows;
+        cols = newCols;
+        rowBytes = (cols + 1) / 2;
+        nextGeneration = new byte[rows * rowBytes];
+        changedCells = new long[(int) (((long) rows * cols + 63) / 64)];
+    }
+
+    private int getState(byte[] board, int row, int col) {
+        return (board[row * rowBytes + (col >> 1)] >>> ((col & 1) << 2)) & 0xF;
+    }
+
+    private void setState(byte[] board, int row, int col, int state) {
+        int i = row * rowBytes + (col >> 1);
+        int shift = (col & 1) << 2;
+        board[i] = (byte) ((board[i] & ~(0xF << shift)) | ((state & 0xF) << shift));
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        return (byte) getState(currentBoard, row, col);
+    }
+
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        long bit = (long) row * cols + col;
+        return (changedCells[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    @Override
+    public void readRow(int row, int col, int count, byte[] cells) {
+        for (int i = 0; i < count; i++) {
+            cells[i] = (byte) getState(currentBoard, row, col + i);
+        }
+    }
+
+    /**
+     * Sets a new game board. Values above 1 are kept as dying states.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        resize(newBoard.length, newBoard[0].length);
+        currentBoard = new byte[nextGeneration.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                setState(currentBoard, row, col, newBoard[row][col]);
+            }
+        }
+        preserveBoard();
+        countLivingCells();
+    }
+
+    /**
+     * Updates the livingCells variable to reflect the number of living cells on
+     * the current board.
+     */
+    private void countLivingCells() {
+        livingCells = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (getState(currentBoard, row, col) == 1) {
+                    livingCells++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of states of the rule the last generation was computed
+     * with. A cell which changed state during the last generation was in the
+     * state before its current state, counting down from 0 to the last
+     * dying state.
+     *
+     * @return an <code>int</code> specifying the number of states.
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Checks if any cell on the board is dying.
+     *
+     * @return a <code>boolean</code> specifying if any cell has a state above
+     * 1.
+     */
+    public boolean hasDyingCells() {
+        for (byte b : currentBoard) {
+            // a state above 1 sets one of the 3 highest bits of its 4 bits.
+            if ((b & 0xEE) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Iterates the current board to its next generation, playing by the
+     * Generations rule defined in the Rules class object.
+     *
+     * @see model.Rules#getGenerationsRule()
+     */
+    @Override
+    public void nextGeneration() {
+        byte[] table = prepareNextGeneration();
+        livingCells = computeRows(0, rows, table, changeLog);
+        finishNextGeneration();
+    }
+
+    /**
+     * Iterates the current board to its next generation, splitting the board
+     * into bands of rows which are computed by the shared
+     * {@link model.WorkerPool}. Bands hold a multiple of 64 cells, so no two
+     * bands write to the same word of changed cells.
+     */
+    @Override
+    public void nextGenerationConcurrent() {
+        byte[] table = prepareNextGeneration();
+
+        int rowsPerBand = Math.max(1, Math.min(BAND_SIZE / cols, rows / workerPool.getParallelism()));
+        // round up so that each band starts at a whole word of changed cells.
+        while (((long) rowsPerBand * cols) % 64 != 0 && rowsPerBand < rows) {
+            rowsPerBand++;
+        }
+        int perBand = rowsPerBand;
+        int bands = (rows + perBand - 1) / perBand;
+        if (bandLivingCells.length < bands) {
+            bandLivingCells = new int[bands];
+            bandLogs = Arrays.copyOf(bandLogs, bands);
+            for (int band = 0; band < bands; band++) {
+                if (bandLogs[band] == null) {
+                    bandLogs[band] = new ChangeLog();
+                }
+            }
+        }
+        int logLimit = getChangeLogLimit();
+        for (int band = 0; band < bands; band++) {
+            bandLogs[band].clear(logLimit);
+        }
+        int[] living = bandLivingCells;
+        ChangeLog[] logs = bandLogs;
+        workerPool.runTasks(bands, band -> {
+            living[band] = computeRows(band * perBand,
+                    Math.min((band + 1) * perBand, rows), table, logs[band]);
+        });
+
+        livingCells = 0;
+        for (int band = 0; band < bands; band++) {
+            livingCells += living[band];
+            changeLog.addAll(logs[band]);
+        }
+        finishNextGeneration();
+    }
+
+    /**
+     * Expands the board if needed, and clears the change log, before a
+     * generation shift.
+     *
+     * @return the next state table of the rule used for this generation.
+     */
+    private byte[] prepareNextGeneration() {
+        expandedNorth = false;
+        expandedWest = false;
+        boardExpanded = false;
+
+        if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
+            expandBoardIfNeeded();
+        }
+        toroidal = rules.isToroidal();
+        changeLog.clear(getChangeLogLimit());
+        GenerationsRule rule = rules.getGenerationsRule();
+        states = rule.getStates();
+        return rule.getTable();
+    }
+
+    /**
+     * Marks every cell as changed if the board expanded, and swaps the
+     * buffers.
+     */
+    private void finishNextGeneration() {
+        if (boardExpanded) {
+            // if board expanded, all cells will have shifted, and thereby
+            // changed.
+            Arrays.fill(changedCells, -1L);
+            changeLog.setAllChanged();
+        }
+
+        byte[] previousGeneration = currentBoard;
+        currentBoard = nextGeneration;
+        nextGeneration = previousGeneration;
+        generationCount++;
+    }
+
+    /**
+     * Computes the next state of a band of rows. Only the rows within the
+     * band are written to, so bands can safely be computed in parallel.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     * @param table the next state table of the rule.
+     * @param log the change log the changed cells of the band are added to.
+     * @return an <code>int</code> specifying the number of living cells in
+     * the band after the generation shift.
+     */
+    private int computeRows(int startRow, int endRow, byte[] table, ChangeLog log) {
+        byte[] cells = currentBoard;
+        byte[] next = nextGeneration;
+        long[] changed = changedCells;
+        // the living cells of the rows above, at and below the current row,
+        // with a dead cell at each end.
+        byte[] above = new byte[cols + 2];
+        byte[] current = new byte[cols + 2];
+        byte[] below = new byte[cols + 2];
+        unpackLiving(startRow - 1, above);
+        unpackLiving(startRow, current);
+        int living = 0;
+        for (int row = startRow; row < endRow; row++) {
+            unpackLiving(row + 1, below);
+            int start = row * rowBytes;
+            long bit = (long) row * cols;
+            for (int col = 0; col < cols; col++, bit++) {
+                int neighbours = above[col] + above[col + 1] + above[col + 2]
+                        + current[col] + current[col + 2]
+                        + below[col] + below[col + 1] + below[col + 2];
+                int shift = (col & 1) << 2;
+                int state = (cells[start + (col >> 1)] >>> shift) & 0xF;
+                int nextState = table[state * 9 + neighbours];
+                if (shift == 0) {
+                    next[start + (col >> 1)] = (byte) nextState;
+                } else {
+                    next[start + (col >> 1)] |= (byte) (nextState << 4);
+                }
+                int word = (int) (bit >>> 6);
+                if (nextState != state) {
+                    changed[word] |= 1L << bit;
+                    log.add(row, col);
+                } else {
+                    changed[word] &= ~(1L << bit);
+                }
+                if (nextState == 1) {
+                    living++;
+                }
+            }
+            byte[] reuse = above;
+            above = current;
+            current = below;
+            below = reuse;
+        }
+        return living;
+    }
+
+    /**
+     * Writes a 1 for every living cell of a row, leaving a dead cell at each
+     * end. Rows outside the board are dead, unless the generation is
+     * toroidal, where they are the rows at the opposite edge, and the ends
+     * hold the cells at the opposite end of the row.
+     */
+    private void unpackLiving(int row, byte[] living) {
+        if (toroidal) {
+            row = row < 0 ? rows - 1 : row == rows ? 0 : row;
+        } else if (row < 0 || row >= rows) {
+            Arrays.fill(living, (byte) 0);
+            return;
+        }
+        int start = row * rowBytes;
+        for (int col = 0; col < cols; col++) {
+            int state = (currentBoard[start + (col >> 1)] >>> ((col & 1) << 2)) & 0xF;
+            living[col + 1] = state == 1 ? (byte) 1 : 0;
+        }
+        if (toroidal) {
+            living[0] = living[cols];
+            living[cols + 1] = living[1];
+        }
+    }
+
+    /**
+     * Checks the current board to see if it should be expanded. Requirement for
+     * expansion is if a living cell is touching one of the current boards
+     * borders. Dying cells can not give birth, and do not expand the board.
+     * All required expansions are done with a single copy of the board.
+     */
+    private void expandBoardIfNeeded() {
+        boolean north = false;
+        boolean south = false;
+        boolean west = false;
+        boolean east = false;
+        for (int col = 0; col < cols; col++) {
+            north |= getState(currentBoard, 0, col) == 1;
+            south |= getState(currentBoard, rows - 1, col) == 1;
+        }
+        for (int row = 0; row < rows; row++) {
+            west |= getState(currentBoard, row, 0) == 1;
+            east |= getState(currentBoard, row, cols - 1) == 1;
+        }
+
+        if (north || east || south || west) {
+            int rowShift = north ? 1 : 0;
+            int colShift = west ? 1 : 0;
+            byte[] oldBoard = currentBoard;
+            int oldRows = rows;
+            int oldCols = cols;
+            int oldRowBytes = rowBytes;
+            resize(rows + rowShift + (south ? 1 : 0), cols + colShift + (east ? 1 : 0));
+            currentBoard = new byte[nextGeneration.length];
+
+            for (int row = 0; row < oldRows; row++) {
+                if (colShift == 0) {
+                    System.arraycopy(oldBoard, row * oldRowBytes,
+                            currentBoard, (row + rowShift) * rowBytes, oldRowBytes);
+                } else {
+                    for (int col = 0; col < oldCols; col++) {
+                        int state = (oldBoard[row * oldRowBytes + (col >> 1)] >>> ((col & 1) << 2)) & 0xF;
+                        setState(currentBoard, row + rowShift, col + colShift, state);
+                    }
+                }
+            }
+
+            expandedNorth = north;
+            expandedWest = west;
+            boardExpanded = true;
+        }
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        int state = getState(currentBoard, row, col);
+        setState(currentBoard, row, col, state == 1 ? 0 : 1);
+        livingCells += state == 1 ? -1 : 1;
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        if (getState(currentBoard, row, col) != 1) {
+            setState(currentBoard, row, col, 1);
+            livingCells++;
+        }
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        byte[] newBoard = new byte[currentBoard.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int state = getState(currentBoard, row, col);
+                if (state != 0) {
+                    int newRow = row + yAxis;
+                    int newCol = col + xAxis;
+                    // check if new coordinates is within the bounds of the board
+                    if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                        return;
+                    }
+                    setState(newBoard, newRow, newCol, state);
+                }
+            }
+        }
+        currentBoard = newBoard;
+    }
+
+    @Override
+    public void resetBoard() {
+        resize(originalRows, originalCols);
+        currentBoard = originalBoard.clone();
+        generationCount = 0;
+        countLivingCells();
+    }
+
+    @Override
+    public void clearBoard() {
+        generationCount = 0;
+        livingCells = 0;
+        resize(originalRows, originalCols);
+        currentBoard = new byte[nextGeneration.length];
+        preserveBoard();
+    }
+
+    @Override
+    public void preserveBoard() {
+        originalBoard = currentBoard.clone();
+        originalRows = rows;
+        originalCols = cols;
+    }
+
+    @Override
+    public BoardGenerations deepCopy() {
+        BoardGenerations b = new BoardGenerations(1, 1);
+        b.resize(rows, cols);
+        b.currentBoard = currentBoard.clone();
+        b.changedCells = changedCells.clone();
+        b.changeLog.copy(changeLog);
+        b.originalBoard = originalBoard.clone();
+        b.originalRows = originalRows;
+        b.originalCols = originalCols;
+        b.generationCount = generationCount;
+        b.livingCells = livingCells;
+        b.states = states;
+        b.setMetadata(boardAuthor, boardName, boardComment);
+        return b;
+    }
+}
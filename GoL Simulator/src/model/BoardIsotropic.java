@@ -0,0 +1,493 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Board engine for isotropic non-totalistic rules, playing by the
+ * {@link model.IsotropicRule} acquired from
+ * {@link model.Rules#getIsotropicRule()}. The birth and survival rules used
+ * by the other engines are ignored.
+ *
+ * <p>
+ * Like {@link model.BoardDense}, the board is stored one cell per
+ * <code>byte</code> in a flat array surrounded by a ring of dead cells. Each
+ * row is computed from left to right, keeping the 3 x 3 neighbourhood of the
+ * current cell as a 9 bit index. Moving one cell to the right shifts the
+ * index one column, and reads only the three cells of the new column. The
+ * next state is then looked up in the 512 entry table of the rule, so every
+ * rule is computed as fast as Conway's rule, without branching on the
+ * rule.</p>
+ *
+ * <p>
+ * Toroidal rules are handled as by {@link model.BoardDense}, copying the
+ * opposite edges into the dead border next to each band before it is
+ * computed.</p>
+ */
+public class BoardIsotropic extends AbstractBoard {
+
+    private int rows;
+    private int cols;
+
+    /**
+     * The number of array elements per row, including the dead border.
+     */
+    private int stride;
+
+    /**
+     * Represents the game board in its current game state, including the dead
+     * border. 1 represents a live cell. The border only holds living cells
+     * while a toroidal generation is computed.
+     */
+    private byte[] currentBoard;
+
+    /**
+     * The next generation is written to this board, before it is swapped with
+     * currentBoard. Its border is never written to, and stays dead.
+     */
+    private byte[] nextGeneration;
+
+    /**
+     * 1 represents a cell which changed during the last generation shift.
+     */
+    private byte[] changedCells;
+
+    /**
+     * Specifies if the generation being computed wraps around the edges of
+     * the board.
+     */
+    private boolean toroidal;
+
+    /**
+     * Used to store the game board as it was before the game started. Allows
+     * for resetting the game board.
+     */
+    private byte[] originalBoard;
+    private int originalRows;
+    private int originalCols;
+
+    /**
+     * The number of rows per band when using the worker pool, and the number
+     * of living cells counted in each band.
+     */
+    private static final int BAND_SIZE = 16384;
+    private final WorkerPool workerPool = WorkerPool.getInstance();
+    private int[] bandLivingCells = new int[0];
+    private ChangeLog[] bandLogs = new ChangeLog[0];
+
+    /**
+     * Clears the bits of the left column of a neighbourhood index after it is
+     * shifted one column.
+     */
+    private static final int KEEP_COLUMNS = 0xDB;
+
+    /**
+     * Board no-argument constructor initializes a game board consisting of 200
+     * x 200 dead cells.
+     */
+    public BoardIsotropic() {
+        this(200, 200);
+    }
+
+    /**
+     * Board constructor. Allows one to define the starting size of the game
+     * board.
+     *
+     * @param row an <code>int</code> specifying the number of rows for the
+     * starting board.
+     * @param col an <code>int</code> specifying the number of columns for the
+     * starting board.
+     * @throws IllegalArgumentException in the case that either the number of
+     * rows of columns are defined to be bellow 1.
+     */
+    public BoardIsotropic(int row, int col) {
+        if (row < 1 || col < 1) {
+            throw new IllegalArgumentException("Number of rows and columns must"
+                    + "be higher than 0!");
+        }
+        resize(row, col);
+        currentBoard = new byte[nextGeneration.length];
+        preserveBoard();
+    }
+
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardIsotropic(AbstractBoard board) {
+        this(board.getRows(), board.getCols());
+        byte[] cells = new byte[cols];
+        for (int row = 0; row < rows; row++) {
+            board.readRow(board.getMinRow() + row, board.getMinCol(), cols, cells);
+            System.arraycopy(cells, 0, currentBoard, index(row, 0), cols);
+        }
+        preserveBoard();
+        copyMetadata(board);
+        countLivingCells();
+    }
+
+    /**
+     * Sets the board dimensions, and allocates the buffers which depend on
+     * them. Does not allocate currentBoard.
+     */
+    private void resize(int newRows, int newCols) {
+        rows = newRows;
+        cols = newCols;
+        stride = cols + 2;
+        nextGeneration = new byte[(rows + 2) * stride];
+        changedCells = new byte[(rows + 2) * stride];
+    }
+
+    /**
+     * Gets the array index of the given cell.
+     */
+    private int index(int row, int col) {
+        return (row + 1) * stride + col + 1;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        return currentBoard[index(row, col)];
+    }
+
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        return changedCells[index(row, col)] != 0;
+    }
+
+    @Override
+    public void readRow(int row, int col, int count, byte[] cells) {
+        System.arraycopy(currentBoard, index(row, col), cells, 0, count);
+    }
+
+    /**
+     * Sets a new game board.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        resize(newBoard.length, newBoard[0].length);
+        currentBoard = new byte[nextGeneration.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                currentBoard[index(row, col)] = newBoard[row][col] == 1 ? (byte) 1 : 0;
+            }
+        }
+        preserveBoard();
+        countLivingCells();
+    }
+
+    /**
+     * Updates the livingCells variable to reflect the number of living cells on
+     * the current board.
+     */
+    private void countLivingCells() {
+        livingCells = 0;
+        for (int i = 0; i < currentBoard.length; i++) {
+            livingCells += currentBoard[i];
+        }
+    }
+
+    /**
+     * Iterates the current board to its next generation, playing by the
+     * isotropic rule defined in the Rules class object.
+     *
+     * @see model.Rules#getIsotropicRule()
+     */
+    @Override
+    public void nextGeneration() {
+        byte[] table = prepareNextGeneration();
+        livingCells = computeRows(0, rows, table, changeLog);
+        finishNextGeneration();
+    }
+
+    /**
+     * Iterates the current board to its next generation, splitting the board
+     * into bands of rows which are computed by the shared
+     * {@link model.WorkerPool}.
+     */
+    @Override
+    public void nextGenerationConcurrent() {
+        byte[] table = prepareNextGeneration();
+
+        int rowsPerBand = Math.max(1, Math.min(BAND_SIZE / cols, rows / workerPool.getParallelism()));
+        int bands = (rows + rowsPerBand - 1) / rowsPerBand;
+        if (bandLivingCells.length < bands) {
+            bandLivingCells = new int[bands];
+            bandLogs = Arrays.copyOf(bandLogs, bands);
+            for (int band = 0; band < bands; band++) {
+                if (bandLogs[band] == null) {
+                    bandLogs[band] = new ChangeLog();
+                }
+            }
+        }
+        int logLimit = getChangeLogLimit();
+        for (int band = 0; band < bands; band++) {
+            bandLogs[band].clear(logLimit);
+        }
+        int[] living = bandLivingCells;
+        ChangeLog[] logs = bandLogs;
+        workerPool.runTasks(bands, band -> {
+            living[band] = computeRows(band * rowsPerBand,
+                    Math.min((band + 1) * rowsPerBand, rows), table, logs[band]);
+        });
+
+        livingCells = 0;
+        for (int band = 0; band < bands; band++) {
+            livingCells += living[band];
+            changeLog.addAll(logs[band]);
+        }
+        finishNextGeneration();
+    }
+
+    /**
+     * Expands the board if needed, and clears the change log, before a
+     * generation shift.
+     *
+     * @return the next state table of the rule used for this generation.
+     */
+    private byte[] prepareNextGeneration() {
+        expandedNorth = false;
+        expandedWest = false;
+        boardExpanded = false;
+
+        if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
+            expandBoardIfNeeded();
+        }
+        toroidal = rules.isToroidal();
+        changeLog.clear(getChangeLogLimit());
+        return rules.getIsotropicRule().getTable();
+    }
+
+    /**
+     * Marks every cell as changed if the board expanded, swaps the buffers,
+     * and clears the halo used by a toroidal generation.
+     */
+    private void finishNextGeneration() {
+        if (boardExpanded) {
+            // if board expanded, all cells will have shifted, and thereby
+            // changed.
+            for (int row = 0; row < rows; row++) {
+                int start = index(row, 0);
+                Arrays.fill(changedCells, start, start + cols, (byte) 1);
+            }
+            changeLog.setAllChanged();
+        }
+
+        byte[] previousGeneration = currentBoard;
+        currentBoard = nextGeneration;
+        nextGeneration = previousGeneration;
+        if (toroidal) {
+            clearHalo(nextGeneration);
+        }
+        generationCount++;
+    }
+
+    /**
+     * Copies the cells along the opposite edges of the board into the dead
+     * border next to a band of rows, and next to the rows bordering the band.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     */
+    private void fillHalo(int startRow, int endRow) {
+        for (int row = startRow - 1; row <= endRow; row++) {
+            int source = row < 0 ? rows - 1 : row == rows ? 0 : row;
+            int start = (row + 1) * stride;
+            if (source != row) {
+                System.arraycopy(currentBoard, index(source, 0), currentBoard, start + 1, cols);
+            }
+            currentBoard[start] = currentBoard[index(source, cols - 1)];
+            currentBoard[start + cols + 1] = currentBoard[index(source, 0)];
+        }
+    }
+
+    /**
+     * Makes the border of a buffer dead again after a toroidal generation.
+     */
+    private void clearHalo(byte[] board) {
+        Arrays.fill(board, 0, stride, (byte) 0);
+        Arrays.fill(board, (rows + 1) * stride, (rows + 2) * stride, (byte) 0);
+        for (int row = 0; row < rows; row++) {
+            board[(row + 1) * stride] = 0;
+            board[(row + 1) * stride + cols + 1] = 0;
+        }
+    }
+
+    /**
+     * Computes the next state of a band of rows. Only the rows within the
+     * band are written to, so bands can safely be computed in parallel.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     * @param table the next state table of the rule.
+     * @param log the change log the changed cells of the band are added to.
+     * @return an <code>int</code> specifying the number of living cells in
+     * the band after the generation shift.
+     */
+    private int computeRows(int startRow, int endRow, byte[] table, ChangeLog log) {
+        if (toroidal) {
+            fillHalo(startRow, endRow);
+        }
+        byte[] cells = currentBoard;
+        byte[] next = nextGeneration;
+        byte[] changed = changedCells;
+        int s = stride;
+        int living = 0;
+        for (int row = startRow; row < endRow; row++) {
+            int start = index(row, 0);
+            // the column west of the first cell, and the first cell's own
+            // column, as the middle and east columns of the index. They are
+            // shifted west before the first cell is computed.
+            int west = cells[start - s - 1] | cells[start - 1] << 3 | cells[start + s - 1] << 6;
+            int centre = cells[start - s] | cells[start] << 3 | cells[start + s] << 6;
+            int neighbourhood = west << 1 | centre << 2;
+            for (int i = start; i < start + cols; i++) {
+                int east = cells[i - s + 1] | cells[i + 1] << 3 | cells[i + s + 1] << 6;
+                neighbourhood = (neighbourhood >>> 1) & KEEP_COLUMNS | east << 2;
+                byte cell = cells[i];
+                byte nextCell = table[neighbourhood];
+                next[i] = nextCell;
+                changed[i] = (byte) (nextCell ^ cell);
+                if (nextCell != cell) {
+                    log.add(row, i - start);
+                }
+                living += nextCell;
+            }
+        }
+        return living;
+    }
+
+    /**
+     * Checks the current board to see if it should be expanded. Requirement for
+     * expansion is if a living cell is touching one of the current boards
+     * borders. All required expansions are done with a single copy of the
+     * board.
+     */
+    private void expandBoardIfNeeded() {
+        boolean north = false;
+        boolean south = false;
+        boolean west = false;
+        boolean east = false;
+        for (int col = 0; col < cols; col++) {
+            north |= currentBoard[index(0, col)] != 0;
+            south |= currentBoard[index(rows - 1, col)] != 0;
+        }
+        for (int row = 0; row < rows; row++) {
+            west |= currentBoard[index(row, 0)] != 0;
+            east |= currentBoard[index(row, cols - 1)] != 0;
+        }
+
+        if (north || east || south || west) {
+            int rowShift = north ? 1 : 0;
+            int colShift = west ? 1 : 0;
+            byte[] oldBoard = currentBoard;
+            int oldRows = rows;
+            int oldCols = cols;
+            int oldStride = stride;
+            resize(rows + rowShift + (south ? 1 : 0), cols + colShift + (east ? 1 : 0));
+            currentBoard = new byte[nextGeneration.length];
+
+            for (int row = 0; row < oldRows; row++) {
+                System.arraycopy(oldBoard, (row + 1) * oldStride + 1,
+                        currentBoard, index(row + rowShift, colShift), oldCols);
+            }
+
+            expandedNorth = north;
+            expandedWest = west;
+            boardExpanded = true;
+        }
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        int i = index(row, col);
+        currentBoard[i] ^= 1;
+        livingCells += currentBoard[i] == 1 ? 1 : -1;
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        int i = index(row, col);
+        if (currentBoard[i] != 1) {
+            currentBoard[i] = 1;
+            livingCells++;
+        }
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        byte[] newBoard = new byte[currentBoard.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (currentBoard[index(row, col)] == 1) {
+                    int newRow = row + yAxis;
+                    int newCol = col + xAxis;
+                    // check if new coordinates is within the bounds of the board
+                    if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                        return;
+                    }
+                    newBoard[index(newRow, newCol)] = 1;
+                }
+            }
+        }
+        currentBoard = newBoard;
+    }
+
+    @Override
+    public void resetBoard() {
+        resize(originalRows, originalCols);
+        currentBoard = originalBoard.clone();
+        generationCount = 0;
+        countLivingCells();
+    }
+
+    @Override
+    public void clearBoard() {
+        generationCount = 0;
+        livingCells = 0;
+        resize(originalRows, originalCols);
+        currentBoard = new byte[nextGeneration.length];
+        preserveBoard();
+    }
+
+    @Override
+    public void preserveBoard() {
+        originalBoard = currentBoard.clone();
+        originalRows = rows;
+        originalCols = cols;
+    }
+
+    @Override
+    public BoardIsotropic deepCopy() {
+        BoardIsotropic b = new BoardIsotropic(1, 1);
+        b.resize(rows, cols);
+        b.currentBoard = currentBoard.clone();
+        b.changedCells = changedCells.clone();
+        b.changeLog.copy(changeLog);
+        b.originalBoard = originalBoard.clone();
+        b.originalRows = originalRows;
+        b.originalCols = originalCols;
+        b.generationCount = generationCount;
+        b.livingCells = livingCells;
+        b.setMetadata(boardAuthor, boardName, boardComment);
+        return b;
+    }
+}
@@ -0,0 +1,549 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Board engine for Larger than Life rules, where the neighbourhood of a cell
+ * is the square of (2R + 1) x (2R + 1) cells around it, as defined by the
+ * {@link model.LargerThanLifeRule} acquired from
+ * {@link model.Rules#getLargerThanLifeRule()}. The birth and survival rules
+ * used by the other engines are ignored.
+ *
+ * <p>
+ * Counting the neighbourhood of every cell directly would take
+ * (2R + 1)<sup>2</sup> reads per cell. Instead, a summed-area table is built
+ * at the start of each generation, where each entry holds the number of
+ * living cells above and to the left of it. The number of living cells in any
+ * rectangle, and thereby in any neighbourhood, is then found using four reads
+ * from the table, so a generation takes the same time whatever the range.
+ * Both the table and the next generation are computed by the worker pool
+ * when using {@link #nextGenerationConcurrent()}.</p>
+ *
+ * <p>
+ * As the cells of a pattern may spread up to R cells per generation, a
+ * dynamic board keeps a margin of R dead cells around the living cells,
+ * growing by R cells on a side when needed. Like {@link model.BoardChunked},
+ * cells are addressed by signed coordinates, so the cells do not move when
+ * the board grows north or west. Instead {@link #getMinRow()} and
+ * {@link #getMinCol()} are reduced, and every cell is reported as
+ * changed.</p>
+ */
+public class BoardLargerThanLife extends AbstractBoard {
+
+    private int rows;
+    private int cols;
+    private int minRow;
+    private int minCol;
+
+    /**
+     * Represents the game board in its current game state, row by row. 1
+     * represents a live cell.
+     */
+    private byte[] currentBoard;
+
+    /**
+     * The next generation is written to this board, before it is swapped with
+     * currentBoard.
+     */
+    private byte[] nextGeneration;
+
+    /**
+     * 1 represents a cell which changed during the last generation shift.
+     */
+    private byte[] changedCells;
+
+    /**
+     * The summed-area table of the current board, with (rows + 1) x (cols + 1)
+     * entries. The entry at row r and column c holds the number of living
+     * cells above row r and left of column c. The first row and column are
+     * always 0.
+     */
+    private int[] table;
+
+    /**
+     * Used to store the game board as it was before the game started. Allows
+     * for resetting the game board.
+     */
+    private byte[] originalBoard;
+    private int originalRows;
+    private int originalCols;
+    private int originalMinRow;
+    private int originalMinCol;
+
+    /**
+     * The number of cells per band when using the worker pool, and the
+     * number of living cells counted in each band.
+     */
+    private static final int BAND_SIZE = 16384;
+    private final WorkerPool workerPool = WorkerPool.getInstance();
+    private int[] bandLivingCells = new int[0];
+    private ChangeLog[] bandLogs = new ChangeLog[0];
+
+    /**
+     * Board no-argument constructor initializes a game board consisting of 200
+     * x 200 dead cells.
+     */
+    public BoardLargerThanLife() {
+        this(200, 200);
+    }
+
+    /**
+     * Board constructor. Allows one to define the starting size of the game
+     * board.
+     *
+     * @param row an <code>int</code> specifying the number of rows for the
+     * starting board.
+     * @param col an <code>int</code> specifying the number of columns for the
+     * starting board.
+     * @throws IllegalArgumentException in the case that either the number of
+     * rows of columns are defined to be bellow 1.
+     */
+    public BoardLargerThanLife(int row, int col) {
+        if (row < 1 || col < 1) {
+            throw new IllegalArgumentException("Number of rows and columns must"
+                    + "be higher than 0!");
+        }
+        resize(row, col);
+        currentBoard = new byte[rows * cols];
+        preserveBoard();
+    }
+
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardLargerThanLife(AbstractBoard board) {
+        this(board.getRows(), board.getCols());
+        byte[] cells = new byte[cols];
+        for (int row = 0; row < rows; row++) {
+            board.readRow(board.getMinRow() + row, board.getMinCol(), cols, cells);
+            System.arraycopy(cells, 0, currentBoard, row * cols, cols);
+        }
+        preserveBoard();
+        copyMetadata(board);
+        countLivingCells();
+    }
+
+    /**
+     * Sets the board dimensions, and allocates the buffers which depend on
+     * them. Does not allocate currentBoard.
+     */
+    private void resize(int newRows, int newCols) {
+        rows = newRows;
+        cols = newCols;
+        nextGeneration = new byte[rows * cols];
+        changedCells = new byte[rows * cols];
+        table = new int[(rows + 1) * (cols + 1)];
+    }
+
+    private int index(int row, int col) {
+        return (row - minRow) * cols + col - minCol;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public int getMinRow() {
+        return minRow;
+    }
+
+    @Override
+    public int getMinCol() {
+        return minCol;
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        return currentBoard[index(row, col)];
+    }
+
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        return boardExpanded || changedCells[index(row, col)] != 0;
+    }
+
+    @Override
+    public void readRow(int row, int col, int count, byte[] cells) {
+        System.arraycopy(currentBoard, index(row, col), cells, 0, count);
+    }
+
+    /**
+     * Sets a new game board.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        minRow = 0;
+        minCol = 0;
+        resize(newBoard.length, newBoard[0].length);
+        currentBoard = new byte[rows * cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                currentBoard[index(row, col)] = newBoard[row][col] == 1 ? (byte) 1 : 0;
+            }
+        }
+        preserveBoard();
+        countLivingCells();
+    }
+
+    /**
+     * Updates the livingCells variable to reflect the number of living cells on
+     * the current board.
+     */
+    private void countLivingCells() {
+        livingCells = 0;
+        for (int i = 0; i < currentBoard.length; i++) {
+            livingCells += currentBoard[i];
+        }
+    }
+
+    /**
+     * Iterates the current board to its next generation, playing by the
+     * Larger than Life rule defined in the Rules class object.
+     *
+     * @see model.Rules#getLargerThanLifeRule()
+     */
+    @Override
+    public void nextGeneration() {
+        LargerThanLifeRule rule = prepareNextGeneration();
+        sumRows(0, rows);
+        sumColumns(0, cols + 1);
+        livingCells = computeRows(0, rows, rule, changeLog);
+        finishNextGeneration();
+    }
+
+    /**
+     * Iterates the current board to its next generation, splitting the board
+     * into bands of rows which are computed by the shared
+     * {@link model.WorkerPool}. The summed-area table is built in bands of
+     * rows and then in strips of columns.
+     */
+    @Override
+    public void nextGenerationConcurrent() {
+        LargerThanLifeRule rule = prepareNextGeneration();
+
+        int parallelism = workerPool.getParallelism();
+        int rowsPerBand = Math.max(1, Math.min(BAND_SIZE / cols, rows / parallelism));
+        int bands = (rows + rowsPerBand - 1) / rowsPerBand;
+        // strips are at least 64 columns wide, so two threads rarely write to
+        // the same cache line.
+        int colsPerStrip = Math.max(64, (cols + parallelism) / parallelism);
+        int strips = (cols + colsPerStrip) / colsPerStrip;
+        if (bandLivingCells.length < bands) {
+            bandLivingCells = new int[bands];
+            bandLogs = Arrays.copyOf(bandLogs, bands);
+            for (int band = 0; band < bands; band++) {
+                if (bandLogs[band] == null) {
+                    bandLogs[band] = new ChangeLog();
+                }
+            }
+        }
+        int logLimit = getChangeLogLimit();
+        for (int band = 0; band < bands; band++) {
+            bandLogs[band].clear(logLimit);
+        }
+
+        workerPool.runTasks(bands, band -> {
+            sumRows(band * rowsPerBand, Math.min((band + 1) * rowsPerBand, rows));
+        });
+        workerPool.runTasks(strips, strip -> {
+            sumColumns(strip * colsPerStrip, Math.min((strip + 1) * colsPerStrip, cols + 1));
+        });
+        int[] living = bandLivingCells;
+        ChangeLog[] logs = bandLogs;
+        workerPool.runTasks(bands, band -> {
+            living[band] = computeRows(band * rowsPerBand,
+                    Math.min((band + 1) * rowsPerBand, rows), rule, logs[band]);
+        });
+
+        livingCells = 0;
+        for (int band = 0; band < bands; band++) {
+            livingCells += living[band];
+            changeLog.addAll(logs[band]);
+        }
+        finishNextGeneration();
+    }
+
+    /**
+     * Expands the board if needed, and clears the change log, before a
+     * generation shift.
+     *
+     * @return the rule used for this generation.
+     */
+    private LargerThanLifeRule prepareNextGeneration() {
+        expandedNorth = false;
+        expandedWest = false;
+        boardExpanded = false;
+        changeLog.clear(getChangeLogLimit());
+
+        LargerThanLifeRule rule = rules.getLargerThanLifeRule();
+        if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
+            expandBoardIfNeeded(rule.getRange());
+        }
+        return rule;
+    }
+
+    /**
+     * Swaps the buffers and updates the counters after a generation shift.
+     */
+    private void finishNextGeneration() {
+        if (boardExpanded) {
+            changeLog.setAllChanged();
+        }
+        byte[] previousGeneration = currentBoard;
+        currentBoard = nextGeneration;
+        nextGeneration = previousGeneration;
+        generationCount++;
+    }
+
+    /**
+     * Writes the number of living cells to the left of each cell, for a band
+     * of rows of the summed-area table.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     */
+    private void sumRows(int startRow, int endRow) {
+        int[] sums = table;
+        byte[] cells = currentBoard;
+        int width = cols + 1;
+        for (int row = startRow; row < endRow; row++) {
+            int from = row * cols;
+            int to = (row + 1) * width + 1;
+            int sum = 0;
+            for (int col = 0; col < cols; col++) {
+                sum += cells[from + col];
+                sums[to + col] = sum;
+            }
+        }
+    }
+
+    /**
+     * Adds the entries above each entry of a strip of columns of the
+     * summed-area table, once every row has been summed.
+     *
+     * @param startCol an <code>int</code> specifying the first column of the
+     * strip.
+     * @param endCol an <code>int</code> specifying the column after the last
+     * column of the strip.
+     */
+    private void sumColumns(int startCol, int endCol) {
+        int[] sums = table;
+        int width = cols + 1;
+        for (int row = 2; row <= rows; row++) {
+            int above = (row - 1) * width;
+            int current = row * width;
+            for (int col = startCol; col < endCol; col++) {
+                sums[current + col] += sums[above + col];
+            }
+        }
+    }
+
+    /**
+     * Computes the next state of a band of rows, and logs the changed cells.
+     * Only the rows within the band are written to, so bands can safely be
+     * computed in parallel.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     * @param rule the rule used for this generation.
+     * @param log the change log of the band.
+     * @return an <code>int</code> specifying the number of living cells in
+     * the band after the generation shift.
+     */
+    private int computeRows(int startRow, int endRow, LargerThanLifeRule rule, ChangeLog log) {
+        int[] sums = table;
+        byte[] cells = currentBoard;
+        byte[] next = nextGeneration;
+        byte[] changed = changedCells;
+        int range = rule.getRange();
+        int middle = rule.isMiddleIncluded() ? 0 : 1;
+        int birthMin = rule.getBirthMin();
+        int birthMax = rule.getBirthMax();
+        int surviveMin = rule.getSurviveMin();
+        int surviveMax = rule.getSurviveMax();
+        int width = cols + 1;
+        int living = 0;
+        for (int row = startRow; row < endRow; row++) {
+            // the rows of the table above and below the neighbourhood.
+            int top = Math.max(row - range, 0) * width;
+            int bottom = (Math.min(row + range, rows - 1) + 1) * width;
+            int i = row * cols;
+            for (int col = 0; col < cols; col++, i++) {
+                int left = Math.max(col - range, 0);
+                int right = Math.min(col + range, cols - 1) + 1;
+                int state = cells[i];
+                int count = sums[bottom + right] - sums[top + right]
+                        - sums[bottom + left] + sums[top + left] - state * middle;
+                int nextState;
+                if (state == 1) {
+                    nextState = count >= surviveMin && count <= surviveMax ? 1 : 0;
+                } else {
+                    nextState = count >= birthMin && count <= birthMax ? 1 : 0;
+                }
+                next[i] = (byte) nextState;
+                changed[i] = (byte) (nextState ^ state);
+                if (nextState != state) {
+                    log.add(minRow + row, minCol + col);
+                }
+                living += nextState;
+            }
+        }
+        return living;
+    }
+
+    /**
+     * Expands the board if a living cell is closer than the range to one of
+     * the borders, by the range on that side, so that no cells can be born
+     * outside the board during the next generation shift. All required
+     * expansions are done with a single copy of the board.
+     *
+     * @param range an <code>int</code> specifying the range of the rule.
+     */
+    private void expandBoardIfNeeded(int range) {
+        int edge = Math.min(range, Math.min(rows, cols));
+        boolean north = false;
+        boolean south = false;
+        boolean west = false;
+        boolean east = false;
+        for (int row = 0; row < rows; row++) {
+            int start = row * cols;
+            if (row < edge) {
+                north |= containsLivingCell(start, start + cols);
+            }
+            if (row >= rows - edge) {
+                south |= containsLivingCell(start, start + cols);
+            }
+            west |= containsLivingCell(start, start + edge);
+            east |= containsLivingCell(start + cols - edge, start + cols);
+        }
+
+        if (north || east || south || west) {
+            int rowShift = north ? range : 0;
+            int colShift = west ? range : 0;
+            byte[] oldBoard = currentBoard;
+            int oldRows = rows;
+            int oldCols = cols;
+            resize(rows + rowShift + (south ? range : 0), cols + colShift + (east ? range : 0));
+            currentBoard = new byte[rows * cols];
+            for (int row = 0; row < oldRows; row++) {
+                System.arraycopy(oldBoard, row * oldCols, currentBoard,
+                        (row + rowShift) * cols + colShift, oldCols);
+            }
+            minRow -= rowShift;
+            minCol -= colShift;
+            boardExpanded = true;
+        }
+    }
+
+    private boolean containsLivingCell(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (currentBoard[i] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        int i = index(row, col);
+        currentBoard[i] ^= 1;
+        livingCells += currentBoard[i] == 1 ? 1 : -1;
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        int i = index(row, col);
+        if (currentBoard[i] != 1) {
+            currentBoard[i] = 1;
+            livingCells++;
+        }
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        byte[] newBoard = new byte[currentBoard.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (currentBoard[row * cols + col] == 1) {
+                    int newRow = row + yAxis;
+                    int newCol = col + xAxis;
+                    // check if new coordinates is within the bounds of the board
+                    if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                        return;
+                    }
+                    newBoard[newRow * cols + newCol] = 1;
+                }
+            }
+        }
+        currentBoard = newBoard;
+    }
+
+    @Override
+    public void resetBoard() {
+        minRow = originalMinRow;
+        minCol = originalMinCol;
+        resize(originalRows, originalCols);
+        currentBoard = originalBoard.clone();
+        generationCount = 0;
+        countLivingCells();
+    }
+
+    @Override
+    public void clearBoard() {
+        generationCount = 0;
+        livingCells = 0;
+        minRow = originalMinRow;
+        minCol = originalMinCol;
+        resize(originalRows, originalCols);
+        currentBoard = new byte[rows * cols];
+        preserveBoard();
+    }
+
+    @Override
+    public void preserveBoard() {
+        originalBoard = currentBoard.clone();
+        originalRows = rows;
+        originalCols = cols;
+        originalMinRow = minRow;
+        originalMinCol = minCol;
+    }
+
+    @Override
+    public BoardLargerThanLife deepCopy() {
+        BoardLargerThanLife b = new BoardLargerThanLife(1, 1);
+        b.resize(rows, cols);
+        b.minRow = minRow;
+        b.minCol = minCol;
+        b.currentBoard = currentBoard.clone();
+        b.changedCells = changedCells.clone();
+        b.changeLog.copy(changeLog);
+        b.boardExpanded = boardExpanded;
+        b.originalBoard = originalBoard.clone();
+        b.originalRows = originalRows;
+        b.originalCols = originalCols;
+        b.originalMinRow = originalMinRow;
+        b.originalMinCol = originalMinCol;
+        b.generationCount = generationCount;
+        b.livingCells = livingCells;
+        b.setMetadata(boardAuthor, boardName, boardComment);
+        return b;
+    }
+}
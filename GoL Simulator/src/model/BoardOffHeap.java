@@ -0,0 +1,837 @@
+package model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Board engine for very large boards, which stores 64 cells in every
+ * <code>long</code> like {@link model.BoardPacked}, but keeps the cells in
+ * direct buffers outside the Java heap. A board of 10<sup>9</sup> cells uses
+ * 125 MB per buffer, none of which is seen by the garbage collector, so the
+ * length of garbage collection pauses does not depend on the size of the
+ * board. The memory available for direct buffers is set using the
+ * <code>-XX:MaxDirectMemorySize</code> option of the Java virtual machine.
+ *
+ * <p>
+ * Two buffers are used while the game runs. Each generation is written to
+ * the back buffer, and the buffers are then swapped, so the back buffer
+ * holds the previous generation, which is also used to find the cells which
+ * changed. A third buffer holds the original board once
+ * {@link #preserveBoard()} has been called. The buffers are released when the
+ * board is disposed using {@link #dispose()}, and the original board is
+ * released when the board is cleared, instead of waiting for the garbage
+ * collector to notice that the buffers are no longer used.</p>
+ *
+ * <p>
+ * The next generation is computed by the same word kernel as
+ * {@link model.BoardPacked}, in bands of rows when using the worker pool.
+ * {@link #readRow(int, int, int, byte[])} reads a part of a row a word at a
+ * time, so drawing only touches the cells within the visible area.</p>
+ *
+ * <p>
+ * The words are stored little-endian, which is also the layout used by
+ * {@link model.Checkpoint}. The board keeps track of which pages of
+ * PAGE_WORDS words have changed since the last checkpoint, so a checkpoint
+ * only writes those pages, and a restored board reads its cells directly from
+ * the mapped checkpoint file.</p>
+ */
+public class BoardOffHeap extends AbstractBoard {
+
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * The number of words per page when tracking changes for checkpoints,
+     * giving pages of 4096 bytes.
+     */
+    static final int PAGE_WORDS = 512;
+    private static final int PAGE_SHIFT = 9;
+
+    /**
+     * 1 for each page of words which has changed since the last checkpoint.
+     * Written by the worker threads without synchronization, which is safe
+     * as every write sets a separate byte to 1.
+     */
+    private byte[] dirtyPages;
+
+    /**
+     * The checkpoint which dirtyPages is relative to, or null if the board has
+     * not been written to or read from a checkpoint.
+     */
+    private Checkpoint checkpoint;
+
+
+    /**
+     * The change log never holds more than this number of cells. On large
+     * boards, redrawing the visible area is cheaper than reading more changes
+     * than this, and the log would otherwise grow to a large heap object.
+     */
+    private static final int MAX_LOG_SIZE = 1 << 20;
+
+    /**
+     * The number of words per band when using the worker pool.
+     */
+    private static final int BAND_WORDS = 4096;
+    private final WorkerPool workerPool = WorkerPool.getInstance();
+    private int[] bandLivingCells = new int[0];
+    private ChangeLog[] bandLogs = new ChangeLog[0];
+
+    private int rows;
+    private int cols;
+    private int wordsPerRow;
+
+    /**
+     * Represents the game board in its current game state. A set bit
+     * represents a live cell.
+     */
+    private Words currentBoard;
+
+    /**
+     * The next generation is written to this board, before it is swapped with
+     * currentBoard. Holds the previous generation between generation shifts.
+     */
+    private Words nextGeneration;
+
+    /**
+     * Used to store the game board as it was before the game started. Null
+     * until preserveBoard() is called.
+     */
+    private Words originalBoard;
+    private int originalRows;
+    private int originalCols;
+
+    /**
+     * If nextGeneration holds the previous generation, which is the case
+     * after a generation shift where the board did not expand.
+     */
+    private boolean hasPreviousGeneration = false;
+
+    /**
+     * A buffer of <code>long</code> words stored outside the Java heap.
+     */
+    private static final class Words {
+
+        private ByteBuffer bytes;
+        private LongBuffer words;
+        private final int size;
+
+        Words(int size) {
+            this(ByteBuffer.allocateDirect(size * 8), size);
+        }
+
+        Words(ByteBuffer bytes, int size) {
+            this.size = size;
+            this.bytes = bytes.order(ByteOrder.LITTLE_ENDIAN);
+            words = this.bytes.asLongBuffer();
+        }
+
+        long get(int i) {
+            return words.get(i);
+        }
+
+        void set(int i, long value) {
+            words.put(i, value);
+        }
+
+        Words copy() {
+            Words copy = new Words(size);
+            ByteBuffer source = bytes.duplicate();
+            source.clear();
+            copy.bytes.put(source);
+            copy.bytes.clear();
+            return copy;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                words.put(i, 0);
+            }
+        }
+
+        void free() {
+            ByteBuffer buffer = bytes;
+            bytes = null;
+            words = null;
+            release(buffer);
+        }
+    }
+
+    /**
+     * Board no-argument constructor initializes a game board consisting of 200
+     * x 200 dead cells.
+     */
+    public BoardOffHeap() {
+        this(200, 200);
+    }
+
+    /**
+     * Board constructor. Allows one to define the starting size of the game
+     * board.
+     *
+     * @param row an <code>int</code> specifying the number of rows for the
+     * starting board.
+     * @param col an <code>int</code> specifying the number of columns for the
+     * starting board.
+     * @throws IllegalArgumentException in the case that either the number of
+     * rows of columns are defined to be bellow 1, or the board has more than
+     * <code>Integer.MAX_VALUE</code> cells.
+     */
+    public BoardOffHeap(int row, int col) {
+        if (row < 1 || col < 1) {
+            throw new IllegalArgumentException("Number of rows and columns must"
+                    + "be higher than 0!");
+        }
+        resize(row, col);
+        currentBoard = new Words(rows * wordsPerRow);
+    }
+
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardOffHeap(AbstractBoard board) {
+        this(board.getRows(), board.getCols());
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (board.getCellState(board.getMinRow() + row, board.getMinCol() + col) == 1) {
+                    int i = index(row, col);
+                    currentBoard.set(i, currentBoard.get(i) | bit(col));
+                }
+            }
+        }
+        preserveBoard();
+        copyMetadata(board);
+        countLivingCells();
+    }
+
+    /**
+     * Board constructor used by {@link model.Checkpoint}. The cells are read
+     * from the given buffer, which is used as the current board without being
+     * copied.
+     *
+     * @param row an <code>int</code> specifying the number of rows.
+     * @param col an <code>int</code> specifying the number of columns.
+     * @param words a <code>ByteBuffer</code> holding the little-endian words
+     * of the board, row by row.
+     * @param livingCells an <code>int</code> specifying the number of living
+     * cells in the words, so they need not be counted.
+     */
+    BoardOffHeap(int row, int col, ByteBuffer words, int livingCells) {
+        resize(row, col);
+        currentBoard = new Words(words, rows * wordsPerRow);
+        this.livingCells = livingCells;
+    }
+
+    /**
+     * Sets the board dimensions, and allocates nextGeneration. Does not
+     * allocate currentBoard.
+     */
+    private void resize(int newRows, int newCols) {
+        // the number of cells is counted using an int.
+        if ((long) newRows * newCols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The board is too large. A board"
+                    + " can hold at most " + Integer.MAX_VALUE + " cells!");
+        }
+        rows = newRows;
+        cols = newCols;
+        wordsPerRow = (cols + WORD_SIZE - 1) / WORD_SIZE;
+        if (nextGeneration != null) {
+            nextGeneration.free();
+        }
+        nextGeneration = new Words(rows * wordsPerRow);
+        hasPreviousGeneration = false;
+        dirtyPages = new byte[(rows * wordsPerRow + PAGE_WORDS - 1) / PAGE_WORDS];
+        markAllPagesDirty();
+    }
+
+    /**
+     * Gets the index of the word containing the given cell.
+     */
+    private int index(int row, int col) {
+        return row * wordsPerRow + (col >>> 6);
+    }
+
+    /**
+     * Gets a word where only the bit representing the given column is set.
+     */
+    private long bit(int col) {
+        return 1L << (col & (WORD_SIZE - 1));
+    }
+
+    /**
+     * Gets a mask for the last word of each row, where only the bits
+     * representing actual columns are set.
+     */
+    private long lastWordMask() {
+        int usedBits = cols & (WORD_SIZE - 1);
+        return usedBits == 0 ? -1L : (1L << usedBits) - 1;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        return (byte) ((currentBoard.get(index(row, col)) >>> (col & (WORD_SIZE - 1))) & 1);
+    }
+
+    /**
+     * Checks if a single cell changed its state during the last generation
+     * shift, by comparing the current generation with the previous one.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell.
+     * @param col an <code>int</code> specifying the column position of the
+     * cell.
+     * @return a <code>boolean</code> specifying if the cell changed.
+     */
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        if (boardExpanded) {
+            return true;
+        }
+        if (!hasPreviousGeneration) {
+            return false;
+        }
+        int i = index(row, col);
+        return ((currentBoard.get(i) ^ nextGeneration.get(i)) & bit(col)) != 0;
+    }
+
+    /**
+     * Reads a part of a row a word at a time.
+     *
+     * @param row an <code>int</code> specifying the row to read.
+     * @param col an <code>int</code> specifying the first column to read.
+     * @param count an <code>int</code> specifying the number of cells to read.
+     * @param cells a <code>byte[]</code> receiving the state of the cells.
+     */
+    @Override
+    public void readRow(int row, int col, int count, byte[] cells) {
+        int i = 0;
+        while (i < count) {
+            int c = col + i;
+            long word = currentBoard.get(index(row, c)) >>> (c & (WORD_SIZE - 1));
+            int n = Math.min(WORD_SIZE - (c & (WORD_SIZE - 1)), count - i);
+            for (int j = 0; j < n; j++) {
+                cells[i++] = (byte) ((word >>> j) & 1);
+            }
+        }
+    }
+
+    /**
+     * Limits the change log to at most MAX_LOG_SIZE cells.
+     *
+     * @return an <code>int</code> specifying the max number of cells in the
+     * change log.
+     */
+    @Override
+    protected int getChangeLogLimit() {
+        return Math.min(super.getChangeLogLimit(), MAX_LOG_SIZE);
+    }
+
+    /**
+     * Sets a new game board.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        resize(newBoard.length, newBoard[0].length);
+        currentBoard.free();
+        currentBoard = new Words(rows * wordsPerRow);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (newBoard[row][col] == 1) {
+                    int i = index(row, col);
+                    currentBoard.set(i, currentBoard.get(i) | bit(col));
+                }
+            }
+        }
+        preserveBoard();
+        countLivingCells();
+    }
+
+    /**
+     * Updates the livingCells variable to reflect the number of living cells on
+     * the current board.
+     */
+    private void countLivingCells() {
+        livingCells = 0;
+        for (int i = 0; i < currentBoard.size; i++) {
+            livingCells += Long.bitCount(currentBoard.get(i));
+        }
+    }
+
+    /**
+     * Iterates the current board to its next generation, playing by the rules
+     * defined in the Rules class object.
+     *
+     * @see model.Rules
+     */
+    @Override
+    public void nextGeneration() {
+        RuleSet ruleSet = prepareNextGeneration();
+        livingCells = computeRows(0, rows, ruleSet, changeLog);
+        finishNextGeneration();
+    }
+
+    /**
+     * Iterates the current board to its next generation, splitting the board
+     * into bands of rows which are computed by the shared
+     * {@link model.WorkerPool}.
+     */
+    @Override
+    public void nextGenerationConcurrent() {
+        RuleSet ruleSet = prepareNextGeneration();
+
+        int rowsPerBand = Math.max(1, Math.min(BAND_WORDS / wordsPerRow, rows / workerPool.getParallelism()));
+        int bands = (rows + rowsPerBand - 1) / rowsPerBand;
+        if (bandLivingCells.length < bands) {
+            bandLivingCells = new int[bands];
+            bandLogs = Arrays.copyOf(bandLogs, bands);
+            for (int band = 0; band < bands; band++) {
+                if (bandLogs[band] == null) {
+                    bandLogs[band] = new ChangeLog();
+                }
+            }
+        }
+        int logLimit = getChangeLogLimit();
+        for (int band = 0; band < bands; band++) {
+            bandLogs[band].clear(logLimit);
+        }
+        int[] living = bandLivingCells;
+        ChangeLog[] logs = bandLogs;
+        workerPool.runTasks(bands, band -> {
+            living[band] = computeRows(band * rowsPerBand,
+                    Math.min((band + 1) * rowsPerBand, rows), ruleSet, logs[band]);
+        });
+
+        livingCells = 0;
+        for (int band = 0; band < bands; band++) {
+            livingCells += living[band];
+            changeLog.addAll(logs[band]);
+        }
+        finishNextGeneration();
+    }
+
+    /**
+     * Expands the board if needed, and clears the change log, before a
+     * generation shift.
+     *
+     * @return the rules used for this generation.
+     */
+    private RuleSet prepareNextGeneration() {
+        expandedNorth = false;
+        expandedWest = false;
+        boardExpanded = false;
+        changeLog.clear(getChangeLogLimit());
+
+        if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
+            expandBoardIfNeeded();
+        }
+        return rules.getRuleSet();
+    }
+
+    /**
+     * Swaps the buffers and updates the counters after a generation shift.
+     */
+    private void finishNextGeneration() {
+        if (boardExpanded) {
+            // if board expanded, all cells will have shifted, and thereby
+            // changed.
+            changeLog.setAllChanged();
+        }
+        Words previousGeneration = currentBoard;
+        currentBoard = nextGeneration;
+        nextGeneration = previousGeneration;
+        hasPreviousGeneration = !boardExpanded;
+        generationCount++;
+    }
+
+    /**
+     * Computes the next state of a band of rows, and logs the changed cells.
+     * Only rows within the band are written to, so bands can safely be
+     * computed in parallel.
+     *
+     * @param startRow an <code>int</code> specifying the first row of the
+     * band.
+     * @param endRow an <code>int</code> specifying the row after the last row
+     * of the band.
+     * @param ruleSet the rules used for this generation.
+     * @param log the change log of the band.
+     * @return an <code>int</code> specifying the number of living cells in
+     * the band.
+     */
+    private int computeRows(int startRow, int endRow, RuleSet ruleSet, ChangeLog log) {
+        Words cells = currentBoard;
+        Words next = nextGeneration;
+        byte[] dirty = dirtyPages;
+        int birthRules = ruleSet.getBirthMask();
+        int surviveRules = ruleSet.getSurviveMask();
+        long lastWordMask = lastWordMask();
+        int lastWord = wordsPerRow - 1;
+        int living = 0;
+
+        for (int row = startRow; row < endRow; row++) {
+            int above = (row - 1) * wordsPerRow;
+            int center = row * wordsPerRow;
+            int below = (row + 1) * wordsPerRow;
+            boolean hasAbove = row > 0;
+            boolean hasBelow = row < rows - 1;
+
+            for (int word = 0; word <= lastWord; word++) {
+                // the words holding the cells west, at and east of this word,
+                // for the row above, this row and the row bellow.
+                long aw = 0, a = 0, ae = 0, cw = 0, c, ce = 0, bw = 0, b = 0, be = 0;
+                c = cells.get(center + word);
+                if (word > 0) {
+                    cw = cells.get(center + word - 1);
+                }
+                if (word < lastWord) {
+                    ce = cells.get(center + word + 1);
+                }
+                if (hasAbove) {
+                    a = cells.get(above + word);
+                    if (word > 0) {
+                        aw = cells.get(above + word - 1);
+                    }
+                    if (word < lastWord) {
+                        ae = cells.get(above + word + 1);
+                    }
+                }
+                if (hasBelow) {
+                    b = cells.get(below + word);
+                    if (word > 0) {
+                        bw = cells.get(below + word - 1);
+                    }
+                    if (word < lastWord) {
+                        be = cells.get(below + word + 1);
+                    }
+                }
+
+                long nextWord = BoardPacked.nextWord(
+                        (a << 1) | (aw >>> 63), a, (a >>> 1) | (ae << 63),
+                        (c << 1) | (cw >>> 63), (c >>> 1) | (ce << 63),
+                        (b << 1) | (bw >>> 63), b, (b >>> 1) | (be << 63),
+                        c, birthRules, surviveRules);
+                if (word == lastWord) {
+                    nextWord &= lastWordMask;
+                }
+                next.set(center + word, nextWord);
+                living += Long.bitCount(nextWord);
+
+                long changed = nextWord ^ c;
+                if (changed != 0) {
+                    dirty[(center + word) >>> PAGE_SHIFT] = 1;
+                }
+                while (changed != 0 && !log.isAllChanged()) {
+                    log.add(row, word * WORD_SIZE + Long.numberOfTrailingZeros(changed));
+                    changed &= changed - 1;
+                }
+            }
+        }
+        return living;
+    }
+
+    /**
+     * Checks the current board to see if it should be expanded. Requirement for
+     * expansion is if a living cell is touching one of the current boards
+     * borders. All required expansions are done with a single copy of the
+     * board, after which the old buffers are released.
+     */
+    private void expandBoardIfNeeded() {
+        boolean north = false;
+        boolean south = false;
+        boolean west = false;
+        boolean east = false;
+        long lastCol = bit(cols - 1);
+        for (int word = 0; word < wordsPerRow; word++) {
+            north |= currentBoard.get(word) != 0;
+            south |= currentBoard.get((rows - 1) * wordsPerRow + word) != 0;
+        }
+        for (int row = 0; row < rows; row++) {
+            west |= (currentBoard.get(row * wordsPerRow) & 1L) != 0;
+            east |= (currentBoard.get(index(row, cols - 1)) & lastCol) != 0;
+        }
+
+        if (north || east || south || west) {
+            int rowShift = north ? 1 : 0;
+            int colShift = west ? 1 : 0;
+            Words oldBoard = currentBoard;
+            int oldRows = rows;
+            int oldWordsPerRow = wordsPerRow;
+            resize(rows + rowShift + (south ? 1 : 0), cols + colShift + (east ? 1 : 0));
+            currentBoard = new Words(rows * wordsPerRow);
+
+            for (int row = 0; row < oldRows; row++) {
+                int from = row * oldWordsPerRow;
+                int to = (row + rowShift) * wordsPerRow;
+                long carry = 0;
+                for (int word = 0; word < oldWordsPerRow; word++) {
+                    long cells = oldBoard.get(from + word);
+                    currentBoard.set(to + word, (cells << colShift) | carry);
+                    carry = colShift == 0 ? 0 : cells >>> 63;
+                }
+                if (oldWordsPerRow < wordsPerRow) {
+                    currentBoard.set(to + oldWordsPerRow, carry);
+                }
+            }
+            oldBoard.free();
+
+            expandedNorth = north;
+            expandedWest = west;
+            boardExpanded = true;
+        }
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        int i = index(row, col);
+        currentBoard.set(i, currentBoard.get(i) ^ bit(col));
+        dirtyPages[i >>> PAGE_SHIFT] = 1;
+        // edits are applied to the previous generation as well, so they are
+        // not reported as changes by hasCellChanged().
+        nextGeneration.set(i, nextGeneration.get(i) ^ bit(col));
+        if (getCellState(row, col) == 1) {
+            livingCells++;
+        } else {
+            livingCells--;
+        }
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        if (getCellState(row, col) != 1) {
+            toggleCellState(row, col);
+        }
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        Words newBoard = new Words(currentBoard.size);
+        for (int row = 0; row < rows; row++) {
+            for (int word = 0; word < wordsPerRow; word++) {
+                long cells = currentBoard.get(row * wordsPerRow + word);
+                while (cells != 0) {
+                    int col = word * WORD_SIZE + Long.numberOfTrailingZeros(cells);
+                    cells &= cells - 1;
+                    int newRow = row + yAxis;
+                    int newCol = col + xAxis;
+                    // check if new coordinates is within the bounds of the board
+                    if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                        newBoard.free();
+                        return;
+                    }
+                    int i = index(newRow, newCol);
+                    newBoard.set(i, newBoard.get(i) | bit(newCol));
+                }
+            }
+        }
+        currentBoard.free();
+        currentBoard = newBoard;
+        hasPreviousGeneration = false;
+        markAllPagesDirty();
+    }
+
+    /**
+     * Reverts the current board back to its starting state. If the board has
+     * been cleared since it was last preserved, the starting state is an
+     * empty board.
+     */
+    @Override
+    public void resetBoard() {
+        generationCount = 0;
+        if (originalBoard == null) {
+            currentBoard.clear();
+            hasPreviousGeneration = false;
+            markAllPagesDirty();
+            livingCells = 0;
+            return;
+        }
+        resize(originalRows, originalCols);
+        currentBoard.free();
+        currentBoard = originalBoard.copy();
+        countLivingCells();
+    }
+
+    /**
+     * Clears the board, and releases the buffer holding the original board.
+     */
+    @Override
+    public void clearBoard() {
+        generationCount = 0;
+        livingCells = 0;
+        if (originalBoard != null) {
+            resize(originalRows, originalCols);
+            currentBoard.free();
+            currentBoard = new Words(rows * wordsPerRow);
+            originalBoard.free();
+            originalBoard = null;
+        } else {
+            currentBoard.clear();
+            nextGeneration.clear();
+            hasPreviousGeneration = false;
+            markAllPagesDirty();
+        }
+    }
+
+    @Override
+    public void preserveBoard() {
+        if (originalBoard != null) {
+            originalBoard.free();
+        }
+        originalBoard = currentBoard.copy();
+        originalRows = rows;
+        originalCols = cols;
+    }
+
+    /**
+     * Marks every page as changed since the last checkpoint.
+     */
+    private void markAllPagesDirty() {
+        Arrays.fill(dirtyPages, (byte) 1);
+    }
+
+    /**
+     * Checks if a page of words has changed since the last checkpoint. Used
+     * by {@link model.Checkpoint}.
+     *
+     * @param page an <code>int</code> specifying the page.
+     * @return a <code>boolean</code> specifying if the page changed.
+     */
+    boolean isPageDirty(int page) {
+        return dirtyPages[page] != 0;
+    }
+
+    /**
+     * Checks if the changed pages are tracked relative to the given
+     * checkpoint, which is the case if it was the last checkpoint this board
+     * was written to or read from.
+     *
+     * @param checkpoint the <code>Checkpoint</code> to check.
+     * @return a <code>boolean</code> specifying if the pages are tracked
+     * relative to the checkpoint.
+     */
+    boolean isTrackedBy(Checkpoint checkpoint) {
+        return this.checkpoint == checkpoint;
+    }
+
+    /**
+     * Marks every page as unchanged, once the board has been written to or
+     * read from a checkpoint.
+     *
+     * @param checkpoint the <code>Checkpoint</code> holding the board.
+     */
+    void clearDirtyPages(Checkpoint checkpoint) {
+        Arrays.fill(dirtyPages, (byte) 0);
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Gets the number of words in the board.
+     *
+     * @return an <code>int</code> specifying the number of words.
+     */
+    int getWordCount() {
+        return currentBoard.size;
+    }
+
+    /**
+     * Gets a read only view of the little-endian words of the current board,
+     * row by row, positioned at the first word.
+     *
+     * @return a <code>ByteBuffer</code> holding the words.
+     */
+    ByteBuffer getWords() {
+        ByteBuffer words = currentBoard.bytes.asReadOnlyBuffer();
+        words.clear();
+        return words;
+    }
+
+    /**
+     * Releases the buffers holding the board. The board must not be used
+     * after it has been disposed.
+     */
+    @Override
+    public void dispose() {
+        if (currentBoard == null) {
+            return;
+        }
+        currentBoard.free();
+        nextGeneration.free();
+        if (originalBoard != null) {
+            originalBoard.free();
+        }
+        currentBoard = null;
+        nextGeneration = null;
+        originalBoard = null;
+    }
+
+    @Override
+    public BoardOffHeap deepCopy() {
+        BoardOffHeap b = new BoardOffHeap(1, 1);
+        b.resize(rows, cols);
+        b.currentBoard.free();
+        b.currentBoard = currentBoard.copy();
+        b.nextGeneration.free();
+        b.nextGeneration = nextGeneration.copy();
+        b.hasPreviousGeneration = hasPreviousGeneration;
+        b.changeLog.copy(changeLog);
+        if (originalBoard != null) {
+            b.originalBoard = originalBoard.copy();
+        }
+        b.originalRows = originalRows;
+        b.originalCols = originalCols;
+        b.generationCount = generationCount;
+        b.livingCells = livingCells;
+        b.setMetadata(boardAuthor, boardName, boardComment);
+        return b;
+    }
+
+    /**
+     * Releases the memory of a direct buffer right away. Direct buffers are
+     * otherwise only released once the garbage collector finds them, which
+     * may take long as the buffer objects themselves are small. There is no
+     * public API for this, so the cleaner of the buffer is invoked through
+     * reflection, which differs between Java 8 and later versions. If this
+     * fails, the memory is left for the garbage collector. Mapped buffers are
+     * unmapped the same way.
+     */
+    static void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // not Java 9 or later, try the Java 8 cleaner below.
+        }
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // left for the garbage collector.
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package model;
+
+/**
+ * Board engine which stores 64 cells in every <code>long</code>. Each row of
+ * the board is stored as a number of words in a single <code>long[]</code>,
+ * where bit <i>n</i> of a word is the cell in column <i>word * 64 + n</i>.
+ *
+ * <p>
+ * The next generation is computed a whole word at a time. The eight
+ * neighbours of every cell in a word are found by shifting the words of the
+ * row above, the row itself and the row bellow one bit east and west. These
+ * eight words are then added together using bitwise full adders, giving the
+ * number of neighbours for all 64 cells as a four bit number spread over four
+ * words. The birth and survival rules are finally applied to all 64 cells at
+ * once.</p>
+ *
+ * <p>
+ * Uses 1 bit per cell, compared to a boxed <code>Byte</code> and list
+ * overhead per cell for {@link model.BoardDynamic}.</p>
+ */
+public class BoardPacked extends AbstractBoard {
+
+    private static final int WORD_SIZE = 64;
+
+    private int rows;
+    private int cols;
+    private int wordsPerRow;
+
+    /**
+     * Represents the game board in its current game state. A set bit
+     * represents a live cell.
+     */
+    private long[] currentBoard;
+
+    /**
+     * The next generation is written to this board, before it is swapped with
+     * currentBoard. Reused between generations.
+     */
+    private long[] nextGeneration;
+
+    /**
+     * A set bit represents a cell which changed during the last generation
+     * shift.
+     */
+    private long[] changedCells;
+
+    /**
+     * Used to store the game board as it was before the game started. Allows
+     * for resetting the game board.
+     */
+    private long[] originalBoard;
+    private int originalRows;
+    private int originalCols;
+
+    /**
+     * Board no-argument constructor initializes a game board consisting of 200
+     * x 200 dead cells.
+     */
+    public BoardPacked() {
+        this(200, 200);
+    }
+
+    /**
+     * Board constructor. Allows one to define the starting size of the game
+     * board.
+     *
+     * @param row an <code>int</code> specifying the number of rows for the
+     * starting board.
+     * @param col an <code>int</code> specifying the number of columns for the
+     * starting board.
+     * @throws IllegalArgumentException in the case that either the number of
+     * rows of columns are defined to be bellow 1.
+     */
+    public BoardPacked(int row, int col) {
+        if (row < 1 || col < 1) {
+            throw new IllegalArgumentException("Number of rows and columns must"
+                    + "be higher than 0!");
+        }
+        resize(row, col);
+        currentBoard = new long[rows * wordsPerRow];
+        preserveBoard();
+    }
+
+    /**
+     * Board constructor. Creates a copy of a board using any of the other
+     * board engines. Metadata and generation count are copied along with the
+     * cells.
+     *
+     * @param board the <code>AbstractBoard</code> to copy.
+     */
+    public BoardPacked(AbstractBoard board) {
+        this(board.getRows(), board.getCols());
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (board.getCellState(board.getMinRow() + row, board.getMinCol() + col) == 1) {
+                    currentBoard[index(row, col)] |= bit(col);
+                }
+            }
+        }
+        preserveBoard();
+        copyMetadata(board);
+        countLivingCells();
+    }
+
+    /**
+     * Sets the board dimensions, and allocates the buffers which depend on
+     * them. Does not allocate currentBoard.
+     */
+    private void resize(int newRows, int newCols) {
+        rows = newRows;
+        cols = newCols;
+        wordsPerRow = (cols + WORD_SIZE - 1) / WORD_SIZE;
+        nextGeneration = new long[rows * wordsPerRow];
+        changedCells = new long[rows * wordsPerRow];
+    }
+
+    /**
+     * Gets the index of the word containing the given cell.
+     */
+    private int index(int row, int col) {
+        return row * wordsPerRow + (col >>> 6);
+    }
+
+    /**
+     * Gets a word where only the bit representing the given column is set.
+     */
+    private long bit(int col) {
+        return 1L << (col & (WORD_SIZE - 1));
+    }
+
+    /**
+     * Gets a mask for the last word of each row, where only the bits
+     * representing actual columns are set.
+     */
+    private long lastWordMask() {
+        int usedBits = cols & (WORD_SIZE - 1);
+        return usedBits == 0 ? -1L : (1L << usedBits) - 1;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        return (byte) ((currentBoard[index(row, col)] >>> (col & (WORD_SIZE - 1))) & 1);
+    }
+
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        return (changedCells[index(row, col)] & bit(col)) != 0;
+    }
+
+    /**
+     * Sets a new game board.
+     *
+     * @param newBoard a <code>byte[][]</code> representing the new game board.
+     */
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        resize(newBoard.length, newBoard[0].length);
+        currentBoard = new long[rows * wordsPerRow];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (newBoard[row][col] == 1) {
+                    currentBoard[index(row, col)] |= bit(col);
+                }
+            }
+        }
+        preserveBoard();
+        countLivingCells();
+    }
+
+    /**
+     * Updates the livingCells variable to reflect the number of living cells on
+     * the current board.
+     */
+    private void countLivingCells() {
+        livingCells = 0;
+        for (int i = 0; i < currentBoard.length; i++) {
+            livingCells += Long.bitCount(currentBoard[i]);
+        }
+    }
+
+    /**
+     * Iterates the current board to its next generation, playing by the rules
+     * defined in the Rules class object.
+     *
+     * @see model.Rules
+     */
+    @Override
+    public void nextGeneration() {
+        expandedNorth = false;
+        expandedWest = false;
+        boardExpanded = false;
+
+        if (rules.isDynamic() && getCellCount() < rules.getMaxNumberOfCells()) {
+            expandBoardIfNeeded();
+        }
+
+        RuleSet ruleSet = rules.getRuleSet();
+        int birthRules = ruleSet.getBirthMask();
+        int surviveRules = ruleSet.getSurviveMask();
+        long lastWordMask = lastWordMask();
+        int lastWord = wordsPerRow - 1;
+        livingCells = 0;
+
+        for (int row = 0; row < rows; row++) {
+            int above = (row - 1) * wordsPerRow;
+            int center = row * wordsPerRow;
+            int below = (row + 1) * wordsPerRow;
+            boolean hasAbove = row > 0;
+            boolean hasBelow = row < rows - 1;
+
+            for (int word = 0; word <= lastWord; word++) {
+                // the words holding the cells west, at and east of this word,
+                // for the row above, this row and the row bellow.
+                long aw = 0, a = 0, ae = 0, cw = 0, c, ce = 0, bw = 0, b = 0, be = 0;
+                c = currentBoard[center + word];
+                if (word > 0) {
+                    cw = currentBoard[center + word - 1];
+                }
+                if (word < lastWord) {
+                    ce = currentBoard[center + word + 1];
+                }
+                if (hasAbove) {
+                    a = currentBoard[above + word];
+                    if (word > 0) {
+                        aw = currentBoard[above + word - 1];
+                    }
+                    if (word < lastWord) {
+                        ae = currentBoard[above + word + 1];
+                    }
+                }
+                if (hasBelow) {
+                    b = currentBoard[below + word];
+                    if (word > 0) {
+                        bw = currentBoard[below + word - 1];
+                    }
+                    if (word < lastWord) {
+                        be = currentBoard[below + word + 1];
+                    }
+                }
+
+                long next = nextWord(
+                        (a << 1) | (aw >>> 63), a, (a >>> 1) | (ae << 63),
+                        (c << 1) | (cw >>> 63), (c >>> 1) | (ce << 63),
+                        (b << 1) | (bw >>> 63), b, (b >>> 1) | (be << 63),
+                        c, birthRules, surviveRules);
+                if (word == lastWord) {
+                    next &= lastWordMask;
+                }
+                nextGeneration[center + word] = next;
+                changedCells[center + word] = next ^ c;
+                livingCells += Long.bitCount(next);
+            }
+        }
+
+        if (boardExpanded) {
+            // if board expanded, all cells will have shifted, and thereby
+            // changed.
+            for (int i = 0; i < changedCells.length; i++) {
+                changedCells[i] = (i % wordsPerRow == lastWord) ? lastWordMask : -1L;
+            }
+            changeLog.setAllChanged();
+        } else {
+            fillChangeLog();
+        }
+
+        long[] previousGeneration = currentBoard;
+        currentBoard = nextGeneration;
+        nextGeneration = previousGeneration;
+        generationCount++;
+    }
+
+    /**
+     * Fills the change log from the changed cells. Words without changes are
+     * skipped, so the cost is proportional to the number of words and
+     * changes rather than the number of cells.
+     */
+    private void fillChangeLog() {
+        changeLog.clear(getChangeLogLimit());
+        for (int i = 0; i < changedCells.length && !changeLog.isAllChanged(); i++) {
+            long changed = changedCells[i];
+            while (changed != 0) {
+                changeLog.add(i / wordsPerRow, (i % wordsPerRow) * WORD_SIZE + Long.numberOfTrailingZeros(changed));
+                changed &= changed - 1;
+            }
+        }
+    }
+
+    /**
+     * Computes the next state of 64 cells at once. Takes the eight words
+     * representing the neighbours of each cell, adds them together into a
+     * four bit count per cell using full adders, and applies the rules. Also
+     * used by {@link model.BoardChunked}.
+     *
+     * @return a <code>long</code> representing the next state of the 64 cells.
+     */
+    static long nextWord(long n1, long n2, long n3, long n4, long n5, long n6,
+            long n7, long n8, long cells, int birthRules, int surviveRules) {
+        // full adder for n1, n2, n3 and n4, n5, n6, half adder for n7, n8.
+        long s1 = n1 ^ n2 ^ n3;
+        long c1 = (n1 & n2) | (n3 & (n1 ^ n2));
+        long s2 = n4 ^ n5 ^ n6;
+        long c2 = (n4 & n5) | (n6 & (n4 ^ n5));
+        long s3 = n7 ^ n8;
+        long c3 = n7 & n8;
+
+        // bit 0 of the count, and the carries into bit 1.
+        long bit0 = s1 ^ s2 ^ s3;
+        long k1 = (s1 & s2) | (s3 & (s1 ^ s2));
+
+        // add the four carries of weight 2.
+        long t = c1 ^ c2 ^ c3;
+        long u = (c1 & c2) | (c3 & (c1 ^ c2));
+        long bit1 = t ^ k1;
+        long v = t & k1;
+
+        // u and v both have weight 4.
+        long bit2 = u ^ v;
+        long bit3 = u & v;
+
+        long born = 0;
+        long survive = 0;
+        for (int count = 0; count <= 8; count++) {
+            int countBit = 1 << count;
+            if (((birthRules | surviveRules) & countBit) == 0) {
+                continue;
+            }
+            long equal = ((count & 1) != 0 ? bit0 : ~bit0)
+                    & ((count & 2) != 0 ? bit1 : ~bit1)
+                    & ((count & 4) != 0 ? bit2 : ~bit2)
+                    & ((count & 8) != 0 ? bit3 : ~bit3);
+            if ((birthRules & countBit) != 0) {
+                born |= equal;
+            }
+            if ((surviveRules & countBit) != 0) {
+                survive |= equal;
+            }
+        }
+        return (~cells & born) | (cells & survive);
+    }
+
+    /**
+     * Checks the current board to see if it should be expanded. Requirement for
+     * expansion is if a living cell is touching one of the current boards
+     * borders. All required expansions are done with a single copy of the
+     * board.
+     */
+    private void expandBoardIfNeeded() {
+        boolean north = shouldExpandNorth();
+        boolean east = shouldExpandEast();
+        boolean south = shouldExpandSouth();
+        boolean west = shouldExpandWest();
+
+        if (north || east || south || west) {
+            int rowShift = north ? 1 : 0;
+            int colShift = west ? 1 : 0;
+            long[] oldBoard = currentBoard;
+            int oldRows = rows;
+            int oldWordsPerRow = wordsPerRow;
+            resize(rows + rowShift + (south ? 1 : 0), cols + colShift + (east ? 1 : 0));
+            currentBoard = new long[rows * wordsPerRow];
+
+            for (int row = 0; row < oldRows; row++) {
+                int from = row * oldWordsPerRow;
+                int to = (row + rowShift) * wordsPerRow;
+                if (colShift == 0) {
+                    System.arraycopy(oldBoard, from, currentBoard, to, oldWordsPerRow);
+                } else {
+                    long carry = 0;
+                    for (int word = 0; word < oldWordsPerRow; word++) {
+                        long cells = oldBoard[from + word];
+                        currentBoard[to + word] = (cells << 1) | carry;
+                        carry = cells >>> 63;
+                    }
+                    if (oldWordsPerRow < wordsPerRow) {
+                        currentBoard[to + oldWordsPerRow] = carry;
+                    }
+                }
+            }
+
+            expandedNorth = north;
+            expandedWest = west;
+            boardExpanded = true;
+        }
+    }
+
+    /**
+     * Checks if there is a live cell in the top row.
+     */
+    private boolean shouldExpandNorth() {
+        for (int word = 0; word < wordsPerRow; word++) {
+            if (currentBoard[word] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if there is a live cell in the bottom row.
+     */
+    private boolean shouldExpandSouth() {
+        int lastRow = (rows - 1) * wordsPerRow;
+        for (int word = 0; word < wordsPerRow; word++) {
+            if (currentBoard[lastRow + word] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if there is a live cell in the left most column.
+     */
+    private boolean shouldExpandWest() {
+        for (int row = 0; row < rows; row++) {
+            if ((currentBoard[row * wordsPerRow] & 1L) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if there is a live cell in the right most column.
+     */
+    private boolean shouldExpandEast() {
+        long lastCol = bit(cols - 1);
+        for (int row = 0; row < rows; row++) {
+            if ((currentBoard[index(row, cols - 1)] & lastCol) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        currentBoard[index(row, col)] ^= bit(col);
+        if (getCellState(row, col) == 1) {
+            livingCells++;
+        } else {
+            livingCells--;
+        }
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        if (getCellState(row, col) != 1) {
+            currentBoard[index(row, col)] |= bit(col);
+            livingCells++;
+        }
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        long[] newBoard = new long[currentBoard.length];
+        for (int row = 0; row < rows; row++) {
+            for (int word = 0; word < wordsPerRow; word++) {
+                long cells = currentBoard[row * wordsPerRow + word];
+                while (cells != 0) {
+                    int col = word * WORD_SIZE + Long.numberOfTrailingZeros(cells);
+                    cells &= cells - 1;
+                    int newRow = row + yAxis;
+                    int newCol = col + xAxis;
+                    // check if new coordinates is within the bounds of the board
+                    if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                        return;
+                    }
+                    newBoard[index(newRow, newCol)] |= bit(newCol);
+                }
+            }
+        }
+        currentBoard = newBoard;
+    }
+
+    @Override
+    public void resetBoard() {
+        resize(originalRows, originalCols);
+        currentBoard = originalBoard.clone();
+        generationCount = 0;
+        countLivingCells();
+    }
+
+    @Override
+    public void clearBoard() {
+        generationCount = 0;
+        livingCells = 0;
+        resize(originalRows, originalCols);
+        currentBoard = new long[rows * wordsPerRow];
+        preserveBoard();
+    }
+
+    @Override
+    public void preserveBoard() {
+        originalBoard = currentBoard.clone();
+        originalRows = rows;
+        originalCols = cols;
+    }
+
+    @Override
+    public BoardPacked deepCopy() {
+        BoardPacked b = new BoardPacked(1, 1);
+        b.resize(rows, cols);
+        b.currentBoard = currentBoard.clone();
+        b.changedCells = changedCells.clone();
+        b.changeLog.copy(changeLog);
+        b.originalBoard = originalBoard.clone();
+        b.originalRows = originalRows;
+        b.originalCols = originalCols;
+        b.generationCount = generationCount;
+        b.livingCells = livingCells;
+        b.setMetadata(boardAuthor, boardName, boardComment);
+        return b;
+    }
+}
@@ -0,0 +1,261 @@
+package model;
+
+/**
+ * A read-only snapshot of a board, holding only the cells within an area of
+ * the board, such as the part visible on screen. The dimensions, counts,
+ * metadata and changed cells within the area are those of the board when the
+ * snapshot was taken, while cells outside the area are read as dead. Used for
+ * the frames published by {@link model.Simulation}, so drawing a frame never
+ * needs a copy of the whole board, however large the board is.
+ *
+ * <p>
+ * The snapshot can not be changed. The methods changing or advancing a board
+ * throw an <code>UnsupportedOperationException</code>.</p>
+ */
+public class BoardSnapshot extends AbstractBoard {
+
+    private final int rows;
+    private final int cols;
+    private final int minRow;
+    private final int minCol;
+
+    /**
+     * The area held by the snapshot, as top row, left column, bottom row and
+     * right column in board coordinates. Empty when top is greater than
+     * bottom.
+     */
+    private final int top;
+    private final int left;
+    private final int bottom;
+    private final int right;
+    private final byte[] cells;
+
+    /**
+     * The changed cells within the area, built from the change log the first
+     * time they are asked for.
+     */
+    private boolean[] changed;
+
+    private BoardSnapshot(AbstractBoard board, int top, int left, int bottom, int right, byte[] cells) {
+        rows = board.getRows();
+        cols = board.getCols();
+        minRow = board.getMinRow();
+        minCol = board.getMinCol();
+        this.top = top;
+        this.left = left;
+        this.bottom = bottom;
+        this.right = right;
+        this.cells = cells;
+        generationCount = board.generationCount;
+        livingCells = board.livingCells;
+        expandedNorth = board.expandedNorth;
+        expandedWest = board.expandedWest;
+        boardExpanded = board.boardExpanded;
+        copyMetadata(board);
+    }
+
+    /**
+     * Takes a snapshot of the cells of a board within an area. The area is
+     * limited to the board. Only the changes within the area are copied from
+     * the change log of the board.
+     *
+     * @param board the <code>AbstractBoard</code> to take the snapshot of.
+     * @param top an <code>int</code> specifying the first row of the area.
+     * @param left an <code>int</code> specifying the first column of the
+     * area.
+     * @param bottom an <code>int</code> specifying the last row of the area.
+     * @param right an <code>int</code> specifying the last column of the
+     * area.
+     * @return a <code>BoardSnapshot</code> of the board.
+     */
+    public static BoardSnapshot of(AbstractBoard board, int top, int left, int bottom, int right) {
+        top = Math.max(top, board.getMinRow());
+        left = Math.max(left, board.getMinCol());
+        bottom = Math.min(bottom, board.getMinRow() + board.getRows() - 1);
+        right = Math.min(right, board.getMinCol() + board.getCols() - 1);
+        if (top > bottom || left > right) {
+            return new BoardSnapshot(board, 0, 0, -1, -1, new byte[0]);
+        }
+
+        int width = right - left + 1;
+        byte[] cells = new byte[(bottom - top + 1) * width];
+        byte[] row = new byte[width];
+        for (int r = top; r <= bottom; r++) {
+            board.readRow(r, left, width, row);
+            System.arraycopy(row, 0, cells, (r - top) * width, width);
+        }
+        BoardSnapshot snapshot = new BoardSnapshot(board, top, left, bottom, right, cells);
+
+        ChangeLog log = board.getChangeLog();
+        if (log.isAllChanged()) {
+            snapshot.changeLog.setAllChanged();
+        } else {
+            for (int i = 0; i < log.size(); i++) {
+                if (snapshot.isWithinArea(log.getRow(i), log.getCol(i))) {
+                    snapshot.changeLog.add(log.getRow(i), log.getCol(i));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Takes a snapshot of every cell of a board.
+     *
+     * @param board the <code>AbstractBoard</code> to take the snapshot of.
+     * @return a <code>BoardSnapshot</code> of the board.
+     */
+    public static BoardSnapshot of(AbstractBoard board) {
+        return of(board, board.getMinRow(), board.getMinCol(),
+                board.getMinRow() + board.getRows() - 1, board.getMinCol() + board.getCols() - 1);
+    }
+
+    /**
+     * Checks if a cell is within the area held by the snapshot.
+     *
+     * @param row an <code>int</code> specifying the row of the cell.
+     * @param col an <code>int</code> specifying the column of the cell.
+     * @return a <code>boolean</code> specifying if the cell is within the
+     * area.
+     */
+    public boolean isWithinArea(int row, int col) {
+        return row >= top && row <= bottom && col >= left && col <= right;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public int getMinRow() {
+        return minRow;
+    }
+
+    @Override
+    public int getMinCol() {
+        return minCol;
+    }
+
+    @Override
+    public byte getCellState(int row, int col) {
+        if (!isWithinArea(row, col)) {
+            return 0;
+        }
+        return cells[(row - top) * (right - left + 1) + col - left];
+    }
+
+    @Override
+    public void readRow(int row, int col, int count, byte[] cells) {
+        for (int i = 0; i < count; i++) {
+            cells[i] = getCellState(row, col + i);
+        }
+    }
+
+    @Override
+    public boolean hasCellChanged(int row, int col) {
+        if (!isWithinArea(row, col)) {
+            return false;
+        }
+        if (changeLog.isAllChanged()) {
+            return true;
+        }
+        int width = right - left + 1;
+        if (changed == null) {
+            changed = new boolean[cells.length];
+            for (int i = 0; i < changeLog.size(); i++) {
+                changed[(changeLog.getRow(i) - top) * width + changeLog.getCol(i) - left] = true;
+            }
+        }
+        return changed[(row - top) * width + col - left];
+    }
+
+    /**
+     * Gets the smallest rectangle containing every living cell within the
+     * area held by the snapshot.
+     *
+     * @return an <code>int[]</code> holding the top row, left column, bottom
+     * row and right column of the rectangle, or <code>null</code> if there are
+     * no living cells within the area.
+     */
+    @Override
+    public int[] getBoundingBox() {
+        int boxTop = Integer.MAX_VALUE;
+        int boxLeft = Integer.MAX_VALUE;
+        int boxBottom = Integer.MIN_VALUE;
+        int boxRight = Integer.MIN_VALUE;
+        for (int row = top; row <= bottom; row++) {
+            for (int col = left; col <= right; col++) {
+                if (getCellState(row, col) == 1) {
+                    boxTop = Math.min(boxTop, row);
+                    boxBottom = Math.max(boxBottom, row);
+                    boxLeft = Math.min(boxLeft, col);
+                    boxRight = Math.max(boxRight, col);
+                }
+            }
+        }
+        return boxTop == Integer.MAX_VALUE ? null : new int[]{boxTop, boxLeft, boxBottom, boxRight};
+    }
+
+    @Override
+    public void setBoard(byte[][] newBoard) {
+        throw unchangeable();
+    }
+
+    @Override
+    public void nextGeneration() {
+        throw unchangeable();
+    }
+
+    @Override
+    public void toggleCellState(int row, int col) {
+        throw unchangeable();
+    }
+
+    @Override
+    public void setCellStateAlive(int row, int col) {
+        throw unchangeable();
+    }
+
+    @Override
+    public void moveBoardWithArrowKeys(int xAxis, int yAxis) {
+        throw unchangeable();
+    }
+
+    @Override
+    public void resetBoard() {
+        throw unchangeable();
+    }
+
+    @Override
+    public void clearBoard() {
+        throw unchangeable();
+    }
+
+    @Override
+    public void preserveBoard() {
+        throw unchangeable();
+    }
+
+    /**
+     * Gets a copy of the snapshot. The cells are shared, as they never
+     * change.
+     *
+     * @return a <code>BoardSnapshot</code> equal to this snapshot.
+     */
+    @Override
+    public BoardSnapshot deepCopy() {
+        BoardSnapshot copy = new BoardSnapshot(this, top, left, bottom, right, cells);
+        copy.changeLog.copy(changeLog);
+        return copy;
+    }
+
+    private static UnsupportedOperationException unchangeable() {
+        return new UnsupportedOperationException("A board snapshot can not be changed!");
+    }
+}
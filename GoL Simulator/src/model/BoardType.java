@@ -0,0 +1,261 @@
+package model;
+
+/**
+ * The board engines available to the application. The selected engine is
+ * stored in {@link model.Rules}, and is used whenever a new board is created
+ * or loaded. Each engine offers the same public surface through
+ * {@link model.AbstractBoard}.
+ */
+public enum BoardType {
+
+    /**
+     * The standard engine, {@link model.BoardDynamic}.
+     */
+    DYNAMIC("Standard", true) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardDynamic(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardDynamic && !((BoardDynamic) board).isActiveRegion()) {
+                return board;
+            }
+            return new BoardDynamic(board);
+        }
+    },
+    /**
+     * {@link model.BoardDynamic} using the active region mode, where only the
+     * parts of the board close to the last generation's changes are
+     * evaluated. Best suited for large boards where most of the cells have
+     * settled.
+     */
+    ACTIVE_REGION("Active region", true) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            BoardDynamic board = new BoardDynamic(rows, cols);
+            board.setActiveRegion(true);
+            return board;
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardDynamic && ((BoardDynamic) board).isActiveRegion()) {
+                return board;
+            }
+            BoardDynamic converted = new BoardDynamic(board);
+            converted.setActiveRegion(true);
+            return converted;
+        }
+    },
+    /**
+     * The dense engine, {@link model.BoardDense}. Stores one cell per
+     * <code>byte</code> in a flat array with a dead border, and allocates no
+     * memory between generations while the board keeps its size.
+     */
+    DENSE("Dense", true) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardDense(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardDense) {
+                return board;
+            }
+            return new BoardDense(board);
+        }
+    },
+    /**
+     * The bit-packed engine, {@link model.BoardPacked}. Stores 64 cells per
+     * <code>long</code>, and is best suited for large boards.
+     */
+    PACKED("Bit-packed", false) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardPacked(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardPacked) {
+                return board;
+            }
+            return new BoardPacked(board);
+        }
+    },
+    /**
+     * The off-heap engine, {@link model.BoardOffHeap}. Stores 64 cells per
+     * <code>long</code> in direct buffers outside the Java heap, and is meant
+     * for boards of up to <code>Integer.MAX_VALUE</code> cells.
+     */
+    OFF_HEAP("Off-heap", false) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardOffHeap(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardOffHeap) {
+                return board;
+            }
+            return new BoardOffHeap(board);
+        }
+    },
+    /**
+     * The chunked engine, {@link model.BoardChunked}. Stores the board as
+     * tiles of 64 x 64 cells, and grows without moving any cells or being
+     * limited by {@link model.Rules#getMaxNumberOfCells()}.
+     */
+    CHUNKED("Chunked", false) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardChunked(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardChunked) {
+                return board;
+            }
+            return new BoardChunked(board);
+        }
+    },
+    /**
+     * The Larger than Life engine, {@link model.BoardLargerThanLife}. Plays
+     * by {@link model.Rules#getLargerThanLifeRule()} instead of the birth and
+     * survival rules, counting the neighbourhood using a summed-area table.
+     */
+    LARGER_THAN_LIFE("Larger than Life", false) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardLargerThanLife(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardLargerThanLife) {
+                return board;
+            }
+            return new BoardLargerThanLife(board);
+        }
+
+        @Override
+        public boolean playsByRuleSet() {
+            return false;
+        }
+    },
+    /**
+     * The isotropic engine, {@link model.BoardIsotropic}. Plays by
+     * {@link model.Rules#getIsotropicRule()} instead of the birth and survival
+     * rules, looking up the next state of each cell from its whole
+     * neighbourhood.
+     */
+    ISOTROPIC("Isotropic non-totalistic", true) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardIsotropic(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardIsotropic) {
+                return board;
+            }
+            return new BoardIsotropic(board);
+        }
+
+        @Override
+        public boolean playsByRuleSet() {
+            return false;
+        }
+    },
+    /**
+     * The Generations engine, {@link model.BoardGenerations}. Plays by
+     * {@link model.Rules#getGenerationsRule()}, where cells pass through a
+     * number of dying states, and stores two cells per <code>byte</code>.
+     */
+    GENERATIONS("Generations", true) {
+        @Override
+        public AbstractBoard createBoard(int rows, int cols) {
+            return new BoardGenerations(rows, cols);
+        }
+
+        @Override
+        public AbstractBoard convert(AbstractBoard board) {
+            if (board instanceof BoardGenerations) {
+                return board;
+            }
+            return new BoardGenerations(board);
+        }
+
+        @Override
+        public boolean playsByRuleSet() {
+            return false;
+        }
+    };
+
+    private final String displayName;
+    private final boolean toroidal;
+
+    private BoardType(String displayName, boolean toroidal) {
+        this.displayName = displayName;
+        this.toroidal = toroidal;
+    }
+
+    /**
+     * Checks if the board engine wraps the board around its edges when the
+     * rules are toroidal. Other engines would treat the board as static, so
+     * {@link model.Rules} does not allow toroidal rules with them.
+     *
+     * @return a <code>boolean</code> specifying if toroidal rules are
+     * supported.
+     */
+    public boolean supportsToroidal() {
+        return toroidal;
+    }
+
+    /**
+     * Checks if the board engine plays by the birth and survival rules, see
+     * {@link model.Rules#getRuleSet()}. Engines playing by another family of
+     * rules can not be advanced by {@link model.HashLife}.
+     *
+     * @return a <code>boolean</code> specifying if the engine plays by the
+     * birth and survival rules.
+     */
+    public boolean playsByRuleSet() {
+        return true;
+    }
+
+    /**
+     * Creates a new, empty board using this board engine.
+     *
+     * @param rows an <code>int</code> specifying the number of rows.
+     * @param cols an <code>int</code> specifying the number of columns.
+     * @return the new board.
+     */
+    public abstract AbstractBoard createBoard(int rows, int cols);
+
+    /**
+     * Converts a board to this board engine. If the board already uses this
+     * engine, the same board is returned.
+     *
+     * @param board the <code>AbstractBoard</code> to convert.
+     * @return a board using this engine, containing the same cells, metadata
+     * and generation count as the given board.
+     */
+    public abstract AbstractBoard convert(AbstractBoard board);
+
+    /**
+     * Gets the name of the board engine, as shown to the user.
+     *
+     * @return a <code>String</code> specifying the name of the engine.
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
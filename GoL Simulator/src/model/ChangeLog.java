@@ -0,0 +1,139 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A compact list of the cells which changed during the last generation shift,
+ * kept by every board engine and acquired through
+ * {@link model.AbstractBoard#getChangeLog()}. Cells are stored as row and
+ * column pairs in a primitive <code>int[]</code>, which is reused between
+ * generations, so the cost of reading the changes is proportional to the
+ * number of changes rather than the size of the board.
+ *
+ * <p>
+ * If the board expanded, or more cells changed than the log is allowed to
+ * hold, the log only records that every cell should be considered changed,
+ * see {@link #isAllChanged()}.</p>
+ */
+public class ChangeLog {
+
+    private int[] cells = new int[256];
+    private int size = 0;
+    private int limit = Integer.MAX_VALUE;
+    private boolean allChanged = false;
+
+    /**
+     * Gets the number of changed cells in the log.
+     *
+     * @return an <code>int</code> specifying the number of changed cells.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the row of a changed cell.
+     *
+     * @param i an <code>int</code> specifying the position of the cell in the
+     * log.
+     * @return an <code>int</code> specifying the row of the cell.
+     */
+    public int getRow(int i) {
+        return cells[i * 2];
+    }
+
+    /**
+     * Gets the column of a changed cell.
+     *
+     * @param i an <code>int</code> specifying the position of the cell in the
+     * log.
+     * @return an <code>int</code> specifying the column of the cell.
+     */
+    public int getCol(int i) {
+        return cells[i * 2 + 1];
+    }
+
+    /**
+     * Checks if every cell on the board should be considered changed. The
+     * log holds no cells when this is the case.
+     *
+     * @return a <code>boolean</code> specifying if every cell changed.
+     */
+    public boolean isAllChanged() {
+        return allChanged;
+    }
+
+    /**
+     * Empties the log before a new generation shift.
+     *
+     * @param limit an <code>int</code> specifying the max number of cells the
+     * log may hold. If more cells are added, every cell is considered
+     * changed.
+     */
+    void clear(int limit) {
+        this.limit = limit;
+        size = 0;
+        allChanged = false;
+    }
+
+    /**
+     * Marks every cell on the board as changed, and empties the log.
+     */
+    void setAllChanged() {
+        size = 0;
+        allChanged = true;
+    }
+
+    /**
+     * Adds a changed cell to the log.
+     *
+     * @param row an <code>int</code> specifying the row of the cell.
+     * @param col an <code>int</code> specifying the column of the cell.
+     */
+    void add(int row, int col) {
+        if (allChanged) {
+            return;
+        }
+        if (size >= limit) {
+            setAllChanged();
+            return;
+        }
+        if (size * 2 == cells.length) {
+            cells = Arrays.copyOf(cells, cells.length * 2);
+        }
+        cells[size * 2] = row;
+        cells[size * 2 + 1] = col;
+        size++;
+    }
+
+    /**
+     * Adds the cells of another log to this log. Used to merge the logs kept
+     * by each band of rows when a generation is computed in parallel.
+     *
+     * @param other the <code>ChangeLog</code> to add.
+     */
+    void addAll(ChangeLog other) {
+        if (other.allChanged) {
+            setAllChanged();
+            return;
+        }
+        for (int i = 0; i < other.size && !allChanged; i++) {
+            add(other.getRow(i), other.getCol(i));
+        }
+    }
+
+    /**
+     * Replaces the content of this log with a copy of another log.
+     *
+     * @param other the <code>ChangeLog</code> to copy.
+     */
+    void copy(ChangeLog other) {
+        clear(other.limit);
+        allChanged = other.allChanged;
+        if (cells.length < other.size * 2) {
+            cells = new int[other.size * 2];
+        }
+        System.arraycopy(other.cells, 0, cells, 0, other.size * 2);
+        size = other.size;
+    }
+}
@@ -0,0 +1,448 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Saves and restores boards using a memory-mapped checkpoint file, so a long
+ * running simulation of a huge board can be continued later. The file holds
+ * the bit-packed cells of the board, along with its generation count,
+ * metadata and the current rules, including the board engine and, for the
+ * engines playing by another family of rules, the rule of that family.
+ *
+ * <p>
+ * The file starts with a header, padded to a whole number of pages, followed
+ * by the cells as little-endian <code>long</code> words, row by row, in the
+ * layout used by {@link model.BoardOffHeap}. A checkpoint is restored by
+ * mapping the cells as the current board of a <code>BoardOffHeap</code>,
+ * without reading or parsing them, so restoring a board of 10<sup>9</sup>
+ * cells only takes as long as mapping the file. Pages are copied from the
+ * file as they are modified, so the file itself is not changed by the
+ * restored board.</p>
+ *
+ * <p>
+ * When saving the same <code>BoardOffHeap</code> to the same checkpoint
+ * again, only the pages which changed since the last save are written. Other
+ * boards are written in full to a temporary file, which then replaces the
+ * checkpoint, so boards restored from an earlier version of the file are not
+ * affected. The header is marked as incomplete while the cells are written,
+ * and a checkpoint which was not completed can not be restored.</p>
+ */
+public class Checkpoint {
+
+    private static final int MAGIC = 0x434C4F47;
+    private static final int VERSION = 2;
+
+    /**
+     * Checkpoints of version 1 do not store the board engine, and are still
+     * restored, keeping the current board engine.
+     */
+    private static final int VERSION_WITHOUT_ENGINE = 1;
+    private static final int WRITING = 0;
+    private static final int COMPLETE = 1;
+    private static final int PAGE_SIZE = BoardOffHeap.PAGE_WORDS * 8;
+
+    // positions of the fields in the header.
+    private static final int MAGIC_POSITION = 0;
+    private static final int VERSION_POSITION = 4;
+    private static final int STATE_POSITION = 8;
+    private static final int DATA_OFFSET_POSITION = 12;
+    private static final int ROWS_POSITION = 16;
+    private static final int COLS_POSITION = 20;
+    private static final int GENERATION_POSITION = 24;
+    private static final int LIVING_CELLS_POSITION = 32;
+    private static final int BIRTH_MASK_POSITION = 36;
+    private static final int SURVIVE_MASK_POSITION = 40;
+    private static final int DYNAMIC_POSITION = 44;
+    private static final int METADATA_POSITION = 48;
+
+    private final File file;
+    private final Rules rules = Rules.getInstance();
+
+    /**
+     * The board last written to or read from the file, and the layout and
+     * identity of the file at that point.
+     */
+    private AbstractBoard lastBoard;
+    private Object lastFileKey;
+    private int lastRows;
+    private int lastCols;
+    private int lastDataOffset;
+
+    /**
+     * Checkpoint constructor.
+     *
+     * @param file the <code>File</code> holding the checkpoint.
+     */
+    public Checkpoint(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the file holding the checkpoint.
+     *
+     * @return a <code>File</code> specifying the checkpoint file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes a board, its metadata and the current rules to the checkpoint.
+     * If the board is the <code>BoardOffHeap</code> last written to or read
+     * from this checkpoint, and its size has not changed, only the changed
+     * pages are written.
+     *
+     * @param board the <code>AbstractBoard</code> to save.
+     * @return an <code>int</code> specifying the number of pages of cells
+     * written.
+     * @throws IOException if the file could not be written, or the board has
+     * dying cells, which a checkpoint can not hold.
+     */
+    public int save(AbstractBoard board) throws IOException {
+        if (board instanceof BoardGenerations && ((BoardGenerations) board).hasDyingCells()) {
+            throw new IOException("Checkpoints can only hold living and dead cells!");
+        }
+        ByteBuffer header = createHeader(board);
+        int dataOffset = header.capacity();
+        int rows = board.getRows();
+        int cols = board.getCols();
+        long dataSize = (long) rows * wordsPerRow(cols) * 8;
+        if (dataOffset + dataSize > Integer.MAX_VALUE) {
+            throw new IOException("The board is too large to be saved as a checkpoint!");
+        }
+
+        int pagesWritten;
+        if (board == lastBoard && board instanceof BoardOffHeap
+                && ((BoardOffHeap) board).isTrackedBy(this)
+                && rows == lastRows && cols == lastCols && dataOffset == lastDataOffset
+                && lastFileKey != null && lastFileKey.equals(getFileKey(file.toPath()))) {
+            pagesWritten = writeChangedPages((BoardOffHeap) board, header);
+        } else {
+            Path temp = new File(file.getPath() + ".tmp").toPath();
+            pagesWritten = writeBoard(temp, board, header, (int) dataSize);
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        if (board instanceof BoardOffHeap) {
+            ((BoardOffHeap) board).clearDirtyPages(this);
+        }
+        remember(board, dataOffset);
+        return pagesWritten;
+    }
+
+    /**
+     * Restores the board stored in the checkpoint. The rules stored in the
+     * checkpoint, including the board engine, are applied to the
+     * {@link model.Rules} class object.
+     *
+     * @return a <code>BoardOffHeap</code> holding the restored board.
+     * @throws IOException if the file could not be read, or does not hold a
+     * complete checkpoint.
+     */
+    public BoardOffHeap restore() throws IOException {
+        Path path = file.toPath();
+        BoardOffHeap board;
+        // mapping a private copy of a file requires write access.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = read(channel, 0, METADATA_POSITION);
+            if (header.getInt(MAGIC_POSITION) != MAGIC) {
+                throw new IOException("The file is not a checkpoint!");
+            }
+            int version = header.getInt(VERSION_POSITION);
+            if (version != VERSION && version != VERSION_WITHOUT_ENGINE) {
+                throw new IOException("Unsupported checkpoint version "
+                        + header.getInt(VERSION_POSITION) + "!");
+            }
+            if (header.getInt(STATE_POSITION) != COMPLETE) {
+                throw new IOException("The checkpoint was not completed!");
+            }
+            int dataOffset = header.getInt(DATA_OFFSET_POSITION);
+            int rows = header.getInt(ROWS_POSITION);
+            int cols = header.getInt(COLS_POSITION);
+            long dataSize = (long) rows * wordsPerRow(cols) * 8;
+            if (rows < 1 || cols < 1 || dataOffset < METADATA_POSITION
+                    || channel.size() != dataOffset + dataSize) {
+                throw new IOException("The checkpoint is damaged!");
+            }
+
+            ByteBuffer metadata = read(channel, METADATA_POSITION, dataOffset - METADATA_POSITION);
+            String author = readString(metadata);
+            String name = readString(metadata);
+            String comment = readString(metadata);
+            BoardType boardType = null;
+            String familyRule = null;
+            if (version == VERSION) {
+                try {
+                    boardType = BoardType.valueOf(readString(metadata));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("The checkpoint is damaged!");
+                }
+                familyRule = readString(metadata);
+            }
+
+            MappedByteBuffer cells = channel.map(MapMode.PRIVATE, dataOffset, dataSize);
+            board = new BoardOffHeap(rows, cols, cells, header.getInt(LIVING_CELLS_POSITION));
+            board.generationCount = (int) header.getLong(GENERATION_POSITION);
+            board.setMetadata(author, name, comment);
+
+            rules.setBirthRules(toRules(header.getInt(BIRTH_MASK_POSITION)));
+            rules.setSurviveRules(toRules(header.getInt(SURVIVE_MASK_POSITION)));
+            if (boardType != null) {
+                // the engine decides if the rules can be toroidal, so it is
+                // set first.
+                setFamilyRule(boardType, familyRule);
+                rules.setBoardType(boardType);
+            }
+            int topology = header.getInt(DYNAMIC_POSITION);
+            rules.setDynamic(topology == 1);
+            rules.setToroidal(topology == 2);
+            remember(board, dataOffset);
+        }
+        board.clearDirtyPages(this);
+        return board;
+    }
+
+    /**
+     * Writes a complete checkpoint to a new file.
+     */
+    private int writeBoard(Path path, AbstractBoard board, ByteBuffer header,
+            int dataSize) throws IOException {
+        int dataOffset = header.capacity();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(MapMode.READ_WRITE, 0, dataOffset + dataSize);
+            try {
+                map.order(ByteOrder.LITTLE_ENDIAN);
+                map.put(header);
+                if (board instanceof BoardOffHeap) {
+                    map.put(((BoardOffHeap) board).getWords());
+                } else {
+                    writeCells(map, board);
+                }
+                map.force();
+                map.putInt(STATE_POSITION, COMPLETE);
+                map.force();
+            } finally {
+                BoardOffHeap.release(map);
+            }
+        }
+        return (dataSize + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+
+    /**
+     * Writes the header and the changed pages of a board to the existing
+     * checkpoint.
+     */
+    private int writeChangedPages(BoardOffHeap board, ByteBuffer header) throws IOException {
+        int dataOffset = header.capacity();
+        int pagesWritten = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(MapMode.READ_WRITE, 0, channel.size());
+            try {
+                map.order(ByteOrder.LITTLE_ENDIAN);
+                map.putInt(STATE_POSITION, WRITING);
+                map.force();
+                map.put(header);
+
+                ByteBuffer words = board.getWords();
+                int size = words.capacity();
+                int pages = (size + PAGE_SIZE - 1) / PAGE_SIZE;
+                for (int page = 0; page < pages; page++) {
+                    if (board.isPageDirty(page)) {
+                        int start = page * PAGE_SIZE;
+                        words.limit(Math.min(start + PAGE_SIZE, size));
+                        words.position(start);
+                        map.position(dataOffset + start);
+                        map.put(words);
+                        pagesWritten++;
+                    }
+                }
+                map.force();
+                map.putInt(STATE_POSITION, COMPLETE);
+                map.force();
+            } finally {
+                BoardOffHeap.release(map);
+            }
+        }
+        return pagesWritten;
+    }
+
+    /**
+     * Packs the cells of a board into words, reading one row at a time.
+     */
+    private void writeCells(ByteBuffer map, AbstractBoard board) {
+        int cols = board.getCols();
+        byte[] cells = new byte[cols];
+        for (int row = 0; row < board.getRows(); row++) {
+            board.readRow(board.getMinRow() + row, board.getMinCol(), cols, cells);
+            long word = 0;
+            for (int col = 0; col < cols; col++) {
+                if (cells[col] == 1) {
+                    word |= 1L << (col & 63);
+                }
+                if ((col & 63) == 63 || col == cols - 1) {
+                    map.putLong(word);
+                    word = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the header of a checkpoint, padded to a whole number of pages.
+     * The header is marked as incomplete.
+     */
+    private ByteBuffer createHeader(AbstractBoard board) {
+        byte[] author = toBytes(board.getAuthor());
+        byte[] name = toBytes(board.getName());
+        byte[] comment = toBytes(board.getComment());
+        byte[] boardType = toBytes(rules.getBoardType().name());
+        byte[] familyRule = toBytes(getFamilyRule(rules.getBoardType()));
+        int size = METADATA_POSITION + 20 + author.length + name.length + comment.length
+                + boardType.length + familyRule.length;
+        size = (size + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+
+        RuleSet ruleSet = rules.getRuleSet();
+        ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC_POSITION, MAGIC);
+        header.putInt(VERSION_POSITION, VERSION);
+        header.putInt(STATE_POSITION, WRITING);
+        header.putInt(DATA_OFFSET_POSITION, size);
+        header.putInt(ROWS_POSITION, board.getRows());
+        header.putInt(COLS_POSITION, board.getCols());
+        header.putLong(GENERATION_POSITION, board.getGenerationCount());
+        header.putInt(LIVING_CELLS_POSITION, board.getLivingCellCount());
+        header.putInt(BIRTH_MASK_POSITION, ruleSet.getBirthMask());
+        header.putInt(SURVIVE_MASK_POSITION, ruleSet.getSurviveMask());
+        // 0 is static, 1 is dynamic and 2 is toroidal.
+        header.putInt(DYNAMIC_POSITION, rules.isDynamic() ? 1 : rules.isToroidal() ? 2 : 0);
+        header.position(METADATA_POSITION);
+        header.putInt(author.length).put(author);
+        header.putInt(name.length).put(name);
+        header.putInt(comment.length).put(comment);
+        header.putInt(boardType.length).put(boardType);
+        header.putInt(familyRule.length).put(familyRule);
+        header.clear();
+        return header;
+    }
+
+    /**
+     * Gets the rule of the family of rules a board engine plays by, as
+     * stored in the header. Empty for engines playing by the birth and
+     * survival rules.
+     */
+    private String getFamilyRule(BoardType boardType) {
+        switch (boardType) {
+            case LARGER_THAN_LIFE:
+                return rules.getLargerThanLifeRule().toString();
+            case ISOTROPIC:
+                return rules.getIsotropicRule().toString();
+            case GENERATIONS:
+                return rules.getGenerationsRule().toString();
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Applies the rule of the family of rules a board engine plays by, as
+     * stored in the header.
+     */
+    private void setFamilyRule(BoardType boardType, String rule) throws IOException {
+        try {
+            switch (boardType) {
+                case LARGER_THAN_LIFE:
+                    rules.setLargerThanLifeRule(LargerThanLifeRule.parse(rule));
+                    break;
+                case ISOTROPIC:
+                    rules.setIsotropicRule(IsotropicRule.parse(rule));
+                    break;
+                case GENERATIONS:
+                    rules.setGenerationsRule(GenerationsRule.parse(rule));
+                    break;
+                default:
+                    break;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The checkpoint is damaged!");
+        }
+    }
+
+    /**
+     * Stores which board the file holds, along with the layout and identity
+     * of the file.
+     */
+    private void remember(AbstractBoard board, int dataOffset) throws IOException {
+        lastBoard = board;
+        lastRows = board.getRows();
+        lastCols = board.getCols();
+        lastDataOffset = dataOffset;
+        lastFileKey = getFileKey(file.toPath());
+    }
+
+    /**
+     * Gets an object identifying the file, which changes when the file is
+     * replaced. May be null if not supported by the file system.
+     */
+    private static Object getFileKey(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        return Files.readAttributes(path, "basic:fileKey").get("fileKey");
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("The checkpoint is damaged!");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] toBytes(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("The checkpoint is damaged!");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ArrayList<Integer> toRules(int mask) {
+        ArrayList<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 32; i++) {
+            if ((mask & (1 << i)) != 0) {
+                values.add(i);
+            }
+        }
+        return values;
+    }
+
+    private static int wordsPerRow(int cols) {
+        return (cols + 63) / 64;
+    }
+}
@@ -0,0 +1,476 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Detects when the pattern on a board repeats itself, either exactly or moved
+ * to another position, by keeping a 64-bit hash of the board which is updated
+ * from the {@link ChangeLog} after each generation shift. The cost of a
+ * generation is therefore proportional to the number of changed cells rather
+ * than the size of the board, except when the board expanded and the hash has
+ * to be recomputed.
+ *
+ * <p>
+ * Two hashes are kept. The exact hash is a Zobrist hash, the XOR of a random
+ * key for each cell which is not dead, where the key is computed from the
+ * position and state of the cell instead of being looked up in a table, as the
+ * board has no fixed size. The shape hash is the sum of
+ * <i>A<sup>row</sup> B<sup>col</sup></i> times a weight for the state of the
+ * cell over the cells which are not dead, which is multiplied by <i>A<sup>dr</sup> B<sup>dc</sup></i>
+ * when the pattern is moved by <i>dr</i> rows and <i>dc</i> columns. Multiplying
+ * it by the inverse powers of the top left corner of the bounding box gives a
+ * hash which does not depend on the position of the pattern, so spaceships
+ * can be detected as well as oscillators.</p>
+ *
+ * <p>
+ * The hashes of the last generations are kept in a bounded history. When a
+ * hash is found in the history, the board is taken to have repeated with a
+ * period equal to the difference in generations. Hash collisions are very
+ * unlikely, and the number of living cells is compared as well.</p>
+ *
+ * <p>
+ * The dying states of {@link model.BoardGenerations} are part of the state of
+ * the board, and are hashed as well. The change log only tells which cells
+ * changed, so the state a cell changed from is the state before its current
+ * state, see {@link model.BoardGenerations#getStates()}. Cells on other
+ * boards are either dead or alive.</p>
+ */
+public class CycleDetector {
+
+    /**
+     * The default number of generations kept in the history.
+     */
+    public static final int DEFAULT_HISTORY_SIZE = 4096;
+
+    private static final long ROW_BASE = 0x9E3779B97F4A7C15L;
+    private static final long COL_BASE = 0xC2B2AE3D27D4EB4FL;
+    private static final long ROW_BASE_INVERSE = inverse(ROW_BASE);
+    private static final long COL_BASE_INVERSE = inverse(COL_BASE);
+
+    private final AbstractBoard board;
+    private final Map<Long, Generation> exactHistory;
+    private final Map<Long, Generation> shapeHistory;
+
+    private long exactHash;
+    private long shapeHash;
+    private int rowOrigin;
+    private int colOrigin;
+    private int lastGeneration;
+
+    private int period = 0;
+    private int cycleStart = -1;
+    private int rowDisplacement = 0;
+    private int colDisplacement = 0;
+
+    /**
+     * A generation stored in the history.
+     */
+    private static class Generation {
+
+        final int generation;
+        final int livingCells;
+        final int top;
+        final int left;
+
+        Generation(int generation, int livingCells, int top, int left) {
+            this.generation = generation;
+            this.livingCells = livingCells;
+            this.top = top;
+            this.left = left;
+        }
+    }
+
+    /**
+     * Creates a cycle detector for a board, keeping the default number of
+     * generations in the history.
+     *
+     * @param board the <code>AbstractBoard</code> to watch.
+     */
+    public CycleDetector(AbstractBoard board) {
+        this(board, DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * Creates a cycle detector for a board. The current generation of the
+     * board is added to the history.
+     *
+     * @param board the <code>AbstractBoard</code> to watch.
+     * @param historySize an <code>int</code> specifying the max number of
+     * generations kept in the history, which is also the longest period which
+     * can be detected.
+     * @throws IllegalArgumentException if the history size is less than 1.
+     */
+    public CycleDetector(AbstractBoard board, int historySize) {
+        if (historySize < 1) {
+            throw new IllegalArgumentException("History size must be at least 1!");
+        }
+        this.board = board;
+        exactHistory = createHistory(historySize);
+        shapeHistory = createHistory(historySize);
+        reset();
+    }
+
+    /**
+     * Creates a map which removes the oldest generation when it grows past the
+     * given size.
+     */
+    private static Map<Long, Generation> createHistory(int historySize) {
+        return new LinkedHashMap<Long, Generation>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Generation> eldest) {
+                return size() > historySize;
+            }
+        };
+    }
+
+    /**
+     * Gets the board watched by this detector.
+     *
+     * @return the watched <code>AbstractBoard</code>.
+     */
+    public AbstractBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Empties the history and recomputes the hashes from the board. Must be
+     * called when the board has been edited, as edits are not recorded in the
+     * change log.
+     */
+    public void reset() {
+        exactHistory.clear();
+        shapeHistory.clear();
+        rowOrigin = 0;
+        colOrigin = 0;
+        period = 0;
+        cycleStart = -1;
+        rowDisplacement = 0;
+        colDisplacement = 0;
+        recompute();
+        record();
+    }
+
+    /**
+     * Updates the hashes after a generation shift, and checks the history for
+     * an earlier generation with the same pattern. If the board has advanced
+     * more than one generation since the last update, the history is emptied
+     * as the changes in between are not known.
+     *
+     * @return a <code>boolean</code> specifying if the pattern has been seen
+     * before.
+     */
+    public boolean update() {
+        int generation = board.getGenerationCount();
+        if (generation == lastGeneration) {
+            return isCycleDetected();
+        }
+        if (generation != lastGeneration + 1) {
+            reset();
+            return false;
+        }
+
+        if (board.expandedNorth()) {
+            rowOrigin++;
+        }
+        if (board.expandedWest()) {
+            colOrigin++;
+        }
+        ChangeLog log = board.getChangeLog();
+        if (log.isAllChanged()) {
+            recompute();
+        } else {
+            int states = board instanceof BoardGenerations
+                    ? ((BoardGenerations) board).getStates() : 2;
+            for (int i = 0; i < log.size(); i++) {
+                int row = log.getRow(i);
+                int col = log.getCol(i);
+                int state = board.getCellState(row, col);
+                toggle(row, col, state == 0 ? states - 1 : state - 1, state);
+            }
+        }
+        lastGeneration = generation;
+        return record();
+    }
+
+    /**
+     * Checks if the pattern on the board has been seen before.
+     *
+     * @return a <code>boolean</code> specifying if a cycle has been detected.
+     */
+    public boolean isCycleDetected() {
+        return period > 0;
+    }
+
+    /**
+     * Gets the number of generations it takes the pattern to repeat itself.
+     *
+     * @return an <code>int</code> specifying the period, or 0 if no cycle has
+     * been detected.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Gets the first generation of the detected cycle, that is the generation
+     * the current generation is a repeat of.
+     *
+     * @return an <code>int</code> specifying the generation, or -1 if no cycle
+     * has been detected.
+     */
+    public int getCycleStart() {
+        return cycleStart;
+    }
+
+    /**
+     * Gets the number of rows the pattern moved during one period. Is 0 for
+     * oscillators and still lifes.
+     *
+     * @return an <code>int</code> specifying the row displacement.
+     */
+    public int getRowDisplacement() {
+        return rowDisplacement;
+    }
+
+    /**
+     * Gets the number of columns the pattern moved during one period. Is 0 for
+     * oscillators and still lifes.
+     *
+     * @return an <code>int</code> specifying the column displacement.
+     */
+    public int getColDisplacement() {
+        return colDisplacement;
+    }
+
+    /**
+     * Checks if the detected cycle repeats the pattern in the same position,
+     * which means later generations can be found without computing them.
+     *
+     * @return a <code>boolean</code> specifying if the board repeats itself
+     * exactly.
+     */
+    public boolean isExactCycle() {
+        return period > 0 && rowDisplacement == 0 && colDisplacement == 0;
+    }
+
+    /**
+     * Gets the exact hash of the current generation.
+     *
+     * @return a <code>long</code> specifying the hash.
+     */
+    public long getHash() {
+        return exactHash;
+    }
+
+    /**
+     * Gets the hash of the current generation, which is independent of the
+     * position of the pattern.
+     *
+     * @return a <code>long</code> specifying the hash.
+     */
+    public long getShapeHash() {
+        int[] box = board.getBoundingBox();
+        return box == null ? 0 : normalize(box);
+    }
+
+    /**
+     * Advances the board a number of generations. If an exact cycle has been
+     * detected, whole periods are skipped without being computed, and only
+     * the remaining generations are computed.
+     *
+     * @param generations a <code>long</code> specifying the number of
+     * generations to advance.
+     * @return a <code>long</code> specifying the number of generations which
+     * were computed.
+     * @throws IllegalArgumentException if the number of generations is
+     * negative, or the generation count would grow past
+     * <code>Integer.MAX_VALUE</code>.
+     */
+    public long skipAhead(long generations) {
+        if (generations < 0
+                || board.getGenerationCount() + generations > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Number of generations must be"
+                    + " between 0 and " + (Integer.MAX_VALUE - board.getGenerationCount()) + "!");
+        }
+        if (!isExactCycle()) {
+            board.advance(generations);
+            update();
+            return generations;
+        }
+        long skipped = generations - generations % period;
+        board.generationCount += (int) skipped;
+        // the generations in the history are no longer one period apart
+        // from the current generation, so the history is started over.
+        reset();
+
+        long remaining = generations - skipped;
+        for (long i = 0; i < remaining; i++) {
+            board.nextGenerationConcurrent();
+            update();
+        }
+        return remaining;
+    }
+
+    /**
+     * Computes the exact hash of a board from scratch.
+     *
+     * @param board the <code>AbstractBoard</code> to hash.
+     * @return a <code>long</code> specifying the hash.
+     */
+    public static long hash(AbstractBoard board) {
+        long hash = 0;
+        for (int row = board.getMinRow(); row < board.getMinRow() + board.getRows(); row++) {
+            for (int col = board.getMinCol(); col < board.getMinCol() + board.getCols(); col++) {
+                hash ^= key(row, col, board.getCellState(row, col));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Recomputes both hashes from the cells on the board.
+     */
+    private void recompute() {
+        exactHash = 0;
+        shapeHash = 0;
+        int minRow = board.getMinRow();
+        int minCol = board.getMinCol();
+        for (int row = minRow; row < minRow + board.getRows(); row++) {
+            for (int col = minCol; col < minCol + board.getCols(); col++) {
+                int state = board.getCellState(row, col);
+                if (state != 0) {
+                    toggle(row, col, 0, state);
+                }
+            }
+        }
+        lastGeneration = board.getGenerationCount();
+    }
+
+    /**
+     * Changes the state of a cell in both hashes.
+     */
+    private void toggle(int row, int col, int from, int to) {
+        int worldRow = row - rowOrigin;
+        int worldCol = col - colOrigin;
+        exactHash ^= key(worldRow, worldCol, from) ^ key(worldRow, worldCol, to);
+        long term = pow(ROW_BASE, ROW_BASE_INVERSE, worldRow)
+                * pow(COL_BASE, COL_BASE_INVERSE, worldCol);
+        shapeHash += term * (weight(to) - weight(from));
+    }
+
+    /**
+     * Looks up the current generation in the history, and adds it.
+     */
+    private boolean record() {
+        int generation = board.getGenerationCount();
+        int livingCells = board.getLivingCellCount();
+        int[] box = board.getBoundingBox();
+        int top = box == null ? 0 : box[0] - rowOrigin;
+        int left = box == null ? 0 : box[1] - colOrigin;
+        long normalized = box == null ? 0 : normalize(box);
+
+        Generation entry = new Generation(generation, livingCells, top, left);
+        Generation exact = exactHistory.get(exactHash);
+        Generation shape = shapeHistory.get(normalized);
+        if (exact != null && exact.livingCells == livingCells) {
+            setCycle(exact, 0, 0);
+        } else if (shape != null && shape.livingCells == livingCells) {
+            setCycle(shape, top - shape.top, left - shape.left);
+        } else {
+            period = 0;
+            cycleStart = -1;
+            rowDisplacement = 0;
+            colDisplacement = 0;
+        }
+        exactHistory.put(exactHash, entry);
+        shapeHistory.put(normalized, entry);
+        return isCycleDetected();
+    }
+
+    private void setCycle(Generation previous, int rows, int cols) {
+        period = board.getGenerationCount() - previous.generation;
+        cycleStart = previous.generation;
+        rowDisplacement = rows;
+        colDisplacement = cols;
+    }
+
+    /**
+     * Moves the shape hash so the top left corner of the bounding box is at
+     * row and column 0.
+     */
+    private long normalize(int[] box) {
+        int top = box[0] - rowOrigin;
+        int left = box[1] - colOrigin;
+        return shapeHash * pow(ROW_BASE, ROW_BASE_INVERSE, -top)
+                * pow(COL_BASE, COL_BASE_INVERSE, -left);
+    }
+
+    /**
+     * Computes the Zobrist key of a cell in a given state. Dead cells have no
+     * key, and living cells have the key of their position.
+     */
+    private static long key(int row, int col, int state) {
+        if (state == 0) {
+            return 0;
+        }
+        long key = key(row, col);
+        return state == 1 ? key : mix(key + state);
+    }
+
+    /**
+     * Computes the weight of a state in the shape hash. Dead cells weigh
+     * nothing, and living cells weigh 1.
+     */
+    private static long weight(int state) {
+        return state <= 1 ? state : mix(state);
+    }
+
+    /**
+     * Computes the Zobrist key of a position by mixing it with the finalizer
+     * of the SplitMix64 generator.
+     */
+    private static long key(int row, int col) {
+        return mix(((long) row << 32) | (col & 0xFFFFFFFFL));
+    }
+
+    /**
+     * The finalizer of the SplitMix64 generator.
+     */
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Raises a number to a power modulo 2<sup>64</sup>, using the inverse for
+     * negative exponents.
+     */
+    private static long pow(long base, long inverse, int exponent) {
+        long b = exponent < 0 ? inverse : base;
+        long e = Math.abs((long) exponent);
+        long result = 1;
+        while (e > 0) {
+            if ((e & 1) != 0) {
+                result *= b;
+            }
+            b *= b;
+            e >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the inverse of an odd number modulo 2<sup>64</sup> using
+     * Newton's method, where each step doubles the number of correct bits.
+     */
+    private static long inverse(long odd) {
+        long x = odd;
+        for (int i = 0; i < 5; i++) {
+            x *= 2 - odd * x;
+        }
+        return x;
+    }
+}
@@ -20,7 +20,15 @@ import java.util.regex.Pattern;
  * formats.</p>
  * <p>
  * Game rules stored in the {@link model.Rules} class object will also be
- * changed if the pattern file defines rules for the pattern.</p>
+ * changed if the pattern file defines rules for the pattern. RLE files may
+ * define isotropic non-totalistic rules using Hensel notation, such as
+ * <code>B2-a/S12</code>, which selects the
+ * {@link model.BoardType#ISOTROPIC} board engine, as the other engines only
+ * support outer-totalistic rules. Rules of the Generations family, such as
+ * <code>B2/S/C3</code> or <code>345/2/4</code>, select the
+ * {@link model.BoardType#GENERATIONS} board engine, and their dying cells are
+ * read using the multi-state RLE alphabet, where <code>.</code> is dead and
+ * <code>A</code> to <code>O</code> are states 1 to 15.</p>
  *
  * <p>
  * Class was based on the file definitions outlined at
@@ -41,6 +49,7 @@ public class FileImporter {
     private String name = "unknown";
     private String comment = "";
     private Rules rules = Rules.getInstance();
+    private int states = 2;
     
     /**
      * Constructor takes no arguments.
@@ -259,6 +268,74 @@ public class FileImporter {
         boardArray = new byte[row][col];
     }
 
+    /**
+     * Determine and set a rule of the Generations family, which has a third
+     * part giving the number of states, and select the Generations board
+     * engine.
+     *
+     * @param lineList the pattern.
+     * @return a <code>boolean</code> specifying if a Generations rule was
+     * found.
+     * @throws PatternFormatException if the rule could not be parsed.
+     */
+    private boolean readRleGenerationsRule(ArrayList<String> lineList) throws PatternFormatException {
+        Matcher m;
+        Pattern rulePattern = Pattern.compile("rule\\s*=\\s*([bBsS]?\\d*\\s*/\\s*[bBsS]?\\d*\\s*/\\s*[cCgG]?\\d+)");
+
+        for (int i = 0; i < lineList.size(); i++) {
+            m = rulePattern.matcher(lineList.get(i));
+            if (m.find()) {
+                try {
+                    GenerationsRule rule = GenerationsRule.parse(m.group(1));
+                    rules.setGenerationsRule(rule);
+                    states = rule.getStates();
+                } catch (IllegalArgumentException e) {
+                    throw new PatternFormatException(e.getMessage());
+                }
+                rules.setBoardType(BoardType.GENERATIONS);
+                lineList.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determine and set an isotropic non-totalistic rule written using Hensel
+     * notation, and select the isotropic board engine. Outer-totalistic rules
+     * are left to {@link #readRleRules(java.util.ArrayList)}.
+     *
+     * @param lineList the pattern.
+     * @return a <code>boolean</code> specifying if a non-totalistic rule was
+     * found.
+     * @throws PatternFormatException if the rule could not be parsed.
+     */
+    private boolean readRleIsotropicRule(ArrayList<String> lineList) throws PatternFormatException {
+        Matcher m;
+        Pattern rulePattern = Pattern.compile("rule\\s*=\\s*([bBsS][0-8a-z\\-]*\\s*/\\s*[bBsS][0-8a-z\\-]*)");
+
+        for (int i = 0; i < lineList.size(); i++) {
+            m = rulePattern.matcher(lineList.get(i));
+            if (m.find()) {
+                // letters or a minus after the counts make the rule
+                // non-totalistic.
+                String counts = m.group(1).replaceAll("(^|/)\\s*[bBsS]", "");
+                if (!counts.matches(".*[a-z\\-].*")) {
+                    return false;
+                }
+                try {
+                    rules.setIsotropicRule(IsotropicRule.parse(m.group(1)));
+                } catch (IllegalArgumentException e) {
+                    throw new PatternFormatException(e.getMessage());
+                }
+                rules.setBoardType(BoardType.ISOTROPIC);
+                lineList.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Determine and set the game rules.
      *
@@ -272,6 +349,10 @@ public class FileImporter {
         String survive;
         String birth;
 
+        if (readRleGenerationsRule(lineList) || readRleIsotropicRule(lineList)) {
+            return;
+        }
+
         for (int i = 0; i < lineList.size(); i++) {
 
             m = rulePattern.matcher(lineList.get(i));
@@ -317,6 +398,9 @@ public class FileImporter {
                 }
 
                 rules.setBirthRules(birthRules);
+                rules.setIsotropicRule(IsotropicRule.fromRuleSet(rules.getRuleSet()));
+                rules.setGenerationsRule(new GenerationsRule(rules.getRuleSet().getBirthMask(),
+                        rules.getRuleSet().getSurviveMask(), 2));
             }
         }
 
@@ -337,7 +421,7 @@ public class FileImporter {
         Matcher m;
         StringBuilder stringBuilder = new StringBuilder();
         for (int i = 0; i < lineList.size(); i++) {
-            if (lineList.get(i).matches("^(?:\\d*[bo\\$\\!]{1})*$")) {
+            if (lineList.get(i).matches("^(?:\\d*(?:[bo.A-X\\$\\!]|[p-y][A-X]))*$")) {
                 stringBuilder.append(lineList.get(i));
             } else {
                 throw new PatternFormatException("Unsuported character found in "
@@ -359,7 +443,7 @@ public class FileImporter {
 
         for (int i = 0; i < boardStringArray.length; i++) {
             int cellPosition = 0;
-            Pattern boardRowPattern = Pattern.compile("(\\d*)(b|o|!){1}");
+            Pattern boardRowPattern = Pattern.compile("(\\d*)([bo.A-X!]|[p-y][A-X])");
             m = boardRowPattern.matcher(boardStringArray[i]);
             m.find();
 
@@ -372,20 +456,20 @@ public class FileImporter {
                 }
 
                 try {
+                    int state = readRleState(m.group(2));
+                    if (state >= states) {
+                        throw new PatternFormatException("Unsuported "
+                                + "character found in board definition. "
+                                + "This application only supports more than "
+                                + "two cell states for Generations rules, "
+                                + "and the rule of this pattern has " + states
+                                + " states. Character found was " + m.group(2));
+                    }
                     for (int j = cellPosition; j < cellPosition + numberOfCells; j++) {
-                        if (m.group(2).equals("o") || m.group(2).equals("O")) {
-                            boardArray[i + rowOffsett][j] = 1;
-                        } else if (m.group(2).equals("b") || m.group(2).equals("B")) {
-                            boardArray[i + rowOffsett][j] = 0;
-                        } else if (m.group(2).equals("!")) {
+                        if (m.group(2).equals("!")) {
                             i = (boardStringArray.length - 1);
                         } else {
-                            throw new PatternFormatException("Unsuported "
-                                    + "character found in board definition. "
-                                    + "This application only supports two cell "
-                                    + "states. Dead (symbolized by b or B and "
-                                    + "alive, symbolized by o or O. Character "
-                                    + "found was" + m.group(2));
+                            boardArray[i + rowOffsett][j] = (byte) state;
                         }
 
                     }
@@ -418,6 +502,29 @@ public class FileImporter {
         }
     }
 
+    /**
+     * Gets the state symbolized by a cell character of an RLE file. b and .
+     * are dead, o is alive, and A to X are states 1 to 24, with a prefix of p
+     * to y adding 24 for each letter.
+     *
+     * @param cell the cell character, with its prefix.
+     * @return an <code>int</code> specifying the state, or 0 for the end of
+     * file indicator.
+     */
+    private int readRleState(String cell) {
+        char last = cell.charAt(cell.length() - 1);
+        if (last == 'o') {
+            return 1;
+        } else if (last < 'A' || last > 'X') {
+            return 0;
+        }
+        int state = last - 'A' + 1;
+        if (cell.length() > 1) {
+            state += (cell.charAt(0) - 'p' + 1) * 24;
+        }
+        return state;
+    }
+
     /**
      * Determin which Life format (either 1.05 or 1.06) is being used, and pass
      * the pattern on to the correct file parser.
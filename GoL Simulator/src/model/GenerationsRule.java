@@ -0,0 +1,217 @@
+package model;
+
+/**
+ * An immutable rule of the Generations family, used by
+ * {@link model.BoardGenerations}. Cells are born and survive like with the
+ * outer-totalistic rules of {@link model.RuleSet}, counting only the living
+ * neighbours, but a living cell which does not survive passes through a
+ * number of dying states before it becomes dead. Dying cells can not be born
+ * again until they are dead.
+ *
+ * <p>
+ * State 0 is dead, state 1 is alive, and states 2 and up are dying, in order.
+ * Rules are written as for example <code>B2/S/C3</code>, which is Brian's
+ * Brain, where C is the total number of states. The older notation
+ * <code>345/2/4</code>, giving the survival counts, birth counts and number of
+ * states, is also accepted. Rules with two states are ordinary
+ * outer-totalistic rules.</p>
+ */
+public final class GenerationsRule {
+
+    /**
+     * The largest supported number of states, as the board stores one cell
+     * per 4 bits.
+     */
+    public static final int MAX_STATES = 16;
+
+    /**
+     * Conway's Game of Life, B3/S23/C2.
+     */
+    public static final GenerationsRule CONWAY = new GenerationsRule(1 << 3, (1 << 2) | (1 << 3), 2);
+
+    /**
+     * Brian's Brain, B2/S/C3.
+     */
+    public static final GenerationsRule BRIANS_BRAIN = new GenerationsRule(1 << 2, 0, 3);
+
+    private final int birthMask;
+    private final int surviveMask;
+    private final int states;
+
+    /**
+     * The next state of a cell, indexed by its state * 9 plus its number of
+     * living neighbours.
+     */
+    private final byte[] nextState = new byte[MAX_STATES * 9];
+
+    /**
+     * Creates a rule from two bitmasks and the number of states.
+     *
+     * @param birthMask an <code>int</code> where bit <i>n</i> specifies if a
+     * dead cell with <i>n</i> living neighbours is born.
+     * @param surviveMask an <code>int</code> where bit <i>n</i> specifies if a
+     * living cell with <i>n</i> living neighbours survives.
+     * @param states an <code>int</code> specifying the number of states, from
+     * 2 to MAX_STATES.
+     * @throws IllegalArgumentException if the number of states is outside the
+     * allowed values.
+     */
+    public GenerationsRule(int birthMask, int surviveMask, int states) {
+        if (states < 2 || states > MAX_STATES) {
+            throw new IllegalArgumentException("The number of states must be"
+                    + " between 2 and " + MAX_STATES + "!");
+        }
+        this.birthMask = birthMask & 0x1FF;
+        this.surviveMask = surviveMask & 0x1FF;
+        this.states = states;
+        for (int n = 0; n <= 8; n++) {
+            nextState[n] = (byte) ((this.birthMask >>> n) & 1);
+            nextState[9 + n] = ((this.surviveMask >>> n) & 1) != 0 ? 1 : (byte) (states > 2 ? 2 : 0);
+            for (int state = 2; state < MAX_STATES; state++) {
+                nextState[state * 9 + n] = (byte) (state + 1 < states ? state + 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * Parses a rule written as for example <code>B2/S/C3</code> or
+     * <code>345/2/4</code>. Rules without the number of states, such as
+     * <code>B3/S23</code>, have two states.
+     *
+     * @param rule a <code>String</code> holding the rule.
+     * @return the parsed <code>GenerationsRule</code>.
+     * @throws IllegalArgumentException if the rule could not be parsed.
+     */
+    public static GenerationsRule parse(String rule) {
+        String[] parts = rule.trim().toUpperCase().split("\\s*/\\s*", -1);
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("The rule " + rule
+                    + " must be written as B.../S.../C...!");
+        }
+        Integer birth = null;
+        Integer survive = null;
+        int states = 2;
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            // parts without a letter are survival, birth and states, in order.
+            char type = part.isEmpty() || Character.isDigit(part.charAt(0))
+                    ? "SBC".charAt(i) : part.charAt(0);
+            String value = Character.isLetter(type) && part.startsWith(String.valueOf(type))
+                    ? part.substring(1) : part;
+            if (type == 'B' && birth == null) {
+                birth = parseCounts(value, rule);
+            } else if (type == 'S' && survive == null) {
+                survive = parseCounts(value, rule);
+            } else if ((type == 'C' || type == 'G') && i == parts.length - 1 && !value.isEmpty()) {
+                try {
+                    states = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+                }
+            } else {
+                throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+            }
+        }
+        if (birth == null || survive == null) {
+            throw new IllegalArgumentException("The rule " + rule
+                    + " must specify both birth and survival!");
+        }
+        return new GenerationsRule(birth, survive, states);
+    }
+
+    /**
+     * Converts a string of neighbour counts to a bitmask.
+     */
+    private static int parseCounts(String counts, String rule) {
+        int mask = 0;
+        for (char c : counts.toCharArray()) {
+            if (c < '0' || c > '8') {
+                throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+            }
+            mask |= 1 << (c - '0');
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the birth rules as a bitmask, where bit <i>n</i> is set if a dead
+     * cell with <i>n</i> living neighbours is born.
+     *
+     * @return an <code>int</code> specifying the birth rules.
+     */
+    public int getBirthMask() {
+        return birthMask;
+    }
+
+    /**
+     * Gets the survival rules as a bitmask, where bit <i>n</i> is set if a
+     * living cell with <i>n</i> living neighbours survives.
+     *
+     * @return an <code>int</code> specifying the survival rules.
+     */
+    public int getSurviveMask() {
+        return surviveMask;
+    }
+
+    /**
+     * Gets the number of states, including the dead and living states.
+     *
+     * @return an <code>int</code> specifying the number of states.
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * Gets the next state of a cell.
+     *
+     * @param state an <code>int</code> specifying the current state of the
+     * cell.
+     * @param neighbours an <code>int</code> specifying the number of living
+     * neighbours, from 0 to 8.
+     * @return a <code>byte</code> specifying the next state of the cell.
+     */
+    public byte nextState(int state, int neighbours) {
+        return nextState[state * 9 + neighbours];
+    }
+
+    /**
+     * Gets the table of next states, indexed by state * 9 plus the number of
+     * living neighbours. The table must not be changed.
+     */
+    byte[] getTable() {
+        return nextState;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GenerationsRule)) {
+            return false;
+        }
+        GenerationsRule other = (GenerationsRule) o;
+        return birthMask == other.birthMask && surviveMask == other.surviveMask
+                && states == other.states;
+    }
+
+    @Override
+    public int hashCode() {
+        return (((birthMask << 9) | surviveMask) << 4) | (states - 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("B");
+        for (int n = 0; n <= 8; n++) {
+            if (((birthMask >>> n) & 1) != 0) {
+                sb.append(n);
+            }
+        }
+        sb.append("/S");
+        for (int n = 0; n <= 8; n++) {
+            if (((surviveMask >>> n) & 1) != 0) {
+                sb.append(n);
+            }
+        }
+        return sb.append("/C").append(states).toString();
+    }
+}
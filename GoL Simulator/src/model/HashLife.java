@@ -0,0 +1,672 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * HashLife engine, used to fast-forward a board a large number of generations
+ * in a single call.
+ *
+ * <p>
+ * The universe is stored as a quadtree, where every node is canonicalised so
+ * that identical regions of the universe are represented by the same node
+ * object. The result of advancing a node is memoised on the node itself.
+ * Repetitive patterns such as guns and breeders therefore only have their
+ * repeating parts computed once, allowing them to be advanced millions of
+ * generations at a fraction of the cost of calling
+ * {@link model.BoardDynamic#nextGeneration()} for every generation.</p>
+ *
+ * <p>
+ * The universe is unbounded. Cells are addressed using the same row and
+ * column coordinates as the board that was imported, and cells may move to
+ * negative coordinates as the pattern grows. Use
+ * {@link #exportBoard(int, int, int, int)} to copy a region back into a
+ * {@link model.BoardDynamic} for drawing.</p>
+ *
+ * <p>
+ * The node cache is limited by {@link #setMaxNodes(int)}. The limit is
+ * checked during a jump as well as after it. When the cache grows past the
+ * limit, nodes which are neither part of the universe nor in use by the jump
+ * are removed from the cache, allowing them to be garbage collected. If the
+ * nodes in use do not fit within the limit, the cache may grow to twice the
+ * number of nodes in use before it is collected again.</p>
+ *
+ * <p>
+ * The birth and survival rules are read from {@link model.Rules} when the
+ * engine is created. Rules where cells are born with 0 neighbours are not
+ * supported, as they would fill the unbounded universe. Neither are the board
+ * engines playing by other families of rules, such as Generations, see
+ * {@link model.BoardType#playsByRuleSet()}.</p>
+ */
+public class HashLife {
+
+    /**
+     * A square region of the universe. Level 0 nodes are single cells, a node
+     * of level <i>k</i> is 2^k cells wide and made up of four level
+     * <i>k-1</i> children. Nodes are never modified after being
+     * canonicalised, with the exception of the memoised result.
+     */
+    private static final class Node {
+
+        private final int level;
+        private final Node nw, ne, sw, se;
+        private final long population;
+        private final int hash;
+
+        /**
+         * The center of this node advanced by 2^resultStep generations.
+         */
+        private Node result;
+        private int resultStep = -1;
+
+        /**
+         * Used to mark nodes which are still in use during garbage
+         * collection.
+         */
+        private int mark;
+
+        private Node(boolean alive) {
+            level = 0;
+            nw = ne = sw = se = null;
+            population = alive ? 1 : 0;
+            hash = alive ? 1 : 0;
+        }
+
+        private Node(Node nw, Node ne, Node sw, Node se) {
+            level = nw.level + 1;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            population = nw.population + ne.population + sw.population + se.population;
+            int h = System.identityHashCode(nw);
+            h = h * 31 + System.identityHashCode(ne);
+            h = h * 31 + System.identityHashCode(sw);
+            h = h * 31 + System.identityHashCode(se);
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) o;
+            return level == other.level && nw == other.nw && ne == other.ne
+                    && sw == other.sw && se == other.se;
+        }
+    }
+
+    private static final Node DEAD = new Node(false);
+    private static final Node ALIVE = new Node(true);
+
+    /**
+     * Canonical nodes. Every node of level 1 and up is stored here, so that
+     * two nodes with the same children are always the same object.
+     */
+    private HashMap<Node, Node> nodes = new HashMap<>();
+
+    /**
+     * Empty nodes, indexed by level.
+     */
+    private Node[] emptyNodes = new Node[64];
+
+    /**
+     * The next state of the 2 x 2 center of every possible 4 x 4 block, where
+     * cell (row, col) of the block is bit (row * 4 + col).
+     */
+    private final byte[] smallResults = new byte[1 << 16];
+
+    /**
+     * Nodes in use by the successor calls currently running. They are not
+     * yet part of the universe, but must survive garbage collection during a
+     * jump.
+     */
+    private final ArrayList<Node> liveNodes = new ArrayList<>();
+
+    /**
+     * Checked by the successor calls of a running jump, stops the jump when
+     * it returns true. May be null.
+     */
+    private BooleanSupplier cancelled;
+
+    private Node root;
+    private long generationCount;
+    private int maxNodes = 2000000;
+
+    /**
+     * The cache size which triggers the next garbage collection. Equal to
+     * maxNodes, unless more nodes than that were in use after the last
+     * collection.
+     */
+    private int collectAt = maxNodes;
+    private int markEpoch = 0;
+
+    /**
+     * Creates a HashLife engine containing the cells of a board. Metadata is
+     * not copied, but the generation count is.
+     *
+     * @param board the board to import.
+     * @throws IllegalArgumentException if the current rules make dead cells
+     * with 0 neighbours come alive, or the current board engine does not play
+     * by the birth and survival rules.
+     */
+    public HashLife(AbstractBoard board) {
+        Rules rules = Rules.getInstance();
+        if (!rules.getBoardType().playsByRuleSet()) {
+            throw new IllegalArgumentException("HashLife does not support the "
+                    + rules.getBoardType() + " board engine.");
+        }
+        RuleSet ruleSet = rules.getRuleSet();
+        if (ruleSet.isBorn(0)) {
+            throw new IllegalArgumentException("HashLife does not support rules"
+                    + " where cells are born with 0 neighbours.");
+        }
+        buildSmallResults(ruleSet);
+
+        // the root covers the rows and columns -2^(level-1) to 2^(level-1).
+        int level = 3;
+        long extent = Math.max(
+                Math.max(Math.abs((long) board.getMinRow()), Math.abs((long) board.getMinRow() + board.getRows())),
+                Math.max(Math.abs((long) board.getMinCol()), Math.abs((long) board.getMinCol() + board.getCols())));
+        while ((1L << (level - 1)) < extent) {
+            level++;
+        }
+        root = importNode(board, level, -(1 << (level - 1)), -(1 << (level - 1)));
+        generationCount = board.getGenerationCount();
+    }
+
+    /**
+     * Sets the maximum number of nodes kept in the node cache.
+     *
+     * @param maxNodes an <code>int</code> specifying the max number of nodes.
+     */
+    public void setMaxNodes(int maxNodes) {
+        this.maxNodes = maxNodes;
+        collectAt = maxNodes;
+    }
+
+    /**
+     * Gets the maximum number of nodes kept in the node cache.
+     *
+     * @return an <code>int</code> specifying the max number of nodes.
+     */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Gets the number of nodes currently in the node cache.
+     *
+     * @return an <code>int</code> specifying the number of cached nodes.
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Gets the number of generations the universe has been advanced.
+     *
+     * @return a <code>long</code> specifying the generation count.
+     */
+    public long getGenerationCount() {
+        return generationCount;
+    }
+
+    /**
+     * Gets the number of living cells in the universe.
+     *
+     * @return a <code>long</code> specifying the number of living cells.
+     */
+    public long getLivingCellCount() {
+        return root.population;
+    }
+
+    /**
+     * Advances the universe 2^exponent generations.
+     *
+     * @param exponent an <code>int</code> specifying the number of
+     * generations to advance, as a power of two.
+     * @throws IllegalArgumentException if exponent is negative or above 60.
+     */
+    public void step(int exponent) {
+        step(exponent, null);
+    }
+
+    /**
+     * Advances the universe 2^exponent generations. The jump can be
+     * cancelled, which leaves the universe as it was before the jump.
+     *
+     * @param exponent an <code>int</code> specifying the number of
+     * generations to advance, as a power of two.
+     * @param cancelled checked while the jump runs, stops the jump when it
+     * returns true. May be <code>null</code>.
+     * @return a <code>boolean</code> specifying if the universe was advanced,
+     * false if the jump was cancelled.
+     * @throws IllegalArgumentException if exponent is negative or above 60.
+     */
+    public boolean step(int exponent, BooleanSupplier cancelled) {
+        if (exponent < 0 || exponent > 60) {
+            throw new IllegalArgumentException("Exponent must be between 0 and 60!");
+        }
+        // make sure the pattern has room to grow for 2^exponent generations.
+        while (root.level < exponent + 2 || !isPadded(root)) {
+            root = centre(root);
+        }
+        this.cancelled = cancelled;
+        try {
+            root = successor(centre(root), exponent);
+        } catch (CancellationException e) {
+            return false;
+        } finally {
+            this.cancelled = null;
+        }
+        generationCount += 1L << exponent;
+
+        // once the jump is done, only the universe is in use.
+        if (nodes.size() > maxNodes) {
+            collectGarbage();
+        }
+        return true;
+    }
+
+    /**
+     * Advances the universe a given number of generations, by stepping one
+     * power of two at a time.
+     *
+     * @param generations a <code>long</code> specifying the number of
+     * generations to advance.
+     */
+    public void advance(long generations) {
+        for (int exponent = 0; generations != 0; exponent++) {
+            if ((generations & 1) != 0) {
+                step(exponent);
+            }
+            generations >>>= 1;
+        }
+    }
+
+    /**
+     * Gets the state of a single cell.
+     *
+     * @param row an <code>int</code> specifying the row position of the cell.
+     * @param col an <code>int</code> specifying the column position of the
+     * cell.
+     * @return a <code>byte</code> where 1 is a living cell and 0 is a dead
+     * cell.
+     */
+    public byte getCellState(int row, int col) {
+        long half = 1L << (root.level - 1);
+        if (row < -half || row >= half || col < -half || col >= half) {
+            return 0;
+        }
+        Node node = root;
+        long top = -half;
+        long left = -half;
+        while (node.level > 0) {
+            if (node.population == 0) {
+                return 0;
+            }
+            long childSize = 1L << (node.level - 1);
+            boolean south = row >= top + childSize;
+            boolean east = col >= left + childSize;
+            if (south) {
+                top += childSize;
+            }
+            if (east) {
+                left += childSize;
+            }
+            node = south ? (east ? node.se : node.sw) : (east ? node.ne : node.nw);
+        }
+        return (byte) node.population;
+    }
+
+    /**
+     * Copies a region of the universe into a new {@link model.BoardDynamic}.
+     * The generation count is copied to the new board.
+     *
+     * @param top an <code>int</code> specifying the first row of the region.
+     * @param left an <code>int</code> specifying the first column of the
+     * region.
+     * @param rows an <code>int</code> specifying the number of rows.
+     * @param cols an <code>int</code> specifying the number of columns.
+     * @return a <code>BoardDynamic</code> containing the region.
+     */
+    public BoardDynamic exportBoard(int top, int left, int rows, int cols) {
+        byte[][] cells = new byte[rows][cols];
+        long half = 1L << (root.level - 1);
+        exportNode(root, -half, -half, cells, top, left);
+        BoardDynamic board = new BoardDynamic(rows, cols);
+        board.setBoard(cells);
+        board.generationCount = (int) Math.min(generationCount, Integer.MAX_VALUE);
+        return board;
+    }
+
+    /**
+     * Copies the smallest region containing all living cells, plus a border
+     * of one dead cell, into a new {@link model.BoardDynamic}.
+     *
+     * @return a <code>BoardDynamic</code> containing the living cells.
+     */
+    public BoardDynamic exportBoard() {
+        long[] bounds = getBoundingBox();
+        if (bounds == null) {
+            return exportBoard(0, 0, 1, 1);
+        }
+        return exportBoard((int) bounds[0] - 1, (int) bounds[1] - 1,
+                (int) (bounds[2] - bounds[0]) + 3, (int) (bounds[3] - bounds[1]) + 3);
+    }
+
+    /**
+     * Gets the smallest rectangle containing all living cells.
+     *
+     * @return a <code>long[]</code> containing the first row, first column,
+     * last row and last column, or null if there are no living cells.
+     */
+    public long[] getBoundingBox() {
+        if (root.population == 0) {
+            return null;
+        }
+        long half = 1L << (root.level - 1);
+        long[] bounds = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+        findBounds(root, -half, -half, bounds);
+        return bounds;
+    }
+
+    private void findBounds(Node node, long top, long left, long[] bounds) {
+        if (node.population == 0) {
+            return;
+        }
+        long size = 1L << node.level;
+        // skip nodes which can not extend the current bounds.
+        if (top >= bounds[0] && top + size - 1 <= bounds[2]
+                && left >= bounds[1] && left + size - 1 <= bounds[3]) {
+            return;
+        }
+        if (node.level == 0) {
+            bounds[0] = Math.min(bounds[0], top);
+            bounds[1] = Math.min(bounds[1], left);
+            bounds[2] = Math.max(bounds[2], top);
+            bounds[3] = Math.max(bounds[3], left);
+            return;
+        }
+        long half = size / 2;
+        findBounds(node.nw, top, left, bounds);
+        findBounds(node.ne, top, left + half, bounds);
+        findBounds(node.sw, top + half, left, bounds);
+        findBounds(node.se, top + half, left + half, bounds);
+    }
+
+    private void exportNode(Node node, long top, long left, byte[][] cells, int regionTop, int regionLeft) {
+        long size = 1L << node.level;
+        if (node.population == 0
+                || top >= regionTop + cells.length || top + size <= regionTop
+                || left >= regionLeft + cells[0].length || left + size <= regionLeft) {
+            return;
+        }
+        if (node.level == 0) {
+            cells[(int) (top - regionTop)][(int) (left - regionLeft)] = 1;
+            return;
+        }
+        long half = size / 2;
+        exportNode(node.nw, top, left, cells, regionTop, regionLeft);
+        exportNode(node.ne, top, left + half, cells, regionTop, regionLeft);
+        exportNode(node.sw, top + half, left, cells, regionTop, regionLeft);
+        exportNode(node.se, top + half, left + half, cells, regionTop, regionLeft);
+    }
+
+    private Node importNode(AbstractBoard board, int level, int top, int left) {
+        if (top >= (long) board.getMinRow() + board.getRows()
+                || left >= (long) board.getMinCol() + board.getCols()
+                || top + (1L << level) <= board.getMinRow()
+                || left + (1L << level) <= board.getMinCol()) {
+            return empty(level);
+        }
+        if (level == 0) {
+            return board.getCellState(top, left) == 1 ? ALIVE : DEAD;
+        }
+        int half = 1 << (level - 1);
+        return join(importNode(board, level - 1, top, left),
+                importNode(board, level - 1, top, left + half),
+                importNode(board, level - 1, top + half, left),
+                importNode(board, level - 1, top + half, left + half));
+    }
+
+    /**
+     * Gets the canonical node with the given children.
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        Node node = new Node(nw, ne, sw, se);
+        Node canonical = nodes.get(node);
+        if (canonical == null) {
+            nodes.put(node, node);
+            canonical = node;
+        }
+        return canonical;
+    }
+
+    /**
+     * Gets the canonical empty node of a given level.
+     */
+    private Node empty(int level) {
+        if (level == 0) {
+            return DEAD;
+        }
+        Node node = emptyNodes[level];
+        if (node == null || nodes.get(node) != node) {
+            Node child = empty(level - 1);
+            node = join(child, child, child, child);
+            emptyNodes[level] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Creates a node one level higher, with the given node at its center.
+     */
+    private Node centre(Node node) {
+        Node e = empty(node.level - 1);
+        return join(join(e, e, e, node.nw), join(e, e, node.ne, e),
+                join(e, node.sw, e, e), join(node.se, e, e, e));
+    }
+
+    /**
+     * Checks if all living cells of a node are within its center quarter.
+     */
+    private boolean isPadded(Node node) {
+        return node.nw.se.se.population + node.ne.sw.sw.population
+                + node.sw.ne.ne.population + node.se.nw.nw.population
+                == node.population;
+    }
+
+    /**
+     * Gets the center of a node, half its width, advanced
+     * 2^min(exponent, level - 2) generations.
+     */
+    private Node successor(Node node, int exponent) {
+        int step = Math.min(exponent, node.level - 2);
+        if (node.result != null && node.resultStep == step) {
+            return node.result;
+        }
+
+        int liveCount = liveNodes.size();
+        liveNodes.add(node);
+        try {
+            if (cancelled != null && cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            if (nodes.size() > collectAt) {
+                collectGarbage();
+            }
+
+            Node result;
+            if (node.population == 0) {
+                result = node.nw;
+            } else if (node.level == 2) {
+                result = smallSuccessor(node);
+            } else {
+                // every node held across a successor call is kept in
+                // liveNodes, as the call may collect garbage.
+                Node n00 = node.nw;
+                Node n01 = keep(join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw));
+                Node n02 = node.ne;
+                Node n10 = keep(join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne));
+                Node n11 = keep(join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw));
+                Node n12 = keep(join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne));
+                Node n20 = node.sw;
+                Node n21 = keep(join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw));
+                Node n22 = node.se;
+
+                Node c00 = keep(successor(n00, step));
+                Node c01 = keep(successor(n01, step));
+                Node c02 = keep(successor(n02, step));
+                Node c10 = keep(successor(n10, step));
+                Node c11 = keep(successor(n11, step));
+                Node c12 = keep(successor(n12, step));
+                Node c20 = keep(successor(n20, step));
+                Node c21 = keep(successor(n21, step));
+                Node c22 = keep(successor(n22, step));
+
+                if (step < node.level - 2) {
+                    // the nine nodes have already been advanced far enough.
+                    // Only their centers are needed.
+                    result = join(
+                            join(c00.se, c01.sw, c10.ne, c11.nw),
+                            join(c01.se, c02.sw, c11.ne, c12.nw),
+                            join(c10.se, c11.sw, c20.ne, c21.nw),
+                            join(c11.se, c12.sw, c21.ne, c22.nw));
+                } else {
+                    // advance a second time, giving 2^(level - 2) generations
+                    // in total.
+                    Node r0 = keep(successor(join(c00, c01, c10, c11), step));
+                    Node r1 = keep(successor(join(c01, c02, c11, c12), step));
+                    Node r2 = keep(successor(join(c10, c11, c20, c21), step));
+                    Node r3 = successor(join(c11, c12, c21, c22), step);
+                    result = join(r0, r1, r2, r3);
+                }
+            }
+            node.result = result;
+            node.resultStep = step;
+            return result;
+        } finally {
+            while (liveNodes.size() > liveCount) {
+                liveNodes.remove(liveNodes.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * Keeps a node alive until the successor call using it returns.
+     */
+    private Node keep(Node node) {
+        liveNodes.add(node);
+        return node;
+    }
+
+    /**
+     * Advances the 2 x 2 center of a level 2 node one generation.
+     */
+    private Node smallSuccessor(Node node) {
+        int cells = 0;
+        Node[] quadrants = {node.nw, node.ne, node.sw, node.se};
+        for (int q = 0; q < 4; q++) {
+            Node quadrant = quadrants[q];
+            int row = (q / 2) * 2;
+            int col = (q % 2) * 2;
+            cells |= (int) quadrant.nw.population << (row * 4 + col);
+            cells |= (int) quadrant.ne.population << (row * 4 + col + 1);
+            cells |= (int) quadrant.sw.population << ((row + 1) * 4 + col);
+            cells |= (int) quadrant.se.population << ((row + 1) * 4 + col + 1);
+        }
+        int result = smallResults[cells];
+        return join(cellNode(result, 0), cellNode(result, 1),
+                cellNode(result, 2), cellNode(result, 3));
+    }
+
+    private Node cellNode(int cells, int bit) {
+        return ((cells >>> bit) & 1) == 1 ? ALIVE : DEAD;
+    }
+
+    /**
+     * Precomputes the next state of the 2 x 2 center of every 4 x 4 block.
+     */
+    private void buildSmallResults(RuleSet ruleSet) {
+        for (int cells = 0; cells < smallResults.length; cells++) {
+            int result = 0;
+            for (int i = 0; i < 4; i++) {
+                int row = 1 + i / 2;
+                int col = 1 + i % 2;
+                int neighbours = 0;
+                for (int r = row - 1; r <= row + 1; r++) {
+                    for (int c = col - 1; c <= col + 1; c++) {
+                        if (r != row || c != col) {
+                            neighbours += (cells >>> (r * 4 + c)) & 1;
+                        }
+                    }
+                }
+                boolean alive = ((cells >>> (row * 4 + col)) & 1) == 1;
+                if (ruleSet.nextState(alive ? 1 : 0, neighbours) == 1) {
+                    result |= 1 << i;
+                }
+            }
+            smallResults[cells] = (byte) result;
+        }
+    }
+
+    /**
+     * Removes nodes which are neither part of the universe nor in use by a
+     * running jump from the node cache. Memoised results are kept if there is
+     * room for them, otherwise they are discarded as well.
+     */
+    private void collectGarbage() {
+        HashMap<Node, Node> retained = markAndRetain(true);
+        if (retained.size() > maxNodes / 2) {
+            for (Node node : nodes.keySet()) {
+                node.result = null;
+                node.resultStep = -1;
+            }
+            retained = markAndRetain(false);
+        }
+        nodes = retained;
+        // avoid collecting again after every few nodes when the nodes in use
+        // do not fit within the limit.
+        collectAt = Math.max(maxNodes, nodes.size() * 2);
+    }
+
+    private HashMap<Node, Node> markAndRetain(boolean includeResults) {
+        markEpoch++;
+        HashMap<Node, Node> retained = new HashMap<>();
+        mark(root, includeResults, retained);
+        for (Node live : liveNodes) {
+            mark(live, includeResults, retained);
+        }
+        for (Node empty : emptyNodes) {
+            if (empty != null) {
+                mark(empty, false, retained);
+            }
+        }
+        return retained;
+    }
+
+    private void mark(Node node, boolean includeResults, HashMap<Node, Node> retained) {
+        if (node.level == 0 || node.mark == markEpoch) {
+            return;
+        }
+        node.mark = markEpoch;
+        retained.put(node, node);
+        mark(node.nw, includeResults, retained);
+        mark(node.ne, includeResults, retained);
+        mark(node.sw, includeResults, retained);
+        mark(node.se, includeResults, retained);
+        if (includeResults && node.result != null) {
+            mark(node.result, true, retained);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * An immutable isotropic non-totalistic rule, used by
+ * {@link model.BoardIsotropic}. Where the outer-totalistic rules of
+ * {@link model.RuleSet} only look at the number of living neighbours, these
+ * rules also look at how the neighbours are placed, up to rotation and
+ * reflection. There are 51 such neighbourhoods, written as a neighbour count
+ * followed by a letter using Hensel notation.
+ *
+ * <p>
+ * Rules are written as for example <code>B2-a/S12</code>. A count without
+ * letters includes every neighbourhood with that count, letters following the
+ * count include only those neighbourhoods, and letters following a minus
+ * include every neighbourhood except those. Outer-totalistic rules such as
+ * <code>B3/S23</code> are valid rules.</p>
+ *
+ * <p>
+ * The rule is compiled into a table of 512 entries, giving the next state of
+ * a cell directly from its 3 x 3 neighbourhood. Bit 0 to 8 of the index are
+ * the cells of the neighbourhood row by row, starting at the north west
+ * neighbour, so bit 4 is the cell itself.</p>
+ */
+public final class IsotropicRule {
+
+    /**
+     * The letters of each neighbour count, in the order used by Hensel
+     * notation.
+     */
+    private static final String[] LETTERS = {"", "ce", "ceaikn", "ceaiknjqry",
+        "ceaiknjqrytwz", "ceaiknjqry", "ceaikn", "ce", ""};
+
+    /**
+     * One neighbourhood of each letter for 1 to 4 neighbours, in the order of
+     * LETTERS. The neighbourhoods of 5 to 7 neighbours are the inverse of
+     * those with the same letter and 8 - n neighbours.
+     */
+    private static final int[][] NEIGHBOURHOODS = {
+        {},
+        {1, 2},
+        {5, 10, 3, 40, 33, 68},
+        {69, 42, 11, 7, 98, 13, 14, 70, 41, 97},
+        {325, 170, 15, 45, 99, 71, 106, 102, 43, 101, 105, 78, 108}
+    };
+
+    /**
+     * The neighbours of the index, without the cell itself.
+     */
+    private static final int NEIGHBOUR_BITS = 0x1EF;
+
+    /**
+     * The neighbour count and letter of every neighbourhood, indexed by the
+     * neighbour bits.
+     */
+    private static final byte[] COUNT = new byte[512];
+    private static final byte[] LETTER = new byte[512];
+
+    static {
+        for (int count = 0; count <= 8; count++) {
+            for (int letter = 0; letter < Math.max(1, LETTERS[count].length()); letter++) {
+                int neighbourhood;
+                if (count == 0) {
+                    neighbourhood = 0;
+                } else if (count == 8) {
+                    neighbourhood = NEIGHBOUR_BITS;
+                } else if (count <= 4) {
+                    neighbourhood = NEIGHBOURHOODS[count][letter];
+                } else {
+                    neighbourhood = ~NEIGHBOURHOODS[8 - count][letter] & NEIGHBOUR_BITS;
+                }
+                // mark every rotation and reflection of the neighbourhood.
+                for (int i = 0; i < 8; i++) {
+                    COUNT[neighbourhood] = (byte) count;
+                    LETTER[neighbourhood] = (byte) letter;
+                    neighbourhood = i == 3 ? reflect(neighbourhood) : rotate(neighbourhood);
+                }
+            }
+        }
+    }
+
+    /**
+     * Conway's Game of Life, B3/S23. Declared after the tables above, which
+     * must be filled before any rule is compiled.
+     */
+    public static final IsotropicRule CONWAY = parse("B3/S23");
+
+    private final byte[] table = new byte[512];
+    private final String notation;
+
+    /**
+     * Creates a rule from the neighbourhoods giving a birth or survival.
+     *
+     * @param birth a <code>boolean[][]</code> where birth[n][k] specifies if
+     * a dead cell with n neighbours placed as letter k is born.
+     * @param survive a <code>boolean[][]</code> where survive[n][k] specifies
+     * if a living cell with n neighbours placed as letter k survives.
+     */
+    private IsotropicRule(boolean[][] birth, boolean[][] survive) {
+        for (int index = 0; index < 512; index++) {
+            int neighbours = index & NEIGHBOUR_BITS;
+            boolean[][] rule = (index & 0x10) == 0 ? birth : survive;
+            table[index] = rule[COUNT[neighbours]][LETTER[neighbours]] ? (byte) 1 : 0;
+        }
+        notation = "B" + toString(birth) + "/S" + toString(survive);
+    }
+
+    /**
+     * Parses a rule written using Hensel notation, such as
+     * <code>B2-a/S12</code>. The birth and survival parts may be given in
+     * either order.
+     *
+     * @param rule a <code>String</code> holding the rule.
+     * @return the parsed <code>IsotropicRule</code>.
+     * @throws IllegalArgumentException if the rule could not be parsed.
+     */
+    public static IsotropicRule parse(String rule) {
+        String[] parts = rule.trim().toLowerCase().split("\\s*/\\s*");
+        boolean[][] birth = null;
+        boolean[][] survive = null;
+        if (parts.length == 2) {
+            for (String part : parts) {
+                if (part.startsWith("b") && birth == null) {
+                    birth = parseNeighbourhoods(part.substring(1), rule);
+                } else if (part.startsWith("s") && survive == null) {
+                    survive = parseNeighbourhoods(part.substring(1), rule);
+                }
+            }
+        }
+        if (birth == null || survive == null) {
+            throw new IllegalArgumentException("The rule " + rule
+                    + " must be written as B.../S...!");
+        }
+        return new IsotropicRule(birth, survive);
+    }
+
+    /**
+     * Creates the isotropic rule equal to an outer-totalistic rule set.
+     *
+     * @param ruleSet the <code>RuleSet</code> to convert.
+     * @return the <code>IsotropicRule</code> giving the same next states.
+     */
+    public static IsotropicRule fromRuleSet(RuleSet ruleSet) {
+        boolean[][] birth = new boolean[9][13];
+        boolean[][] survive = new boolean[9][13];
+        for (int count = 0; count <= 8; count++) {
+            Arrays.fill(birth[count], ruleSet.isBorn(count));
+            Arrays.fill(survive[count], ruleSet.survives(count));
+        }
+        return new IsotropicRule(birth, survive);
+    }
+
+    /**
+     * Parses the counts and letters following B or S.
+     */
+    private static boolean[][] parseNeighbourhoods(String part, String rule) {
+        boolean[][] included = new boolean[9][13];
+        int i = 0;
+        while (i < part.length()) {
+            int count = part.charAt(i++) - '0';
+            if (count < 0 || count > 8) {
+                throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+            }
+            boolean except = i < part.length() && part.charAt(i) == '-';
+            if (except) {
+                i++;
+            }
+            String letters = LETTERS[count];
+            int start = i;
+            while (i < part.length() && Character.isLetter(part.charAt(i))) {
+                if (letters.indexOf(part.charAt(i)) < 0) {
+                    throw new IllegalArgumentException("The rule " + rule
+                            + " uses " + count + part.charAt(i) + ", which does not exist!");
+                }
+                i++;
+            }
+            if (except && start == i) {
+                throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+            }
+            for (int letter = 0; letter < Math.max(1, letters.length()); letter++) {
+                boolean listed = start < i && part.substring(start, i).indexOf(letters.charAt(letter)) >= 0;
+                included[count][letter] = start == i || listed != except;
+            }
+        }
+        return included;
+    }
+
+    /**
+     * Writes the neighbourhoods of a birth or survival part using the
+     * shortest notation.
+     */
+    private static String toString(boolean[][] included) {
+        StringBuilder sb = new StringBuilder();
+        for (int count = 0; count <= 8; count++) {
+            String letters = LETTERS[count];
+            if (letters.isEmpty()) {
+                if (included[count][0]) {
+                    sb.append(count);
+                }
+                continue;
+            }
+            StringBuilder listed = new StringBuilder();
+            StringBuilder missing = new StringBuilder();
+            for (int letter = 0; letter < letters.length(); letter++) {
+                (included[count][letter] ? listed : missing).append(letters.charAt(letter));
+            }
+            if (missing.length() == 0) {
+                sb.append(count);
+            } else if (listed.length() > 0) {
+                sb.append(count);
+                sb.append(listed.length() <= missing.length() ? listed : "-" + missing);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Rotates a neighbourhood a quarter turn clockwise.
+     */
+    private static int rotate(int neighbourhood) {
+        int rotated = 0;
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if ((neighbourhood & (1 << (row * 3 + col))) != 0) {
+                    rotated |= 1 << (col * 3 + 2 - row);
+                }
+            }
+        }
+        return rotated;
+    }
+
+    /**
+     * Reflects a neighbourhood from west to east.
+     */
+    private static int reflect(int neighbourhood) {
+        int reflected = 0;
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                if ((neighbourhood & (1 << (row * 3 + col))) != 0) {
+                    reflected |= 1 << (row * 3 + 2 - col);
+                }
+            }
+        }
+        return reflected;
+    }
+
+    /**
+     * Gets the next state of a cell.
+     *
+     * @param neighbourhood an <code>int</code> holding the cell and its
+     * neighbours, row by row from bit 0 to 8.
+     * @return a <code>byte</code> specifying the next state of the cell.
+     */
+    public byte nextState(int neighbourhood) {
+        return table[neighbourhood];
+    }
+
+    /**
+     * Gets the table of 512 next states. The table must not be changed.
+     */
+    byte[] getTable() {
+        return table;
+    }
+
+    /**
+     * Checks if the rule only depends on the number of living neighbours, and
+     * could be written using B and S counts without letters.
+     *
+     * @return a <code>boolean</code> specifying if the rule is
+     * outer-totalistic.
+     */
+    public boolean isTotalistic() {
+        return !notation.matches(".*[a-z\\-].*");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IsotropicRule && notation.equals(((IsotropicRule) o).notation);
+    }
+
+    @Override
+    public int hashCode() {
+        return notation.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return notation;
+    }
+}
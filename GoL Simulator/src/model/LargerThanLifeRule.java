@@ -0,0 +1,251 @@
+package model;
+
+/**
+ * An immutable Larger than Life rule, used by
+ * {@link model.BoardLargerThanLife}. The neighbourhood of a cell is the
+ * square of (2R + 1) x (2R + 1) cells centred on the cell, where R is the
+ * range of the rule. A dead cell is born if the number of living cells in its
+ * neighbourhood is within the birth interval, and a living cell survives if
+ * the number is within the survival interval. The cell itself is only
+ * counted if the rule includes the middle cell.
+ *
+ * <p>
+ * Rules are written using the notation <code>R5,C0,M1,S34..58,B34..45,NM</code>,
+ * which is Bosco's rule. R is the range, C the number of states, where 0 and 2
+ * both mean two states, M is 1 if the middle cell is counted, S and B are the
+ * survival and birth intervals, and NM selects the Moore neighbourhood. Only
+ * rules with two states and the Moore neighbourhood are supported.</p>
+ */
+public final class LargerThanLifeRule {
+
+    /**
+     * The largest supported range.
+     */
+    public static final int MAX_RANGE = 500;
+
+    /**
+     * Bosco's rule, R5,C0,M1,S34..58,B34..45,NM.
+     */
+    public static final LargerThanLifeRule BOSCO = new LargerThanLifeRule(5, 34, 45, 34, 58, true);
+
+    private final int range;
+    private final int birthMin;
+    private final int birthMax;
+    private final int surviveMin;
+    private final int surviveMax;
+    private final boolean middleIncluded;
+
+    /**
+     * Creates a rule. An interval where the minimum is greater than the
+     * maximum is empty.
+     *
+     * @param range an <code>int</code> specifying the range of the
+     * neighbourhood, from 1 to MAX_RANGE.
+     * @param birthMin an <code>int</code> specifying the lowest count giving a
+     * birth.
+     * @param birthMax an <code>int</code> specifying the highest count giving
+     * a birth.
+     * @param surviveMin an <code>int</code> specifying the lowest count a cell
+     * survives.
+     * @param surviveMax an <code>int</code> specifying the highest count a
+     * cell survives.
+     * @param middleIncluded a <code>boolean</code> specifying if a cell is
+     * counted as part of its own neighbourhood.
+     * @throws IllegalArgumentException if the range or any of the counts are
+     * outside the allowed values.
+     */
+    public LargerThanLifeRule(int range, int birthMin, int birthMax,
+            int surviveMin, int surviveMax, boolean middleIncluded) {
+        if (range < 1 || range > MAX_RANGE) {
+            throw new IllegalArgumentException("The range must be between 1 and "
+                    + MAX_RANGE + "!");
+        }
+        if (birthMin < 0 || birthMax < 0 || surviveMin < 0 || surviveMax < 0) {
+            throw new IllegalArgumentException("Neighbour counts can not be negative!");
+        }
+        this.range = range;
+        this.birthMin = birthMin;
+        this.birthMax = birthMax;
+        this.surviveMin = surviveMin;
+        this.surviveMax = surviveMax;
+        this.middleIncluded = middleIncluded;
+    }
+
+    /**
+     * Parses a rule written as for example
+     * <code>R5,C0,M1,S34..58,B34..45,NM</code>. The C, M and N parts are
+     * optional, and default to two states, the middle cell not being counted
+     * and the Moore neighbourhood.
+     *
+     * @param rule a <code>String</code> holding the rule.
+     * @return the parsed <code>LargerThanLifeRule</code>.
+     * @throws IllegalArgumentException if the rule could not be parsed, or is
+     * not supported.
+     */
+    public static LargerThanLifeRule parse(String rule) {
+        int range = -1;
+        int[] birth = null;
+        int[] survive = null;
+        boolean middle = false;
+        for (String part : rule.trim().toUpperCase().split("\\s*,\\s*")) {
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+            }
+            String value = part.substring(1);
+            switch (part.charAt(0)) {
+                case 'R':
+                    range = parseCount(value, rule);
+                    break;
+                case 'C':
+                    int states = parseCount(value, rule);
+                    if (states > 2) {
+                        throw new IllegalArgumentException("Only rules with two states are supported!");
+                    }
+                    break;
+                case 'M':
+                    middle = parseCount(value, rule) == 1;
+                    break;
+                case 'S':
+                    survive = parseInterval(value, rule);
+                    break;
+                case 'B':
+                    birth = parseInterval(value, rule);
+                    break;
+                case 'N':
+                    if (!value.equals("M")) {
+                        throw new IllegalArgumentException("Only the Moore neighbourhood is supported!");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+            }
+        }
+        if (range < 0 || birth == null || survive == null) {
+            throw new IllegalArgumentException("The rule " + rule
+                    + " must specify the range, survival and birth!");
+        }
+        return new LargerThanLifeRule(range, birth[0], birth[1], survive[0], survive[1], middle);
+    }
+
+    private static int parseCount(String value, String rule) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The rule " + rule + " is not valid!");
+        }
+    }
+
+    private static int[] parseInterval(String value, String rule) {
+        int separator = value.indexOf("..");
+        if (separator < 0) {
+            int count = parseCount(value, rule);
+            return new int[]{count, count};
+        }
+        return new int[]{parseCount(value.substring(0, separator), rule),
+            parseCount(value.substring(separator + 2), rule)};
+    }
+
+    /**
+     * Gets the range of the neighbourhood.
+     *
+     * @return an <code>int</code> specifying the range.
+     */
+    public int getRange() {
+        return range;
+    }
+
+    /**
+     * Gets the lowest count giving a birth.
+     *
+     * @return an <code>int</code> specifying the count.
+     */
+    public int getBirthMin() {
+        return birthMin;
+    }
+
+    /**
+     * Gets the highest count giving a birth.
+     *
+     * @return an <code>int</code> specifying the count.
+     */
+    public int getBirthMax() {
+        return birthMax;
+    }
+
+    /**
+     * Gets the lowest count a living cell survives.
+     *
+     * @return an <code>int</code> specifying the count.
+     */
+    public int getSurviveMin() {
+        return surviveMin;
+    }
+
+    /**
+     * Gets the highest count a living cell survives.
+     *
+     * @return an <code>int</code> specifying the count.
+     */
+    public int getSurviveMax() {
+        return surviveMax;
+    }
+
+    /**
+     * Checks if a cell is counted as part of its own neighbourhood.
+     *
+     * @return a <code>boolean</code> specifying if the middle cell is counted.
+     */
+    public boolean isMiddleIncluded() {
+        return middleIncluded;
+    }
+
+    /**
+     * Checks if a dead cell with a given number of living cells in its
+     * neighbourhood is born.
+     *
+     * @param count an <code>int</code> specifying the number of living cells.
+     * @return a <code>boolean</code> specifying if the cell is born.
+     */
+    public boolean isBorn(int count) {
+        return count >= birthMin && count <= birthMax;
+    }
+
+    /**
+     * Checks if a living cell with a given number of living cells in its
+     * neighbourhood survives.
+     *
+     * @param count an <code>int</code> specifying the number of living cells.
+     * @return a <code>boolean</code> specifying if the cell survives.
+     */
+    public boolean survives(int count) {
+        return count >= surviveMin && count <= surviveMax;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof LargerThanLifeRule)) {
+            return false;
+        }
+        LargerThanLifeRule other = (LargerThanLifeRule) o;
+        return range == other.range && birthMin == other.birthMin
+                && birthMax == other.birthMax && surviveMin == other.surviveMin
+                && surviveMax == other.surviveMax && middleIncluded == other.middleIncluded;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = range;
+        hash = 31 * hash + birthMin;
+        hash = 31 * hash + birthMax;
+        hash = 31 * hash + surviveMin;
+        hash = 31 * hash + surviveMax;
+        return 2 * hash + (middleIncluded ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "R" + range + ",C0,M" + (middleIncluded ? 1 : 0)
+                + ",S" + surviveMin + ".." + surviveMax
+                + ",B" + birthMin + ".." + birthMax + ",NM";
+    }
+}
@@ -0,0 +1,156 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An immutable, compiled form of the birth and survival rules. The board
+ * engines acquire the current rule set from {@link Rules#getRuleSet()} once at
+ * the start of each generation, so every cell in a generation is computed
+ * using the same rules even if the rules are changed while the generation is
+ * computed. As the object is immutable, it can be shared freely with the
+ * worker threads.
+ *
+ * <p>
+ * The rules are stored as two bitmasks, where bit <i>n</i> is set if a cell
+ * with <i>n</i> living neighbours is born or survives, and as an 18 entry
+ * table giving the next state of a cell directly from its current state and
+ * number of living neighbours.</p>
+ */
+public final class RuleSet {
+
+    private final int birthMask;
+    private final int surviveMask;
+    private final byte[] nextState = new byte[18];
+
+    /**
+     * Creates a rule set from two bitmasks. Only the nine lowest bits are
+     * used.
+     *
+     * @param birthMask an <code>int</code> where bit <i>n</i> specifies if a
+     * dead cell with <i>n</i> living neighbours is born.
+     * @param surviveMask an <code>int</code> where bit <i>n</i> specifies if a
+     * living cell with <i>n</i> living neighbours survives.
+     */
+    public RuleSet(int birthMask, int surviveMask) {
+        this.birthMask = birthMask & 0x1FF;
+        this.surviveMask = surviveMask & 0x1FF;
+        for (int n = 0; n <= 8; n++) {
+            nextState[n] = (byte) ((this.birthMask >>> n) & 1);
+            nextState[9 + n] = (byte) ((this.surviveMask >>> n) & 1);
+        }
+    }
+
+    /**
+     * Creates a rule set from lists of neighbour counts. Counts outside 0 to 8
+     * are ignored.
+     *
+     * @param birthRules the number of living neighbours a dead cell must have
+     * to be born.
+     * @param surviveRules the number of living neighbours a living cell must
+     * have to survive.
+     */
+    public RuleSet(List<Integer> birthRules, List<Integer> surviveRules) {
+        this(toBitmask(birthRules), toBitmask(surviveRules));
+    }
+
+    /**
+     * Gets the birth rules as a bitmask, where bit <i>n</i> is set if a dead
+     * cell with <i>n</i> living neighbours is born.
+     *
+     * @return an <code>int</code> specifying the birth rules.
+     */
+    public int getBirthMask() {
+        return birthMask;
+    }
+
+    /**
+     * Gets the survival rules as a bitmask, where bit <i>n</i> is set if a
+     * living cell with <i>n</i> living neighbours survives.
+     *
+     * @return an <code>int</code> specifying the survival rules.
+     */
+    public int getSurviveMask() {
+        return surviveMask;
+    }
+
+    /**
+     * Checks if a dead cell with a given number of living neighbours is born.
+     *
+     * @param neighbours an <code>int</code> specifying the number of living
+     * neighbours.
+     * @return a <code>boolean</code> specifying if the cell is born.
+     */
+    public boolean isBorn(int neighbours) {
+        return ((birthMask >>> neighbours) & 1) != 0;
+    }
+
+    /**
+     * Checks if a living cell with a given number of living neighbours
+     * survives.
+     *
+     * @param neighbours an <code>int</code> specifying the number of living
+     * neighbours.
+     * @return a <code>boolean</code> specifying if the cell survives.
+     */
+    public boolean survives(int neighbours) {
+        return ((surviveMask >>> neighbours) & 1) != 0;
+    }
+
+    /**
+     * Gets the next state of a cell.
+     *
+     * @param state an <code>int</code> specifying the current state of the
+     * cell, 0 for dead and 1 for alive.
+     * @param neighbours an <code>int</code> specifying the number of living
+     * neighbours, from 0 to 8.
+     * @return a <code>byte</code> specifying the next state of the cell.
+     */
+    public byte nextState(int state, int neighbours) {
+        return nextState[state * 9 + neighbours];
+    }
+
+    /**
+     * Converts a list of neighbour counts to a bitmask where bit <i>n</i> is
+     * set if <i>n</i> is in the list.
+     */
+    private static int toBitmask(List<Integer> counts) {
+        int mask = 0;
+        for (int count : counts) {
+            if (count >= 0 && count <= 8) {
+                mask |= 1 << count;
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RuleSet)) {
+            return false;
+        }
+        RuleSet other = (RuleSet) o;
+        return birthMask == other.birthMask && surviveMask == other.surviveMask;
+    }
+
+    @Override
+    public int hashCode() {
+        return (birthMask << 9) | surviveMask;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("B");
+        for (int n = 0; n <= 8; n++) {
+            if (isBorn(n)) {
+                sb.append(n);
+            }
+        }
+        sb.append("/S");
+        for (int n = 0; n <= 8; n++) {
+            if (survives(n)) {
+                sb.append(n);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -13,16 +13,41 @@ import java.util.Arrays;
  * <li><b>survival rules</b>, defines which living cells should survive.</li>
  * <li><b>birth rules</b>, defines which dead cells should become alive.</li>
  * <li><b>dynamic</b>, defines if the board should behave dynamically.</li>
+ * <li><b>toroidal</b>, defines if the edges of the board wrap around to the
+ * opposite edge. A board is either static, dynamic or toroidal.</li>
  * <li><b>max number of cells:</b>, defines the upper limit to how many cells a
  * dynamic board can have.</li>
+ * <li><b>board type</b>, defines which board engine is used for new
+ * boards.</li>
+ * <li><b>Larger than Life rule</b>, defines the range, survival and birth
+ * intervals used by {@link model.BoardLargerThanLife}.</li>
+ * <li><b>isotropic rule</b>, defines the isotropic non-totalistic rule used by
+ * {@link model.BoardIsotropic}.</li>
+ * <li><b>Generations rule</b>, defines the birth and survival rules and the
+ * number of cell states used by {@link model.BoardGenerations}.</li>
  * </ul>
+ * <p>
+ * The survival and birth rules are also compiled into an immutable
+ * {@link RuleSet} whenever they are changed. The board engines use this
+ * snapshot rather than the lists, see {@link #getRuleSet()}.</p>
  */
 public class Rules {
 
     private ArrayList<Integer> survivalRules;
     private ArrayList<Integer> birthRules;
-    private boolean dynamic = true;
+    private volatile RuleSet ruleSet;
+    /**
+     * Read by the simulation thread while the rules window changes them. Only
+     * one of the two is ever set, and a change clears the other one first, so
+     * a board is never seen as both dynamic and toroidal.
+     */
+    private volatile boolean dynamic = true;
+    private volatile boolean toroidal = false;
     private int maxNumberOfCells = 3000000;
+    private BoardType boardType = BoardType.DYNAMIC;
+    private volatile LargerThanLifeRule largerThanLifeRule = LargerThanLifeRule.BOSCO;
+    private volatile IsotropicRule isotropicRule = IsotropicRule.CONWAY;
+    private volatile GenerationsRule generationsRule = GenerationsRule.CONWAY;
     private static Rules rules;
 
     /**
@@ -35,6 +60,7 @@ public class Rules {
         survivalRules.add(3);
         birthRules = new ArrayList<Integer>();
         birthRules.add(3);
+        compileRuleSet();
     }
 
     /**
@@ -61,15 +87,45 @@ public class Rules {
     }
 
     /**
-     * Set the border behaviour for the game. True makes game board dynamic.
+     * Set the border behaviour for the game. True makes game board dynamic,
+     * and false makes it static. Either value turns off toroidal behaviour.
      *
      * @param dynamic a<code>boolean</code> specifying if the game rules should
      * be dynamic or not.
      */
     public void setDynamic(boolean dynamic) {
+        toroidal = false;
         this.dynamic = dynamic;
     }
 
+    /**
+     * Specifies if the rules are currently set to toroidal board behaviour,
+     * where the board stays the same size and cells on one edge are
+     * neighbours of the cells on the opposite edge.
+     *
+     * @return a <code>boolean</code> value indicating if the board should wrap
+     * around its edges.
+     */
+    public boolean isToroidal() {
+        return toroidal;
+    }
+
+    /**
+     * Set the border behaviour for the game. True makes the game board
+     * toroidal, which also makes it not dynamic. If the board engine does not
+     * support toroidal rules, see {@link model.BoardType#supportsToroidal()},
+     * the game board is made static instead.
+     *
+     * @param toroidal a <code>boolean</code> specifying if the game board
+     * should wrap around its edges.
+     */
+    public void setToroidal(boolean toroidal) {
+        if (toroidal) {
+            dynamic = false;
+        }
+        this.toroidal = toroidal && boardType.supportsToroidal();
+    }
+
     /**
      * Sets the survival values for the game rules. New values can be passed as
      * either a number of <code>ints</code>, or an <code>int[]</code>. If
@@ -93,6 +149,7 @@ public class Rules {
             }
         }
         survivalRules = inputWithoutDuplicates;
+        compileRuleSet();
     }
 
     /**
@@ -105,18 +162,20 @@ public class Rules {
      * rule values.
      */
     public void setSurviveRules(ArrayList<Integer> input) {
-        survivalRules = input;
+        survivalRules = new ArrayList<Integer>(input);
+        compileRuleSet();
     }
 
     /**
      * Acquires an <code>ArrayList&lt;Integer&gt;</code> which define the number
-     * of live neighbours a live cell must have to survive.
+     * of live neighbours a live cell must have to survive. The list is a copy,
+     * and changing it does not alter the rules.
      *
      * @return an <code>&lt;ArrayList&lt;Integer&gt;&gt;</code> specifying the
      * new values.
      */
     public ArrayList<Integer> getSurviveRules() {
-        return survivalRules;
+        return new ArrayList<Integer>(survivalRules);
     }
 
     /**
@@ -142,6 +201,7 @@ public class Rules {
             }
         }
         birthRules = inputWithoutDuplicates;
+        compileRuleSet();
     }
 
     /**
@@ -154,24 +214,51 @@ public class Rules {
      * rule values.
      */
     public void setBirthRules(ArrayList<Integer> input) {
-        birthRules = input;
+        birthRules = new ArrayList<Integer>(input);
+        compileRuleSet();
     }
 
     /**
      * Acquires an <code>ArrayList&lt;Integer&gt;</code> which define the number
-     * of live neighbours a dead cell must have to be born.
+     * of live neighbours a dead cell must have to be born. The list is a copy,
+     * and changing it does not alter the rules.
      *
      * @return an <code>ArrayList&lt;Integer&gt;</code> specifying the values
      * for a dead cell to be born.
      */
     public ArrayList<Integer> getBirthRules() {
-        return birthRules;
+        return new ArrayList<Integer>(birthRules);
+    }
+
+    /**
+     * Gets the current survival and birth rules as an immutable
+     * <code>RuleSet</code>. Board engines should acquire the rule set once at
+     * the start of each generation, and use it for every cell, which gives
+     * every generation a consistent set of rules even if the rules are changed
+     * while it is computed.
+     *
+     * @return a <code>RuleSet</code> specifying the current survival and birth
+     * rules.
+     */
+    public RuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * Compiles the current survival and birth rules into a new
+     * <code>RuleSet</code>, and publishes it.
+     */
+    private synchronized void compileRuleSet() {
+        if (survivalRules != null && birthRules != null) {
+            ruleSet = new RuleSet(birthRules, survivalRules);
+        }
     }
 
     /**
-     * Gets the max number of cells for a board.
+     * Gets the max number of cells for a board. Boards using
+     * {@link model.BoardChunked} are not limited by this value.
      *
-     * @return a <code>long</code> specifying the max number of cells.
+     * @return an <code>int</code> specifying the max number of cells.
      */
     public int getMaxNumberOfCells() {
         return maxNumberOfCells;
@@ -180,10 +267,95 @@ public class Rules {
     /**
      * Sets the max number of cells for a board.
      *
-     * @param newValue a <code>long</code> specifying the max number of cells.
+     * @param newValue an <code>int</code> specifying the max number of cells.
      */
     public void setMaxNumberOfCells(int newValue) {
         maxNumberOfCells = newValue;
     }
 
+    /**
+     * Gets the board engine used for new boards.
+     *
+     * @return a <code>BoardType</code> specifying the board engine.
+     */
+    public BoardType getBoardType() {
+        return boardType;
+    }
+
+    /**
+     * Sets the board engine used for new boards. If the rules are toroidal
+     * and the engine does not support it, the game board is made static.
+     *
+     * @param boardType a <code>BoardType</code> specifying the board engine.
+     */
+    public void setBoardType(BoardType boardType) {
+        this.boardType = boardType;
+        if (!boardType.supportsToroidal()) {
+            toroidal = false;
+        }
+    }
+
+    /**
+     * Gets the rule used by the Larger than Life board engine. Like
+     * {@link #getRuleSet()}, the rule is immutable, and should be acquired
+     * once at the start of each generation.
+     *
+     * @return a <code>LargerThanLifeRule</code> specifying the rule.
+     */
+    public LargerThanLifeRule getLargerThanLifeRule() {
+        return largerThanLifeRule;
+    }
+
+    /**
+     * Sets the rule used by the Larger than Life board engine.
+     *
+     * @param largerThanLifeRule a <code>LargerThanLifeRule</code> specifying
+     * the new rule.
+     */
+    public void setLargerThanLifeRule(LargerThanLifeRule largerThanLifeRule) {
+        this.largerThanLifeRule = largerThanLifeRule;
+    }
+
+    /**
+     * Gets the isotropic non-totalistic rule used by the isotropic board
+     * engine. Like {@link #getRuleSet()}, the rule is immutable, and should be
+     * acquired once at the start of each generation.
+     *
+     * @return an <code>IsotropicRule</code> specifying the rule.
+     */
+    public IsotropicRule getIsotropicRule() {
+        return isotropicRule;
+    }
+
+    /**
+     * Sets the isotropic non-totalistic rule used by the isotropic board
+     * engine.
+     *
+     * @param isotropicRule an <code>IsotropicRule</code> specifying the new
+     * rule.
+     */
+    public void setIsotropicRule(IsotropicRule isotropicRule) {
+        this.isotropicRule = isotropicRule;
+    }
+
+    /**
+     * Gets the Generations rule used by the Generations board engine. Like
+     * {@link #getRuleSet()}, the rule is immutable, and should be acquired
+     * once at the start of each generation.
+     *
+     * @return a <code>GenerationsRule</code> specifying the rule.
+     */
+    public GenerationsRule getGenerationsRule() {
+        return generationsRule;
+    }
+
+    /**
+     * Sets the Generations rule used by the Generations board engine.
+     *
+     * @param generationsRule a <code>GenerationsRule</code> specifying the new
+     * rule.
+     */
+    public void setGenerationsRule(GenerationsRule generationsRule) {
+        this.generationsRule = generationsRule;
+    }
 }
@@ -0,0 +1,722 @@
+package model;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Runs the game on a dedicated simulation thread, so computing a generation
+ * never blocks the JavaFX application thread. The simulation is controlled
+ * through commands; {@link #play()}, {@link #pause()}, {@link #step()} and
+ * {@link #setGenerationsPerSecond(double)}.
+ *
+ * <p>
+ * While playing, the simulation thread publishes frames, each holding a
+ * {@link BoardSnapshot} of the visible part of the board, see
+ * {@link #setVisibleArea(int, int, int, int)}, through a single slot which
+ * always holds the latest frame. As the snapshots do not copy the whole
+ * board, frames cost the same for any size of board, and only the board
+ * itself holds all of its cells.
+ * The user interface takes the frame using {@link #takeFrame()} whenever it
+ * draws, and never reads the board itself while the simulation is playing. A
+ * new frame is only copied once the previous one has been taken, so the
+ * simulation is not slowed down by copies nobody draws, and small boards can
+ * be advanced far more often than the screen is redrawn.</p>
+ *
+ * <p>
+ * Generations are computed in batches. Each batch computes every generation
+ * owed since the previous batch at the requested speed, but no more than can
+ * be computed within the time of one frame, as measured from the previous
+ * batches. A frame is then published once per batch, so the number of
+ * generations per second is not limited by the frame rate, and the
+ * simulation thread never holds the board for longer than about one frame.
+ * The speed actually achieved is measured, see
+ * {@link #getAchievedGenerationsPerSecond()}.</p>
+ *
+ * <p>
+ * After a step, the simulation thread computes the next generation in
+ * advance on a copy of the board, while the user interface draws the step,
+ * so the next step, or the first generation after playing, only takes the
+ * state of the copy over. Engines which can not take over copies, see
+ * {@link model.SpeculativeBoard}, compute every generation as it is
+ * needed. The generation computed in advance is discarded when the board is
+ * edited, which must be reported through {@link #boardEdited()}.</p>
+ *
+ * <p>
+ * The board is only read and changed by the simulation thread while playing.
+ * Once {@link #pause()} returns, the simulation thread has finished its last
+ * generation, and the board may be read and edited by any thread until the
+ * simulation plays again. Edits made through {@link #edit(Consumer)} do not
+ * pause the simulation. They are put on a lock-free queue, which the
+ * simulation thread empties between two generations, so the board can be
+ * drawn on while the simulation is playing.</p>
+ */
+public class Simulation {
+
+    /**
+     * A frame published by the simulation thread. The board of the frame is a
+     * snapshot which is never changed by the simulation.
+     */
+    public static final class Frame {
+
+        private final AbstractBoard board;
+        private final int generations;
+        private final int rowShift;
+        private final int colShift;
+        private final boolean edited;
+
+        private Frame(AbstractBoard board, int generations, int rowShift, int colShift, boolean edited) {
+            this.board = board;
+            this.generations = generations;
+            this.rowShift = rowShift;
+            this.colShift = colShift;
+            this.edited = edited;
+        }
+
+        /**
+         * Gets the snapshot of the board. The snapshot holds the cells within
+         * the visible area, and a margin of a quarter of its height and width
+         * around it, or every cell if no visible area has been set.
+         *
+         * @return an <code>AbstractBoard</code> holding the board as it was
+         * when the frame was published.
+         */
+        public AbstractBoard getBoard() {
+            return board;
+        }
+
+        /**
+         * Gets the number of generations computed since the previous frame,
+         * or since the simulation last started playing or stepping. When 1,
+         * the change log of the board holds every change since the previous
+         * frame.
+         *
+         * @return an <code>int</code> specifying the number of generations.
+         */
+        public int getGenerations() {
+            return generations;
+        }
+
+        /**
+         * Gets the number of rows the cells of the board shifted south since
+         * the previous frame, as the board expanded to the north.
+         *
+         * @return an <code>int</code> specifying the number of rows.
+         */
+        public int getRowShift() {
+            return rowShift;
+        }
+
+        /**
+         * Gets the number of columns the cells of the board shifted east since
+         * the previous frame, as the board expanded to the west.
+         *
+         * @return an <code>int</code> specifying the number of columns.
+         */
+        public int getColShift() {
+            return colShift;
+        }
+
+        /**
+         * Checks if the board was edited since the previous frame. Edits are
+         * not recorded in the change log of the board.
+         *
+         * @return a <code>boolean</code> specifying if the board was edited.
+         */
+        public boolean isEdited() {
+            return edited;
+        }
+    }
+
+    /**
+     * Boards with more cells than this are advanced using the worker pool, as
+     * handing work to the pool has a small cost.
+     */
+    private static final int CONCURRENT_CELL_COUNT = 10000;
+
+    /**
+     * The time one batch of generations may take, which is one frame at 60
+     * frames per second, and the largest number of generations per batch.
+     */
+    private static final long FRAME_NANOS = 1000000000L / 60;
+    private static final int MAX_BATCH = 100000;
+
+    /**
+     * How often the achieved number of generations per second is measured.
+     */
+    private static final long SPEED_WINDOW_NANOS = 500000000L;
+
+    /**
+     * Guards the fields below, and is held by the simulation thread while it
+     * computes a batch of generations. The playing and shutdown flags are
+     * set while holding the lock, but cleared before taking it, so the
+     * simulation thread stops within one generation rather than finishing
+     * its batch, and checking the flags never waits for a batch. The speed is
+     * read without the lock for the same reason.
+     */
+    private final Object lock = new Object();
+    private AbstractBoard board;
+    private volatile boolean playing = false;
+    private volatile boolean shutdown = false;
+    private int pendingSteps = 0;
+    private volatile long nanosPerGeneration;
+    private volatile long nextGenerationTime;
+    private Predicate<AbstractBoard> generationListener;
+
+    /**
+     * The next generation of the board, computed in advance on a copy, or
+     * <code>null</code>. Counts edits, so a copy made before an edit is never
+     * taken over.
+     */
+    private AbstractBoard speculation;
+    private long editCount = 0;
+
+    /**
+     * Edits waiting to be applied by the simulation thread. Any thread may
+     * add edits without taking the lock, while they are only applied by a
+     * thread holding the lock.
+     */
+    private final ConcurrentLinkedQueue<Consumer<AbstractBoard>> queuedEdits = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The average time spent computing one generation, and the number of
+     * generations which fit within the time of one frame. Only used by the
+     * simulation thread.
+     */
+    private double averageNanos = 0;
+    private int batchSize = 1;
+
+    /**
+     * The generations computed since the current speed measurement started,
+     * and the speed last measured.
+     */
+    private long speedWindowStart;
+    private int speedWindowGenerations;
+    private volatile double achievedSpeed = 0;
+
+    /**
+     * The generations computed, the rows and columns shifted, and if the board
+     * was edited since the last frame was published. Only used while holding
+     * the lock.
+     */
+    private int generations;
+    private int rowShift;
+    private int colShift;
+    private boolean edited;
+
+    private final AtomicReference<Frame> latestFrame = new AtomicReference<>();
+
+    /**
+     * The area of the board the user interface shows, or <code>null</code>
+     * for the whole board, and the area held by the last frame published.
+     * Stale when the shown area moved outside the area of the last frame, in
+     * which case a new frame is published without waiting for the next
+     * generation.
+     */
+    private volatile int[] visibleArea;
+    private volatile int[] frameArea;
+    private volatile boolean frameAreaStale = false;
+    private final Thread thread;
+
+    /**
+     * Creates a paused simulation of a board, running 10 generations per
+     * second when played, and starts the simulation thread.
+     *
+     * @param board the <code>AbstractBoard</code> to simulate.
+     */
+    public Simulation(AbstractBoard board) {
+        this.board = board;
+        setGenerationsPerSecond(10);
+        thread = new Thread(this::run, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Replaces the board being simulated. Pauses the simulation first.
+     *
+     * @param board the <code>AbstractBoard</code> to simulate from now on.
+     */
+    public void setBoard(AbstractBoard board) {
+        pause();
+        synchronized (lock) {
+            this.board = board;
+            boardEdited();
+            // the time per generation of the previous board says nothing
+            // about the new one.
+            averageNanos = 0;
+            batchSize = 1;
+        }
+    }
+
+    /**
+     * Discards the next generation computed in advance. Must be called
+     * whenever the board or the rules are changed while the simulation is
+     * paused, other than by the simulation itself.
+     */
+    public void boardEdited() {
+        synchronized (lock) {
+            editCount++;
+            if (speculation != null) {
+                speculation.dispose();
+                speculation = null;
+            }
+        }
+    }
+
+    /**
+     * Edits the board without pausing the simulation. While playing, the edit
+     * is queued without blocking, and applied by the simulation thread
+     * between two generations, followed by a frame showing it. While paused,
+     * every queued edit is applied by the calling thread before this method
+     * returns. Edits are applied in the order they were made, and discard the
+     * next generation computed in advance.
+     *
+     * @param edit a <code>Consumer</code> given the board to edit. As the board
+     * may have grown since the caller last saw it, the edit should check that
+     * the cells it changes are within the board.
+     */
+    public void edit(Consumer<AbstractBoard> edit) {
+        queuedEdits.add(edit);
+        if (playing) {
+            LockSupport.unpark(thread);
+        } else {
+            // the simulation thread stops playing before it applies the
+            // queued edits, so any edit queued after that is applied here.
+            synchronized (lock) {
+                applyEdits();
+            }
+        }
+    }
+
+    /**
+     * Sets a listener called by the simulation thread after every generation.
+     * The simulation pauses if the listener returns <code>true</code>.
+     *
+     * @param listener a <code>Predicate</code> given the board, or
+     * <code>null</code> to remove the listener.
+     */
+    public void setGenerationListener(Predicate<AbstractBoard> listener) {
+        synchronized (lock) {
+            generationListener = listener;
+        }
+    }
+
+    /**
+     * Sets the number of generations computed per second while playing.
+     *
+     * @param generationsPerSecond a <code>double</code> specifying the number
+     * of generations per second, or <code>Double.POSITIVE_INFINITY</code> to
+     * compute generations as fast as possible.
+     * @throws IllegalArgumentException if the number of generations per second
+     * is not above 0.
+     */
+    public void setGenerationsPerSecond(double generationsPerSecond) {
+        if (!(generationsPerSecond > 0)) {
+            throw new IllegalArgumentException("Number of generations per"
+                    + " second must be higher than 0!");
+        }
+        nanosPerGeneration = (long) (1000000000 / generationsPerSecond);
+    }
+
+    /**
+     * Sets the area of the board shown by the user interface, which frames
+     * are limited to. If the area is no longer within the area of the last
+     * frame, a new frame is published soon while playing.
+     *
+     * @param top an <code>int</code> specifying the first row shown.
+     * @param left an <code>int</code> specifying the first column shown.
+     * @param bottom an <code>int</code> specifying the last row shown.
+     * @param right an <code>int</code> specifying the last column shown.
+     */
+    public void setVisibleArea(int top, int left, int bottom, int right) {
+        visibleArea = new int[]{top, left, bottom, right};
+        int[] published = frameArea;
+        if (published != null && (top < published[0] || left < published[1]
+                || bottom > published[2] || right > published[3])) {
+            frameAreaStale = true;
+            if (playing) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /**
+     * Reads the board on the calling thread between two generations. Waits
+     * for the batch being computed to finish, so it is only meant for the
+     * rare reads which need more than the snapshot of a frame while the
+     * simulation is playing.
+     *
+     * @param <T> the type of the result.
+     * @param reader a <code>Function</code> given the board.
+     * @return the result of the reader.
+     */
+    public <T> T readBoard(Function<AbstractBoard, T> reader) {
+        synchronized (lock) {
+            return reader.apply(board);
+        }
+    }
+
+    /**
+     * Starts computing generations on the simulation thread.
+     */
+    public void play() {
+        synchronized (lock) {
+            if (!playing) {
+                playing = true;
+                nextGenerationTime = System.nanoTime();
+                speedWindowStart = nextGenerationTime;
+                speedWindowGenerations = 0;
+                lock.notifyAll();
+            }
+        }
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Stops computing generations, and waits for the generation being
+     * computed to finish. Queued edits are applied. If generations were
+     * computed or edits applied since the last frame was published, a final
+     * frame is published, so the frame taken next matches the board.
+     */
+    public void pause() {
+        boolean wasPlaying = playing;
+        // stops the batch being computed after its current generation.
+        playing = false;
+        LockSupport.unpark(thread);
+        synchronized (lock) {
+            if (wasPlaying) {
+                achievedSpeed = 0;
+                applyEdits();
+                if (generations > 0 || edited) {
+                    publishFrame(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the simulation is computing generations.
+     *
+     * @return a <code>boolean</code> specifying if the simulation is playing.
+     */
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Gets the number of generations per second actually computed while
+     * playing, measured over the last half second. This may be lower than the
+     * requested speed if the generations take too long to compute.
+     *
+     * @return a <code>double</code> specifying the number of generations per
+     * second, or 0 if the simulation is not playing or has not been playing
+     * long enough to measure.
+     */
+    public double getAchievedGenerationsPerSecond() {
+        return achievedSpeed;
+    }
+
+    /**
+     * Computes a single generation on the simulation thread, and waits for it
+     * to finish. A frame is always published for the generation. Does
+     * nothing while the simulation is playing. Once the step returns, the
+     * simulation thread starts computing the next generation in advance.
+     */
+    public void step() {
+        synchronized (lock) {
+            if (playing || shutdown) {
+                return;
+            }
+            pendingSteps++;
+            lock.notifyAll();
+            while (pendingSteps > 0 && !shutdown) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the latest frame published by the simulation thread, leaving the
+     * slot empty so the next frame can be published.
+     *
+     * @return the latest <code>Frame</code>, or <code>null</code> if no frame
+     * has been published since the last call.
+     */
+    public Frame takeFrame() {
+        return latestFrame.getAndSet(null);
+    }
+
+    /**
+     * Stops the simulation thread. The simulation can not be used after it
+     * has been shut down.
+     */
+    public void shutdown() {
+        shutdown = true;
+        playing = false;
+        LockSupport.unpark(thread);
+        synchronized (lock) {
+            boardEdited();
+            lock.notifyAll();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * The loop of the simulation thread. Waits until the simulation is
+     * playing or a step is requested, computes a batch of generations while
+     * holding the lock, and then waits outside the lock until the next
+     * generation is due. After a step, the next generation is computed in
+     * advance outside the lock.
+     */
+    private void run() {
+        AbstractBoard copy = null;
+        long copyEdits = 0;
+        while (true) {
+            if (copy != null) {
+                speculate(copy, copyEdits);
+                copy = null;
+            }
+            long wait;
+            synchronized (lock) {
+                while (!shutdown && !playing && pendingSteps == 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (shutdown) {
+                    return;
+                }
+                if (!playing) {
+                    computeGeneration();
+                    publishFrame(true);
+                    // the copy is made before the step returns, as the board
+                    // may be read and edited once it has.
+                    if (board instanceof SpeculativeBoard && pendingSteps == 1) {
+                        copy = board.deepCopy();
+                        copyEdits = editCount;
+                    }
+                    pendingSteps--;
+                    lock.notifyAll();
+                    continue;
+                }
+
+                // every generation owed since the last batch, limited to what
+                // fits within one frame.
+                long start = System.nanoTime();
+                int owed = batchSize;
+                if (nanosPerGeneration > 0) {
+                    owed = (int) Math.min((start - nextGenerationTime) / nanosPerGeneration + 1, batchSize);
+                }
+                int computed = 0;
+                boolean stop = false;
+                while (computed < owed && !stop && playing) {
+                    stop = computeGeneration();
+                    computed++;
+                }
+                if (!stop && !playing) {
+                    // paused during the batch, which publishes the frame.
+                    continue;
+                }
+                long end = System.nanoTime();
+                adaptBatchSize(computed, end - start);
+                measureSpeed(computed, end);
+                if (stop) {
+                    playing = false;
+                    achievedSpeed = 0;
+                    applyEdits();
+                    publishFrame(true);
+                    continue;
+                }
+                publishFrame(false);
+
+                // generations owed for more than a frame are dropped, so the
+                // simulation falls behind rather than catching up in a burst
+                // once generations get faster to compute.
+                nextGenerationTime = Math.max(nextGenerationTime + computed * nanosPerGeneration,
+                        end - FRAME_NANOS);
+                wait = nextGenerationTime - end;
+            }
+            while (wait > 0 && isPlaying()) {
+                LockSupport.parkNanos(this, wait);
+                // show edits made, and parts of the board scrolled into view,
+                // while waiting without waiting for the next generation.
+                if (!queuedEdits.isEmpty() || frameAreaStale) {
+                    synchronized (lock) {
+                        boolean applied = applyEdits();
+                        if (playing && (applied || frameAreaStale)) {
+                            publishFrame(true);
+                        }
+                    }
+                }
+                wait = nextGenerationTime - System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Computes the next generation of a copy of the board, and keeps it to be
+     * taken over by the next generation of the board, unless the board was
+     * edited in the meantime. Called by the simulation thread without holding
+     * the lock, so the board can be drawn and edited meanwhile.
+     *
+     * @param copy the <code>AbstractBoard</code> to advance.
+     * @param copyEdits a <code>long</code> specifying the number of edits
+     * when the copy was made.
+     */
+    private void speculate(AbstractBoard copy, long copyEdits) {
+        advance(copy);
+        synchronized (lock) {
+            if (copyEdits == editCount && speculation == null) {
+                speculation = copy;
+            } else {
+                copy.dispose();
+            }
+        }
+    }
+
+    /**
+     * Computes the next generation of a board, using the worker pool for
+     * large boards.
+     */
+    private static void advance(AbstractBoard board) {
+        if (board.getCellCount() > CONCURRENT_CELL_COUNT) {
+            board.nextGenerationConcurrent();
+        } else {
+            board.nextGeneration();
+        }
+    }
+
+    /**
+     * Updates the average time per generation with a finished batch, and sets
+     * the size of the next batch to the number of generations which fit
+     * within the time of one frame.
+     *
+     * @param computed an <code>int</code> specifying the number of
+     * generations in the batch.
+     * @param elapsed a <code>long</code> specifying the time the batch took,
+     * in nanoseconds.
+     */
+    private void adaptBatchSize(int computed, long elapsed) {
+        double nanos = (double) elapsed / computed;
+        averageNanos = averageNanos == 0 ? nanos : averageNanos * 0.75 + nanos * 0.25;
+        batchSize = (int) Math.max(1, Math.min(MAX_BATCH, FRAME_NANOS / averageNanos));
+    }
+
+    /**
+     * Counts the generations of a finished batch, and updates the achieved
+     * speed once every SPEED_WINDOW_NANOS.
+     */
+    private void measureSpeed(int computed, long now) {
+        speedWindowGenerations += computed;
+        long elapsed = now - speedWindowStart;
+        if (elapsed >= SPEED_WINDOW_NANOS) {
+            achievedSpeed = speedWindowGenerations * 1e9 / elapsed;
+            speedWindowStart = now;
+            speedWindowGenerations = 0;
+        }
+    }
+
+    /**
+     * Applies the queued edits, computes the next generation of the board, or
+     * takes over the generation computed in advance, and records how the
+     * cells shifted. Called by the simulation thread while holding the lock.
+     *
+     * @return a <code>boolean</code> specifying if the listener asked for the
+     * simulation to pause.
+     */
+    private boolean computeGeneration() {
+        applyEdits();
+        if (speculation != null) {
+            ((SpeculativeBoard) board).takeOver(speculation);
+            speculation = null;
+        } else {
+            advance(board);
+        }
+        generations++;
+        if (board.expandedNorth()) {
+            rowShift++;
+        }
+        if (board.expandedWest()) {
+            colShift++;
+        }
+        return generationListener != null && generationListener.test(board);
+    }
+
+    /**
+     * Applies every queued edit to the board. Called while holding the lock.
+     *
+     * @return a <code>boolean</code> specifying if any edit was applied.
+     */
+    private boolean applyEdits() {
+        Consumer<AbstractBoard> edit = queuedEdits.poll();
+        if (edit == null) {
+            return false;
+        }
+        while (edit != null) {
+            edit.accept(board);
+            edit = queuedEdits.poll();
+        }
+        boardEdited();
+        edited = true;
+        return true;
+    }
+
+    /**
+     * Publishes a snapshot of the board as the latest frame. Unless forced,
+     * the frame is only published once the previous frame has been taken, so
+     * no snapshot is taken while the previous one is waiting to be drawn. A
+     * forced frame replacing a frame which has not been taken includes the
+     * counts of that frame.
+     */
+    private void publishFrame(boolean force) {
+        if (!force && latestFrame.get() != null) {
+            return;
+        }
+        int[] area = visibleArea;
+        AbstractBoard copy;
+        if (area == null) {
+            copy = BoardSnapshot.of(board);
+        } else {
+            int rowMargin = (area[2] - area[0] + 1) / 4;
+            int colMargin = (area[3] - area[1] + 1) / 4;
+            int[] withMargin = {area[0] - rowMargin, area[1] - colMargin,
+                area[2] + rowMargin, area[3] + colMargin};
+            copy = BoardSnapshot.of(board, withMargin[0], withMargin[1], withMargin[2], withMargin[3]);
+            frameArea = withMargin;
+        }
+        frameAreaStale = false;
+        while (true) {
+            Frame previous = latestFrame.get();
+            Frame frame = previous == null
+                    ? new Frame(copy, generations, rowShift, colShift, edited)
+                    : new Frame(copy, generations + previous.generations,
+                            rowShift + previous.rowShift, colShift + previous.colShift,
+                            edited || previous.edited);
+            if (latestFrame.compareAndSet(previous, frame)) {
+                break;
+            }
+        }
+        resetFrameCounts();
+    }
+
+    /**
+     * Starts counting generations, shifts and edits from zero.
+     */
+    private void resetFrameCounts() {
+        generations = 0;
+        rowShift = 0;
+        colShift = 0;
+        edited = false;
+    }
+}
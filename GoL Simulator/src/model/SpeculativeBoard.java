@@ -0,0 +1,22 @@
+package model;
+
+/**
+ * A board engine which can take over the state of a copy of itself, so a
+ * generation computed in advance on the copy, for instance on another thread,
+ * does not have to be computed again. Used by {@link model.Simulation}, which
+ * only computes generations in advance for engines implementing this
+ * interface.
+ */
+public interface SpeculativeBoard {
+
+    /**
+     * Replaces the state of this board with the state of a copy made by
+     * {@link AbstractBoard#deepCopy()}, which has been advanced since. The
+     * original board, its metadata and the rules it was copied with must not
+     * have changed since the copy was made, and the copy must not be used
+     * afterwards.
+     *
+     * @param copy the <code>AbstractBoard</code> to take the state from.
+     */
+    void takeOver(AbstractBoard copy);
+}
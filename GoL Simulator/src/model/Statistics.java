@@ -46,9 +46,16 @@ public class Statistics {
     private HashMap<Integer, Integer> livingCellsPerGeneration;
     /**
      * Used to store many BoardDynamic instances and the corresponding
-     * generation number.
+     * generation number. The copies share every row which did not change
+     * between generations.
      */
     private HashMap<Integer, BoardDynamic> generations;
+    /**
+     * Used to store the exact hash of each generation, so generations which
+     * are identical can be found without relying on the float
+     * representation.
+     */
+    private HashMap<Integer, Long> boardHashes;
 
     /**
      * Statistics constructor. Needs a board to generate data from and the
@@ -67,6 +74,7 @@ public class Statistics {
         livingCellsPerGeneration = new HashMap<Integer, Integer>();
         floatBoards = new HashMap<Integer, Float>();
         generations = new HashMap<Integer, BoardDynamic>();
+        boardHashes = new HashMap<Integer, Long>();
         setLastGeneration();
         if (Rules.getInstance().isDynamic()) {
             Rules.getInstance().setDynamic(false);
@@ -152,7 +160,8 @@ public class Statistics {
 
         //Needs initial generation data.
         livingCellsPerGeneration.put(b.getGenerationCount(), b.getLivingCellCount());
-        generations.put(b.getGenerationCount(), new BoardDynamic(b.getBoard()));
+        generations.put(b.getGenerationCount(), b.deepCopy());
+        CycleDetector detector = new CycleDetector(b, 1);
         //This loop populates living Cells and populationChange series
         while (b.getGenerationCount() <= lastGeneration) {
             int prevPopulation = b.getLivingCellCount();
@@ -160,11 +169,13 @@ public class Statistics {
             b.nextGeneration();
             averageLivingCells += b.getLivingCellCount();
             averageDeadCells += (b.getCellCount() - b.getLivingCellCount());
-            generations.put(b.getGenerationCount(), new BoardDynamic(b.getBoard()));
+            generations.put(b.getGenerationCount(), b.deepCopy());
             livingCellsPerGeneration.put(b.getGenerationCount(), b.getLivingCellCount());
             livingCells.getData().add(getLivingCells());
             popluationChange.getData().add(new XYChart.Data(b.getGenerationCount(), getPopulationChange(prevPopulation)));
             floatBoards.put(b.getGenerationCount(), convertBoardToFloat(b.getGenerationCount()));
+            detector.update();
+            boardHashes.put(b.getGenerationCount(), detector.getHash());
         }
         
         //Populate similarity measure series
@@ -226,12 +237,22 @@ public class Statistics {
 
     /**
      * Finds the highest similarity for a generation and converts that number to
-     * an <code>int</code>.
+     * an <code>int</code>. A generation which is identical to the given
+     * generation, found by comparing the exact hashes of the generations, is
+     * always returned with a similarity of 100.
      *
      * @param generation generation to get similarity measure off.
      * @return <code>int</code> representing the most similar generation
      */
     public SimilarityMeasure getSimilarityMeasure(int generation) {
+        Long hash = boardHashes.get(generation);
+        for (int i = firstGeneration + 1; hash != null && i <= lastGeneration; i++) {
+            if (i != generation && hash.equals(boardHashes.get(i))
+                    && livingCellsPerGeneration.get(i).equals(livingCellsPerGeneration.get(generation))) {
+                return new SimilarityMeasure(i, 100);
+            }
+        }
+
         float highestfloat = 0;
         int i = firstGeneration + 1; // First generation can not have a similarity measure because floatboards use current generation - 1 as part of the calculation.
         int mostSimilarGeneration = 0;
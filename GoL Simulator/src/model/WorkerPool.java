@@ -0,0 +1,170 @@
+package model;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * A pool of long-lived worker threads shared by the board engines, used to
+ * compute a generation in parallel without creating new threads every
+ * generation. Class is a singleton, and a reference to the shared pool can be
+ * acquired using the static {@link #getInstance()} method.
+ *
+ * <p>
+ * Work is submitted as a number of tasks through
+ * {@link #runTasks(int, java.util.function.IntConsumer)}. The workers and the
+ * calling thread take tasks until all tasks are done, and the call returns
+ * once every task has finished. The workers wait on a <code>Phaser</code>
+ * between calls, so starting a call costs microseconds rather than the cost
+ * of creating and starting new threads.</p>
+ *
+ * <p>
+ * The pool should be shut down using {@link #shutdown()} when the application
+ * exits. Tasks submitted after the pool has been shut down are run on the
+ * calling thread.</p>
+ */
+public class WorkerPool {
+
+    private static WorkerPool instance;
+
+    private final int workerCount;
+    private final Phaser phaser;
+    private volatile boolean shutdown = false;
+
+    /**
+     * The current job. Only written by the calling thread before the workers
+     * are released, and read by the workers after.
+     */
+    private IntConsumer task;
+    private int taskCount;
+    private final AtomicInteger nextTask = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Creates a pool with a given number of worker threads, in addition to the
+     * calling thread. Use {@link #getInstance()} to get the shared pool.
+     *
+     * @param workerCount an <code>int</code> specifying the number of worker
+     * threads.
+     */
+    WorkerPool(int workerCount) {
+        this.workerCount = workerCount;
+        phaser = new Phaser(workerCount + 1);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "Generation worker " + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * WorkerPool is a singleton. Use this method to aquire a reference to the
+     * shared pool, which has one thread less than the number of processors as
+     * the calling thread also does work.
+     *
+     * @return a reference to the WorkerPool object.
+     */
+    public static synchronized WorkerPool getInstance() {
+        if (instance == null) {
+            instance = new WorkerPool(Math.max(Runtime.getRuntime().availableProcessors() - 1, 0));
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the number of threads which run tasks, including the calling
+     * thread.
+     *
+     * @return an <code>int</code> specifying the number of threads.
+     */
+    public int getParallelism() {
+        return workerCount + 1;
+    }
+
+    /**
+     * Runs a number of tasks in parallel, and waits for all of them to finish.
+     * Each task is given its task number, from 0 to taskCount - 1.
+     *
+     * @param taskCount an <code>int</code> specifying the number of tasks.
+     * @param task the task to run, accepting the task number.
+     * @throws RuntimeException if one of the tasks threw an exception. The
+     * exception is available as the cause.
+     */
+    public synchronized void runTasks(int taskCount, IntConsumer task) {
+        if (shutdown || workerCount == 0 || taskCount <= 1) {
+            for (int i = 0; i < taskCount; i++) {
+                task.accept(i);
+            }
+            return;
+        }
+
+        this.task = task;
+        this.taskCount = taskCount;
+        nextTask.set(0);
+        failure.set(null);
+
+        // release the workers, take part in the work, and wait for the
+        // workers to finish.
+        phaser.arriveAndAwaitAdvance();
+        takeTasks();
+        phaser.arriveAndAwaitAdvance();
+
+        this.task = null;
+        Throwable t = failure.get();
+        if (t != null) {
+            throw new RuntimeException("A generation worker failed", t);
+        }
+    }
+
+    /**
+     * Stops the worker threads. Tasks submitted after this are run on the
+     * calling thread.
+     */
+    public synchronized void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        // release the workers, which see the shutdown flag and exit.
+        phaser.arriveAndDeregister();
+    }
+
+    /**
+     * Checks if the pool has been shut down.
+     *
+     * @return a <code>boolean</code> specifying if the pool is shut down.
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * The loop run by each worker thread.
+     */
+    private void work() {
+        while (true) {
+            phaser.arriveAndAwaitAdvance();
+            if (shutdown) {
+                phaser.arriveAndDeregister();
+                return;
+            }
+            takeTasks();
+            phaser.arriveAndAwaitAdvance();
+        }
+    }
+
+    /**
+     * Runs tasks until there are no more tasks left.
+     */
+    private void takeTasks() {
+        int i;
+        while ((i = nextTask.getAndIncrement()) < taskCount) {
+            try {
+                task.accept(i);
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+}
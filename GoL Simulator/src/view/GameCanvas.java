@@ -1,13 +1,15 @@
 package view;
 
-import java.util.ArrayList;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import model.AbstractBoard;
+import model.ChangeLog;
+import model.Rules;
 
 /**
  * Resizable canvas object with the necessary methods for drawing based on
- * patterns passed as an <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>.
+ * patterns passed as an {@link model.AbstractBoard}.
  */
 public class GameCanvas extends Canvas {
 
@@ -21,11 +23,20 @@ public class GameCanvas extends Canvas {
     private int firstVisibleCol;
     private int lastVisibleCol;
 
+    private byte[] rowCells = new byte[0];
+
     private Color backgroundColor; // also visible as the border.
     private Color livingCellColor;
     private Color deadCellColor;
     private GraphicsContext gc;
 
+    /**
+     * The colour of each state of the current Generations rule, where dying
+     * cells fade from the living colour towards the dead colour. Rebuilt when
+     * the number of states or the colours change.
+     */
+    private Color[] stateColors = new Color[0];
+
     /**
      * GameCanvas no-argument constructor initializes game board colours and
      * graphics context.
@@ -110,23 +121,44 @@ public class GameCanvas extends Canvas {
     }
 
     /**
-     * Draws the game board based on an
-     * <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code> where 1 symbolises a
-     * living cell, and 0 symbolises a dead cell. Only visible parts of the game
+     * Draws the game board based on an <code>AbstractBoard</code> where 1
+     * symbolises a living cell, and 0 symbolises a dead cell. Higher states
+     * are dying cells of the Generations rules. Only visible parts of the game
      * board are actually drawn.
      *
-     * @param board an <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>
-     * specifying the state of the games cells.
+     * @param board an <code>AbstractBoard</code> specifying the state of the
+     * games cells.
      */
-    public void drawBoard(ArrayList<ArrayList<Byte>> board) {
+    public void drawBoard(AbstractBoard board) {
+        updateStateColors();
         gc.setFill(backgroundColor);
         gc.fillRect(0, 0, this.getWidth(), this.getHeight());
 
         determineVisibleConstraints(board);
+        drawVisibleCells(board);
+    }
 
+    /**
+     * Draws every cell within the visible area, reading the cells a row at a
+     * time.
+     *
+     * @param board the board containing the actual cells.
+     */
+    private void drawVisibleCells(AbstractBoard board) {
+        int count = lastVisibleCol - firstVisibleCol + 1;
+        if (count <= 0) {
+            return;
+        }
+        if (rowCells.length < count) {
+            rowCells = new byte[count];
+        }
         for (int row = firstVisibleRow; row <= lastVisibleRow; row++) {
-            for (int col = firstVisibleCol; col <= lastVisibleCol; col++) {
-                drawCell(board, row, col);
+            board.readRow(row, firstVisibleCol, count, rowCells);
+            double yPosition = Math.floor(yOffset + (row * (cellSize + spaceBetweenCells)));
+            for (int i = 0; i < count; i++) {
+                double xPosition = Math.floor(xOffset + ((firstVisibleCol + i) * (cellSize + spaceBetweenCells)));
+                gc.setFill(getStateColor(rowCells[i]));
+                gc.fillRect(xPosition, yPosition, cellSize, cellSize);
             }
         }
     }
@@ -160,55 +192,82 @@ public class GameCanvas extends Canvas {
     }
 
     /**
-     * Takes two <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code>. One
-     * representing the board in its current state, and the other representing
-     * which of that boards cells you wish to draw. 1 represents cells you wish
-     * drawn, 0 cells that are not to be drawn. This allows faster draw
-     * operations, as one doesn't need to redraw cells that have not changed
-     * their state.
+     * Draws only the cells of the board which changed during the last
+     * generation shift. This allows faster draw operations, as one doesn't
+     * need to redraw cells that have not changed their state. The changed
+     * cells are read from the boards {@link model.ChangeLog}, so the cost is
+     * proportional to the number of changes rather than the visible area.
      *
-     * @param toDraw the cells you want drawn.
-     * @param board the pattern containing the actual cells.
+     * @param board the board containing the actual cells.
      */
-    public void drawSpecificCells(ArrayList<ArrayList<Byte>> toDraw, ArrayList<ArrayList<Byte>> board) {
+    public void drawSpecificCells(AbstractBoard board) {
+        updateStateColors();
         determineVisibleConstraints(board);
-        for (int row = firstVisibleRow; row <= lastVisibleRow; row++) {
-            for (int col = firstVisibleCol; col <= lastVisibleCol; col++) {
-                // cells that have changed are symbolised by the number 1.
-                if (toDraw.get(row).get(col) == 1) {
-                    drawCell(board, row, col);
-                }
+        ChangeLog changes = board.getChangeLog();
+        if (changes.isAllChanged()) {
+            drawVisibleCells(board);
+            return;
+        }
+
+        for (int i = 0; i < changes.size(); i++) {
+            int row = changes.getRow(i);
+            int col = changes.getCol(i);
+            if (row >= firstVisibleRow && row <= lastVisibleRow
+                    && col >= firstVisibleCol && col <= lastVisibleCol) {
+                drawCell(board, row, col);
             }
         }
     }
 
-    private void determineVisibleConstraints(ArrayList<ArrayList<Byte>> board) {
+    /**
+     * Gets the cells within the visible part of the canvas, whether or not
+     * they are on a board.
+     *
+     * @return an <code>int[]</code> holding the first row, first column, last
+     * row and last column which are visible.
+     */
+    public int[] getVisibleArea() {
+        int cell = cellSize + spaceBetweenCells;
+        return new int[]{
+            (int) Math.floor((yOffset * -1) / cell),
+            (int) Math.floor((xOffset * -1) / cell),
+            (int) Math.floor((this.getHeight() - yOffset) / cell + 2),
+            (int) Math.floor((this.getWidth() - xOffset) / cell + 2)
+        };
+    }
+
+    private void determineVisibleConstraints(AbstractBoard board) {
+        int firstRow = board.getMinRow();
+        int lastRow = board.getMinRow() + board.getRows() - 1;
+        int firstCol = board.getMinCol();
+        int lastCol = board.getMinCol() + board.getCols() - 1;
+
         // determine the given boards first visible row
-        firstVisibleRow = (int) ((yOffset * -1) / (cellSize + spaceBetweenCells));
-        if (firstVisibleRow < 0) {
-            firstVisibleRow = 0;
+        firstVisibleRow = (int) Math.floor((yOffset * -1) / (cellSize + spaceBetweenCells));
+        if (firstVisibleRow < firstRow) {
+            firstVisibleRow = firstRow;
         }
 
         // determine the given boards last visible row
-        lastVisibleRow = (int) ((this.getHeight() - yOffset) / (cellSize + spaceBetweenCells) + 2);
-        if (lastVisibleRow >= board.size()) {
-            lastVisibleRow = board.size() - 1;
-        } else if (lastVisibleRow < 0) {
-            lastVisibleRow = 0;
+        lastVisibleRow = (int) Math.floor((this.getHeight() - yOffset) / (cellSize + spaceBetweenCells) + 2);
+        if (lastVisibleRow > lastRow) {
+            lastVisibleRow = lastRow;
+        } else if (lastVisibleRow < firstRow) {
+            lastVisibleRow = firstRow;
         }
 
         // determine the given boards first visible column
-        firstVisibleCol = (int) ((xOffset * -1) / (cellSize + spaceBetweenCells));
-        if (firstVisibleCol < 0) {
-            firstVisibleCol = 0;
+        firstVisibleCol = (int) Math.floor((xOffset * -1) / (cellSize + spaceBetweenCells));
+        if (firstVisibleCol < firstCol) {
+            firstVisibleCol = firstCol;
         }
 
         // determine the given boards last visible column
-        lastVisibleCol = (int) ((this.getWidth() - xOffset) / (cellSize + spaceBetweenCells) + 2);
-        if (lastVisibleCol >= board.get(0).size()) {
-            lastVisibleCol = board.get(0).size() - 1;
-        } else if (lastVisibleCol < 0) {
-            lastVisibleCol = 0;
+        lastVisibleCol = (int) Math.floor((this.getWidth() - xOffset) / (cellSize + spaceBetweenCells) + 2);
+        if (lastVisibleCol > lastCol) {
+            lastVisibleCol = lastCol;
+        } else if (lastVisibleCol < firstCol) {
+            lastVisibleCol = firstCol;
         }
     }
 
@@ -216,27 +275,55 @@ public class GameCanvas extends Canvas {
      * Draws the state of a single cell if, and only if, that cell is actually
      * within the visible area of the game board.
      *
-     * @param b <code>ArrayList&lt;ArrayList&lt;Byte&gt;&gt;</code> representing
-     * the game board.
+     * @param b <code>AbstractBoard</code> representing the game board.
      * @param row an <code>int</code> specifying the row location of the cell to
      * draw.
      * @param col an <code>int</code> specifying the column location of the cell
      * to draw.
      */
-    public void drawCell(ArrayList<ArrayList<Byte>> b, int row, int col) {
+    public void drawCell(AbstractBoard b, int row, int col) {
         // calculate the position of the given cell. Use of Math.floor() to
         // avoid pixelbleed due to decimal values.
         double xPosition = Math.floor(xOffset + (col * (cellSize + spaceBetweenCells)));
         double yPosition = Math.floor(yOffset + (row * (cellSize + spaceBetweenCells)));
 
-        if (b.get(row).get(col) == 1) {
-            gc.setFill(livingCellColor);
-        } else {
-            gc.setFill(deadCellColor);
-        }
+        gc.setFill(getStateColor(b.getCellState(row, col)));
         gc.fillRect(xPosition, yPosition, cellSize, cellSize);
     }
 
+    /**
+     * Gets the colour of a cell state. States without a colour are drawn as
+     * dead cells.
+     *
+     * @param state a <code>byte</code> specifying the state of the cell.
+     * @return the <code>Color</code> of the state.
+     */
+    private Color getStateColor(byte state) {
+        if (state == 1) {
+            return livingCellColor;
+        } else if (state > 1 && state < stateColors.length) {
+            return stateColors[state];
+        }
+        return deadCellColor;
+    }
+
+    /**
+     * Rebuilds the colours of the dying states if the number of states of the
+     * Generations rule has changed.
+     */
+    private void updateStateColors() {
+        int states = Rules.getInstance().getGenerationsRule().getStates();
+        if (stateColors.length != states) {
+            stateColors = new Color[states];
+            stateColors[0] = deadCellColor;
+            stateColors[1] = livingCellColor;
+            for (int state = 2; state < states; state++) {
+                stateColors[state] = livingCellColor.interpolate(deadCellColor,
+                        (state - 1) / (double) (states - 1));
+            }
+        }
+    }
+
     /**
      * Sets new size for the canvas.
      *
@@ -275,6 +362,7 @@ public class GameCanvas extends Canvas {
      */
     public void setLivingCellColor(Color livingCellColor) {
         this.livingCellColor = livingCellColor;
+        stateColors = new Color[0];
     }
 
     /**
@@ -293,6 +381,7 @@ public class GameCanvas extends Canvas {
      */
     public void setDeadCellColor(Color deadCellColor) {
         this.deadCellColor = deadCellColor;
+        stateColors = new Color[0];
     }
 
     /**
@@ -0,0 +1,168 @@
+package model;
+
+import org.junit.After;
+import org.junit.Test;
+import static model.BoardTestUtils.*;
+import static org.junit.Assert.*;
+
+public class BoardChunkedTest {
+
+    public BoardChunkedTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+    }
+
+    /**
+     * Test setBoard() and toString().
+     */
+    @Test
+    public void testSetBoard() {
+        System.out.println("setBoard");
+        byte[][] newBoard = {
+            {1, 1, 1},
+            {0, 0, 0},
+            {1, 1, 1}
+        };
+        BoardChunked instance = new BoardChunked();
+        instance.setBoard(newBoard);
+        assertEquals("111000111", instance.toString());
+        assertEquals(6, instance.getLivingCellCount());
+        assertEquals(9, instance.getCellCount());
+        assertEquals(0, instance.getMinRow());
+        assertEquals(0, instance.getMinCol());
+    }
+
+    /**
+     * Test that the chunked engine gives the same result as BoardDynamic for a
+     * number of generations, rules and board sizes. The board is large enough
+     * to span several tiles.
+     */
+    @Test
+    public void testNextGenerationMatchesBoardDynamic() {
+        System.out.println("nextGenerationMatchesBoardDynamic");
+        assertMatchesBoardDynamic(BoardChunked::new, 70, 130, false);
+    }
+
+    /**
+     * Test that growing the board only changes its bounds, and reports the
+     * new cells as changed.
+     */
+    @Test
+    public void testNextGenerationDynamic() {
+        System.out.println("nextGenerationDynamic");
+        Rules.getInstance().setDynamic(true);
+        BoardChunked instance = new BoardChunked();
+        byte[][] board = {
+            {1},
+            {1},
+            {1}
+        };
+        instance.setBoard(board);
+        instance.nextGeneration();
+        assertEquals("000000111000000", instance.toString());
+        assertTrue(instance.didExpand());
+        assertFalse(instance.expandedNorth());
+        assertFalse(instance.expandedWest());
+        assertEquals(-1, instance.getMinRow());
+        assertEquals(-1, instance.getMinCol());
+        assertEquals(1, instance.getCellState(1, -1));
+        assertEquals(0, instance.getCellState(0, 0));
+        assertTrue(instance.hasCellChanged(-1, -1));
+        assertTrue(instance.hasCellChanged(0, 0));
+        assertFalse(instance.hasCellChanged(1, 0));
+        assertTrue(instance.isWithinBoard(-1, 1));
+        assertFalse(instance.isWithinBoard(-2, 1));
+    }
+
+    /**
+     * Test toggleCellState(), setCellStateAlive() and moveBoardWithArrowKeys()
+     * using negative coordinates.
+     */
+    @Test
+    public void testToggleCellStateAndMove() {
+        System.out.println("toggleCellState");
+        Rules.getInstance().setDynamic(true);
+        BoardChunked instance = new BoardChunked(3, 3);
+        instance.setBoard(new byte[][]{{1, 0, 0}, {0, 0, 0}, {0, 0, 0}});
+        instance.nextGeneration();
+        assertEquals(0, instance.getLivingCellCount());
+        instance.toggleCellState(-1, -1);
+        instance.setCellStateAlive(-1, -1);
+        assertEquals(1, instance.getLivingCellCount());
+        instance.moveBoardWithArrowKeys(1, 2);
+        assertEquals(0, instance.getCellState(-1, -1));
+        assertEquals(1, instance.getCellState(1, 0));
+        // moving outside the board is ignored.
+        instance.moveBoardWithArrowKeys(5, 0);
+        assertEquals(1, instance.getCellState(1, 0));
+        instance.toggleCellState(1, 0);
+        assertEquals(0, instance.getLivingCellCount());
+    }
+
+    /**
+     * Test resetBoard() and deepCopy().
+     */
+    @Test
+    public void testResetBoardAndDeepCopy() {
+        System.out.println("resetBoard");
+        Rules.getInstance().setDynamic(true);
+        BoardChunked instance = new BoardChunked();
+        instance.setBoard(new byte[][]{{0, 1, 0}, {0, 1, 0}, {0, 1, 0}});
+        instance.nextGeneration();
+        BoardChunked copy = instance.deepCopy();
+        assertEquals(instance.toString(), copy.toString());
+
+        instance.resetBoard();
+        assertEquals("010010010", instance.toString());
+        assertEquals(0, instance.getGenerationCount());
+        assertEquals(1, copy.getGenerationCount());
+        assertEquals(5, copy.getRows());
+        assertEquals(-1, copy.getMinRow());
+    }
+
+    /**
+     * Test getBoundingBox(), including cells in negative rows and columns.
+     */
+    @Test
+    public void testGetBoundingBox() {
+        System.out.println("getBoundingBox");
+        BoardChunked instance = new BoardChunked(10, 10);
+        assertNull(instance.getBoundingBox());
+        instance.setBoard(createRandomBoard(150, 140, 5));
+        assertArrayEquals(new BoardDynamic(instance).getBoundingBox(), instance.getBoundingBox());
+
+        Rules.getInstance().setDynamic(true);
+        instance.setBoard(new byte[][]{{1, 1, 1}});
+        instance.nextGeneration();
+        assertArrayEquals(new int[]{-1, 1, 1, 1}, instance.getBoundingBox());
+    }
+
+    /**
+     * Test conversion between BoardChunked and the other board engines,
+     * keeping the cells in place when the board has negative coordinates.
+     */
+    @Test
+    public void testConvert() {
+        System.out.println("convert");
+        Rules.getInstance().setDynamic(true);
+        BoardChunked instance = new BoardChunked();
+        instance.setBoard(createRandomBoard(10, 70, 7));
+        instance.setMetadata("author", "name", "comment");
+        instance.nextGeneration();
+        AbstractBoard dynamic = BoardType.DYNAMIC.convert(instance);
+        assertEquals(instance.toString(), dynamic.toString());
+        assertEquals(instance.getLivingCellCount(), dynamic.getLivingCellCount());
+        assertEquals("author", dynamic.getAuthor());
+
+        AbstractBoard chunked = BoardType.CHUNKED.convert(dynamic);
+        assertTrue(chunked instanceof BoardChunked);
+        assertEquals(instance.toString(), chunked.toString());
+        assertSame(chunked, BoardType.CHUNKED.convert(chunked));
+    }
+}
@@ -0,0 +1,304 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Test;
+import static model.BoardTestUtils.*;
+import static org.junit.Assert.*;
+
+public class BoardDenseTest {
+
+    public BoardDenseTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+    }
+
+    /**
+     * Test nextGeneration() using static rules. Cells along the border only
+     * see the dead border around the board.
+     */
+    @Test
+    public void testNextGenerationStatic() {
+        System.out.println("nextGeneration");
+        Rules.getInstance().setDynamic(false);
+        BoardDense instance = new BoardDense();
+        byte[][] board = {
+            {0, 1, 0},
+            {0, 1, 0},
+            {0, 1, 0}
+        };
+        instance.setBoard(board);
+        instance.nextGeneration();
+        assertEquals("000111000", instance.toString());
+        assertTrue(instance.hasCellChanged(0, 1));
+        assertFalse(instance.hasCellChanged(1, 1));
+        assertEquals(3, instance.getLivingCellCount());
+        assertEquals(1, instance.getGenerationCount());
+    }
+
+    /**
+     * Test that the dense engine, both sequential and concurrent, gives the
+     * same result as BoardDynamic for a number of generations and rules.
+     */
+    @Test
+    public void testNextGenerationMatchesBoardDynamic() {
+        System.out.println("nextGenerationMatchesBoardDynamic");
+        assertMatchesBoardDynamic(BoardDense::new, 90, 70, true);
+    }
+
+    /**
+     * Computes the next generation of Conway's rules on a toroidal board by
+     * counting the neighbours of every cell directly.
+     */
+    private byte[][] naiveToroidalGeneration(byte[][] board) {
+        int rows = board.length;
+        int cols = board[0].length;
+        byte[][] next = new byte[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int neighbours = -board[row][col];
+                for (int r = row - 1; r <= row + 1; r++) {
+                    for (int c = col - 1; c <= col + 1; c++) {
+                        neighbours += board[(r + rows) % rows][(c + cols) % cols];
+                    }
+                }
+                boolean alive = neighbours == 3 || (neighbours == 2 && board[row][col] == 1);
+                next[row][col] = alive ? (byte) 1 : 0;
+            }
+        }
+        return next;
+    }
+
+    private String toString(byte[][] board) {
+        StringBuilder sb = new StringBuilder();
+        for (byte[] row : board) {
+            for (byte cell : row) {
+                sb.append(cell);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Test that toroidal rules wrap the board around its edges for the dense,
+     * dynamic and isotropic engines, both sequential and concurrent, and that
+     * the board behaves as a static board again once the rules are changed.
+     */
+    @Test
+    public void testNextGenerationToroidal() {
+        System.out.println("nextGenerationToroidal");
+        Rules rules = Rules.getInstance();
+        rules.setToroidal(true);
+
+        // a glider returns to where it started after crossing the board.
+        BoardDense glider = new BoardDense(8, 8);
+        byte[][] start = new byte[8][8];
+        start[0][1] = 1;
+        start[1][2] = 1;
+        start[2][0] = 1;
+        start[2][1] = 1;
+        start[2][2] = 1;
+        glider.setBoard(start);
+        for (int i = 0; i < 32; i++) {
+            glider.nextGenerationConcurrent();
+            assertEquals(5, glider.getLivingCellCount());
+        }
+        assertEquals(toString(start), glider.toString());
+
+        byte[][] expected = createRandomBoard(90, 70, 11);
+        BoardDense dense = new BoardDense();
+        dense.setBoard(expected);
+        BoardDense denseConcurrent = new BoardDense();
+        denseConcurrent.setBoard(expected);
+        denseConcurrent.setWordKernel(false);
+        BoardDynamic dynamic = new BoardDynamic();
+        dynamic.setBoard(expected);
+        BoardDynamic dynamicConcurrent = new BoardDynamic();
+        dynamicConcurrent.setBoard(expected);
+        BoardIsotropic isotropic = new BoardIsotropic();
+        isotropic.setBoard(expected);
+        AbstractBoard[] boards = {dense, denseConcurrent, dynamic, dynamicConcurrent, isotropic};
+        for (int i = 0; i < 20; i++) {
+            expected = naiveToroidalGeneration(expected);
+            for (int b = 0; b < boards.length; b++) {
+                if (b % 2 == 0) {
+                    boards[b].nextGeneration();
+                } else {
+                    boards[b].nextGenerationConcurrent();
+                }
+                assertEquals("board " + b + " generation " + i, toString(expected), boards[b].toString());
+                assertEquals(90, boards[b].getRows());
+                assertEquals(70, boards[b].getCols());
+            }
+        }
+
+        rules.setDynamic(false);
+        dynamic.nextGeneration();
+        for (AbstractBoard board : boards) {
+            if (board != dynamic) {
+                board.nextGeneration();
+                assertEquals(dynamic.toString(), board.toString());
+                assertEquals(dynamic.getLivingCellCount(), board.getLivingCellCount());
+            }
+        }
+    }
+
+    /**
+     * Test that the word kernel gives exactly the same result as the cell by
+     * cell kernel for every neighbour count, on boards where the rows do not
+     * end on a whole word.
+     */
+    @Test
+    public void testWordKernelMatchesCellKernel() {
+        System.out.println("wordKernel");
+        Rules rules = Rules.getInstance();
+        rules.setDynamic(false);
+        Random random = new Random(3);
+        for (int test = 0; test < 20; test++) {
+            int birthMask = random.nextInt(512);
+            int surviveMask = random.nextInt(512);
+            ArrayList<Integer> birth = new ArrayList<>();
+            ArrayList<Integer> survive = new ArrayList<>();
+            for (int n = 0; n <= 8; n++) {
+                if ((birthMask & (1 << n)) != 0) {
+                    birth.add(n);
+                }
+                if ((surviveMask & (1 << n)) != 0) {
+                    survive.add(n);
+                }
+            }
+            rules.setBirthRules(birth);
+            rules.setSurviveRules(survive);
+
+            byte[][] start = createRandomBoard(21, 8 + test, test);
+            BoardDense words = new BoardDense();
+            words.setBoard(start);
+            BoardDense cells = new BoardDense();
+            cells.setBoard(start);
+            cells.setWordKernel(false);
+            assertTrue(words.isWordKernel());
+            for (int i = 0; i < 5; i++) {
+                words.nextGeneration();
+                cells.nextGeneration();
+                assertEquals(cells.toString(), words.toString());
+                assertEquals(cells.getChangedCells(), words.getChangedCells());
+                assertEquals(cells.getLivingCellCount(), words.getLivingCellCount());
+            }
+        }
+    }
+
+    /**
+     * Test that advancing several generations per pass gives the same result
+     * as advancing one generation at a time, on a board of several blocks.
+     */
+    @Test
+    public void testNextGenerations() {
+        System.out.println("nextGenerations");
+        Rules rules = Rules.getInstance();
+        rules.setDynamic(false);
+        int[][][] ruleSets = {
+            {{2, 3}, {3}},
+            {{0, 8}, {1, 2, 4, 6}}
+        };
+        int[] generationsPerPass = {2, 5, 8};
+
+        for (int[][] ruleSet : ruleSets) {
+            rules.setSurviveRules(ruleSet[0]);
+            rules.setBirthRules(ruleSet[1]);
+            for (int perPass : generationsPerPass) {
+                byte[][] start = createRandomBoard(300, 261, perPass);
+                BoardDense expected = new BoardDense();
+                expected.setBoard(start);
+                BoardDense instance = new BoardDense();
+                instance.setBoard(start);
+                instance.setGenerationsPerPass(perPass);
+                assertEquals(perPass, instance.getGenerationsPerPass());
+
+                for (int i = 0; i < 11; i++) {
+                    expected.nextGeneration();
+                }
+                instance.nextGenerations(11);
+                assertEquals(expected.toString(), instance.toString());
+                assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+                assertEquals(11, instance.getGenerationCount());
+
+                // changed cells are those which differ from the first board.
+                for (int row = 0; row < start.length; row++) {
+                    for (int col = 0; col < start[0].length; col++) {
+                        assertEquals(start[row][col] != expected.getCellState(row, col),
+                                instance.hasCellChanged(row, col));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test resetBoard(), deepCopy() and conversion from BoardDynamic.
+     */
+    @Test
+    public void testResetBoardAndConvert() {
+        System.out.println("resetBoard");
+        BoardDynamic original = new BoardDynamic();
+        original.setBoard(createRandomBoard(12, 9, 7));
+        original.setMetadata("author", "name", "comment");
+        AbstractBoard dense = BoardType.DENSE.convert(original);
+        assertTrue(dense instanceof BoardDense);
+        assertEquals(original.toString(), dense.toString());
+        assertEquals(original.getLivingCellCount(), dense.getLivingCellCount());
+        assertEquals("author", dense.getAuthor());
+
+        dense.nextGeneration();
+        AbstractBoard copy = dense.deepCopy();
+        assertEquals(dense.toString(), copy.toString());
+        dense.resetBoard();
+        assertEquals(original.toString(), dense.toString());
+        assertEquals(0, dense.getGenerationCount());
+        assertEquals(1, copy.getGenerationCount());
+    }
+
+    /**
+     * Test of takeOver method, of class BoardDense. Taking over a copy which
+     * was advanced gives the same board as advancing the board itself, also
+     * when the board expands and is edited afterwards.
+     */
+    @Test
+    public void testTakeOver() {
+        System.out.println("takeOver");
+        BoardDense expected = new BoardDense();
+        expected.setBoard(createRandomBoard(20, 30, 5));
+        BoardDense instance = new BoardDense();
+        instance.setBoard(createRandomBoard(20, 30, 5));
+        assertTrue(instance instanceof SpeculativeBoard);
+
+        for (int i = 0; i < 40; i++) {
+            if (i % 10 == 9) {
+                expected.toggleCellState(1, 1);
+                instance.toggleCellState(1, 1);
+            }
+            expected.nextGeneration();
+            AbstractBoard copy = instance.deepCopy();
+            copy.nextGeneration();
+            instance.takeOver(copy);
+            assertEquals(expected.toString(), instance.toString());
+            assertEquals(expected.getRows(), instance.getRows());
+            assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+            assertEquals(expected.getGenerationCount(), instance.getGenerationCount());
+            assertEquals(expected.getChangedCells(), instance.getChangedCells());
+            assertEquals(expected.expandedNorth(), instance.expandedNorth());
+        }
+
+        // the preserved board is not changed by the buffers taken over.
+        instance.resetBoard();
+        BoardDense original = new BoardDense();
+        original.setBoard(createRandomBoard(20, 30, 5));
+        assertEquals(original.toString(), instance.toString());
+    }
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -194,6 +195,7 @@ public class BoardDynamicTest {
             {0, 0, 0}
         };
         instance.setBoard(instanceBoard);
+        instance.setMetadata("author", "name", "comment");
 
         for (int i = 0; i < 4; i++) {
             instance.nextGeneration();
@@ -207,6 +209,9 @@ public class BoardDynamicTest {
         assertEquals(instance.getGenerationCount(), newBoard.getGenerationCount());
         assertEquals(instance.getLivingCellCount(), newBoard.getLivingCellCount());
         assertEquals(instance.getCellCount(), newBoard.getCellCount());
+        assertEquals("author", newBoard.getAuthor());
+        assertEquals("name", newBoard.getName());
+        assertEquals("comment", newBoard.getComment());
 
         // make changes to the new board
         byte[][] board = {
@@ -228,6 +233,49 @@ public class BoardDynamicTest {
         assertEquals(instance.getCellCount(), 9);
     }
 
+    /**
+     * Test that copies, the preserved board and the current board share the
+     * rows which did not change, and that changing one of them never alters
+     * another.
+     */
+    @Test
+    public void testSharedRows() {
+        System.out.println("sharedRows");
+        Random random = new Random(17);
+        byte[][] start = new byte[40][40];
+        for (int row = 10; row < 20; row++) {
+            for (int col = 10; col < 20; col++) {
+                start[row][col] = (byte) random.nextInt(2);
+            }
+        }
+        BoardDynamic instance = new BoardDynamic(1, 1);
+        instance.setBoard(start);
+        String startState = instance.toString();
+        BoardDynamic copy = instance.deepCopy();
+
+        instance.nextGenerationConcurrent();
+        instance.nextGeneration();
+        String secondGeneration = instance.toString();
+        // rows far from the pattern are still shared with the copy.
+        assertSame(copy.getBoard().get(39), instance.getBoard().get(39));
+        assertEquals(startState, copy.toString());
+
+        copy.toggleCellState(0, 0);
+        assertEquals(0, instance.getCellState(0, 0));
+        assertNotSame(copy.getBoard().get(0), instance.getBoard().get(0));
+
+        instance.preserveBoard();
+        instance.toggleCellState(5, 5);
+        instance.nextGeneration();
+        instance.resetBoard();
+        assertEquals(secondGeneration, instance.toString());
+
+        instance.resetBoard();
+        instance.nextGeneration();
+        copy.resetBoard();
+        assertEquals(startState, copy.toString());
+    }
+
     /**
      * test nextGeneration() (this is the non-threaded version). Test uses
      * static rules.
@@ -378,6 +426,302 @@ public class BoardDynamicTest {
         assertEquals("000000111000000", instance.toString());
     }
 
+    /**
+     * Test that nextGenerationConcurrent() gives the same result as
+     * nextGeneration() on a board large enough to be split into several bands
+     * of rows.
+     */
+    @Test
+    public void testNextGenerationConcurrentBands() {
+        System.out.println("nextGenerationConcurrentBands");
+        Rules rules = Rules.getInstance();
+        boolean wasDynamic = rules.isDynamic();
+        rules.setDynamic(false);
+        Random random = new Random(5);
+        byte[][] start = new byte[300][200];
+        for (int row = 0; row < start.length; row++) {
+            for (int col = 0; col < start[row].length; col++) {
+                start[row][col] = (byte) (random.nextInt(3) == 0 ? 1 : 0);
+            }
+        }
+        BoardDynamic expected = new BoardDynamic();
+        expected.setBoard(start);
+        BoardDynamic instance = new BoardDynamic();
+        instance.setBoard(start);
+        for (int i = 0; i < 10; i++) {
+            int previousLivingCells = expected.getLivingCellCount();
+            expected.nextGeneration();
+            instance.nextGenerationConcurrent();
+            assertEquals(expected.toString(), instance.toString());
+            assertEquals(expected.getChangedCells(), instance.getChangedCells());
+            assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+            assertEquals(expected.getBirthCount(), instance.getBirthCount());
+            assertEquals(expected.getDeathCount(), instance.getDeathCount());
+            assertEquals(previousLivingCells + expected.getBirthCount() - expected.getDeathCount(),
+                    expected.getLivingCellCount());
+
+            float indexSum = indexSum(expected);
+            assertEquals(indexSum, expected.getIndexSum(), 0);
+            assertEquals(indexSum, instance.getIndexSum(), 0);
+        }
+        rules.setDynamic(wasDynamic);
+    }
+
+    /**
+     * Calculates the index sum of a board, where the n-th living cell adds
+     * (row + col) * row if n is even, and (row + col) * col if n is odd.
+     */
+    private float indexSum(BoardDynamic board) {
+        long sum = 0;
+        int n = 0;
+        for (int row = 1; row <= board.getRows(); row++) {
+            for (int col = 1; col <= board.getCols(); col++) {
+                if (board.getCellState(row - 1, col - 1) == 1) {
+                    sum += (long) (row + col) * (n % 2 == 0 ? row : col);
+                    n++;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Test that the active region mode gives the same boards, changed cells,
+     * living cell counts and expansion flags as evaluating the whole board,
+     * also when cells are edited between generations.
+     */
+    @Test
+    public void testNextGenerationActiveRegion() {
+        System.out.println("nextGenerationActiveRegion");
+        Rules rules = Rules.getInstance();
+        boolean wasDynamic = rules.isDynamic();
+        ArrayList<Integer> surviveRules = new ArrayList<>(rules.getSurviveRules());
+        ArrayList<Integer> birthRules = new ArrayList<>(rules.getBirthRules());
+        int[][][] ruleSets = {
+            {{2, 3}, {3}},
+            {{2, 3}, {3, 6}}
+        };
+        boolean[] dynamicSettings = {false, true};
+
+        for (boolean dynamic : dynamicSettings) {
+            for (int[][] ruleSet : ruleSets) {
+                rules.setDynamic(dynamic);
+                rules.setSurviveRules(ruleSet[0]);
+                rules.setBirthRules(ruleSet[1]);
+
+                Random random = new Random(11);
+                byte[][] start = new byte[50][70];
+                for (int row = 10; row < 30; row++) {
+                    for (int col = 20; col < 45; col++) {
+                        start[row][col] = (byte) (random.nextInt(3) == 0 ? 1 : 0);
+                    }
+                }
+                BoardDynamic expected = new BoardDynamic();
+                expected.setBoard(start);
+                BoardDynamic instance = new BoardDynamic();
+                instance.setActiveRegion(true);
+                instance.setBoard(start);
+
+                for (int i = 0; i < 120; i++) {
+                    if (i % 40 == 39) {
+                        int row = random.nextInt(expected.getRows());
+                        int col = random.nextInt(expected.getCols());
+                        expected.toggleCellState(row, col);
+                        instance.toggleCellState(row, col);
+                        expected.setCellStateAlive(row, col + 1 < expected.getCols() ? col + 1 : 0);
+                        instance.setCellStateAlive(row, col + 1 < instance.getCols() ? col + 1 : 0);
+                    }
+                    expected.nextGeneration();
+                    instance.nextGenerationConcurrent();
+                    assertEquals(expected.toString(), instance.toString());
+                    assertEquals(expected.getChangedCells(), instance.getChangedCells());
+                    assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+                    assertEquals(expected.expandedNorth(), instance.expandedNorth());
+                    assertEquals(expected.expandedWest(), instance.expandedWest());
+                    assertEquals(expected.didExpand(), instance.didExpand());
+                }
+            }
+        }
+
+        BoardDynamic active = (BoardDynamic) BoardType.ACTIVE_REGION.createBoard(5, 5);
+        assertTrue(active.isActiveRegion());
+        assertSame(active, BoardType.ACTIVE_REGION.convert(active));
+        assertFalse(((BoardDynamic) BoardType.DYNAMIC.convert(active)).isActiveRegion());
+
+        rules.setSurviveRules(surviveRules);
+        rules.setBirthRules(birthRules);
+        rules.setDynamic(wasDynamic);
+    }
+
+    /**
+     * Test of takeOver method, of class BoardDynamic. Taking over a copy which
+     * was advanced gives the same board as advancing the board itself, with
+     * and without the active region mode, also when cells are edited
+     * afterwards.
+     */
+    @Test
+    public void testTakeOver() {
+        System.out.println("takeOver");
+        Random random = new Random(23);
+        byte[][] start = new byte[40][40];
+        for (int row = 10; row < 30; row++) {
+            for (int col = 10; col < 30; col++) {
+                start[row][col] = (byte) (random.nextInt(3) == 0 ? 1 : 0);
+            }
+        }
+        boolean[] activeRegionSettings = {false, true};
+
+        for (boolean activeRegion : activeRegionSettings) {
+            BoardDynamic expected = new BoardDynamic();
+            expected.setBoard(start);
+            BoardDynamic instance = new BoardDynamic();
+            instance.setActiveRegion(activeRegion);
+            instance.setBoard(start);
+            assertTrue(instance instanceof SpeculativeBoard);
+
+            for (int i = 0; i < 60; i++) {
+                if (i % 20 == 19) {
+                    int row = random.nextInt(expected.getRows());
+                    int col = random.nextInt(expected.getCols());
+                    expected.toggleCellState(row, col);
+                    instance.toggleCellState(row, col);
+                }
+                expected.nextGeneration();
+                AbstractBoard copy = instance.deepCopy();
+                copy.nextGeneration();
+                instance.takeOver(copy);
+                assertEquals(expected.toString(), instance.toString());
+                assertEquals(expected.getChangedCells(), instance.getChangedCells());
+                assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+                assertEquals(expected.getGenerationCount(), instance.getGenerationCount());
+                assertEquals(expected.didExpand(), instance.didExpand());
+            }
+
+            // the preserved board is not changed by the rows taken over.
+            instance.resetBoard();
+            BoardDynamic original = new BoardDynamic();
+            original.setBoard(start);
+            assertEquals(original.toString(), instance.toString());
+        }
+    }
+
+    /**
+     * Test of advance method, of class BoardDynamic.
+     */
+    @Test
+    public void testAdvance() {
+        System.out.println("advance");
+        Rules rules = Rules.getInstance();
+        boolean wasDynamic = rules.isDynamic();
+        rules.setDynamic(true);
+        try {
+            byte[][] glider = {
+                {0, 1, 0},
+                {0, 0, 1},
+                {1, 1, 1}
+            };
+            BoardDynamic expected = new BoardDynamic();
+            expected.setBoard(glider);
+            BoardDynamic instance = new BoardDynamic();
+            instance.setBoard(glider);
+            for (int i = 0; i < 40; i++) {
+                expected.nextGeneration();
+            }
+            ArrayList<Long> progress = new ArrayList<>();
+            assertEquals(40, instance.advance(40, null, progress::add));
+            assertEquals(expected.toString(), instance.toString());
+            assertEquals(expected.getChangedCells(), instance.getChangedCells());
+            assertEquals(40, instance.getGenerationCount());
+            assertEquals(5, instance.getLivingCellCount());
+            assertEquals(40, progress.size());
+            assertEquals(Long.valueOf(40), progress.get(39));
+            assertArrayEquals(expected.getBoundingBox(), instance.getBoundingBox());
+
+            // cancelling stops the advance between generations.
+            assertEquals(3, instance.advance(10, () -> progress.size() >= 43, progress::add));
+            assertEquals(43, instance.getGenerationCount());
+        } finally {
+            rules.setDynamic(wasDynamic);
+        }
+    }
+
+    /**
+     * Test of getBoundingBox method, of class BoardDynamic. The tracked
+     * bounding box is compared to a search of the board after every
+     * generation and edit, and the generations, which only evaluate the
+     * bounding box, are compared to the dense engine.
+     */
+    @Test
+    public void testGetBoundingBox() {
+        System.out.println("getBoundingBox");
+        Rules rules = Rules.getInstance();
+        boolean wasDynamic = rules.isDynamic();
+        Random random = new Random(14);
+        byte[][] start = new byte[120][120];
+        for (int row = 40; row < 70; row++) {
+            for (int col = 50; col < 80; col++) {
+                start[row][col] = (byte) random.nextInt(2);
+            }
+        }
+        try {
+            for (boolean dynamic : new boolean[]{false, true}) {
+                rules.setDynamic(dynamic);
+                BoardDynamic instance = new BoardDynamic();
+                instance.setBoard(start);
+                BoardDense expected = new BoardDense(instance);
+                assertArrayEquals(searchBoundingBox(instance), instance.getBoundingBox());
+                for (int i = 0; i < 150; i++) {
+                    if (i % 2 == 0) {
+                        instance.nextGeneration();
+                    } else {
+                        instance.nextGenerationConcurrent();
+                    }
+                    expected.nextGeneration();
+                    assertEquals("generation " + i, expected.toString(), instance.toString());
+                    assertArrayEquals("generation " + i, searchBoundingBox(instance), instance.getBoundingBox());
+
+                    if (i % 25 == 0) {
+                        // kill the top left living cell, and add a cell.
+                        int[] box = instance.getBoundingBox();
+                        for (int col = box[1]; col <= box[3]; col++) {
+                            if (instance.getCellState(box[0], col) == 1) {
+                                instance.toggleCellState(box[0], col);
+                                expected.toggleCellState(box[0], col);
+                                break;
+                            }
+                        }
+                        instance.setCellStateAlive(box[2], box[3]);
+                        expected.setCellStateAlive(box[2], box[3]);
+                        assertArrayEquals(searchBoundingBox(instance), instance.getBoundingBox());
+                    }
+                }
+            }
+        } finally {
+            rules.setDynamic(wasDynamic);
+        }
+    }
+
+    /**
+     * Finds the bounding box of a board by searching every cell.
+     */
+    private static int[] searchBoundingBox(AbstractBoard board) {
+        int[] box = null;
+        for (int row = 0; row < board.getRows(); row++) {
+            for (int col = 0; col < board.getCols(); col++) {
+                if (board.getCellState(row, col) == 1) {
+                    if (box == null) {
+                        box = new int[]{row, col, row, col};
+                    }
+                    box[0] = Math.min(box[0], row);
+                    box[1] = Math.min(box[1], col);
+                    box[2] = Math.max(box[2], row);
+                    box[3] = Math.max(box[3], col);
+                }
+            }
+        }
+        return box;
+    }
+
     /**
      * Tests toggleCellState()
      */
@@ -0,0 +1,195 @@
+package model;
+
+import org.junit.After;
+import org.junit.Test;
+import static model.BoardTestUtils.*;
+import static org.junit.Assert.*;
+
+public class BoardGenerationsTest {
+
+    public BoardGenerationsTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+        rules.setGenerationsRule(GenerationsRule.CONWAY);
+    }
+
+    /**
+     * Computes the next generation by counting the living neighbours of every
+     * cell directly.
+     */
+    private byte[][] naiveNextGeneration(byte[][] board, GenerationsRule rule) {
+        return naiveNextGeneration(board, rule, false);
+    }
+
+    /**
+     * Computes the next generation by counting the living neighbours of every
+     * cell directly, on either a static or a toroidal board.
+     */
+    private byte[][] naiveNextGeneration(byte[][] board, GenerationsRule rule, boolean toroidal) {
+        int rows = board.length;
+        int cols = board[0].length;
+        byte[][] next = new byte[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int neighbours = 0;
+                for (int r = row - 1; r <= row + 1; r++) {
+                    for (int c = col - 1; c <= col + 1; c++) {
+                        if (toroidal && (r != row || c != col)
+                                && board[(r + rows) % rows][(c + cols) % cols] == 1) {
+                            neighbours++;
+                        } else if ((r != row || c != col) && r >= 0 && r < rows && c >= 0 && c < cols
+                                && board[r][c] == 1) {
+                            neighbours++;
+                        }
+                    }
+                }
+                int state = board[row][col];
+                if (state == 0) {
+                    next[row][col] = (byte) (((rule.getBirthMask() >>> neighbours) & 1) != 0 ? 1 : 0);
+                } else if (state == 1 && ((rule.getSurviveMask() >>> neighbours) & 1) != 0) {
+                    next[row][col] = 1;
+                } else {
+                    next[row][col] = (byte) (state + 1 < rule.getStates() ? state + 1 : 0);
+                }
+            }
+        }
+        return next;
+    }
+
+    private String toString(byte[][] board) {
+        StringBuilder sb = new StringBuilder();
+        for (byte[] row : board) {
+            for (byte cell : row) {
+                sb.append(cell);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Test that rules with two states give the same result as BoardDense, for
+     * both static and dynamic boards.
+     */
+    @Test
+    public void testTwoStatesMatchesDense() {
+        System.out.println("twoStatesMatchesDense");
+        Rules rules = Rules.getInstance();
+        rules.setBirthRules(3, 6);
+        rules.setGenerationsRule(GenerationsRule.parse("B36/S23"));
+        for (boolean dynamic : new boolean[]{false, true}) {
+            rules.setDynamic(dynamic);
+            byte[][] start = createRandomBoard(40, 51, 2, 3);
+            BoardGenerations instance = new BoardGenerations();
+            instance.setBoard(start);
+            BoardDense expected = new BoardDense();
+            expected.setBoard(start);
+            assertSameGenerations("dynamic " + dynamic, expected, instance, 30, false);
+        }
+    }
+
+    /**
+     * Test that toroidal rules wrap the board around its edges, on a board
+     * with an odd number of columns.
+     */
+    @Test
+    public void testToroidal() {
+        System.out.println("toroidal");
+        Rules rules = Rules.getInstance();
+        rules.setToroidal(true);
+        GenerationsRule rule = GenerationsRule.BRIANS_BRAIN;
+        rules.setGenerationsRule(rule);
+        byte[][] expected = createRandomBoard(60, 45, rule.getStates(), 9);
+        BoardGenerations instance = new BoardGenerations();
+        instance.setBoard(expected);
+        for (int i = 0; i < 20; i++) {
+            if (i % 2 == 0) {
+                instance.nextGeneration();
+            } else {
+                instance.nextGenerationConcurrent();
+            }
+            expected = naiveNextGeneration(expected, rule, true);
+            assertEquals("generation " + i, toString(expected), instance.toString());
+        }
+        assertEquals(60, instance.getRows());
+        assertEquals(45, instance.getCols());
+    }
+
+    /**
+     * Test that the dying states of Brian's Brain and Star Wars are computed
+     * correctly, on a board with an odd number of columns.
+     */
+    @Test
+    public void testDyingStates() {
+        System.out.println("dyingStates");
+        Rules rules = Rules.getInstance();
+        rules.setDynamic(false);
+        for (GenerationsRule rule : new GenerationsRule[]{GenerationsRule.BRIANS_BRAIN,
+            GenerationsRule.parse("345/2/4"), GenerationsRule.parse("B2/S/C16")}) {
+            rules.setGenerationsRule(rule);
+            byte[][] expected = createRandomBoard(70, 91, rule.getStates(), 5);
+            BoardGenerations instance = new BoardGenerations();
+            instance.setBoard(expected);
+            for (int i = 0; i < 20; i++) {
+                expected = naiveNextGeneration(expected, rule);
+                if (i % 2 == 0) {
+                    instance.nextGeneration();
+                } else {
+                    instance.nextGenerationConcurrent();
+                }
+                assertEquals(rule + " generation " + i, toString(expected), instance.toString());
+            }
+        }
+    }
+
+    /**
+     * Test that states are kept when copying and converting boards, and that
+     * toggling a dying cell makes it alive.
+     */
+    @Test
+    public void testStates() {
+        System.out.println("states");
+        BoardGenerations instance = new BoardGenerations();
+        instance.setBoard(new byte[][]{{0, 1, 2}, {3, 15, 0}});
+        assertEquals("012315" + "0", instance.toString());
+        assertEquals(1, instance.getLivingCellCount());
+        assertTrue(instance.hasDyingCells());
+        assertEquals(instance.toString(), instance.deepCopy().toString());
+        assertEquals(instance.toString(), new BoardGenerations(instance).toString());
+
+        instance.toggleCellState(0, 2);
+        assertEquals(1, instance.getCellState(0, 2));
+        assertEquals(2, instance.getLivingCellCount());
+        instance.resetBoard();
+        assertEquals(2, instance.getCellState(0, 2));
+    }
+
+    /**
+     * Test parsing and writing Generations rules.
+     */
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+        assertEquals(GenerationsRule.BRIANS_BRAIN, GenerationsRule.parse("/2/3"));
+        assertEquals(GenerationsRule.BRIANS_BRAIN, GenerationsRule.parse("b2/s/c3"));
+        assertEquals("B2/S345/C4", GenerationsRule.parse("345/2/4").toString());
+        assertEquals(GenerationsRule.CONWAY, GenerationsRule.parse("B3/S23"));
+        assertEquals(GenerationsRule.CONWAY, GenerationsRule.parse("23/3"));
+        assertEquals(2, GenerationsRule.BRIANS_BRAIN.nextState(1, 2));
+        assertEquals(0, GenerationsRule.BRIANS_BRAIN.nextState(2, 2));
+
+        String[] invalid = {"", "B2", "B2/S/C17", "B2/S/C1", "B9/S/C3", "B2/S/X3", "B2/B3/C3"};
+        for (String text : invalid) {
+            try {
+                GenerationsRule.parse(text);
+                fail(text + " was parsed");
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package model;
+
+import org.junit.After;
+import org.junit.Test;
+import static model.BoardTestUtils.*;
+import static org.junit.Assert.*;
+
+public class BoardIsotropicTest {
+
+    public BoardIsotropicTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+        rules.setIsotropicRule(IsotropicRule.CONWAY);
+    }
+
+    /**
+     * Test that outer-totalistic rules give the same result as BoardDense, for
+     * both static and dynamic boards.
+     */
+    @Test
+    public void testNextGenerationMatchesDense() {
+        System.out.println("nextGenerationMatchesDense");
+        Rules rules = Rules.getInstance();
+        int[][][] ruleSets = {{{3}, {2, 3}}, {{3, 6}, {2, 3}}, {{3, 6, 7, 8}, {3, 4, 6, 7, 8}}};
+        for (boolean dynamic : new boolean[]{false, true}) {
+            rules.setDynamic(dynamic);
+            for (int[][] ruleSet : ruleSets) {
+                rules.setBirthRules(ruleSet[0]);
+                rules.setSurviveRules(ruleSet[1]);
+                rules.setIsotropicRule(IsotropicRule.fromRuleSet(rules.getRuleSet()));
+                byte[][] start = createRandomBoard(40, 50, 7);
+                BoardIsotropic instance = new BoardIsotropic();
+                instance.setBoard(start);
+                BoardDense expected = new BoardDense();
+                expected.setBoard(start);
+                assertSameGenerations(String.valueOf(rules.getRuleSet()), expected, instance, 30, false);
+            }
+        }
+    }
+
+    /**
+     * Test that every neighbourhood belongs to exactly one letter, by counting
+     * the neighbourhoods giving a birth for each count and letter.
+     */
+    @Test
+    public void testNeighbourhoodLetters() {
+        System.out.println("neighbourhoodLetters");
+        String[] letters = {"", "ce", "ceaikn", "ceaiknjqry", "ceaiknjqrytwz",
+            "ceaiknjqry", "ceaikn", "ce", ""};
+        int[] binomial = {1, 8, 28, 56, 70, 56, 28, 8, 1};
+        for (int count = 1; count <= 7; count++) {
+            int total = 0;
+            for (char letter : letters[count].toCharArray()) {
+                IsotropicRule rule = IsotropicRule.parse("B" + count + letter + "/S");
+                int born = 0;
+                for (int neighbourhood = 0; neighbourhood < 512; neighbourhood++) {
+                    born += rule.nextState(neighbourhood);
+                }
+                assertTrue(count + "" + letter, born > 0);
+                total += born;
+            }
+            assertEquals(binomial[count], total);
+        }
+
+        // 2a is a corner and the edge next to it, 2i two opposite edges.
+        IsotropicRule rule = IsotropicRule.parse("B2a/S2i");
+        assertEquals(1, rule.nextState(0b000000011));
+        assertEquals(1, rule.nextState(0b110000000));
+        assertEquals(0, rule.nextState(0b000000101));
+        assertEquals(1, rule.nextState(0b010010010));
+        assertEquals(0, rule.nextState(0b000011010));
+    }
+
+    /**
+     * Test parsing and writing rules using Hensel notation.
+     */
+    @Test
+    public void testParse() {
+        System.out.println("parse");
+        assertEquals("B2-a/S12", IsotropicRule.parse("b2-a/s12").toString());
+        assertEquals("B2-a/S12", IsotropicRule.parse("S12/B2ceikn").toString());
+        assertEquals(IsotropicRule.CONWAY, IsotropicRule.parse("B3/S23"));
+        assertTrue(IsotropicRule.CONWAY.isTotalistic());
+        assertFalse(IsotropicRule.parse("B2-a/S12").isTotalistic());
+        assertEquals("B3/S23", IsotropicRule.parse("B3ceaiknjqry/S23").toString());
+    }
+
+    /**
+     * Test that invalid rules are rejected.
+     */
+    @Test
+    public void testParseInvalid() {
+        System.out.println("parseInvalid");
+        String[] invalid = {"", "B3", "B3/S23/B2", "B9/S2", "B1a/S2", "B3-/S23", "B3x/S23", "X3/S23"};
+        for (String text : invalid) {
+            try {
+                IsotropicRule.parse(text);
+                fail(text + " was parsed");
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+}
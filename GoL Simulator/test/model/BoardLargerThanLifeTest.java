@@ -0,0 +1,117 @@
+package model;
+
+import org.junit.After;
+import org.junit.Test;
+import static model.BoardTestUtils.*;
+import static org.junit.Assert.*;
+
+public class BoardLargerThanLifeTest {
+
+    public BoardLargerThanLifeTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+        rules.setLargerThanLifeRule(LargerThanLifeRule.BOSCO);
+    }
+
+    /**
+     * Computes the next generation by counting every neighbourhood directly.
+     */
+    private byte[][] naiveNextGeneration(byte[][] board, LargerThanLifeRule rule) {
+        int rows = board.length;
+        int cols = board[0].length;
+        int range = rule.getRange();
+        byte[][] next = new byte[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int count = 0;
+                for (int r = Math.max(row - range, 0); r <= Math.min(row + range, rows - 1); r++) {
+                    for (int c = Math.max(col - range, 0); c <= Math.min(col + range, cols - 1); c++) {
+                        count += board[r][c];
+                    }
+                }
+                if (!rule.isMiddleIncluded()) {
+                    count -= board[row][col];
+                }
+                boolean alive = board[row][col] == 1 ? rule.survives(count) : rule.isBorn(count);
+                next[row][col] = (byte) (alive ? 1 : 0);
+            }
+        }
+        return next;
+    }
+
+    private String toString(byte[][] board) {
+        StringBuilder sb = new StringBuilder();
+        for (byte[] row : board) {
+            for (byte cell : row) {
+                sb.append(cell);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Test that a range 1 rule without the middle cell gives the same result
+     * as BoardDense playing by Conway's rules.
+     */
+    @Test
+    public void testRangeOneMatchesConway() {
+        System.out.println("rangeOneMatchesConway");
+        Rules rules = Rules.getInstance();
+        rules.setLargerThanLifeRule(LargerThanLifeRule.parse("R1,M0,S2..3,B3..3"));
+        for (boolean dynamic : new boolean[]{false, true}) {
+            rules.setDynamic(dynamic);
+            byte[][] start = createRandomBoard(40, 50, 3);
+            BoardLargerThanLife instance = new BoardLargerThanLife();
+            instance.setBoard(start);
+            BoardDense expected = new BoardDense();
+            expected.setBoard(start);
+            for (int i = 0; i < 30; i++) {
+                instance.nextGenerationConcurrent();
+                expected.nextGeneration();
+            }
+            // the boards grow in different ways, so compare the cells
+            // within the bounding box of the living cells.
+            assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+            int[] expectedBox = expected.getBoundingBox();
+            int[] box = instance.getBoundingBox();
+            assertEquals(expectedBox[2] - expectedBox[0], box[2] - box[0]);
+            assertEquals(expectedBox[3] - expectedBox[1], box[3] - box[1]);
+            for (int row = 0; row <= box[2] - box[0]; row++) {
+                for (int col = 0; col <= box[3] - box[1]; col++) {
+                    assertEquals(expected.getCellState(expectedBox[0] + row, expectedBox[1] + col),
+                            instance.getCellState(box[0] + row, box[1] + col));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that the summed-area table gives the same counts as counting each
+     * neighbourhood directly, on a static board.
+     */
+    @Test
+    public void testNextGenerationMatchesNaiveCount() {
+        System.out.println("nextGenerationMatchesNaiveCount");
+        Rules.getInstance().setDynamic(false);
+        LargerThanLifeRule rule = LargerThanLifeRule.parse("R3,C0,M1,S14..30,B15..24,NM");
+        Rules.getInstance().setLargerThanLifeRule(rule);
+        byte[][] expected = createRandomBoard(70, 90, 5);
+        BoardLargerThanLife instance = new BoardLargerThanLife();
+        instance.setBoard(expected);
+        for (int i = 0; i < 10; i++) {
+            expected = naiveNextGeneration(expected, rule);
+            if (i % 2 == 0) {
+                instance.nextGeneration();
+            } else {
+                instance.nextGenerationConcurrent();
+            }
+            assertEquals("generation " + i, toString(expected), instance.toString());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package model;
+
+import org.junit.After;
+import org.junit.Test;
+import static model.BoardTestUtils.*;
+import static org.junit.Assert.*;
+
+public class BoardOffHeapTest {
+
+    public BoardOffHeapTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+    }
+
+    /**
+     * Test that the off-heap engine gives the same generations and changed
+     * cells as the bit-packed engine, using both static and dynamic rules.
+     */
+    @Test
+    public void testNextGeneration() {
+        System.out.println("nextGeneration");
+        // the columns are chosen to cross a word boundary.
+        byte[][] start = createRandomBoard(70, 150, 15);
+        for (boolean dynamic : new boolean[]{false, true}) {
+            Rules.getInstance().setDynamic(dynamic);
+            BoardPacked expected = new BoardPacked();
+            expected.setBoard(start);
+            BoardOffHeap instance = new BoardOffHeap();
+            instance.setBoard(start);
+            assertSameGenerations("dynamic " + dynamic, expected, instance, 60, true);
+            instance.dispose();
+        }
+    }
+
+    /**
+     * Test readRow(), including reads crossing word boundaries.
+     */
+    @Test
+    public void testReadRow() {
+        System.out.println("readRow");
+        byte[][] start = createRandomBoard(3, 200, 16);
+        BoardOffHeap instance = new BoardOffHeap();
+        instance.setBoard(start);
+        byte[] cells = new byte[150];
+        for (int col = 0; col < 50; col += 7) {
+            instance.readRow(1, col, 150, cells);
+            for (int i = 0; i < 150; i++) {
+                assertEquals(start[1][col + i], cells[i]);
+            }
+        }
+        instance.dispose();
+    }
+
+    /**
+     * Test that edits are not reported as changed cells, and resetBoard(),
+     * clearBoard() and deepCopy().
+     */
+    @Test
+    public void testEditAndReset() {
+        System.out.println("editAndReset");
+        Rules.getInstance().setDynamic(false);
+        byte[][] blinker = {
+            {0, 0, 0},
+            {1, 1, 1},
+            {0, 0, 0}
+        };
+        BoardOffHeap instance = new BoardOffHeap();
+        instance.setBoard(blinker);
+        instance.nextGeneration();
+        assertEquals("010010010", instance.toString());
+        assertTrue(instance.hasCellChanged(0, 1));
+        assertFalse(instance.hasCellChanged(1, 1));
+
+        instance.toggleCellState(2, 2);
+        assertEquals(4, instance.getLivingCellCount());
+        assertFalse(instance.hasCellChanged(2, 2));
+
+        BoardOffHeap copy = instance.deepCopy();
+        assertEquals(instance.toString(), copy.toString());
+        assertEquals(1, copy.getGenerationCount());
+
+        instance.resetBoard();
+        assertEquals("000111000", instance.toString());
+        assertEquals(0, instance.getGenerationCount());
+
+        instance.clearBoard();
+        assertEquals("000000000", instance.toString());
+        assertEquals(0, instance.getLivingCellCount());
+        instance.resetBoard();
+        assertEquals("000000000", instance.toString());
+
+        // the copy is unaffected by the original.
+        assertEquals("010010011", copy.toString());
+        instance.dispose();
+        copy.dispose();
+    }
+}
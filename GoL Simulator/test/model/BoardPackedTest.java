@@ -0,0 +1,155 @@
+package model;
+
+import org.junit.After;
+import org.junit.Test;
+import static model.BoardTestUtils.*;
+import static org.junit.Assert.*;
+
+public class BoardPackedTest {
+
+    public BoardPackedTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+    }
+
+    /**
+     * Test setBoard() and toString().
+     */
+    @Test
+    public void testSetBoard() {
+        System.out.println("setBoard");
+        byte[][] newBoard = {
+            {1, 1, 1},
+            {0, 0, 0},
+            {1, 1, 1}
+        };
+        BoardPacked instance = new BoardPacked();
+        instance.setBoard(newBoard);
+        assertEquals("111000111", instance.toString());
+        assertEquals(6, instance.getLivingCellCount());
+        assertEquals(9, instance.getCellCount());
+    }
+
+    /**
+     * Test nextGeneration() using static rules.
+     */
+    @Test
+    public void testNextGenerationStatic() {
+        System.out.println("nextGeneration");
+        Rules.getInstance().setDynamic(false);
+        BoardPacked instance = new BoardPacked();
+        byte[][] board = {
+            {0, 1, 0},
+            {0, 1, 0},
+            {0, 1, 0}
+        };
+        instance.setBoard(board);
+        instance.nextGeneration();
+        assertEquals("000111000", instance.toString());
+        assertEquals("010101010", changedCellsToString(instance));
+        assertEquals(1, instance.getGenerationCount());
+    }
+
+    /**
+     * Test nextGeneration() using dynamic rules.
+     */
+    @Test
+    public void testNextGenerationDynamic() {
+        System.out.println("nextGenerationDynamic");
+        Rules.getInstance().setDynamic(true);
+        BoardPacked instance = new BoardPacked();
+        byte[][] board = {
+            {1},
+            {1},
+            {1}
+        };
+        instance.setBoard(board);
+        instance.nextGeneration();
+        assertEquals("000000111000000", instance.toString());
+        assertTrue(instance.didExpand());
+        assertTrue(instance.expandedNorth());
+        assertTrue(instance.expandedWest());
+    }
+
+    /**
+     * Test that the bit-packed engine gives the same result as BoardDynamic
+     * for a number of generations, rules and board sizes.
+     */
+    @Test
+    public void testNextGenerationMatchesBoardDynamic() {
+        System.out.println("nextGenerationMatchesBoardDynamic");
+        // the columns are chosen to cross a word boundary.
+        assertMatchesBoardDynamic(BoardPacked::new, 37, 130, true);
+    }
+
+    /**
+     * Test toggleCellState() and setCellStateAlive().
+     */
+    @Test
+    public void testToggleCellState() {
+        System.out.println("toggleCellState");
+        BoardPacked instance = new BoardPacked(3, 70);
+        instance.toggleCellState(1, 65);
+        assertEquals(1, instance.getCellState(1, 65));
+        assertEquals(1, instance.getLivingCellCount());
+        instance.setCellStateAlive(1, 65);
+        assertEquals(1, instance.getLivingCellCount());
+        instance.toggleCellState(1, 65);
+        assertEquals(0, instance.getCellState(1, 65));
+        assertEquals(0, instance.getLivingCellCount());
+    }
+
+    /**
+     * Test resetBoard() and deepCopy().
+     */
+    @Test
+    public void testResetBoardAndDeepCopy() {
+        System.out.println("resetBoard");
+        Rules.getInstance().setDynamic(true);
+        BoardPacked instance = new BoardPacked();
+        byte[][] testBoard = {{0, 1, 0}, {0, 1, 0}, {0, 1, 0}};
+        instance.setBoard(testBoard);
+        instance.nextGeneration();
+        BoardPacked copy = instance.deepCopy();
+        assertEquals(instance.toString(), copy.toString());
+
+        instance.resetBoard();
+        assertEquals("010010010", instance.toString());
+        assertEquals(0, instance.getGenerationCount());
+        assertEquals(1, copy.getGenerationCount());
+        assertEquals(5, copy.getRows());
+    }
+
+    /**
+     * Test conversion between BoardDynamic and BoardPacked.
+     */
+    @Test
+    public void testConvert() {
+        System.out.println("convert");
+        BoardDynamic original = new BoardDynamic();
+        original.setBoard(createRandomBoard(10, 70, 7));
+        original.setMetadata("author", "name", "comment");
+        AbstractBoard packed = BoardType.PACKED.convert(original);
+        assertTrue(packed instanceof BoardPacked);
+        assertEquals(original.toString(), packed.toString());
+        assertEquals(original.getLivingCellCount(), packed.getLivingCellCount());
+        assertEquals("author", packed.getAuthor());
+        assertEquals(original.toString(), BoardType.DYNAMIC.convert(packed).toString());
+    }
+
+    private String changedCellsToString(AbstractBoard board) {
+        StringBuilder changed = new StringBuilder();
+        for (int row = 0; row < board.getRows(); row++) {
+            for (int col = 0; col < board.getCols(); col++) {
+                changed.append(board.hasCellChanged(row, col) ? 1 : 0);
+            }
+        }
+        return changed.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package model;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BoardSnapshotTest {
+
+    public BoardSnapshotTest() {
+    }
+
+    private BoardDense createBoard() {
+        BoardDense board = new BoardDense(6, 8);
+        board.setBoard(new byte[][]{
+            {1, 0, 0, 0, 0, 0, 0, 1},
+            {0, 0, 0, 0, 0, 0, 0, 0},
+            {0, 0, 1, 1, 1, 0, 0, 0},
+            {0, 0, 0, 0, 0, 0, 0, 0},
+            {0, 0, 0, 0, 0, 0, 0, 0},
+            {1, 0, 0, 0, 0, 0, 0, 1}
+        });
+        return board;
+    }
+
+    /**
+     * Test of of method, of class BoardSnapshot. Only the cells and changes
+     * within the area are kept, while the dimensions and counts are those of
+     * the whole board.
+     */
+    @Test
+    public void testOf() {
+        System.out.println("of");
+        Rules.getInstance().setDynamic(false);
+        BoardDense board = createBoard();
+        board.nextGeneration();
+        BoardSnapshot instance = BoardSnapshot.of(board, 1, 1, 3, 4);
+
+        assertEquals(6, instance.getRows());
+        assertEquals(8, instance.getCols());
+        assertEquals(board.getLivingCellCount(), instance.getLivingCellCount());
+        assertEquals(1, instance.getGenerationCount());
+        for (int row = 0; row < 6; row++) {
+            for (int col = 0; col < 8; col++) {
+                boolean within = row >= 1 && row <= 3 && col >= 1 && col <= 4;
+                assertEquals(within, instance.isWithinArea(row, col));
+                assertEquals(within ? board.getCellState(row, col) : 0, instance.getCellState(row, col));
+                assertEquals(within && board.hasCellChanged(row, col), instance.hasCellChanged(row, col));
+            }
+        }
+        ChangeLog log = instance.getChangeLog();
+        for (int i = 0; i < log.size(); i++) {
+            assertTrue(instance.isWithinArea(log.getRow(i), log.getCol(i)));
+        }
+
+        // the snapshot does not change with the board, and can not be changed.
+        String cells = instance.toString();
+        board.nextGeneration();
+        assertEquals(cells, instance.toString());
+        assertEquals(BoardSnapshot.of(board).toString(), board.toString());
+        try {
+            instance.toggleCellState(2, 2);
+            fail("A snapshot should not be changed!");
+        } catch (UnsupportedOperationException e) {
+        }
+        Rules.getInstance().setDynamic(true);
+    }
+}
@@ -0,0 +1,127 @@
+package model;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import static org.junit.Assert.*;
+
+/**
+ * Helpers shared by the tests of the board engines.
+ */
+final class BoardTestUtils {
+
+    /**
+     * The rules each engine is compared with BoardDynamic under, given as
+     * the survive rules followed by the birth rules.
+     */
+    private static final int[][][] RULE_SETS = {
+        {{2, 3}, {3}},
+        {{1, 3, 5, 8}, {3, 5, 7}},
+        {{0, 8}, {1, 2, 4, 6}}
+    };
+
+    private BoardTestUtils() {
+    }
+
+    /**
+     * Creates a random board where about a third of the cells are alive.
+     */
+    static byte[][] createRandomBoard(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        byte[][] board = new byte[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                board[row][col] = (byte) (random.nextInt(3) == 0 ? 1 : 0);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Creates a random board for a Generations rule, where about half of the
+     * cells are given a random state below <code>states</code>.
+     */
+    static byte[][] createRandomBoard(int rows, int cols, int states, long seed) {
+        Random random = new Random(seed);
+        byte[][] board = new byte[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                board[row][col] = (byte) (random.nextInt(2) == 0 ? random.nextInt(states) : 0);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Asserts that the engine gives the same generations as BoardDynamic for a
+     * random board, using both static and dynamic rules and a number of rule
+     * sets.
+     *
+     * @param factory a <code>Supplier</code> creating an empty board of the
+     * engine under test.
+     * @param rows an <code>int</code> specifying the number of rows of the
+     * random board.
+     * @param cols an <code>int</code> specifying the number of columns of the
+     * random board.
+     * @param changedCellsWhenDynamic a <code>boolean</code> specifying whether
+     * the changed cells, and the sides the board expanded on, are also
+     * compared when the board is dynamic.
+     */
+    static void assertMatchesBoardDynamic(Supplier<? extends AbstractBoard> factory,
+            int rows, int cols, boolean changedCellsWhenDynamic) {
+        Rules rules = Rules.getInstance();
+        for (boolean dynamic : new boolean[]{false, true}) {
+            for (int[][] ruleSet : RULE_SETS) {
+                rules.setDynamic(dynamic);
+                rules.setSurviveRules(ruleSet[0]);
+                rules.setBirthRules(ruleSet[1]);
+
+                byte[][] start = createRandomBoard(rows, cols, 42);
+                BoardDynamic expected = new BoardDynamic();
+                expected.setBoard(start);
+                AbstractBoard instance = factory.get();
+                instance.setBoard(start);
+                assertSameGenerations(String.valueOf(rules.getRuleSet()), expected, instance, 15,
+                        !dynamic || changedCellsWhenDynamic);
+                instance.dispose();
+            }
+        }
+    }
+
+    /**
+     * Asserts that two boards holding the same cells give the same
+     * generations. The expected board only uses nextGeneration(), while the
+     * board under test alternates between nextGeneration() and
+     * nextGenerationConcurrent().
+     *
+     * @param message a <code>String</code> identifying the comparison in the
+     * failure messages.
+     * @param expected the <code>AbstractBoard</code> giving the expected
+     * generations.
+     * @param instance the <code>AbstractBoard</code> under test.
+     * @param generations an <code>int</code> specifying the number of
+     * generations to compare.
+     * @param changedCells a <code>boolean</code> specifying whether the changed
+     * cells, and the sides the board expanded on, are compared as well.
+     */
+    static void assertSameGenerations(String message, AbstractBoard expected,
+            AbstractBoard instance, int generations, boolean changedCells) {
+        for (int i = 0; i < generations; i++) {
+            String generation = message + " generation " + i;
+            expected.nextGeneration();
+            if (i % 2 == 0) {
+                instance.nextGeneration();
+            } else {
+                instance.nextGenerationConcurrent();
+            }
+            assertEquals(generation, expected.toString(), instance.toString());
+            assertEquals(generation, expected.getLivingCellCount(), instance.getLivingCellCount());
+            assertEquals(generation, expected.getRows(), instance.getRows());
+            assertEquals(generation, expected.getCols(), instance.getCols());
+            if (changedCells) {
+                assertEquals(generation, expected.expandedNorth(), instance.expandedNorth());
+                assertEquals(generation, expected.expandedWest(), instance.expandedWest());
+                assertEquals(generation, expected.getChangedCells(), instance.getChangedCells());
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import java.util.HashSet;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ChangeLogTest {
+
+    public ChangeLogTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+    }
+
+    /**
+     * Test add(), and that the log considers every cell changed once the
+     * limit is reached.
+     */
+    @Test
+    public void testAdd() {
+        System.out.println("add");
+        ChangeLog instance = new ChangeLog();
+        instance.clear(300);
+        for (int i = 0; i < 300; i++) {
+            instance.add(i, -i);
+        }
+        assertEquals(300, instance.size());
+        assertEquals(299, instance.getRow(299));
+        assertEquals(-299, instance.getCol(299));
+        assertFalse(instance.isAllChanged());
+
+        instance.add(300, 300);
+        assertTrue(instance.isAllChanged());
+        assertEquals(0, instance.size());
+
+        instance.clear(300);
+        assertFalse(instance.isAllChanged());
+        assertEquals(0, instance.size());
+    }
+
+    /**
+     * Test that the change log of every board engine holds exactly the cells
+     * reported by hasCellChanged(), using both static and dynamic rules.
+     */
+    @Test
+    public void testGetChangeLog() {
+        System.out.println("getChangeLog");
+        Rules rules = Rules.getInstance();
+        Random random = new Random(11);
+        byte[][] start = new byte[60][80];
+        for (int row = 20; row < 40; row++) {
+            for (int col = 30; col < 50; col++) {
+                start[row][col] = (byte) (random.nextInt(3) == 0 ? 1 : 0);
+            }
+        }
+
+        for (boolean dynamic : new boolean[]{false, true}) {
+            rules.setDynamic(dynamic);
+            for (BoardType type : BoardType.values()) {
+                AbstractBoard board = type.createBoard(1, 1);
+                board.setBoard(start);
+                for (int i = 0; i < 40; i++) {
+                    if (i % 2 == 0) {
+                        board.nextGeneration();
+                    } else {
+                        board.nextGenerationConcurrent();
+                    }
+                    assertChangeLog(type + " generation " + i, board);
+                }
+            }
+        }
+    }
+
+    private void assertChangeLog(String message, AbstractBoard board) {
+        ChangeLog changes = board.getChangeLog();
+        HashSet<Long> logged = new HashSet<>();
+        for (int i = 0; i < changes.size(); i++) {
+            assertTrue(message, logged.add(((long) changes.getRow(i) << 32) | (changes.getCol(i) & 0xFFFFFFFFL)));
+        }
+        for (int row = board.getMinRow(); row < board.getMinRow() + board.getRows(); row++) {
+            for (int col = board.getMinCol(); col < board.getMinCol() + board.getCols(); col++) {
+                boolean inLog = changes.isAllChanged()
+                        || logged.contains(((long) row << 32) | (col & 0xFFFFFFFFL));
+                assertEquals(message, board.hasCellChanged(row, col), inLog);
+            }
+        }
+    }
+}
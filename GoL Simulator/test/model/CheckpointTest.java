@@ -0,0 +1,170 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CheckpointTest {
+
+    private File file;
+
+    public CheckpointTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("checkpoint", ".gol");
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    /**
+     * Test that a restored board continues exactly like the saved board, and
+     * that saving it again only writes the changed pages.
+     */
+    @Test
+    public void testSaveAndRestore() throws IOException {
+        System.out.println("saveAndRestore");
+        Rules rules = Rules.getInstance();
+        rules.setDynamic(false);
+        rules.setBirthRules(3, 6);
+        // a board of 20 pages, with a single glider in the top left corner.
+        BoardOffHeap board = new BoardOffHeap(640, 1024);
+        board.setCellStateAlive(0, 1);
+        board.setCellStateAlive(1, 2);
+        board.setCellStateAlive(2, 0);
+        board.setCellStateAlive(2, 1);
+        board.setCellStateAlive(2, 2);
+        board.setMetadata("Richard K. Guy", "Glider", "");
+        board.advance(4);
+
+        Checkpoint checkpoint = new Checkpoint(file);
+        assertEquals(20, checkpoint.save(board));
+        board.advance(4);
+        assertEquals(1, checkpoint.save(board));
+        assertEquals(0, checkpoint.save(board));
+
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+        BoardOffHeap restored = new Checkpoint(file).restore();
+        assertEquals(8, restored.getGenerationCount());
+        assertEquals(5, restored.getLivingCellCount());
+        assertEquals("Glider", restored.getName());
+        assertEquals("Richard K. Guy", restored.getAuthor());
+        assertEquals(board.toString(), restored.toString());
+        assertFalse(rules.isDynamic());
+        assertEquals(2, rules.getBirthRules().size());
+
+        board.advance(10);
+        restored.advance(10);
+        assertEquals(board.toString(), restored.toString());
+        board.dispose();
+        restored.dispose();
+    }
+
+    /**
+     * Test saving boards using other board engines, and replacing the board
+     * held by a checkpoint.
+     */
+    @Test
+    public void testSaveOtherBoards() throws IOException {
+        System.out.println("saveOtherBoards");
+        Rules.getInstance().setDynamic(false);
+        Checkpoint checkpoint = new Checkpoint(file);
+        for (BoardType type : BoardType.values()) {
+            AbstractBoard board = type.createBoard(1, 1);
+            board.setBoard(new byte[][]{
+                {0, 0, 0, 0},
+                {0, 1, 1, 1},
+                {1, 1, 1, 0},
+                {0, 0, 0, 0}
+            });
+            board.nextGeneration();
+            checkpoint.save(board);
+
+            BoardOffHeap restored = checkpoint.restore();
+            assertEquals(type.toString(), board.toString(), restored.toString());
+            assertEquals(1, restored.getGenerationCount());
+            restored.dispose();
+            board.dispose();
+        }
+    }
+
+    /**
+     * Test that the board engine, and the rule of the engines playing by
+     * another family of rules, are restored along with the board.
+     */
+    @Test
+    public void testRestoreBoardType() throws IOException {
+        System.out.println("restoreBoardType");
+        Rules rules = Rules.getInstance();
+        BoardOffHeap board = new BoardOffHeap(10, 10);
+        board.setCellStateAlive(4, 4);
+        Checkpoint checkpoint = new Checkpoint(file);
+        try {
+            rules.setBoardType(BoardType.GENERATIONS);
+            rules.setGenerationsRule(GenerationsRule.BRIANS_BRAIN);
+            checkpoint.save(board);
+            rules.setBoardType(BoardType.DYNAMIC);
+            rules.setGenerationsRule(GenerationsRule.CONWAY);
+            checkpoint.restore().dispose();
+            assertEquals(BoardType.GENERATIONS, rules.getBoardType());
+            assertEquals(GenerationsRule.BRIANS_BRAIN, rules.getGenerationsRule());
+
+            rules.setBoardType(BoardType.ISOTROPIC);
+            rules.setIsotropicRule(IsotropicRule.parse("B2-a/S12"));
+            checkpoint.save(board);
+            rules.setIsotropicRule(IsotropicRule.CONWAY);
+            checkpoint.restore().dispose();
+            assertEquals(BoardType.ISOTROPIC, rules.getBoardType());
+            assertEquals(IsotropicRule.parse("B2-a/S12").toString(), rules.getIsotropicRule().toString());
+
+            rules.setBoardType(BoardType.LARGER_THAN_LIFE);
+            rules.setLargerThanLifeRule(LargerThanLifeRule.BOSCO);
+            checkpoint.save(board);
+            rules.setBoardType(BoardType.PACKED);
+            checkpoint.restore().dispose();
+            assertEquals(BoardType.LARGER_THAN_LIFE, rules.getBoardType());
+            assertEquals(LargerThanLifeRule.BOSCO.toString(), rules.getLargerThanLifeRule().toString());
+        } finally {
+            rules.setBoardType(BoardType.DYNAMIC);
+            rules.setGenerationsRule(GenerationsRule.CONWAY);
+            rules.setIsotropicRule(IsotropicRule.CONWAY);
+            board.dispose();
+        }
+    }
+
+    /**
+     * Test that incomplete or damaged checkpoints are not restored.
+     */
+    @Test
+    public void testRestoreIncomplete() throws IOException {
+        System.out.println("restoreIncomplete");
+        BoardOffHeap board = new BoardOffHeap(10, 10);
+        new Checkpoint(file).save(board);
+        board.dispose();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // marks the checkpoint as being written.
+            raf.seek(8);
+            raf.writeInt(0);
+        }
+        try {
+            new Checkpoint(file).restore();
+            fail("An incomplete checkpoint was restored");
+        } catch (IOException e) {
+        }
+    }
+}
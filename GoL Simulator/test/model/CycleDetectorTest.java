@@ -0,0 +1,172 @@
+package model;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CycleDetectorTest {
+
+    public CycleDetectorTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+    }
+
+    /**
+     * Test that the incrementally updated hash matches a hash computed from
+     * scratch, for every board engine using both static and dynamic rules.
+     */
+    @Test
+    public void testUpdate() {
+        System.out.println("update");
+        Rules rules = Rules.getInstance();
+        byte[][] start = new byte[30][30];
+        // r-pentomino, which grows for a long time before settling.
+        start[14][15] = 1;
+        start[14][16] = 1;
+        start[15][14] = 1;
+        start[15][15] = 1;
+        start[16][15] = 1;
+
+        for (boolean dynamic : new boolean[]{false, true}) {
+            rules.setDynamic(dynamic);
+            for (BoardType type : BoardType.values()) {
+                AbstractBoard board = type.createBoard(1, 1);
+                board.setBoard(start);
+                CycleDetector instance = new CycleDetector(board);
+                for (int i = 0; i < 60; i++) {
+                    board.nextGenerationConcurrent();
+                    instance.update();
+                    if (!dynamic) {
+                        assertEquals(type + " generation " + i,
+                                CycleDetector.hash(board), instance.getHash());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that the incrementally updated hash matches a hash computed from
+     * scratch on a Generations board, where cells pass through several dying
+     * states, and that the dying states are part of the hash.
+     */
+    @Test
+    public void testUpdateGenerations() {
+        System.out.println("updateGenerations");
+        Rules rules = Rules.getInstance();
+        rules.setDynamic(false);
+        rules.setGenerationsRule(new GenerationsRule(1 << 2, 0, 4));
+        try {
+            Random random = new Random(7);
+            byte[][] start = new byte[40][40];
+            for (int row = 0; row < start.length; row++) {
+                for (int col = 0; col < start[row].length; col++) {
+                    start[row][col] = (byte) random.nextInt(4);
+                }
+            }
+            BoardGenerations board = new BoardGenerations(1, 1);
+            board.setBoard(start);
+            CycleDetector instance = new CycleDetector(board);
+            assertEquals(CycleDetector.hash(board), instance.getHash());
+            for (int i = 0; i < 50; i++) {
+                board.nextGenerationConcurrent();
+                instance.update();
+                assertEquals("generation " + i, CycleDetector.hash(board), instance.getHash());
+            }
+
+            BoardGenerations alive = new BoardGenerations(1, 1);
+            alive.setBoard(new byte[][]{{1, 0}});
+            BoardGenerations dying = new BoardGenerations(1, 1);
+            dying.setBoard(new byte[][]{{1, 2}});
+            assertNotEquals(CycleDetector.hash(alive), CycleDetector.hash(dying));
+        } finally {
+            rules.setGenerationsRule(GenerationsRule.CONWAY);
+        }
+    }
+
+    /**
+     * Test detection of an oscillator, a still life and a spaceship.
+     */
+    @Test
+    public void testIsCycleDetected() {
+        System.out.println("isCycleDetected");
+        Rules.getInstance().setDynamic(true);
+
+        // blinker, period 2.
+        AbstractBoard board = createBoard(new byte[][]{{0, 0, 0}, {1, 1, 1}, {0, 0, 0}});
+        CycleDetector instance = new CycleDetector(board);
+        board.nextGeneration();
+        assertFalse(instance.update());
+        board.nextGeneration();
+        assertTrue(instance.update());
+        assertTrue(instance.isExactCycle());
+        assertEquals(2, instance.getPeriod());
+        assertEquals(0, instance.getCycleStart());
+
+        // block, period 1.
+        board = createBoard(new byte[][]{{1, 1}, {1, 1}});
+        instance = new CycleDetector(board);
+        board.nextGeneration();
+        assertTrue(instance.update());
+        assertEquals(1, instance.getPeriod());
+
+        // glider moving down and right, period 4.
+        board = createBoard(new byte[][]{{0, 1, 0}, {0, 0, 1}, {1, 1, 1}});
+        instance = new CycleDetector(board);
+        for (int i = 0; i < 3; i++) {
+            board.nextGeneration();
+            assertFalse(instance.update());
+        }
+        board.nextGeneration();
+        assertTrue(instance.update());
+        assertFalse(instance.isExactCycle());
+        assertEquals(4, instance.getPeriod());
+        assertEquals(1, instance.getRowDisplacement());
+        assertEquals(1, instance.getColDisplacement());
+    }
+
+    /**
+     * Test that skipping ahead in an exact cycle gives the same board as
+     * computing every generation.
+     */
+    @Test
+    public void testSkipAhead() {
+        System.out.println("skipAhead");
+        Rules.getInstance().setDynamic(false);
+        byte[][] start = new byte[30][30];
+        // a row of ten cells, which becomes a pentadecathlon of period 15.
+        for (int col = 10; col < 20; col++) {
+            start[15][col] = 1;
+        }
+        AbstractBoard board = createBoard(start);
+        AbstractBoard expected = board.deepCopy();
+
+        CycleDetector instance = new CycleDetector(board);
+        while (!instance.isCycleDetected()) {
+            board.nextGeneration();
+            instance.update();
+        }
+        assertTrue(instance.isExactCycle());
+
+        int period = instance.getPeriod();
+        assertEquals(15, period);
+        long computed = instance.skipAhead(1000);
+        assertEquals(1000 % period, computed);
+        expected.advance(board.getGenerationCount());
+        assertEquals(expected.getGenerationCount(), board.getGenerationCount());
+        assertEquals(expected.toString(), board.toString());
+    }
+
+    private static AbstractBoard createBoard(byte[][] cells) {
+        AbstractBoard board = new BoardDynamic(1, 1);
+        board.setBoard(cells);
+        return board;
+    }
+}
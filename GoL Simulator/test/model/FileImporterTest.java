@@ -236,4 +236,40 @@ public class FileImporterTest {
         assertNotNull(caught);
         assertSame(PatternFormatException.class, caught.getClass());
     }
+
+    @Test
+    public void testRleIsotropicRule() throws Exception {
+        System.out.println("Testing RLE with an isotropic non-totalistic rule.");
+        FileImporter instance = new FileImporter();
+
+        File f = Paths.get("test/model/testPatterns/RLE/isotropic.rle").toFile();
+        BoardDynamic result = instance.readGameBoardFromDisk(f);
+
+        assertEquals("010001111", result.toString());
+        assertEquals("B3-k/S2a3", rules.getIsotropicRule().toString());
+        assertEquals(BoardType.ISOTROPIC, rules.getBoardType());
+
+        // outer-totalistic rules also set the isotropic rule.
+        f = Paths.get("test/model/testPatterns/RLE/octagon2.rle").toFile();
+        instance.readGameBoardFromDisk(f);
+        assertEquals(IsotropicRule.CONWAY, rules.getIsotropicRule());
+        rules.setBoardType(BoardType.DYNAMIC);
+    }
+
+    @Test
+    public void testRleGenerations() throws Exception {
+        System.out.println("Testing RLE with a Generations rule and dying cells.");
+        FileImporter instance = new FileImporter();
+
+        File f = Paths.get("test/model/testPatterns/RLE/briansbrain.rle").toFile();
+        BoardDynamic result = instance.readGameBoardFromDisk(f);
+
+        assertEquals("0112000000" + "22110", result.toString());
+        assertEquals(GenerationsRule.BRIANS_BRAIN, rules.getGenerationsRule());
+        assertEquals(BoardType.GENERATIONS, rules.getBoardType());
+        AbstractBoard board = BoardType.GENERATIONS.convert(result);
+        assertEquals(result.toString(), board.toString());
+        rules.setBoardType(BoardType.DYNAMIC);
+        rules.setGenerationsRule(GenerationsRule.CONWAY);
+    }
 }
@@ -0,0 +1,215 @@
+package model;
+
+import java.util.Random;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class HashLifeTest {
+
+    public HashLifeTest() {
+    }
+
+    @After
+    public void tearDown() {
+        Rules rules = Rules.getInstance();
+        rules.setSurviveRules(2, 3);
+        rules.setBirthRules(3);
+        rules.setDynamic(true);
+    }
+
+    /**
+     * Test that step() gives the same result as BoardDynamic with dynamic
+     * rules, which also lets the pattern grow without limit.
+     */
+    @Test
+    public void testStepMatchesBoardDynamic() {
+        System.out.println("step");
+        int[][][] ruleSets = {
+            {{2, 3}, {3}},
+            {{2, 3}, {3, 6}}
+        };
+        for (int[][] ruleSet : ruleSets) {
+            Rules rules = Rules.getInstance();
+            rules.setDynamic(true);
+            rules.setSurviveRules(ruleSet[0]);
+            rules.setBirthRules(ruleSet[1]);
+
+            Random random = new Random(3);
+            byte[][] start = new byte[20][25];
+            for (int row = 0; row < start.length; row++) {
+                for (int col = 0; col < start[row].length; col++) {
+                    start[row][col] = (byte) (random.nextInt(3) == 0 ? 1 : 0);
+                }
+            }
+            BoardDynamic expected = new BoardDynamic();
+            expected.setBoard(start);
+            HashLife instance = new HashLife(expected);
+
+            int generations = 0;
+            for (int exponent = 0; exponent < 6; exponent++) {
+                instance.step(exponent);
+                for (int i = 0; i < (1 << exponent); i++) {
+                    expected.nextGeneration();
+                }
+                generations += 1 << exponent;
+                assertEquals(generations, instance.getGenerationCount());
+                assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+                // the dynamic board expands north and west, so compare the
+                // living cells after cropping both to their bounding box.
+                assertEquals(crop(expected), instance.exportBoard().toString());
+            }
+        }
+    }
+
+    /**
+     * Test that a glider moves one cell diagonally every four generations,
+     * also far beyond the original board.
+     */
+    @Test
+    public void testGliderAdvance() {
+        System.out.println("advance");
+        BoardDynamic board = new BoardDynamic(5, 5);
+        byte[][] glider = {
+            {0, 1, 0, 0, 0},
+            {0, 0, 1, 0, 0},
+            {1, 1, 1, 0, 0},
+            {0, 0, 0, 0, 0},
+            {0, 0, 0, 0, 0}
+        };
+        board.setBoard(glider);
+        HashLife instance = new HashLife(board);
+        instance.advance(4000000);
+        assertEquals(4000000, instance.getGenerationCount());
+        assertEquals(5, instance.getLivingCellCount());
+        assertArrayEquals(new long[]{1000000, 1000000, 1000002, 1000002}, instance.getBoundingBox());
+        assertEquals(1, instance.getCellState(1000000, 1000001));
+        assertEquals(0, instance.getCellState(0, 1));
+
+        BoardDynamic exported = instance.exportBoard(1000000, 1000000, 3, 3);
+        assertEquals("010001111", exported.toString());
+        assertEquals(4000000, exported.getGenerationCount());
+    }
+
+    /**
+     * Test that the node cache is kept below its limit.
+     */
+    @Test
+    public void testSetMaxNodes() {
+        System.out.println("setMaxNodes");
+        BoardDynamic board = new BoardDynamic(3, 3);
+        board.setBoard(new byte[][]{{0, 1, 0}, {0, 1, 0}, {0, 1, 0}});
+        HashLife instance = new HashLife(board);
+        instance.setMaxNodes(50);
+        assertEquals(50, instance.getMaxNodes());
+        instance.step(20);
+        assertTrue(instance.getNodeCount() <= 50);
+        // a blinker has period 2, so it is unchanged after 2^20 generations.
+        assertEquals("010010010", instance.exportBoard(0, 0, 3, 3).toString());
+        assertEquals(3, instance.getLivingCellCount());
+    }
+
+    /**
+     * Test that a jump which creates many more nodes than the limit still
+     * gives the right result when the cache is collected during the jump.
+     */
+    @Test
+    public void testSetMaxNodesDuringJump() {
+        System.out.println("setMaxNodesDuringJump");
+        Random random = new Random(5);
+        byte[][] start = new byte[30][30];
+        for (int row = 0; row < start.length; row++) {
+            for (int col = 0; col < start[row].length; col++) {
+                start[row][col] = (byte) (random.nextInt(3) == 0 ? 1 : 0);
+            }
+        }
+        BoardDynamic expected = new BoardDynamic();
+        expected.setBoard(start);
+        HashLife instance = new HashLife(expected);
+        instance.setMaxNodes(2000);
+        instance.step(8);
+        for (int i = 0; i < 256; i++) {
+            expected.nextGeneration();
+        }
+        assertEquals(expected.getLivingCellCount(), instance.getLivingCellCount());
+        assertEquals(crop(expected), instance.exportBoard().toString());
+        assertTrue(instance.getNodeCount() <= 2000);
+    }
+
+    /**
+     * Test that a cancelled jump leaves the universe as it was.
+     */
+    @Test
+    public void testStepCancelled() {
+        System.out.println("stepCancelled");
+        BoardDynamic board = new BoardDynamic(3, 3);
+        board.setBoard(new byte[][]{{0, 0, 0}, {1, 1, 1}, {0, 0, 0}});
+        HashLife instance = new HashLife(board);
+        assertFalse(instance.step(1, () -> true));
+        assertEquals(0, instance.getGenerationCount());
+        assertEquals("000111000", instance.exportBoard(0, 0, 3, 3).toString());
+        assertTrue(instance.step(1, () -> false));
+        assertEquals(2, instance.getGenerationCount());
+        assertEquals("000111000", instance.exportBoard(0, 0, 3, 3).toString());
+    }
+
+    /**
+     * Test that rules where cells are born with 0 neighbours are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedRules() {
+        System.out.println("unsupportedRules");
+        Rules.getInstance().setBirthRules(0, 3);
+        new HashLife(new BoardDynamic(3, 3));
+    }
+
+    /**
+     * Test that board engines playing by other rules than the birth and
+     * survival rules are rejected.
+     */
+    @Test
+    public void testUnsupportedBoardType() {
+        System.out.println("unsupportedBoardType");
+        Rules rules = Rules.getInstance();
+        for (BoardType boardType : new BoardType[]{BoardType.GENERATIONS,
+            BoardType.ISOTROPIC, BoardType.LARGER_THAN_LIFE}) {
+            rules.setBoardType(boardType);
+            try {
+                new HashLife(boardType.createBoard(3, 3));
+                fail("HashLife accepted the " + boardType + " board engine");
+            } catch (IllegalArgumentException e) {
+                // expected
+            } finally {
+                rules.setBoardType(BoardType.DYNAMIC);
+            }
+        }
+    }
+
+    /**
+     * Crops a board to the bounding box of its living cells, plus a border of
+     * one dead cell, the same way HashLife.exportBoard() does.
+     */
+    private String crop(AbstractBoard board) {
+        int top = board.getRows(), left = board.getCols(), bottom = -1, right = -1;
+        for (int row = 0; row < board.getRows(); row++) {
+            for (int col = 0; col < board.getCols(); col++) {
+                if (board.getCellState(row, col) == 1) {
+                    top = Math.min(top, row);
+                    left = Math.min(left, col);
+                    bottom = Math.max(bottom, row);
+                    right = Math.max(right, col);
+                }
+            }
+        }
+        if (bottom == -1) {
+            return "0";
+        }
+        StringBuilder cells = new StringBuilder();
+        for (int row = top - 1; row <= bottom + 1; row++) {
+            for (int col = left - 1; col <= right + 1; col++) {
+                cells.append(board.isWithinBoard(row, col) ? board.getCellState(row, col) : 0);
+            }
+        }
+        return cells.toString();
+    }
+}
@@ -45,6 +45,27 @@ public class RulesTest {
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of setToroidal method, of class Rules. A board is either static,
+     * dynamic or toroidal.
+     */
+    @Test
+    public void testSetToroidal() {
+        System.out.println("setToroidal");
+        Rules instance = Rules.getInstance();
+        instance.setDynamic(true);
+        instance.setToroidal(true);
+        assertTrue(instance.isToroidal());
+        assertFalse(instance.isDynamic());
+        instance.setDynamic(false);
+        assertFalse(instance.isToroidal());
+        assertFalse(instance.isDynamic());
+        instance.setToroidal(true);
+        instance.setDynamic(true);
+        assertFalse(instance.isToroidal());
+        assertTrue(instance.isDynamic());
+    }
+
     /**
      * Test of setSurviveRules method, of class Rules.
      */
@@ -171,4 +192,92 @@ public class RulesTest {
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of setBoardType method, of class Rules.
+     */
+    @Test
+    public void testSetBoardType() {
+        System.out.println("setBoardType");
+        Rules instance = Rules.getInstance();
+        instance.setBoardType(BoardType.PACKED);
+        assertEquals(BoardType.PACKED, instance.getBoardType());
+        instance.setBoardType(BoardType.DYNAMIC);
+        assertEquals(BoardType.DYNAMIC, instance.getBoardType());
+    }
+
+    /**
+     * Test that toroidal rules are only kept with board engines that support
+     * them, and that the board is static otherwise.
+     */
+    @Test
+    public void testToroidalBoardType() {
+        System.out.println("toroidalBoardType");
+        Rules instance = Rules.getInstance();
+        instance.setToroidal(true);
+        instance.setBoardType(BoardType.DENSE);
+        assertTrue(instance.isToroidal());
+        instance.setBoardType(BoardType.PACKED);
+        assertFalse(instance.isToroidal());
+        assertFalse(instance.isDynamic());
+        instance.setToroidal(true);
+        assertFalse(instance.isToroidal());
+        assertFalse(instance.isDynamic());
+        instance.setBoardType(BoardType.DYNAMIC);
+        instance.setDynamic(true);
+    }
+
+    /**
+     * Test of getRuleSet method, of class Rules.
+     */
+    @Test
+    public void testGetRuleSet() {
+        System.out.println("getRuleSet");
+        Rules instance = Rules.getInstance();
+        instance.setSurviveRules(2, 3);
+        instance.setBirthRules(3, 6);
+        RuleSet before = instance.getRuleSet();
+        assertEquals("B36/S23", before.toString());
+        assertTrue(before.isBorn(6));
+        assertFalse(before.isBorn(2));
+        assertTrue(before.survives(2));
+        assertEquals(1, before.nextState(0, 3));
+        assertEquals(0, before.nextState(1, 4));
+
+        // changing the rules publishes a new rule set, and does not alter
+        // the rule set already handed out.
+        instance.setBirthRules(3);
+        assertEquals("B36/S23", before.toString());
+        assertEquals(new RuleSet(1 << 3, (1 << 2) | (1 << 3)), instance.getRuleSet());
+
+        // lists returned by the getters do not alter the rules.
+        instance.getBirthRules().add(0);
+        assertFalse(instance.getRuleSet().isBorn(0));
+    }
+
+    /**
+     * Test of setLargerThanLifeRule method, of class Rules, and of parsing
+     * Larger than Life rules.
+     */
+    @Test
+    public void testSetLargerThanLifeRule() {
+        System.out.println("setLargerThanLifeRule");
+        Rules instance = Rules.getInstance();
+        LargerThanLifeRule rule = LargerThanLifeRule.parse("r2, s3..7, b4");
+        instance.setLargerThanLifeRule(rule);
+        assertEquals("R2,C0,M0,S3..7,B4..4,NM", instance.getLargerThanLifeRule().toString());
+        assertTrue(rule.survives(7));
+        assertFalse(rule.isBorn(5));
+        assertEquals(LargerThanLifeRule.BOSCO,
+                LargerThanLifeRule.parse(LargerThanLifeRule.BOSCO.toString()));
+
+        String[] invalid = {"", "R0,S1,B1", "R2,S1", "R2,C3,S1,B1", "R2,S1,B1,NN", "R2,S1..x,B1"};
+        for (String text : invalid) {
+            try {
+                LargerThanLifeRule.parse(text);
+                fail(text + " was parsed");
+            } catch (IllegalArgumentException e) {
+            }
+        }
+        instance.setLargerThanLifeRule(LargerThanLifeRule.BOSCO);
+    }
 }
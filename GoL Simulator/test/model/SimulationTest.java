@@ -0,0 +1,296 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SimulationTest {
+
+    private Simulation instance;
+
+    public SimulationTest() {
+    }
+
+    @After
+    public void tearDown() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+        Rules.getInstance().setDynamic(true);
+    }
+
+    private BoardDense createBlinker() {
+        BoardDense board = new BoardDense(5, 5);
+        board.setBoard(new byte[][]{
+            {0, 0, 0, 0, 0},
+            {0, 0, 1, 0, 0},
+            {0, 0, 1, 0, 0},
+            {0, 0, 1, 0, 0},
+            {0, 0, 0, 0, 0}
+        });
+        return board;
+    }
+
+    /**
+     * Test of step method, of class Simulation. The generation is computed
+     * before step returns, and published as a frame holding a copy of the
+     * board.
+     */
+    @Test
+    public void testStep() {
+        System.out.println("step");
+        Rules.getInstance().setDynamic(false);
+        BoardDense board = createBlinker();
+        instance = new Simulation(board);
+        instance.step();
+        assertEquals(1, board.getGenerationCount());
+
+        Simulation.Frame frame = instance.takeFrame();
+        assertNotNull(frame);
+        assertEquals(1, frame.getGenerations());
+        assertNotSame(board, frame.getBoard());
+        assertEquals(board.toString(), frame.getBoard().toString());
+        assertEquals(1, frame.getBoard().getGenerationCount());
+        assertNull(instance.takeFrame());
+
+        // the frame is a copy, which does not change with the board.
+        instance.step();
+        assertEquals(1, frame.getBoard().getGenerationCount());
+        assertEquals(2, board.getGenerationCount());
+    }
+
+    /**
+     * Test that steps taking over the generation computed in advance match
+     * a board advanced directly, and that edits reported through boardEdited
+     * discard the generation computed in advance.
+     */
+    @Test
+    public void testStepInAdvance() throws InterruptedException {
+        System.out.println("stepInAdvance");
+        Rules.getInstance().setDynamic(true);
+        BoardDynamic[] boards = {new BoardDynamic(40, 40), new BoardDynamic(40, 40)};
+        for (BoardDynamic b : boards) {
+            b.setCellStateAlive(10, 11);
+            b.setCellStateAlive(11, 12);
+            b.setCellStateAlive(12, 10);
+            b.setCellStateAlive(12, 11);
+            b.setCellStateAlive(12, 12);
+        }
+        BoardDynamic expected = boards[0];
+        BoardDynamic board = boards[1];
+        instance = new Simulation(board);
+
+        for (int i = 0; i < 30; i++) {
+            // give the simulation thread time to compute in advance.
+            Thread.sleep(i % 2 == 0 ? 5 : 0);
+            if (i % 7 == 6) {
+                expected.toggleCellState(5, 5);
+                board.toggleCellState(5, 5);
+                instance.boardEdited();
+            }
+            expected.nextGeneration();
+            instance.step();
+            assertEquals(expected.toString(), board.toString());
+            assertEquals(expected.getGenerationCount(), board.getGenerationCount());
+            assertEquals(expected.getChangedCells(), board.getChangedCells());
+            Simulation.Frame frame = instance.takeFrame();
+            assertEquals(expected.toString(), frame.getBoard().toString());
+        }
+    }
+
+    /**
+     * Test of play and pause methods, of class Simulation. After pausing, the
+     * frames taken add up to every generation computed, and the last frame
+     * matches the board.
+     */
+    @Test
+    public void testPlayAndPause() throws InterruptedException {
+        System.out.println("playAndPause");
+        Rules.getInstance().setDynamic(false);
+        BoardDense board = createBlinker();
+        instance = new Simulation(board);
+        instance.setGenerationsPerSecond(Double.POSITIVE_INFINITY);
+        instance.play();
+        assertTrue(instance.isPlaying());
+
+        int generations = 0;
+        Simulation.Frame last = null;
+        long end = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < end) {
+            Simulation.Frame frame = instance.takeFrame();
+            if (frame != null) {
+                generations += frame.getGenerations();
+                assertEquals(generations, frame.getBoard().getGenerationCount());
+                last = frame;
+            }
+            Thread.sleep(1);
+        }
+        instance.pause();
+        assertFalse(instance.isPlaying());
+        Simulation.Frame frame = instance.takeFrame();
+        if (frame != null) {
+            generations += frame.getGenerations();
+            last = frame;
+        }
+        assertNotNull(last);
+        assertEquals(board.getGenerationCount(), generations);
+        assertEquals(board.toString(), last.getBoard().toString());
+        assertTrue(generations > 100);
+
+        // the board is not changed while paused.
+        Thread.sleep(20);
+        assertEquals(generations, board.getGenerationCount());
+    }
+
+    /**
+     * Test that a speed above the frame rate is reached by computing several
+     * generations per frame, and of getAchievedGenerationsPerSecond.
+     */
+    @Test
+    public void testAchievedGenerationsPerSecond() throws InterruptedException {
+        System.out.println("achievedGenerationsPerSecond");
+        Rules.getInstance().setDynamic(false);
+        BoardDense board = createBlinker();
+        instance = new Simulation(board);
+        instance.setGenerationsPerSecond(1000);
+        assertEquals(0, instance.getAchievedGenerationsPerSecond(), 0);
+        instance.play();
+
+        // take frames at about 20 frames per second.
+        int frames = 0;
+        int generations = 0;
+        long end = System.currentTimeMillis() + 1200;
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+            Simulation.Frame frame = instance.takeFrame();
+            if (frame != null) {
+                frames++;
+                generations += frame.getGenerations();
+            }
+        }
+        double achieved = instance.getAchievedGenerationsPerSecond();
+        instance.pause();
+        assertTrue(generations > frames * 10);
+        assertTrue(achieved > 800 && achieved < 1200);
+        assertTrue(board.getGenerationCount() < 1500);
+        assertEquals(0, instance.getAchievedGenerationsPerSecond(), 0);
+    }
+
+    /**
+     * Test that checking and stopping a playing simulation does not wait for
+     * the batch of generations being computed.
+     */
+    @Test
+    public void testPauseDuringBatch() throws InterruptedException {
+        System.out.println("pauseDuringBatch");
+        Rules.getInstance().setDynamic(false);
+        BoardDense board = new BoardDense(1000, 1000);
+        for (int row = 0; row < 1000; row += 3) {
+            for (int col = 0; col < 1000; col++) {
+                board.setCellStateAlive(row, col);
+            }
+        }
+        instance = new Simulation(board);
+        instance.setGenerationsPerSecond(Double.POSITIVE_INFINITY);
+        instance.play();
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(instance.isPlaying());
+            instance.setGenerationsPerSecond(Double.POSITIVE_INFINITY);
+        }
+        // waiting for the batch would take at least a frame per call.
+        assertTrue(System.nanoTime() - start < 500000000L);
+        instance.pause();
+        assertFalse(instance.isPlaying());
+        int generations = board.getGenerationCount();
+        Thread.sleep(20);
+        assertEquals(generations, board.getGenerationCount());
+    }
+
+    /**
+     * Test of edit method, of class Simulation. Edits made by several threads
+     * while playing are all applied in the order each thread made them,
+     * without pausing the simulation, and edits made while paused are applied
+     * at once.
+     */
+    @Test
+    public void testEdit() throws InterruptedException {
+        System.out.println("edit");
+        Rules.getInstance().setDynamic(false);
+        BoardDense board = createBlinker();
+        instance = new Simulation(board);
+        instance.setGenerationsPerSecond(Double.POSITIVE_INFINITY);
+        instance.play();
+
+        List<Integer> applied = new ArrayList<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    int edit = thread * 1000 + i;
+                    instance.edit(b -> applied.add(edit));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Thread.sleep(20);
+        assertTrue(instance.isPlaying());
+        instance.pause();
+        int generations = board.getGenerationCount();
+        assertTrue(generations > 0);
+
+        assertEquals(4000, applied.size());
+        int[] last = {-1, -1, -1, -1};
+        for (int edit : applied) {
+            assertTrue(edit % 1000 > last[edit / 1000]);
+            last[edit / 1000] = edit % 1000;
+        }
+
+        // the last frame shows the edits, which are not in the change log.
+        Simulation.Frame frame = instance.takeFrame();
+        assertTrue(frame.isEdited());
+        instance.edit(b -> b.setCellStateAlive(0, 0));
+        assertEquals(1, board.getCellState(0, 0));
+        assertEquals(generations, board.getGenerationCount());
+    }
+
+    /**
+     * Test that the simulation pauses when the generation listener asks for
+     * it, and that frames report the rows and columns the board shifted.
+     */
+    @Test
+    public void testGenerationListener() throws InterruptedException {
+        System.out.println("generationListener");
+        Rules.getInstance().setDynamic(true);
+        BoardDense board = createBlinker();
+        instance = new Simulation(board);
+        instance.setGenerationsPerSecond(Double.POSITIVE_INFINITY);
+        instance.setGenerationListener(b -> b.getGenerationCount() == 5);
+        instance.play();
+        long end = System.currentTimeMillis() + 5000;
+        while (instance.isPlaying() && System.currentTimeMillis() < end) {
+            Thread.sleep(1);
+        }
+        assertFalse(instance.isPlaying());
+        assertEquals(5, board.getGenerationCount());
+
+        // a blinker grows the board once it reaches the north edge.
+        BoardDense edge = new BoardDense(3, 5);
+        edge.setBoard(new byte[][]{{0, 1, 1, 1, 0}, {0, 0, 0, 0, 0}, {0, 0, 0, 0, 0}});
+        instance.takeFrame();
+        instance.setBoard(edge);
+        instance.setGenerationListener(null);
+        instance.step();
+        Simulation.Frame frame = instance.takeFrame();
+        assertEquals(1, frame.getRowShift());
+        assertEquals(0, frame.getColShift());
+    }
+}
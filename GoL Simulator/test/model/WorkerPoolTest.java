@@ -0,0 +1,72 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class WorkerPoolTest {
+
+    public WorkerPoolTest() {
+    }
+
+    /**
+     * Test that runTasks() runs every task exactly once, also when called
+     * many times in a row.
+     */
+    @Test
+    public void testRunTasks() {
+        System.out.println("runTasks");
+        WorkerPool instance = new WorkerPool(3);
+        assertEquals(4, instance.getParallelism());
+        for (int run = 0; run < 1000; run++) {
+            AtomicIntegerArray counts = new AtomicIntegerArray(37);
+            instance.runTasks(counts.length(), i -> counts.incrementAndGet(i));
+            for (int i = 0; i < counts.length(); i++) {
+                assertEquals(1, counts.get(i));
+            }
+        }
+        instance.shutdown();
+    }
+
+    /**
+     * Test that an exception thrown by a task is passed on to the caller, and
+     * that the pool can still be used afterwards.
+     */
+    @Test
+    public void testRunTasksFailure() {
+        System.out.println("runTasksFailure");
+        WorkerPool instance = new WorkerPool(2);
+        try {
+            instance.runTasks(10, i -> {
+                if (i == 5) {
+                    throw new IllegalStateException("task failed");
+                }
+            });
+            fail("Expected an exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        AtomicIntegerArray counts = new AtomicIntegerArray(10);
+        instance.runTasks(counts.length(), i -> counts.incrementAndGet(i));
+        assertEquals(1, counts.get(9));
+        instance.shutdown();
+    }
+
+    /**
+     * Test that tasks run on the calling thread after shutdown().
+     */
+    @Test
+    public void testShutdown() {
+        System.out.println("shutdown");
+        WorkerPool instance = new WorkerPool(2);
+        instance.shutdown();
+        assertTrue(instance.isShutdown());
+        Thread caller = Thread.currentThread();
+        AtomicIntegerArray counts = new AtomicIntegerArray(4);
+        instance.runTasks(counts.length(), i -> {
+            assertSame(caller, Thread.currentThread());
+            counts.incrementAndGet(i);
+        });
+        assertEquals(1, counts.get(3));
+    }
+}